@@ -1,6 +1,7 @@
 package com.baidu.disconf.client;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -18,6 +19,11 @@ import com.baidu.disconf.client.scan.ScanMgr;
 import com.baidu.disconf.client.store.DisconfStoreProcessorFactory;
 import com.baidu.disconf.client.support.registry.Registry;
 import com.baidu.disconf.client.support.registry.RegistryFactory;
+import com.baidu.disconf.core.common.log.AccessLog;
+import com.baidu.disconf.core.common.metrics.Gauge;
+import com.baidu.disconf.core.common.metrics.MetricsNames;
+import com.baidu.disconf.core.common.metrics.MetricsRegistry;
+import com.baidu.disconf.core.common.metrics.Timer;
 
 /**
  * Disconf Client 总入口
@@ -29,6 +35,15 @@ public class DisconfMgr implements ApplicationContextAware {
 
     protected static final Logger LOGGER = LoggerFactory.getLogger(DisconfMgr.class);
 
+    // JMX 名称
+    public static final String METRICS_OBJECT_NAME = "com.baidu.disconf:type=DisconfClient";
+    public static final String ACCESS_LOG_OBJECT_NAME = "com.baidu.disconf:type=DisconfClientAccessLog";
+
+    // 启动阶段
+    private static final String[] STARTUP_PHASES = {MetricsNames.PHASE_SCAN, MetricsNames.PHASE_FETCH,
+                                                    MetricsNames.PHASE_PARSE, MetricsNames.PHASE_INJECT,
+                                                    MetricsNames.PHASE_WATCH};
+
     // 本实例不能初始化两次
     private boolean isFirstInit = false;
     private boolean isSecondInit = false;
@@ -42,6 +57,9 @@ public class DisconfMgr implements ApplicationContextAware {
     // scan mgr
     private ScanMgr scanMgr = null;
 
+    // 启动开始时间
+    private long startupNanos = 0;
+
     protected static final DisconfMgr INSTANCE = new DisconfMgr();
 
     public static DisconfMgr getInstance() {
@@ -79,9 +97,18 @@ public class DisconfMgr implements ApplicationContextAware {
 
         try {
 
+            startupNanos = Timer.start();
+
             // 导入配置
             ConfigMgr.init();
 
+            AccessLog.getInstance().setDefaultRate(DisClientConfig.getInstance().accessLogRate);
+
+            if (DisClientConfig.getInstance().enableMetricsJmx) {
+                MetricsRegistry.getInstance().registerMBean(METRICS_OBJECT_NAME);
+                AccessLog.getInstance().registerMBean(ACCESS_LOG_OBJECT_NAME);
+            }
+
             LOGGER.info("******************************* DISCONF START FIRST SCAN *******************************");
 
             // registry
@@ -91,7 +118,9 @@ public class DisconfMgr implements ApplicationContextAware {
             scanMgr = ScanFactory.getScanMgr(registry);
 
             // 第一次扫描并入库
+            long scanStart = Timer.start();
             scanMgr.firstScan(scanPackageList);
+            MetricsRegistry.getInstance().timer(MetricsNames.PHASE_SCAN).stop(scanStart);
 
             // 获取数据/注入/Watch
             disconfCoreMgr = DisconfCoreFactory.getDisconfCoreMgr(registry);
@@ -131,7 +160,9 @@ public class DisconfMgr implements ApplicationContextAware {
 
             // 扫描回调函数
             if (scanMgr != null) {
+                long scanStart = Timer.start();
                 scanMgr.secondScan();
+                MetricsRegistry.getInstance().timer(MetricsNames.PHASE_SCAN).stop(scanStart);
             }
 
             // 注入数据至配置实体中
@@ -146,6 +177,8 @@ public class DisconfMgr implements ApplicationContextAware {
 
         isSecondInit = true;
 
+        recordStartupMetrics();
+
         //
         // 不开启 则不要打印变量map
         //
@@ -168,6 +201,32 @@ public class DisconfMgr implements ApplicationContextAware {
         LOGGER.info("******************************* DISCONF END *******************************");
     }
 
+    /**
+     * 记录启动耗时, 以及启动过程中各阶段的累计耗时
+     */
+    private void recordStartupMetrics() {
+
+        MetricsRegistry metricsRegistry = MetricsRegistry.getInstance();
+
+        long totalNanos = metricsRegistry.timer(MetricsNames.STARTUP_TOTAL).stop(startupNanos);
+
+        StringBuilder sb = new StringBuilder();
+        for (String phase : STARTUP_PHASES) {
+
+            final long phaseMillis = metricsRegistry.timer(phase).getTotalMillis();
+            String name = MetricsNames.STARTUP_PREFIX + phase.substring(MetricsNames.PHASE_PREFIX.length());
+            metricsRegistry.gauge(name, new Gauge() {
+                @Override
+                public long getValue() {
+                    return phaseMillis;
+                }
+            });
+            sb.append(name).append("=").append(phaseMillis).append("ms ");
+        }
+
+        LOGGER.info("disconf startup cost {}ms: {}", TimeUnit.NANOSECONDS.toMillis(totalNanos), sb.toString());
+    }
+
     /**
      * reloadable config file scan, for xml config
      */
@@ -212,6 +271,9 @@ public class DisconfMgr implements ApplicationContextAware {
                 disconfCoreMgr.release();
             }
 
+            MetricsRegistry.getInstance().unregisterMBean();
+            AccessLog.getInstance().unregisterMBean();
+
             // close, 必须将其设置为False,以便重新更新
             isFirstInit = false;
             isSecondInit = false;
@@ -34,6 +34,10 @@ public abstract class DelegatingProperties extends Properties {
         return getDelegate().propertyNames();
     }
 
+    public Set<String> stringPropertyNames() {
+        return getDelegate().stringPropertyNames();
+    }
+
     public void save(OutputStream out, String header) {
         getDelegate().save(out, header);
     }
@@ -0,0 +1,111 @@
+package com.baidu.disconf.client.addons.properties;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * placeholder 之间的依赖关系
+ * <p/>
+ * 例如 a=${b}-${c}, 则 a 依赖 b 和 c. 当 b 变化时, 所有直接或间接依赖 b 的 placeholder 都需要重新解析
+ */
+public class PlaceholderDependencyGraph {
+
+    // key -> 它所引用的 placeholder
+    private final Map<String, Set<String>> dependencies = new HashMap<String, Set<String>>();
+
+    // placeholder -> 引用它的 key
+    private final Map<String, Set<String>> dependents = new HashMap<String, Set<String>>();
+
+    /**
+     * 清空
+     */
+    public synchronized void clear() {
+        dependencies.clear();
+        dependents.clear();
+    }
+
+    /**
+     * 设置某个key的依赖, 会覆盖之前的依赖
+     *
+     * @param key
+     * @param placeholders key的值中引用的placeholder, 为空表示没有依赖
+     */
+    public synchronized void setDependencies(String key, Collection<String> placeholders) {
+
+        Set<String> old = dependencies.remove(key);
+        if (old != null) {
+            for (String placeholder : old) {
+                Set<String> keys = dependents.get(placeholder);
+                if (keys != null) {
+                    keys.remove(key);
+                    if (keys.isEmpty()) {
+                        dependents.remove(placeholder);
+                    }
+                }
+            }
+        }
+
+        if (placeholders == null || placeholders.isEmpty()) {
+            return;
+        }
+
+        dependencies.put(key, new HashSet<String>(placeholders));
+        for (String placeholder : placeholders) {
+            Set<String> keys = dependents.get(placeholder);
+            if (keys == null) {
+                keys = new HashSet<String>();
+                dependents.put(placeholder, keys);
+            }
+            keys.add(key);
+        }
+    }
+
+    /**
+     * 获取某个key直接引用的placeholder
+     */
+    public synchronized Set<String> getDependencies(String key) {
+
+        Set<String> placeholders = dependencies.get(key);
+        if (placeholders == null) {
+            return Collections.emptySet();
+        }
+        return new HashSet<String>(placeholders);
+    }
+
+    /**
+     * 获取变化的key的传递闭包: 变化的key本身, 以及所有直接或间接依赖它们的key
+     *
+     * @param changedKeys
+     *
+     * @return
+     */
+    public synchronized Set<String> getAffectedKeys(Collection<String> changedKeys) {
+
+        Set<String> affected = new LinkedHashSet<String>(changedKeys);
+        Deque<String> queue = new ArrayDeque<String>(changedKeys);
+
+        while (!queue.isEmpty()) {
+
+            Set<String> keys = dependents.get(queue.poll());
+            if (keys == null) {
+                continue;
+            }
+
+            for (String key : keys) {
+                // 已访问过的不再处理, 同时避免循环引用
+                if (affected.add(key)) {
+                    queue.add(key);
+                }
+            }
+        }
+
+        return affected;
+    }
+}
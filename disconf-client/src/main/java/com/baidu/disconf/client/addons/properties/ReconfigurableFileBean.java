@@ -0,0 +1,19 @@
+package com.baidu.disconf.client.addons.properties;
+
+import java.util.Properties;
+
+/**
+ * 可以直接使用内存中的配置数据进行 reload 的 bean, 不需要再从磁盘读取
+ */
+public interface ReconfigurableFileBean extends ReconfigurableBean {
+
+    /**
+     * @param fileName   配置文件名
+     * @param properties 配置文件的最新内容
+     *
+     * @return 是否托管了此配置文件
+     *
+     * @throws Exception
+     */
+    boolean reloadConfiguration(String fileName, Properties properties) throws Exception;
+}
@@ -1,8 +1,9 @@
 package com.baidu.disconf.client.addons.properties;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Properties;
 import java.util.TimerTask;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,18 +11,22 @@ import org.slf4j.LoggerFactory;
 /**
  * 有两种监控方式
  * 1. 使用timer, 定时进行check
- * 2. 当事件触发时，直调用 ReloadConfigurationMonitor.reload
+ * 2. 当事件触发时，直调用 ReloadConfigurationMonitor.reload, disconf 更新配置时会带上最新的内容
  */
 public class ReloadConfigurationMonitor extends TimerTask {
 
     protected static final Logger logger = LoggerFactory.getLogger(ReloadConfigurationMonitor.class);
 
-    private static List<ReconfigurableBean> reconfigurableBeans = new ArrayList<ReconfigurableBean>();
+    private static List<ReconfigurableBean> reconfigurableBeans = new CopyOnWriteArrayList<ReconfigurableBean>();
 
     public static void addReconfigurableBean(ReconfigurableBean reconfigurableBean) {
         reconfigurableBeans.add(reconfigurableBean);
     }
 
+    public static void removeReconfigurableBean(ReconfigurableBean reconfigurableBean) {
+        reconfigurableBeans.remove(reconfigurableBean);
+    }
+
     public void run() {
         reload();
     }
@@ -36,4 +41,25 @@ public class ReloadConfigurationMonitor extends TimerTask {
             }
         }
     }
+
+    /**
+     * 使用刚获取到的配置文件内容进行 reload, 不支持的 bean 仍然走原来的方式
+     *
+     * @param fileName
+     * @param properties
+     */
+    public static void reload(String fileName, Properties properties) {
+
+        for (ReconfigurableBean bean : reconfigurableBeans) {
+            try {
+                if (bean instanceof ReconfigurableFileBean) {
+                    ((ReconfigurableFileBean) bean).reloadConfiguration(fileName, properties);
+                } else {
+                    bean.reloadConfiguration();
+                }
+            } catch (Exception e) {
+                logger.warn("while reloading configuration of " + bean, e);
+            }
+        }
+    }
 }
@@ -0,0 +1,208 @@
+package com.baidu.disconf.client.addons.properties;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 使用 WatchService 监控被外部修改的配置文件, 替代定时检查 lastModified
+ * <p/>
+ * 所有文件共用一个后台线程, 没有监控任何文件时线程退出
+ */
+public class ReloadableFileWatcher implements Runnable {
+
+    protected static final Logger LOGGER = LoggerFactory.getLogger(ReloadableFileWatcher.class);
+
+    private static final ReloadableFileWatcher INSTANCE = new ReloadableFileWatcher();
+
+    public static ReloadableFileWatcher getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 文件变化的回调
+     */
+    public interface FileChangedListener {
+
+        void fileChanged(File file);
+    }
+
+    private WatchService watchService;
+
+    // 目录 -> watch key
+    private Map<Path, WatchKey> watchKeys = new HashMap<Path, WatchKey>();
+
+    // 文件 -> listener
+    private Map<Path, List<FileChangedListener>> listeners = new HashMap<Path, List<FileChangedListener>>();
+
+    private ReloadableFileWatcher() {
+
+    }
+
+    /**
+     * 监控文件
+     *
+     * @param file
+     * @param listener
+     *
+     * @throws IOException
+     */
+    public synchronized void watch(File file, FileChangedListener listener) throws IOException {
+
+        Path path = file.getAbsoluteFile().toPath().normalize();
+        Path dir = path.getParent();
+
+        if (watchService == null) {
+            watchService = FileSystems.getDefault().newWatchService();
+
+            Thread thread = new Thread(this, "disconf-reloadable-file-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        if (!watchKeys.containsKey(dir)) {
+            // 原子替换文件时是 CREATE 事件, 直接写文件时是 MODIFY 事件
+            watchKeys.put(dir, dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY));
+        }
+
+        List<FileChangedListener> fileListeners = listeners.get(path);
+        if (fileListeners == null) {
+            fileListeners = new ArrayList<FileChangedListener>();
+            listeners.put(path, fileListeners);
+        }
+        fileListeners.add(listener);
+
+        LOGGER.debug("watch reloadable file: " + path);
+    }
+
+    /**
+     * 取消监控
+     *
+     * @param listener
+     */
+    public synchronized void unwatch(FileChangedListener listener) {
+
+        Iterator<Map.Entry<Path, List<FileChangedListener>>> iterator = listeners.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, List<FileChangedListener>> entry = iterator.next();
+            entry.getValue().remove(listener);
+            if (entry.getValue().isEmpty()) {
+                iterator.remove();
+            }
+        }
+
+        // 取消不再需要的目录
+        Iterator<Map.Entry<Path, WatchKey>> keyIterator = watchKeys.entrySet().iterator();
+        while (keyIterator.hasNext()) {
+            Map.Entry<Path, WatchKey> entry = keyIterator.next();
+            if (!hasListener(entry.getKey())) {
+                entry.getValue().cancel();
+                keyIterator.remove();
+            }
+        }
+
+        if (watchKeys.isEmpty() && watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                LOGGER.warn(e.toString());
+            }
+            watchService = null;
+        }
+    }
+
+    private boolean hasListener(Path dir) {
+
+        for (Path path : listeners.keySet()) {
+            if (dir.equals(path.getParent())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void run() {
+
+        WatchService service;
+        synchronized(this) {
+            service = watchService;
+        }
+
+        while (true) {
+
+            WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path dir = (Path) key.watchable();
+
+            for (WatchEvent<?> event : key.pollEvents()) {
+
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    // 事件丢失, 目录下的文件都通知一次
+                    for (Path path : getWatchedFiles(dir)) {
+                        notifyListeners(path);
+                    }
+                    continue;
+                }
+
+                notifyListeners(dir.resolve((Path) event.context()));
+            }
+
+            key.reset();
+        }
+    }
+
+    private synchronized List<Path> getWatchedFiles(Path dir) {
+
+        List<Path> paths = new ArrayList<Path>();
+        for (Path path : listeners.keySet()) {
+            if (dir.equals(path.getParent())) {
+                paths.add(path);
+            }
+        }
+        return paths;
+    }
+
+    private void notifyListeners(Path path) {
+
+        List<FileChangedListener> fileListeners;
+        synchronized(this) {
+            List<FileChangedListener> current = listeners.get(path);
+            if (current == null) {
+                return;
+            }
+            fileListeners = new ArrayList<FileChangedListener>(current);
+        }
+
+        for (FileChangedListener listener : fileListeners) {
+            try {
+                listener.fileChanged(path.toFile());
+            } catch (Exception e) {
+                LOGGER.warn("while reloading file " + path, e);
+            }
+        }
+    }
+}
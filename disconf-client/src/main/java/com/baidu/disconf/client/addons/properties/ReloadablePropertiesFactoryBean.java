@@ -15,7 +15,9 @@ import org.springframework.beans.factory.config.PropertiesFactoryBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
 
 import com.baidu.disconf.client.DisconfMgr;
 
@@ -25,6 +27,11 @@ import com.baidu.disconf.client.DisconfMgr;
  * changed, the properties are read again from the file.
  * <p/>
  * 真正的 reload bean 定义，它可以定义多个 resource 为 reload config file
+ * <p/>
+ * reload 方式:
+ * 1. disconf 更新配置时, 直接使用内存中的最新内容, 只替换变化的那个文件, 不再读磁盘
+ * 2. watchFiles 为 true 时, 使用 WatchService 监控被外部修改的文件
+ * 3. 兼容原来的 ReloadConfigurationMonitor 定时检查 lastModified
  */
 public class ReloadablePropertiesFactoryBean extends PropertiesFactoryBean implements DisposableBean,
         ApplicationContextAware {
@@ -33,10 +40,26 @@ public class ReloadablePropertiesFactoryBean extends PropertiesFactoryBean imple
 
     protected static final Logger log = LoggerFactory.getLogger(ReloadablePropertiesFactoryBean.class);
 
+    private static final String DEFAULT_ENCODING = "utf-8";
+
     private Resource[] locations;
     private long[] lastModified;
     private List<IReloadablePropertiesListener> preListeners;
 
+    // 每个 location 最近一次的内容
+    private Properties[] locationProperties;
+
+    // 是否设置了 local properties, 设置了则只能使用 spring 的 mergeProperties
+    private boolean hasLocalProperties = false;
+
+    private String fileEncoding;
+    private boolean ignoreResourceNotFound = false;
+
+    // 是否监控被外部修改的文件
+    private boolean watchFiles = false;
+
+    private ReloadableFileWatcher.FileChangedListener fileChangedListener;
+
     /**
      * 定义资源文件
      *
@@ -86,6 +109,7 @@ public class ReloadablePropertiesFactoryBean extends PropertiesFactoryBean imple
 
         this.locations = resources.toArray(new Resource[resources.size()]);
         lastModified = new long[locations.length];
+        locationProperties = new Properties[locations.length];
         super.setLocations(locations);
     }
 
@@ -135,6 +159,39 @@ public class ReloadablePropertiesFactoryBean extends PropertiesFactoryBean imple
         }
     }
 
+    /**
+     * 是否使用 WatchService 监控被外部修改的文件, 默认不监控
+     *
+     * @param watchFiles
+     */
+    public void setWatchFiles(boolean watchFiles) {
+        this.watchFiles = watchFiles;
+    }
+
+    @Override
+    public void setFileEncoding(String encoding) {
+        this.fileEncoding = encoding;
+        super.setFileEncoding(encoding);
+    }
+
+    @Override
+    public void setIgnoreResourceNotFound(boolean ignoreResourceNotFound) {
+        this.ignoreResourceNotFound = ignoreResourceNotFound;
+        super.setIgnoreResourceNotFound(ignoreResourceNotFound);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+        this.hasLocalProperties = true;
+        super.setProperties(properties);
+    }
+
+    @Override
+    public void setPropertiesArray(Properties... propertiesArray) {
+        this.hasLocalProperties = true;
+        super.setPropertiesArray(propertiesArray);
+    }
+
     private ReloadablePropertiesBase reloadableProperties;
 
     /**
@@ -171,13 +228,41 @@ public class ReloadablePropertiesFactoryBean extends PropertiesFactoryBean imple
         // add for monitor
         ReloadConfigurationMonitor.addReconfigurableBean((ReconfigurableBean) reloadableProperties);
 
+        // watch files
+        if (watchFiles) {
+            watchLocations();
+        }
+
         return reloadableProperties;
     }
 
     public void destroy() throws Exception {
+        if (fileChangedListener != null) {
+            ReloadableFileWatcher.getInstance().unwatch(fileChangedListener);
+            fileChangedListener = null;
+        }
+        ReloadConfigurationMonitor.removeReconfigurableBean((ReconfigurableBean) reloadableProperties);
         reloadableProperties = null;
     }
 
+    /**
+     * 监控文件系统中的 location, 非文件的 location 忽略
+     */
+    private void watchLocations() {
+
+        fileChangedListener = new LocationChangedListener();
+
+        for (Resource location : locations) {
+
+            try {
+                ReloadableFileWatcher.getInstance().watch(location.getFile(), fileChangedListener);
+            } catch (IOException e) {
+                // not a file resource
+                log.debug("cannot watch " + location + ": " + e.toString());
+            }
+        }
+    }
+
     /**
      * 根据修改时间来判定是否reload
      *
@@ -185,47 +270,174 @@ public class ReloadablePropertiesFactoryBean extends PropertiesFactoryBean imple
      *
      * @throws IOException
      */
-    protected void reload(final boolean forceReload) throws IOException {
+    protected synchronized void reload(final boolean forceReload) throws IOException {
+
+        if (forceReload) {
+            for (int i = 0; i < locations.length; i++) {
+                lastModified[i] = getLastModified(locations[i]);
+                locationProperties[i] = null;
+            }
+            doReload();
+            return;
+        }
+
+        boolean reload = false;
+        for (int i = 0; i < locations.length; i++) {
+
+            long l = getLastModified(locations[i]);
+            if (l > lastModified[i]) {
+                lastModified[i] = l;
+
+                // 内容没有变化则不需要reload
+                if (reloadLocation(i)) {
+                    reload = true;
+                }
+            }
+        }
+        if (reload) {
+            doReload();
+        }
+    }
+
+    /**
+     * 使用内存中的内容 reload 某个配置文件, 不读磁盘
+     *
+     * @param fileName
+     * @param properties
+     *
+     * @return 是否托管了此配置文件
+     */
+    protected synchronized boolean reload(String fileName, Properties properties) throws IOException {
+
+        boolean found = false;
+        boolean reload = false;
 
-        boolean reload = forceReload;
         for (int i = 0; i < locations.length; i++) {
-            Resource location = locations[i];
-            File file;
 
+            if (!fileName.equals(locations[i].getFilename())) {
+                continue;
+            }
+
+            found = true;
+            if (!properties.equals(locationProperties[i])) {
+                Properties copy = new Properties();
+                copy.putAll(properties);
+                locationProperties[i] = copy;
+                reload = true;
+            }
+
+            // 避免定时检查时重复 reload
+            lastModified[i] = getLastModified(locations[i]);
+        }
+
+        if (reload) {
+            doReload();
+        }
+        return found;
+    }
+
+    /**
+     * 文件被外部修改时 reload
+     *
+     * @param file
+     */
+    protected synchronized void reloadFile(File file) throws IOException {
+
+        boolean reload = false;
+        for (int i = 0; i < locations.length; i++) {
+
+            File locationFile;
             try {
-                file = location.getFile();
+                locationFile = locations[i].getFile();
             } catch (IOException e) {
-                // not a file resource
-                // may be spring boot
-                log.warn(e.toString());
                 continue;
             }
-            try {
-                long l = file.lastModified();
 
-                if (l > lastModified[i]) {
-                    lastModified[i] = l;
+            if (locationFile.getAbsoluteFile().equals(file.getAbsoluteFile())) {
+                lastModified[i] = file.lastModified();
+                if (reloadLocation(i)) {
                     reload = true;
                 }
-            } catch (Exception e) {
-                // cannot access file. assume unchanged.
-                if (log.isDebugEnabled()) {
-                    log.debug("can't determine modification time of " + file + " for " + location, e);
-                }
             }
         }
+
         if (reload) {
             doReload();
         }
     }
 
+    /**
+     * 重新读取某个 location
+     *
+     * @param index
+     *
+     * @return 内容是否变化
+     */
+    private boolean reloadLocation(int index) throws IOException {
+
+        Properties properties = loadLocation(locations[index]);
+        if (properties.equals(locationProperties[index])) {
+            return false;
+        }
+        locationProperties[index] = properties;
+        return true;
+    }
+
+    /**
+     * 读取一个 location, 默认使用 utf-8, 与 disconf 下载后读取配置时一致
+     *
+     * @param location
+     *
+     * @return
+     */
+    private Properties loadLocation(Resource location) throws IOException {
+
+        Properties properties = new Properties();
+        try {
+            PropertiesLoaderUtils.fillProperties(properties,
+                    new EncodedResource(location, fileEncoding == null ? DEFAULT_ENCODING : fileEncoding));
+        } catch (IOException e) {
+            if (ignoreResourceNotFound) {
+                log.warn("cannot load properties from " + location + ": " + e.getMessage());
+            } else {
+                throw e;
+            }
+        }
+        return properties;
+    }
+
+    private long getLastModified(Resource location) {
+
+        try {
+            return location.getFile().lastModified();
+        } catch (IOException e) {
+            // not a file resource
+            // may be spring boot
+            return 0;
+        }
+    }
+
     /**
      * 设置新的值
      *
      * @throws IOException
      */
     private void doReload() throws IOException {
-        reloadableProperties.setProperties(mergeProperties());
+
+        if (hasLocalProperties) {
+            reloadableProperties.setProperties(mergeProperties());
+            return;
+        }
+
+        // 按顺序合并每个 location, 后面的覆盖前面的
+        Properties properties = new Properties();
+        for (int i = 0; i < locations.length; i++) {
+            if (locationProperties[i] == null) {
+                locationProperties[i] = loadLocation(locations[i]);
+            }
+            properties.putAll(locationProperties[i]);
+        }
+        reloadableProperties.setProperties(properties);
     }
 
     /**
@@ -244,12 +456,32 @@ public class ReloadablePropertiesFactoryBean extends PropertiesFactoryBean imple
     /**
      * 回调自己
      */
-    class ReloadablePropertiesImpl extends ReloadablePropertiesBase implements ReconfigurableBean {
+    class ReloadablePropertiesImpl extends ReloadablePropertiesBase implements ReconfigurableFileBean {
 
         // reload myself
         public void reloadConfiguration() throws Exception {
             ReloadablePropertiesFactoryBean.this.reload(false);
         }
+
+        // reload with the content just fetched
+        public boolean reloadConfiguration(String fileName, Properties properties) throws Exception {
+            return ReloadablePropertiesFactoryBean.this.reload(fileName, properties);
+        }
+    }
+
+    /**
+     * 文件被外部修改时 reload 自己
+     */
+    class LocationChangedListener implements ReloadableFileWatcher.FileChangedListener {
+
+        @Override
+        public void fileChanged(File file) {
+            try {
+                reloadFile(file);
+            } catch (IOException e) {
+                log.warn("cannot reload " + file + ": " + e.toString());
+            }
+        }
     }
 
 }
@@ -2,9 +2,10 @@ package com.baidu.disconf.client.addons.properties;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -26,6 +27,7 @@ import org.springframework.beans.factory.config.BeanDefinitionVisitor;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.core.io.Resource;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringValueResolver;
 
@@ -36,6 +38,7 @@ import org.springframework.util.StringValueResolver;
  * 1. 启动时 监控 动态config，并维护它们与相应bean的关系
  * 2. 当动态config变动时，此configurer会进行reload
  * 3. reload 时会 compare config value, and set value for beans
+ * 4. reload 时只合并变化的properties, 只重新解析受影响(含嵌套引用)的placeholder
  */
 public class ReloadingPropertyPlaceholderConfigurer extends DefaultPropertyPlaceholderConfigurer implements
         InitializingBean, DisposableBean, IReloadablePropertiesListener, ApplicationContextAware {
@@ -116,6 +119,15 @@ public class ReloadingPropertyPlaceholderConfigurer extends DefaultPropertyPlace
 
     private Properties lastMergedProperties;
 
+    // placeholder 之间的嵌套依赖, 例如 a=${b}
+    private final PlaceholderDependencyGraph placeholderGraph = new PlaceholderDependencyGraph();
+
+    // 是否配置了 locations, 配置了则无法只合并变化的properties
+    private boolean hasLocations = false;
+
+    // bean name -> 缓存的 bean wrapper, 避免每次reload都重新创建
+    private final Map<String, BeanWrapper> beanWrapperCache = new HashMap<String, BeanWrapper>();
+
     /**
      * merge property and record last merge
      *
@@ -125,104 +137,246 @@ public class ReloadingPropertyPlaceholderConfigurer extends DefaultPropertyPlace
      */
     protected Properties mergeProperties() throws IOException {
         Properties properties = super.mergeProperties();
+        this.lastMergedProperties = properties;
+        rebuildPlaceholderGraph(properties);
+        return properties;
+    }
+
+    /**
+     * 重新建立 placeholder 之间的依赖关系
+     *
+     * @param properties
+     */
+    private void rebuildPlaceholderGraph(Properties properties) {
+
+        placeholderGraph.clear();
+        for (String key : properties.stringPropertyNames()) {
+            placeholderGraph.setDependencies(key, extractPlaceholders(properties.getProperty(key)));
+        }
+    }
+
+    /**
+     * 获取value中引用的 placeholder 名字(去掉默认值)
+     *
+     * @param value
+     *
+     * @return
+     */
+    private Set<String> extractPlaceholders(String value) {
+
+        Set<String> placeholders = new HashSet<String>();
+        if (value == null) {
+            return placeholders;
+        }
+
+        int startIndex = value.indexOf(this.placeholderPrefix);
+        while (startIndex != -1) {
+            int endIndex = value.indexOf(this.placeholderSuffix, startIndex + this.placeholderPrefix.length());
+            if (endIndex == -1) {
+                break;
+            }
+            placeholders.add(getPlaceholder(value.substring(startIndex + this.placeholderPrefix.length(), endIndex)));
+            startIndex = value.indexOf(this.placeholderPrefix, endIndex + this.placeholderSuffix.length());
+        }
+
+        return placeholders;
+    }
+
+    /**
+     * 只合并变化的 properties
+     * <p/>
+     * 与 PropertiesLoaderSupport.mergeProperties 的规则一致: 后面的 properties 覆盖前面的
+     *
+     * @param changedKeys 变化的key
+     *
+     * @return 新的合并结果
+     */
+    private Properties mergeChangedProperties(Set<String> changedKeys) {
+
+        Properties properties = new Properties();
+        properties.putAll(lastMergedProperties);
+
+        for (String key : changedKeys) {
+
+            String value = null;
+            for (Properties localProperties : propertiesArray) {
+                String localValue = localProperties.getProperty(key);
+                if (localValue != null) {
+                    value = localValue;
+                }
+            }
+
+            if (value == null) {
+                properties.remove(key);
+            } else {
+                properties.setProperty(key, value);
+            }
+            placeholderGraph.setDependencies(key, extractPlaceholders(value));
+        }
+
         this.lastMergedProperties = properties;
         return properties;
     }
 
+    /**
+     * 比较变化的 properties, 获取变化的key
+     *
+     * @param oldProperties
+     * @param newProperties
+     *
+     * @return
+     */
+    private Set<String> getChangedKeys(Properties oldProperties, Properties newProperties) {
+
+        Set<String> changedKeys = new HashSet<String>();
+
+        for (String key : newProperties.stringPropertyNames()) {
+            String newValue = newProperties.getProperty(key);
+            if (!newValue.equals(oldProperties.getProperty(key))) {
+                changedKeys.add(key);
+            }
+        }
+
+        for (String key : oldProperties.stringPropertyNames()) {
+            if (newProperties.getProperty(key) == null) {
+                changedKeys.add(key);
+            }
+        }
+
+        return changedKeys;
+    }
+
     /**
      * 当配置更新时，被调用
      *
      * @param event
      */
-    public void propertiesReloaded(PropertiesReloadedEvent event) {
+    public synchronized void propertiesReloaded(PropertiesReloadedEvent event) {
 
         Properties oldProperties = lastMergedProperties;
 
         try {
+
+            //
+            // 合并 properties, 并获取变化的key
             //
-            Properties newProperties = mergeProperties();
+            Properties newProperties;
+            Set<String> changedKeys;
+
+            Properties oldTargetProperties = event.getOldProperties();
+            Properties newTargetProperties = event.getTarget() == null ? null : event.getTarget().getProperties();
+
+            if (!hasLocations && oldProperties != null && oldTargetProperties != null &&
+                    newTargetProperties != null) {
+
+                // 只合并变化的那个 properties
+                changedKeys = getChangedKeys(oldTargetProperties, newTargetProperties);
+                if (changedKeys.isEmpty()) {
+                    logger.debug("no property changed, ignore reload");
+                    return;
+                }
+                newProperties = mergeChangedProperties(changedKeys);
+
+            } else {
+
+                newProperties = mergeProperties();
+                changedKeys = oldProperties == null ? newProperties.stringPropertyNames() :
+                        getChangedKeys(oldProperties, newProperties);
+            }
 
             //
-            // 获取哪些 dynamic property 被影响
+            // 获取哪些 dynamic property 被影响, 包括嵌套引用的 placeholder
             //
-            Set<String> placeholders = placeholderToDynamics.keySet();
-            Set<DynamicProperty> allDynamics = new HashSet<DynamicProperty>();
-            for (String placeholder : placeholders) {
-                String newValue = newProperties.getProperty(placeholder);
-                String oldValue = oldProperties.getProperty(placeholder);
-                if (newValue != null && !newValue.equals(oldValue) || newValue == null && oldValue != null) {
-                    if (logger.isInfoEnabled()) {
-                        logger.info("Property changed detected: " + placeholder +
-                                (newValue != null ? "=" + newValue : " removed"));
-                    }
-                    List<DynamicProperty> affectedDynamics = placeholderToDynamics.get(placeholder);
-                    allDynamics.addAll(affectedDynamics);
+            Set<DynamicProperty> allDynamics = new LinkedHashSet<DynamicProperty>();
+            for (String placeholder : placeholderGraph.getAffectedKeys(changedKeys)) {
+
+                Set<DynamicProperty> affectedDynamics = placeholderToDynamics.get(placeholder);
+                if (affectedDynamics == null || affectedDynamics.isEmpty()) {
+                    continue;
+                }
+
+                if (logger.isInfoEnabled()) {
+                    String newValue = newProperties.getProperty(placeholder);
+                    logger.info("Property changed detected: " + placeholder +
+                            (newValue != null ? "=" + newValue : " removed"));
                 }
+                allDynamics.addAll(affectedDynamics);
+            }
+
+            if (allDynamics.isEmpty()) {
+                return;
             }
 
             //
-            // 获取受影响的beans
+            // 先解析出所有的新值, 再统一设置, 缩短bean处于部分更新状态的时间
             //
-            Map<String, List<DynamicProperty>> dynamicsByBeanName = new HashMap<String, List<DynamicProperty>>();
-            Map<String, Object> beanByBeanName = new HashMap<String, Object>();
+            Map<String, Map<DynamicProperty, String>> newValuesByBeanName =
+                    new LinkedHashMap<String, Map<DynamicProperty, String>>();
             for (DynamicProperty dynamic : allDynamics) {
+
                 String beanName = dynamic.getBeanName();
-                List<DynamicProperty> l = dynamicsByBeanName.get(beanName);
+                String propertyName = dynamic.getPropertyName();
 
-                if (l == null) {
-                    dynamicsByBeanName.put(beanName, (l = new ArrayList<DynamicProperty>()));
-                    Object bean = null;
-                    try {
-                        bean = applicationContext.getBean(beanName);
-                        beanByBeanName.put(beanName, bean);
-                    } catch (BeansException e) {
-                        // keep dynamicsByBeanName list, warn only once.
-                        logger.error("Error obtaining bean " + beanName, e);
-                    }
+                // obtain an updated value, including dependencies
+                String newValue;
+                removeDynamic(dynamic);
+                currentBeanName = beanName;
+                currentPropertyName = propertyName;
+                try {
+                    newValue = parseStringValue(dynamic.getUnparsedValue(), newProperties, new HashSet());
+                } finally {
+                    currentBeanName = null;
+                    currentPropertyName = null;
+                }
 
-                    //
-                    // say hello
-                    //
-                    try {
-                        if (bean instanceof IReconfigurationAware) {
-                            ((IReconfigurationAware) bean).beforeReconfiguration();  // hello!
-                        }
-                    } catch (Exception e) {
-                        logger.error("Error calling beforeReconfiguration on " + beanName, e);
-                    }
+                Map<DynamicProperty, String> newValues = newValuesByBeanName.get(beanName);
+                if (newValues == null) {
+                    newValues = new LinkedHashMap<DynamicProperty, String>();
+                    newValuesByBeanName.put(beanName, newValues);
                 }
-                l.add(dynamic);
+                newValues.put(dynamic, newValue);
             }
 
             //
-            // 处理受影响的bean
+            // 获取受影响的beans
             //
-            Collection<String> beanNames = dynamicsByBeanName.keySet();
-            for (String beanName : beanNames) {
-                Object bean = beanByBeanName.get(beanName);
-                if (bean == null) // problems obtaining bean, earlier
-                {
+            Map<String, BeanWrapper> beanWrapperByBeanName = new LinkedHashMap<String, BeanWrapper>();
+            for (String beanName : newValuesByBeanName.keySet()) {
+
+                BeanWrapper beanWrapper = getBeanWrapper(beanName);
+                if (beanWrapper == null) {
                     continue;
                 }
-                BeanWrapper beanWrapper = new BeanWrapperImpl(bean);
+                beanWrapperByBeanName.put(beanName, beanWrapper);
 
-                // for all affected ...
-                List<DynamicProperty> dynamics = dynamicsByBeanName.get(beanName);
-                for (DynamicProperty dynamic : dynamics) {
-                    String propertyName = dynamic.getPropertyName();
-                    String unparsedValue = dynamic.getUnparsedValue();
-
-                    // obtain an updated value, including dependencies
-                    String newValue;
-                    removeDynamic(dynamic);
-                    currentBeanName = beanName;
-                    currentPropertyName = propertyName;
-                    try {
-                        newValue = parseStringValue(unparsedValue, newProperties, new HashSet());
-                    } finally {
-                        currentBeanName = null;
-                        currentPropertyName = null;
+                //
+                // say hello
+                //
+                Object bean = beanWrapper.getWrappedInstance();
+                try {
+                    if (bean instanceof IReconfigurationAware) {
+                        ((IReconfigurationAware) bean).beforeReconfiguration();  // hello!
                     }
+                } catch (Exception e) {
+                    logger.error("Error calling beforeReconfiguration on " + beanName, e);
+                }
+            }
+
+            //
+            // 处理受影响的bean
+            //
+            for (Map.Entry<String, BeanWrapper> entry : beanWrapperByBeanName.entrySet()) {
+
+                String beanName = entry.getKey();
+                BeanWrapper beanWrapper = entry.getValue();
+
+                // for all affected ...
+                for (Map.Entry<DynamicProperty, String> newValueEntry : newValuesByBeanName.get(beanName)
+                        .entrySet()) {
+
+                    String propertyName = newValueEntry.getKey().getPropertyName();
+                    String newValue = newValueEntry.getValue();
+
                     if (logger.isInfoEnabled()) {
                         logger.info("Updating property " + beanName + "." + propertyName + " to " + newValue);
                     }
@@ -239,15 +393,15 @@ public class ReloadingPropertyPlaceholderConfigurer extends DefaultPropertyPlace
             //
             // say goodbye.
             //
-            for (String beanName : beanNames) {
-                Object bean = beanByBeanName.get(beanName);
+            for (Map.Entry<String, BeanWrapper> entry : beanWrapperByBeanName.entrySet()) {
+                Object bean = entry.getValue().getWrappedInstance();
                 try {
 
                     if (bean instanceof IReconfigurationAware) {
                         ((IReconfigurationAware) bean).afterReconfiguration();
                     }
                 } catch (Exception e) {
-                    logger.error("Error calling afterReconfiguration on " + beanName, e);
+                    logger.error("Error calling afterReconfiguration on " + entry.getKey(), e);
                 }
             }
 
@@ -257,6 +411,31 @@ public class ReloadingPropertyPlaceholderConfigurer extends DefaultPropertyPlace
         }
     }
 
+    /**
+     * 获取缓存的 bean wrapper, bean 实例变化时重新创建
+     *
+     * @param beanName
+     *
+     * @return 获取不到bean时返回null
+     */
+    private BeanWrapper getBeanWrapper(String beanName) {
+
+        Object bean;
+        try {
+            bean = applicationContext.getBean(beanName);
+        } catch (BeansException e) {
+            logger.error("Error obtaining bean " + beanName, e);
+            return null;
+        }
+
+        BeanWrapper beanWrapper = beanWrapperCache.get(beanName);
+        if (beanWrapper == null || beanWrapper.getWrappedInstance() != bean) {
+            beanWrapper = new BeanWrapperImpl(bean);
+            beanWrapperCache.put(beanName, beanWrapper);
+        }
+        return beanWrapper;
+    }
+
     /**
      *
      */
@@ -322,7 +501,7 @@ public class ReloadingPropertyPlaceholderConfigurer extends DefaultPropertyPlace
     }
 
     private Map<DynamicProperty, DynamicProperty> dynamicProperties = new HashMap<DynamicProperty, DynamicProperty>();
-    private Map<String, List<DynamicProperty>> placeholderToDynamics = new HashMap<String, List<DynamicProperty>>();
+    private Map<String, Set<DynamicProperty>> placeholderToDynamics = new HashMap<String, Set<DynamicProperty>>();
 
     /**
      * 建立 placeholder 与 dynamic 的对应关系
@@ -331,14 +510,12 @@ public class ReloadingPropertyPlaceholderConfigurer extends DefaultPropertyPlace
      * @param placeholder
      */
     private void addDependency(DynamicProperty dynamic, String placeholder) {
-        List<DynamicProperty> l = placeholderToDynamics.get(placeholder);
+        Set<DynamicProperty> l = placeholderToDynamics.get(placeholder);
         if (l == null) {
-            l = new ArrayList<DynamicProperty>();
+            l = new LinkedHashSet<DynamicProperty>();
             placeholderToDynamics.put(placeholder, l);
         }
-        if (!l.contains(dynamic)) {
-            l.add(dynamic);
-        }
+        l.add(dynamic);
         dynamic.addPlaceholder(placeholder);
     }
 
@@ -350,8 +527,10 @@ public class ReloadingPropertyPlaceholderConfigurer extends DefaultPropertyPlace
     private void removeDynamic(DynamicProperty dynamic) {
         List<String> placeholders = dynamic.placeholders;
         for (String placeholder : placeholders) {
-            List<DynamicProperty> l = placeholderToDynamics.get(placeholder);
-            l.remove(dynamic);
+            Set<DynamicProperty> l = placeholderToDynamics.get(placeholder);
+            if (l != null) {
+                l.remove(dynamic);
+            }
         }
         dynamic.placeholders.clear();
         dynamicProperties.remove(dynamic);
@@ -493,6 +672,16 @@ public class ReloadingPropertyPlaceholderConfigurer extends DefaultPropertyPlace
         super.setPropertiesArray(propertiesArray);
     }
 
+    public void setLocation(Resource location) {
+        this.hasLocations = true;
+        super.setLocation(location);
+    }
+
+    public void setLocations(Resource... locations) {
+        this.hasLocations = true;
+        super.setLocations(locations);
+    }
+
     public void setPlaceholderPrefix(String placeholderPrefix) {
         this.placeholderPrefix = placeholderPrefix;
         super.setPlaceholderPrefix(placeholderPrefix);
@@ -2,7 +2,6 @@ package com.baidu.disconf.client.common.model;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -11,7 +10,6 @@ import org.slf4j.LoggerFactory;
 
 import com.baidu.disconf.client.common.constants.SupportFileTypeEnum;
 import com.baidu.disconf.client.config.DisClientConfig;
-import com.baidu.disconf.client.support.utils.ClassUtils;
 import com.baidu.disconf.core.common.utils.ClassLoaderUtil;
 import com.baidu.disconf.core.common.utils.OsUtil;
 
@@ -32,6 +30,9 @@ public class DisconfCenterFile extends DisconfCenterBaseModel {
     // 额外的配置数据，非注解式使用它来存储
     private Map<String, Object> additionalKeyMaps = new HashMap<String, Object>();
 
+    // additionalKeyMaps 的类型化表示, 随 additionalKeyMaps 一起更新
+    private volatile Map<String, TypedValue> typedAdditionalKeyMaps = new HashMap<String, TypedValue>();
+
     // 是否是非注解注入方式
     private boolean isTaggedWithNonAnnotationFile = false;
 
@@ -76,7 +77,14 @@ public class DisconfCenterFile extends DisconfCenterBaseModel {
     }
 
     public void setAdditionalKeyMaps(Map<String, Object> additionalKeyMaps) {
+
+        Map<String, TypedValue> typedMap = new HashMap<String, TypedValue>();
+        for (Map.Entry<String, Object> entry : additionalKeyMaps.entrySet()) {
+            typedMap.put(entry.getKey(), TypedValue.of(entry.getValue()));
+        }
+
         this.additionalKeyMaps = additionalKeyMaps;
+        this.typedAdditionalKeyMaps = typedMap;
     }
 
     public SupportFileTypeEnum getSupportFileTypeEnum() {
@@ -137,6 +145,24 @@ public class DisconfCenterFile extends DisconfCenterBaseModel {
         return map;
     }
 
+    /**
+     * 获取某个配置项的类型化的值, 与 {@link #getKV()} 的取值规则一致, 不存在时返回null
+     */
+    public TypedValue getTypedValue(String key) {
+
+        // 非注解式的
+        if (keyMaps.size() == 0) {
+            return typedAdditionalKeyMaps.get(key);
+        }
+
+        // 注解式的
+        FileItemValue fileItemValue = keyMaps.get(key);
+        if (fileItemValue == null) {
+            return null;
+        }
+        return fileItemValue.getTypedValue();
+    }
+
     /**
      * 配置文件的路径
      */
@@ -186,8 +212,12 @@ public class DisconfCenterFile extends DisconfCenterBaseModel {
     public static class FileItemValue {
 
         private Object value;
-        private Field field;
-        private Method setMethod;
+
+        // 扫描时生成, 注入时直接调用
+        private FieldAccessor accessor;
+
+        // 类型化的值, 随 value 一起更新
+        private volatile TypedValue typedValue;
 
         public Object getValue() {
             return value;
@@ -195,10 +225,15 @@ public class DisconfCenterFile extends DisconfCenterBaseModel {
 
         public void setValue(Object value) {
             this.value = value;
+            this.typedValue = TypedValue.of(value);
+        }
+
+        public TypedValue getTypedValue() {
+            return typedValue;
         }
 
         public void setField(Field field) {
-            this.field = field;
+            this.accessor = new FieldAccessor(field, accessor == null ? null : accessor.getSetMethod());
         }
 
         /**
@@ -207,23 +242,18 @@ public class DisconfCenterFile extends DisconfCenterBaseModel {
          * @return
          */
         public boolean isStatic() {
-            return Modifier.isStatic(field.getModifiers());
+            return accessor.isStatic();
         }
 
         /**
-         * 设置value, 优先使用 setter method, 然后其次是反射
+         * 设置value, 优先使用 setter method, 然后其次是域
          *
          * @param value
          */
         public Object setValue4StaticFileItem(Object value) throws Exception {
 
             try {
-                if (setMethod != null) {
-                    setMethod.invoke(null, value);
-                } else {
-                    field.set(null, value);
-                }
-
+                accessor.set(null, value);
             } catch (Exception e) {
                 LOGGER.warn(e.toString());
             }
@@ -234,11 +264,7 @@ public class DisconfCenterFile extends DisconfCenterBaseModel {
         public Object setValue4FileItem(Object object, Object value) throws Exception {
 
             try {
-                if (setMethod != null) {
-                    setMethod.invoke(object, value);
-                } else {
-                    field.set(object, value);
-                }
+                accessor.set(object, value);
             } catch (Exception e) {
                 LOGGER.warn(e.toString());
             }
@@ -256,33 +282,29 @@ public class DisconfCenterFile extends DisconfCenterBaseModel {
          * @throws Exception
          */
         public Object getFieldValueByType(Object fieldValue) throws Exception {
-            return ClassUtils.getValeByType(field.getType(), fieldValue);
+            return accessor.convert(fieldValue);
         }
 
         public Object getFieldDefaultValue(Object object) throws Exception {
-            return field.get(object);
+            return accessor.get(object);
         }
 
         @Override
         public String toString() {
             return "FileItemValue{" +
                     "value=" + value +
-                    ", field=" + field +
-                    ", setMethod=" + setMethod +
+                    ", " + accessor +
                     '}';
         }
 
         public FileItemValue(Object value, Field field) {
-            super();
-            this.value = value;
-            this.field = field;
+            this(value, field, null);
         }
 
         public FileItemValue(Object value, Field field, Method setMethod) {
             super();
-            this.value = value;
-            this.field = field;
-            this.setMethod = setMethod;
+            setValue(value);
+            this.accessor = new FieldAccessor(field, setMethod);
         }
     }
 }
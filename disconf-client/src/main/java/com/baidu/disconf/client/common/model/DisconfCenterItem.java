@@ -2,9 +2,6 @@ package com.baidu.disconf.client.common.model;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-
-import com.baidu.disconf.client.support.utils.ClassUtils;
 
 /**
  * 配置项表示
@@ -18,10 +15,16 @@ public class DisconfCenterItem extends DisconfCenterBaseModel {
     private String key;
     private Object value;
 
+    // 类型化的值, 随 value 一起更新
+    private volatile TypedValue typedValue = TypedValue.of(null);
+
     // Field
     private Field field;
     private Method setMethod;
 
+    // 由 field 和 setMethod 生成, 注入时直接调用
+    private FieldAccessor accessor;
+
     public String getKey() {
         return key;
     }
@@ -36,10 +39,16 @@ public class DisconfCenterItem extends DisconfCenterBaseModel {
 
     public void setValue(Object value) {
         this.value = value;
+        this.typedValue = TypedValue.of(value);
+    }
+
+    public TypedValue getTypedValue() {
+        return typedValue;
     }
 
     public void setField(Field field) {
         this.field = field;
+        this.accessor = new FieldAccessor(field, setMethod);
     }
 
     /**
@@ -48,7 +57,7 @@ public class DisconfCenterItem extends DisconfCenterBaseModel {
      * @return
      */
     public boolean isStatic() {
-        return Modifier.isStatic(field.getModifiers());
+        return accessor.isStatic();
     }
 
     public Class<?> getDeclareClass() {
@@ -57,6 +66,9 @@ public class DisconfCenterItem extends DisconfCenterBaseModel {
 
     public void setSetMethod(Method setMethod) {
         this.setMethod = setMethod;
+        if (field != null) {
+            this.accessor = new FieldAccessor(field, setMethod);
+        }
     }
 
     /**
@@ -69,36 +81,28 @@ public class DisconfCenterItem extends DisconfCenterBaseModel {
      * @throws Exception
      */
     public Object getFieldValueByType(Object fieldValue) throws Exception {
-        return ClassUtils.getValeByType(field.getType(), fieldValue);
+        return accessor.convert(fieldValue);
     }
 
     public Object getFieldDefaultValue(Object object) throws Exception {
-        return field.get(object);
+        return accessor.get(object);
     }
 
     /**
-     * 设置value, 优先使用 setter method, 然后其次是反射
+     * 设置value, 优先使用 setter method, 然后其次是域
      *
      * @param value
      */
     public Object setValue4StaticFileItem(Object value) throws Exception {
 
-        if (setMethod != null) {
-            setMethod.invoke(null, value);
-        } else {
-            field.set(null, value);
-        }
+        accessor.set(null, value);
 
         return value;
     }
 
     public Object setValue4FileItem(Object object, Object value) throws Exception {
 
-        if (setMethod != null) {
-            setMethod.invoke(object, value);
-        } else {
-            field.set(object, value);
-        }
+        accessor.set(object, value);
 
         return value;
     }
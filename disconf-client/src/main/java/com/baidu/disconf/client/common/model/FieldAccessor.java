@@ -0,0 +1,231 @@
+package com.baidu.disconf.client.common.model;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 配置域的访问器
+ * <p/>
+ * 扫描时为每个域生成一次 MethodHandle(优先 setter method, 其次是域), 类型转换也在生成时确定,
+ * 注入时直接调用, 不再每次反射和比较类型名. 无法生成时(如 final 域)仍使用反射
+ */
+public class FieldAccessor {
+
+    protected static final Logger LOGGER = LoggerFactory.getLogger(FieldAccessor.class);
+
+    // (Object object, Object value)void, 静态域忽略 object
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    // (Object object)Object, 静态域忽略 object
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final Field field;
+    private final Method setMethod;
+    private final boolean isStatic;
+    private final Converter converter;
+
+    private final MethodHandle setter;
+    private final MethodHandle getter;
+
+    public FieldAccessor(Field field, Method setMethod) {
+
+        this.field = field;
+        this.setMethod = setMethod;
+        this.isStatic = Modifier.isStatic(field.getModifiers());
+        this.converter = Converter.of(field.getType());
+
+        this.setter = compileSetter();
+        this.getter = compileGetter();
+    }
+
+    private MethodHandle compileSetter() {
+
+        try {
+
+            MethodHandle handle;
+            boolean staticHandle;
+            if (setMethod != null) {
+                setMethod.setAccessible(true);
+                handle = MethodHandles.lookup().unreflect(setMethod);
+                staticHandle = Modifier.isStatic(setMethod.getModifiers());
+            } else {
+                // final 域使用反射, 与原来一样抛出 IllegalAccessException
+                if (Modifier.isFinal(field.getModifiers())) {
+                    return null;
+                }
+                field.setAccessible(true);
+                handle = MethodHandles.lookup().unreflectSetter(field);
+                staticHandle = isStatic;
+            }
+
+            if (staticHandle) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            return handle.asType(SETTER_TYPE);
+
+        } catch (Exception e) {
+            LOGGER.debug("cannot compile setter for " + field + ", use reflection. " + e.toString());
+            return null;
+        }
+    }
+
+    private MethodHandle compileGetter() {
+
+        try {
+
+            field.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflectGetter(field);
+            if (isStatic) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            return handle.asType(GETTER_TYPE);
+
+        } catch (Exception e) {
+            LOGGER.debug("cannot compile getter for " + field + ", use reflection. " + e.toString());
+            return null;
+        }
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public Method getSetMethod() {
+        return setMethod;
+    }
+
+    public boolean isStatic() {
+        return isStatic;
+    }
+
+    /**
+     * 按域的类型转换, 规则与 {@link com.baidu.disconf.client.support.utils.ClassUtils#getValeByType} 一致
+     */
+    public Object convert(Object value) throws Exception {
+        return converter.convert(value);
+    }
+
+    /**
+     * 设置值, 静态域时 object 可以为null
+     */
+    public void set(Object object, Object value) throws Exception {
+
+        if (setter == null) {
+            if (setMethod != null) {
+                setMethod.invoke(object, value);
+            } else {
+                field.set(object, value);
+            }
+            return;
+        }
+
+        try {
+            setter.invokeExact(object, value);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * 获取值, 静态域时 object 可以为null
+     */
+    public Object get(Object object) throws Exception {
+
+        if (getter == null) {
+            return field.get(object);
+        }
+
+        try {
+            return (Object) getter.invokeExact(object);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    private static Exception rethrow(Throwable t) {
+
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        if (t instanceof Exception) {
+            return (Exception) t;
+        }
+        return new Exception(t);
+    }
+
+    @Override
+    public String toString() {
+        return "field=" + field + ", setMethod=" + setMethod;
+    }
+
+    /**
+     * 类型转换, 先trim
+     */
+    private enum Converter {
+
+        INT {
+            @Override
+            Object convert(String value) {
+                return Integer.valueOf(value.trim());
+            }
+        },
+
+        LONG {
+            @Override
+            Object convert(String value) {
+                return Long.valueOf(value.trim());
+            }
+        },
+
+        BOOLEAN {
+            @Override
+            Object convert(String value) {
+                return Boolean.valueOf(value.trim());
+            }
+        },
+
+        DOUBLE {
+            @Override
+            Object convert(String value) {
+                return Double.valueOf(value.trim());
+            }
+        },
+
+        STRING {
+            @Override
+            Object convert(String value) {
+                return value;
+            }
+        };
+
+        abstract Object convert(String value);
+
+        /**
+         * 非String的值视为空串
+         */
+        Object convert(Object value) {
+            return convert(value instanceof String ? (String) value : "");
+        }
+
+        static Converter of(Class<?> type) {
+
+            if (type == int.class || type == Integer.class) {
+                return INT;
+            } else if (type == long.class || type == Long.class) {
+                return LONG;
+            } else if (type == boolean.class || type == Boolean.class) {
+                return BOOLEAN;
+            } else if (type == double.class || type == Double.class) {
+                return DOUBLE;
+            }
+            return STRING;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.baidu.disconf.client.common.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 配置值的类型化表示
+ * <p/>
+ * 每次配置更新时转换一次, 读取时直接返回基本类型, 不再重复解析和装箱. 转换规则与
+ * {@link com.baidu.disconf.client.support.utils.ClassUtils#getValeByType} 一致: 先trim, 空串视为 0/false.
+ * <p/>
+ * 此类不可变, 可以在多线程间安全共享
+ */
+public final class TypedValue {
+
+    /**
+     * 列表的分隔符
+     */
+    public static final String LIST_SEPARATOR = ",";
+
+    private static final TypedValue NULL_VALUE = new TypedValue(null);
+
+    // 原始值
+    private final Object value;
+
+    private final String stringValue;
+
+    private final boolean intValid;
+    private final int intValue;
+
+    private final boolean longValid;
+    private final long longValue;
+
+    private final boolean doubleValid;
+    private final double doubleValue;
+
+    private final boolean booleanValid;
+    private final boolean booleanValue;
+
+    private final List<String> listValue;
+
+    private TypedValue(Object value) {
+
+        this.value = value;
+
+        if (value == null) {
+
+            stringValue = null;
+            intValid = longValid = doubleValid = booleanValid = false;
+            intValue = 0;
+            longValue = 0L;
+            doubleValue = 0.0;
+            booleanValue = false;
+            listValue = Collections.emptyList();
+            return;
+        }
+
+        stringValue = value.toString();
+        String data = stringValue.trim();
+
+        //
+        // 数字
+        //
+        if (value instanceof Number) {
+
+            Number number = (Number) value;
+            longValue = number.longValue();
+            doubleValue = number.doubleValue();
+            doubleValid = true;
+
+            // 与字符串一致, 有小数部分时不是整数
+            longValid = doubleValue == longValue;
+            intValid = longValid && longValue == (int) longValue;
+            intValue = number.intValue();
+
+        } else if (data.isEmpty()) {
+
+            intValid = longValid = doubleValid = true;
+            intValue = 0;
+            longValue = 0L;
+            doubleValue = 0.0;
+
+        } else {
+
+            Integer i = parseInt(data);
+            intValid = i != null;
+            intValue = intValid ? i : 0;
+
+            Long l = intValid ? Long.valueOf(intValue) : parseLong(data);
+            longValid = l != null;
+            longValue = longValid ? l : 0L;
+
+            Double d = longValid ? Double.valueOf(longValue) : parseDouble(data);
+            doubleValid = d != null;
+            doubleValue = doubleValid ? d : 0.0;
+        }
+
+        //
+        // 布尔
+        //
+        if (value instanceof Boolean) {
+            booleanValid = true;
+            booleanValue = (Boolean) value;
+        } else {
+            booleanValid = data.isEmpty() || data.equalsIgnoreCase("true") || data.equalsIgnoreCase("false");
+            booleanValue = Boolean.parseBoolean(data);
+        }
+
+        //
+        // 列表
+        //
+        listValue = parseList(data);
+    }
+
+    /**
+     * 由原始值构造
+     */
+    public static TypedValue of(Object value) {
+
+        if (value == null) {
+            return NULL_VALUE;
+        }
+        return new TypedValue(value);
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public boolean isNull() {
+        return value == null;
+    }
+
+    public String getString(String defaultValue) {
+        return stringValue == null ? defaultValue : stringValue;
+    }
+
+    public int getInt(int defaultValue) {
+        return intValid ? intValue : defaultValue;
+    }
+
+    public long getLong(long defaultValue) {
+        return longValid ? longValue : defaultValue;
+    }
+
+    public double getDouble(double defaultValue) {
+        return doubleValid ? doubleValue : defaultValue;
+    }
+
+    public boolean getBoolean(boolean defaultValue) {
+        return booleanValid ? booleanValue : defaultValue;
+    }
+
+    /**
+     * 以 {@link #LIST_SEPARATOR} 分隔的列表, 每项已trim, 不可修改
+     */
+    public List<String> getList() {
+        return listValue;
+    }
+
+    private static Integer parseInt(String data) {
+        try {
+            return Integer.valueOf(data);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Long parseLong(String data) {
+        try {
+            return Long.valueOf(data);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Double parseDouble(String data) {
+        try {
+            return Double.valueOf(data);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static List<String> parseList(String data) {
+
+        if (data.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> list = new ArrayList<String>();
+        for (String item : data.split(LIST_SEPARATOR)) {
+            item = item.trim();
+            if (!item.isEmpty()) {
+                list.add(item);
+            }
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    @Override
+    public String toString() {
+        return stringValue;
+    }
+}
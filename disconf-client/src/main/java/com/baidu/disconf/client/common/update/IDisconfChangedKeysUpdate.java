@@ -0,0 +1,19 @@
+package com.baidu.disconf.client.common.update;
+
+import java.util.Set;
+
+/**
+ * 需要知道哪些配置项变化的回调函数. 实现此接口时调用 {@link #reload(String, Set)}, 不再调用 {@link #reload()}
+ * <p/>
+ * 配置没有变化时不调用. 同一次更新的多个配置都影响此回调时, 每个配置调用一次
+ */
+public interface IDisconfChangedKeysUpdate extends IDisconfUpdate {
+
+    /**
+     * @param keyName     配置文件名或配置项的KEY
+     * @param changedKeys 变化的配置项, 配置项时为它自己; 没有配置项的文件(如任意类型文件)为空
+     *
+     * @throws Exception
+     */
+    void reload(String keyName, Set<String> changedKeys) throws Exception;
+}
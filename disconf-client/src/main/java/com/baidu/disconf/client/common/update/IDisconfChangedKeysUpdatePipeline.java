@@ -0,0 +1,23 @@
+package com.baidu.disconf.client.common.update;
+
+import java.util.Set;
+
+/**
+ * 需要知道哪些配置项变化的通用型回调. 实现此接口时配置文件调用
+ * {@link #reloadDisconfFile(String, String, Set)}, 不再调用 {@link #reloadDisconfFile(String, String)}
+ * <p/>
+ * 配置文件没有变化时不调用
+ */
+public interface IDisconfChangedKeysUpdatePipeline extends IDisconfUpdatePipeline {
+
+    /**
+     * 配置文件
+     *
+     * @param key
+     * @param filePath
+     * @param changedKeys 变化的配置项, 没有配置项的文件(如任意类型文件)为空
+     *
+     * @throws Exception
+     */
+    void reloadDisconfFile(String key, String filePath, Set<String> changedKeys) throws Exception;
+}
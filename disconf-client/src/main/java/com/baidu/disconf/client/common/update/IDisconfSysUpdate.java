@@ -15,9 +15,10 @@ public interface IDisconfSysUpdate {
      * @param disconfCoreMgr    处理算子
      * @param disConfigTypeEnum 配置类型
      * @param keyName           配置KEY
+     * @param stamp             ZK结点上的版本戳, 未知时为 null
      *
      * @throws Exception
      */
-    void reload(DisconfCoreProcessor disconfCoreMgr, DisConfigTypeEnum disConfigTypeEnum, String keyName)
-            throws Exception;
+    void reload(DisconfCoreProcessor disconfCoreMgr, DisConfigTypeEnum disConfigTypeEnum, String keyName,
+                String stamp) throws Exception;
 }
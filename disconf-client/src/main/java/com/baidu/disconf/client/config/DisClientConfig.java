@@ -194,6 +194,42 @@ public final class DisClientConfig {
     @DisInnerConfigAnnotation(name = "disconf.enable_local_download_dir_in_class_path", defaultValue = "true")
     public boolean enableLocalDownloadDirInClassPath = true;
 
+    /**
+     * 优先使用编译期生成的注解索引, 没有索引时才扫描classpath
+     *
+     * @author
+     * @since 1.0.0
+     */
+    @DisInnerConfigAnnotation(name = "disconf.enable_scan_index", defaultValue = "true")
+    public boolean enableScanIndex = true;
+
+    /**
+     * 是否将客户端的指标(启动耗时、获取耗时、重试、watch等)注册到 JMX
+     *
+     * @author
+     * @since 1.0.0
+     */
+    @DisInnerConfigAnnotation(name = "disconf.enable_metrics_jmx", defaultValue = "true")
+    public boolean enableMetricsJmx = true;
+
+    /**
+     * 访问日志(读取配置)的采样率: 每 N 次记录一次, 0 表示不记录. 运行时可以通过 JMX 按 app 或 key 调整
+     *
+     * @author
+     * @since 1.0.0
+     */
+    @DisInnerConfigAnnotation(name = "disconf.access_log_rate", defaultValue = "0")
+    public int accessLogRate = 0;
+
+    /**
+     * 收到配置更新通知后, 等待多少毫秒收集同时更新的其它配置, 然后一起重新加载、一起回调. 0 表示只合并已经到达的通知
+     *
+     * @author
+     * @since 1.0.0
+     */
+    @DisInnerConfigAnnotation(name = "disconf.reload_batch_millis", defaultValue = "100")
+    public long reloadBatchMillis = 100;
+
     public List<String> getHostList() {
         return hostList;
     }
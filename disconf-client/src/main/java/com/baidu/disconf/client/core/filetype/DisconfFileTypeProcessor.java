@@ -13,4 +13,9 @@ public interface DisconfFileTypeProcessor {
      * 输入文件名，返回其相应的k-v数据
      */
     Map<String, Object> getKvMap(String fileName) throws Exception;
+
+    /**
+     * 输入文件内容，返回其相应的k-v数据
+     */
+    Map<String, Object> getKvMap(byte[] data) throws Exception;
 }
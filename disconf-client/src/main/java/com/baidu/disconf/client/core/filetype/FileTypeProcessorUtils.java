@@ -24,27 +24,35 @@ public class FileTypeProcessorUtils {
     public static Map<String, Object> getKvMap(SupportFileTypeEnum supportFileTypeEnum, String fileName)
         throws Exception {
 
-        DisconfFileTypeProcessor disconfFileTypeProcessor;
+        return filter(getProcessor(supportFileTypeEnum).getKvMap(fileName));
+    }
 
-        //
-        // 获取数据
-        //
-        Map<String, Object> dataMap;
+    /**
+     * 输入下载到的文件内容，返回其相应的k-v数据, 不读磁盘
+     */
+    public static Map<String, Object> getKvMap(SupportFileTypeEnum supportFileTypeEnum, byte[] data)
+        throws Exception {
+
+        return filter(getProcessor(supportFileTypeEnum).getKvMap(data));
+    }
+
+    private static DisconfFileTypeProcessor getProcessor(SupportFileTypeEnum supportFileTypeEnum) {
 
         if (supportFileTypeEnum.equals(SupportFileTypeEnum.PROPERTIES)) {
 
-            disconfFileTypeProcessor = new DisconfPropertiesProcessorImpl();
+            return new DisconfPropertiesProcessorImpl();
 
         } else if (supportFileTypeEnum.equals(SupportFileTypeEnum.XML)) {
 
-            disconfFileTypeProcessor = new DisconfXmlProcessorImpl();
+            return new DisconfXmlProcessorImpl();
 
         } else {
 
-            disconfFileTypeProcessor = new DisconfAnyFileProcessorImpl();
+            return new DisconfAnyFileProcessorImpl();
         }
+    }
 
-        dataMap = disconfFileTypeProcessor.getKvMap(fileName);
+    private static Map<String, Object> filter(Map<String, Object> dataMap) {
 
         if (dataMap == null) {
             dataMap = new HashMap<String, Object>();
@@ -17,4 +17,9 @@ public class DisconfAnyFileProcessorImpl implements DisconfFileTypeProcessor {
         return null;
     }
 
+    @Override
+    public Map<String, Object> getKvMap(byte[] data) throws Exception {
+        return null;
+    }
+
 }
@@ -1,5 +1,7 @@
 package com.baidu.disconf.client.core.filetype.impl;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
@@ -25,6 +27,20 @@ public class DisconfPropertiesProcessorImpl implements DisconfFileTypeProcessor
             return null;
         }
 
+        return toMap(properties);
+    }
+
+    @Override
+    public Map<String, Object> getKvMap(byte[] data) throws Exception {
+
+        Properties properties = new Properties();
+        properties.load(new InputStreamReader(new ByteArrayInputStream(data), "utf-8"));
+
+        return toMap(properties);
+    }
+
+    private static Map<String, Object> toMap(Properties properties) {
+
         Map<String, Object> map = new HashMap<String, Object>();
         for (Object object : properties.keySet()) {
 
@@ -1,20 +1,213 @@
 package com.baidu.disconf.client.core.filetype.impl;
 
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
 import com.baidu.disconf.client.core.filetype.DisconfFileTypeProcessor;
+import com.baidu.disconf.core.common.utils.ClassLoaderUtil;
 
 /**
  * xml 处理器
+ * <p/>
+ * 使用 StAX 流式解析, 不构建 DOM, 将 xml 展开成 key-value:
+ * <pre>
+ * &lt;config&gt;
+ *     &lt;db host="127.0.0.1"&gt;&lt;port&gt;3306&lt;/port&gt;&lt;/db&gt;
+ *     &lt;server&gt;a&lt;/server&gt;
+ *     &lt;server&gt;b&lt;/server&gt;
+ * &lt;/config&gt;
+ * </pre>
+ * 展开为 db[@host]=127.0.0.1, db.port=3306, server=a, server(1)=b
+ * <p/>
+ * 1. 根元素不出现在key中 <br/>
+ * 2. 属性使用 [@name] 表示 <br/>
+ * 3. 重复的元素从第二个开始带下标 (n), 第一个不带下标
  *
  * @author knightliao
  */
 public class DisconfXmlProcessorImpl implements DisconfFileTypeProcessor {
 
+    private static final String PATH_SEPARATOR = ".";
+
     @Override
     public Map<String, Object> getKvMap(String fileName) throws Exception {
-        // TODO Auto-generated method stub
-        return null;
+
+        InputStream inputStream = openFile(fileName);
+        if (inputStream == null) {
+            return null;
+        }
+
+        try {
+            return getKvMap(inputStream);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    @Override
+    public Map<String, Object> getKvMap(byte[] data) throws Exception {
+
+        return getKvMap(new ByteArrayInputStream(data));
     }
 
+    /**
+     * 解析 xml 流, 不负责关闭流
+     *
+     * @param inputStream
+     *
+     * @return
+     *
+     * @throws XMLStreamException
+     */
+    public Map<String, Object> getKvMap(InputStream inputStream) throws XMLStreamException {
+
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+
+        XMLStreamReader reader = createInputFactory().createXMLStreamReader(inputStream);
+        try {
+
+            // 当前路径上的元素
+            Deque<Element> elements = new ArrayDeque<Element>();
+
+            while (reader.hasNext()) {
+
+                int event = reader.next();
+
+                if (event == XMLStreamConstants.START_ELEMENT) {
+
+                    Element parent = elements.peek();
+                    Element element;
+                    if (parent == null) {
+                        // 根元素
+                        element = new Element("");
+                    } else {
+                        parent.hasChildren = true;
+                        element = new Element(parent.childPath(reader.getLocalName()));
+                    }
+                    elements.push(element);
+
+                    for (int i = 0; i < reader.getAttributeCount(); i++) {
+                        map.put(element.path + "[@" + reader.getAttributeLocalName(i) + "]",
+                                reader.getAttributeValue(i));
+                    }
+
+                } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+
+                    Element element = elements.peek();
+                    if (element != null) {
+                        element.appendText(reader.getText());
+                    }
+
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+
+                    Element element = elements.pop();
+                    String text = element.getText();
+
+                    // 叶子节点, 或者有文本的节点
+                    if (element.path.length() > 0 && (!element.hasChildren || text.length() > 0)) {
+                        map.put(element.path, text);
+                    }
+                }
+            }
+
+        } finally {
+            reader.close();
+        }
+
+        return map;
+    }
+
+    /**
+     * 不解析 DTD 和外部实体
+     */
+    private XMLInputFactory createInputFactory() {
+
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    /**
+     * 先从classpath读取, 再从文件路径读取
+     *
+     * @param fileName
+     *
+     * @return 文件不存在时返回null
+     */
+    private InputStream openFile(String fileName) throws IOException {
+
+        InputStream inputStream = ClassLoaderUtil.getLoader().getResourceAsStream(fileName);
+        if (inputStream != null) {
+            return inputStream;
+        }
+
+        try {
+            return new FileInputStream(fileName);
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 解析时路径上的元素, 只保存路径、文本和子元素的计数
+     */
+    private static class Element {
+
+        final String path;
+
+        boolean hasChildren = false;
+
+        private StringBuilder text;
+
+        // 子元素名 -> 出现次数
+        private Map<String, Integer> childCount;
+
+        Element(String path) {
+            this.path = path;
+        }
+
+        String childPath(String name) {
+
+            if (childCount == null) {
+                childCount = new HashMap<String, Integer>();
+            }
+
+            Integer count = childCount.get(name);
+            int index = count == null ? 0 : count;
+            childCount.put(name, index + 1);
+
+            String childPath = path.length() == 0 ? name : path + PATH_SEPARATOR + name;
+            if (index > 0) {
+                childPath += "(" + index + ")";
+            }
+            return childPath;
+        }
+
+        void appendText(String value) {
+
+            if (text == null) {
+                text = new StringBuilder();
+            }
+            text.append(value);
+        }
+
+        String getText() {
+            return text == null ? "" : text.toString().trim();
+        }
+    }
 }
@@ -1,5 +1,9 @@
 package com.baidu.disconf.client.core.processor;
 
+import java.util.Set;
+
+import com.baidu.disconf.client.common.update.IDisconfUpdate;
+
 /**
  * 处理算子
  *
@@ -23,6 +27,20 @@ public interface DisconfCoreProcessor {
      */
     void updateOneConfAndCallback(String key) throws Exception;
 
+    /**
+     * 更新指定的配置, 不进行回调. 多个配置一起更新时, 全部更新后再分别调用 {@link #callOneConf(String, Set)}
+     *
+     * @param stamp ZK结点上的版本戳, 未知时为 null. 下载时带上, disconf-web 的从库还没有复制这次修改时改读主库
+     */
+    void updateOneConf(String key, String stamp) throws Exception;
+
+    /**
+     * 调用指定配置的回调函数
+     *
+     * @param called 已经调用过的回调函数, 不再重复调用; 本次调用的会加入其中
+     */
+    void callOneConf(String key, Set<IDisconfUpdate> called) throws Exception;
+
     /**
      * 特殊的，将数据注入到配置实体中
      */
@@ -1,12 +1,19 @@
 package com.baidu.disconf.client.core.processor.impl;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.baidu.disconf.client.common.update.IDisconfChangedKeysUpdate;
 import com.baidu.disconf.client.common.update.IDisconfUpdate;
 import com.baidu.disconf.client.store.DisconfStoreProcessor;
+import com.baidu.disconf.core.common.metrics.MetricsNames;
+import com.baidu.disconf.core.common.metrics.MetricsRegistry;
+import com.baidu.disconf.core.common.metrics.Timer;
 
 /**
  * @author liaoqiqi
@@ -22,30 +29,71 @@ public class DisconfCoreProcessUtils {
     public static void callOneConf(DisconfStoreProcessor disconfStoreProcessor,
                                    String key) throws Exception {
 
+        callOneConf(disconfStoreProcessor, key, newCalledSet());
+    }
+
+    /**
+     * 调用此配置影响的回调函数, 已经在 called 中的不再调用
+     */
+    public static void callOneConf(DisconfStoreProcessor disconfStoreProcessor, String key,
+                                   Set<IDisconfUpdate> called) throws Exception {
+
+        callOneConf(disconfStoreProcessor, key, called, Collections.singleton(key));
+    }
+
+    /**
+     * 调用此配置影响的回调函数, 已经在 called 中的不再调用.
+     * {@link IDisconfChangedKeysUpdate} 每个配置调用一次, 并传入变化的配置项
+     */
+    public static void callOneConf(DisconfStoreProcessor disconfStoreProcessor, String key,
+                                   Set<IDisconfUpdate> called, Set<String> changedKeys) throws Exception {
+
         List<IDisconfUpdate> iDisconfUpdates = disconfStoreProcessor.getUpdateCallbackList(key);
 
         //
         // 获取回调函数列表
         //
 
+        // 本配置已经调用过的
+        Set<IDisconfUpdate> calledForKey = newCalledSet();
+
         // CALL
         for (IDisconfUpdate iDisconfUpdate : iDisconfUpdates) {
 
-            if (iDisconfUpdate != null) {
+            if (iDisconfUpdate == null) {
+                continue;
+            }
+
+            boolean changedKeysUpdate = iDisconfUpdate instanceof IDisconfChangedKeysUpdate;
+            if (changedKeysUpdate ? calledForKey.add(iDisconfUpdate) : called.add(iDisconfUpdate)) {
 
                 LOGGER.info("start to call " + iDisconfUpdate.getClass());
 
                 // set defined
+                long callbackStart = Timer.start();
                 try {
 
-                    iDisconfUpdate.reload();
+                    if (changedKeysUpdate) {
+                        ((IDisconfChangedKeysUpdate) iDisconfUpdate).reload(key, changedKeys);
+                    } else {
+                        iDisconfUpdate.reload();
+                    }
 
                 } catch (Exception e) {
 
+                    MetricsRegistry.getInstance().counter(MetricsNames.CALLBACK_FAILURE).inc();
                     LOGGER.error(e.toString(), e);
                 }
+                MetricsRegistry.getInstance().timer(MetricsNames.CALLBACK).stop(callbackStart);
             }
         }
     }
 
+    /**
+     * 按实例区分的回调函数集合
+     */
+    public static Set<IDisconfUpdate> newCalledSet() {
+        return Collections.newSetFromMap(new IdentityHashMap<IDisconfUpdate, Boolean>());
+    }
+
 }
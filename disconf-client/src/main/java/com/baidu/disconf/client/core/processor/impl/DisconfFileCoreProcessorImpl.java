@@ -1,13 +1,21 @@
 package com.baidu.disconf.client.core.processor.impl;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.baidu.disconf.client.common.model.DisConfCommonModel;
 import com.baidu.disconf.client.common.model.DisconfCenterFile;
+import com.baidu.disconf.client.common.update.IDisconfChangedKeysUpdatePipeline;
+import com.baidu.disconf.client.common.update.IDisconfUpdate;
 import com.baidu.disconf.client.common.update.IDisconfUpdatePipeline;
 import com.baidu.disconf.client.config.DisClientConfig;
 import com.baidu.disconf.client.core.filetype.FileTypeProcessorUtils;
@@ -20,10 +28,20 @@ import com.baidu.disconf.client.store.processor.model.DisconfValue;
 import com.baidu.disconf.client.support.registry.Registry;
 import com.baidu.disconf.client.watch.WatchMgr;
 import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
+import com.baidu.disconf.core.common.metrics.MetricsNames;
+import com.baidu.disconf.core.common.metrics.MetricsRegistry;
+import com.baidu.disconf.core.common.metrics.Timer;
+import com.baidu.disconf.core.common.path.DisconfWebPathMgr;
+import com.baidu.disconf.core.common.utils.ConfigStampUtils;
 import com.baidu.disconf.core.common.utils.GsonUtils;
 
 /**
  * 配置文件处理器实现
+ * <p/>
+ * 下载到内存, 直接从下载的内容解析和注入, 写磁盘在后台进行. 调用回调函数前和第一次载入完成前等待写完,
+ * 这样回调函数和应用直接读文件时看到的是新内容.
+ * <p/>
+ * 更新时只注入值有变化的配置项, 内容没有变化(如重新发布)时不注入也不回调
  *
  * @author liaoqiqi
  * @version 2014-8-4
@@ -44,6 +62,21 @@ public class DisconfFileCoreProcessorImpl implements DisconfCoreProcessor {
     // bean registry
     private Registry registry = null;
 
+    // 指标
+    private MetricsRegistry metricsRegistry = MetricsRegistry.getInstance();
+
+    // 等待写文件的最长时间
+    private static final long SAVE_TIMEOUT_SECONDS = 30;
+
+    // 正在写的文件
+    private final Map<String, Future<String>> pendingSaves = new ConcurrentHashMap<String, Future<String>>();
+
+    // 上次注入的内容的版本戳
+    private final Map<String, String> stamps = new ConcurrentHashMap<String, String>();
+
+    // 已经更新, 还没有回调的配置项
+    private final Map<String, Set<String>> pendingChanges = new HashMap<String, Set<String>>();
+
     public DisconfFileCoreProcessorImpl(WatchMgr watchMgr, FetcherMgr fetcherMgr, Registry registry) {
 
         this.fetcherMgr = fetcherMgr;
@@ -64,6 +97,11 @@ public class DisconfFileCoreProcessorImpl implements DisconfCoreProcessor {
 
             processOneItem(fileName);
         }
+
+        // 应用可能马上读文件
+        for (String fileName : disconfStoreProcessor.getConfKeySet()) {
+            waitForSave(fileName);
+        }
     }
 
     @Override
@@ -75,16 +113,21 @@ public class DisconfFileCoreProcessorImpl implements DisconfCoreProcessor {
         DisconfCenterFile disconfCenterFile = (DisconfCenterFile) disconfStoreProcessor.getConfData(key);
 
         try {
-            updateOneConfFile(key, disconfCenterFile);
+            updateOneConfFile(key, disconfCenterFile, null);
         } catch (Exception e) {
             LOGGER.error(e.toString(), e);
         }
     }
 
     /**
-     * 更新 一個配置文件, 下载、注入到仓库、Watch 三步骤
+     * 更新消息：某个配置文件文件, 下载、注入到仓库、Watch 三步骤
+     *
+     * @param zkStamp ZK结点上的版本戳, 未知时为 null
+     *
+     * @return 有变化的配置项, 没有配置项的文件有变化时为空; 没有变化时为 null
      */
-    private void updateOneConfFile(String fileName, DisconfCenterFile disconfCenterFile) throws Exception {
+    private Set<String> updateOneConfFile(String fileName, DisconfCenterFile disconfCenterFile, String zkStamp)
+            throws Exception {
 
         if (disconfCenterFile == null) {
             throw new Exception("cannot find disconfCenterFile " + fileName);
@@ -93,6 +136,12 @@ public class DisconfFileCoreProcessorImpl implements DisconfCoreProcessor {
         String filePath = fileName;
         Map<String, Object> dataMap = new HashMap<String, Object>();
 
+        // 下载到的内容, 下载失败时为 null
+        byte[] data = null;
+
+        // 下载成功时才知道版本戳
+        String stamp = null;
+
         //
         // 开启disconf才需要远程下载, 否则就本地就好
         //
@@ -101,13 +150,24 @@ public class DisconfFileCoreProcessorImpl implements DisconfCoreProcessor {
             //
             // 下载配置
             //
+            long fetchStart = Timer.start();
             try {
 
-                String url = disconfCenterFile.getRemoteServerUrl();
-                filePath = fetcherMgr.downloadFileFromServer(url, fileName, disconfCenterFile.getFileDir());
+                String url = DisconfWebPathMgr.appendStamp(disconfCenterFile.getRemoteServerUrl(), zkStamp);
+                data = fetcherMgr.downloadFileBytesFromServer(url);
+                stamp = ConfigStampUtils.getStamp(data);
+
+                long nanos = metricsRegistry.timer(MetricsNames.FETCH_LATENCY_PREFIX + fileName).stop(fetchStart);
+                metricsRegistry.timer(MetricsNames.PHASE_FETCH).update(nanos);
+                metricsRegistry.counter(MetricsNames.FETCH_BYTES_PREFIX + fileName).add(data.length);
+
+                // 后台写到磁盘
+                pendingSaves.put(fileName, fetcherMgr.saveFileAsync(fileName, data, disconfCenterFile.getFileDir()));
 
             } catch (Exception e) {
 
+                metricsRegistry.counter(MetricsNames.FETCH_FAILURE_PREFIX + fileName).inc();
+
                 //
                 // 下载失败了, 尝试使用本地的配置
                 //
@@ -121,18 +181,49 @@ public class DisconfFileCoreProcessorImpl implements DisconfCoreProcessor {
             LOGGER.debug("download ok.");
         }
 
-        try {
-            dataMap = FileTypeProcessorUtils.getKvMap(disconfCenterFile.getSupportFileTypeEnum(),
-                    disconfCenterFile.getFilePath());
-        } catch (Exception e) {
-            LOGGER.error("cannot get kv data for " + filePath, e);
-        }
+        Set<String> changedKeys = null;
 
-        //
-        // 注入到仓库中
-        //
-        disconfStoreProcessor.inject2Store(fileName, new DisconfValue(null, dataMap));
-        LOGGER.debug("inject ok.");
+        // 与上次注入的内容相同时不需要解析和注入
+        if (stamp != null && stamp.equals(stamps.get(fileName))) {
+
+            LOGGER.debug("{} not changed, stamp: {}", fileName, stamp);
+
+        } else {
+
+            long parseStart = Timer.start();
+            try {
+                if (data != null) {
+                    dataMap = FileTypeProcessorUtils.getKvMap(disconfCenterFile.getSupportFileTypeEnum(), data);
+                } else {
+                    dataMap = FileTypeProcessorUtils.getKvMap(disconfCenterFile.getSupportFileTypeEnum(),
+                            disconfCenterFile.getFilePath());
+                }
+            } catch (Exception e) {
+                LOGGER.error("cannot get kv data for " + filePath, e);
+            }
+            metricsRegistry.timer(MetricsNames.PHASE_PARSE).stop(parseStart);
+
+            //
+            // 注入到仓库中
+            //
+            long injectStart = Timer.start();
+            changedKeys = disconfStoreProcessor.inject2Store(fileName, new DisconfValue(null, dataMap));
+            metricsRegistry.timer(MetricsNames.PHASE_INJECT).stop(injectStart);
+            LOGGER.debug("inject ok.");
+
+            if (dataMap.isEmpty()) {
+                // 没有配置项的文件, 只能按整个文件变化处理
+                changedKeys = Collections.emptySet();
+            } else if (changedKeys.isEmpty()) {
+                changedKeys = null;
+            }
+
+            if (stamp != null) {
+                stamps.put(fileName, stamp);
+            } else {
+                stamps.remove(fileName);
+            }
+        }
 
         //
         // 开启disconf才需要进行watch
@@ -143,13 +234,17 @@ public class DisconfFileCoreProcessorImpl implements DisconfCoreProcessor {
             //
             DisConfCommonModel disConfCommonModel = disconfStoreProcessor.getCommonModel(fileName);
             if (watchMgr != null) {
+                long watchStart = Timer.start();
                 watchMgr.watchPath(this, disConfCommonModel, fileName, DisConfigTypeEnum.FILE,
-                        GsonUtils.toJson(disconfCenterFile.getKV()));
+                        GsonUtils.toJson(disconfCenterFile.getKV()), stamp);
+                metricsRegistry.timer(MetricsNames.PHASE_WATCH).stop(watchStart);
                 LOGGER.debug("watch ok.");
             } else {
                 LOGGER.warn("cannot monitor {} because watch mgr is null", fileName);
             }
         }
+
+        return changedKeys;
     }
 
     /**
@@ -159,17 +254,61 @@ public class DisconfFileCoreProcessorImpl implements DisconfCoreProcessor {
     public void updateOneConfAndCallback(String key) throws Exception {
 
         // 更新 配置
-        updateOneConf(key);
+        updateOneConf(key, null);
 
         // 回调
-        DisconfCoreProcessUtils.callOneConf(disconfStoreProcessor, key);
-        callUpdatePipeline(key);
+        callOneConf(key, DisconfCoreProcessUtils.newCalledSet());
+    }
+
+    /**
+     * 调用回调函数
+     */
+    @Override
+    public void callOneConf(String key, Set<IDisconfUpdate> called) throws Exception {
+
+        Set<String> changedKeys;
+        synchronized(pendingChanges) {
+            changedKeys = pendingChanges.remove(key);
+        }
+        if (changedKeys == null) {
+            LOGGER.info("{} not changed, skip callback", key);
+            return;
+        }
+
+        // 回调函数可能读文件
+        waitForSave(key);
+
+        DisconfCoreProcessUtils.callOneConf(disconfStoreProcessor, key, called, changedKeys);
+        callUpdatePipeline(key, changedKeys);
+    }
+
+    /**
+     * 等待这个文件写完
+     */
+    private void waitForSave(String fileName) {
+
+        Future<String> future = pendingSaves.get(fileName);
+        if (future == null) {
+            return;
+        }
+
+        try {
+            String filePath = future.get(SAVE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            LOGGER.debug("save ok: " + filePath);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOGGER.error("cannot save " + fileName, e);
+        }
+
+        // 期间又有新的写入时保留
+        pendingSaves.remove(fileName, future);
     }
 
     /**
      * @param key
      */
-    private void callUpdatePipeline(String key) {
+    private void callUpdatePipeline(String key, Set<String> changedKeys) {
 
         Object object = disconfStoreProcessor.getConfData(key);
         if (object != null) {
@@ -178,11 +317,19 @@ public class DisconfFileCoreProcessorImpl implements DisconfCoreProcessor {
             IDisconfUpdatePipeline iDisconfUpdatePipeline =
                     DisconfCenterStore.getInstance().getiDisconfUpdatePipeline();
             if (iDisconfUpdatePipeline != null) {
+                long callbackStart = Timer.start();
                 try {
-                    iDisconfUpdatePipeline.reloadDisconfFile(key, disconfCenterFile.getFilePath());
+                    if (iDisconfUpdatePipeline instanceof IDisconfChangedKeysUpdatePipeline) {
+                        ((IDisconfChangedKeysUpdatePipeline) iDisconfUpdatePipeline)
+                                .reloadDisconfFile(key, disconfCenterFile.getFilePath(), changedKeys);
+                    } else {
+                        iDisconfUpdatePipeline.reloadDisconfFile(key, disconfCenterFile.getFilePath());
+                    }
                 } catch (Exception e) {
+                    metricsRegistry.counter(MetricsNames.CALLBACK_FAILURE).inc();
                     LOGGER.error(e.toString(), e);
                 }
+                metricsRegistry.timer(MetricsNames.CALLBACK).stop(callbackStart);
             }
         }
     }
@@ -190,24 +337,41 @@ public class DisconfFileCoreProcessorImpl implements DisconfCoreProcessor {
     /**
      * 更新消息：某个配置文件
      */
-    private void updateOneConf(String fileName) throws Exception {
+    @Override
+    public void updateOneConf(String fileName, String stamp) throws Exception {
 
         DisconfCenterFile disconfCenterFile = (DisconfCenterFile) disconfStoreProcessor.getConfData(fileName);
 
         if (disconfCenterFile != null) {
 
             // 更新仓库
-            updateOneConfFile(fileName, disconfCenterFile);
+            Set<String> changedKeys = updateOneConfFile(fileName, disconfCenterFile, stamp);
+            if (changedKeys == null) {
+                LOGGER.info("{} not changed", fileName);
+                return;
+            }
+
+            // 等待回调
+            synchronized(pendingChanges) {
+                Set<String> keys = pendingChanges.get(fileName);
+                if (keys == null) {
+                    pendingChanges.put(fileName, new HashSet<String>(changedKeys));
+                } else {
+                    keys.addAll(changedKeys);
+                }
+            }
 
             // 更新实例
-            inject2OneConf(fileName, disconfCenterFile);
+            inject2OneConf(fileName, disconfCenterFile, changedKeys);
         }
     }
 
     /**
      * 为某个配置文件进行注入实例中
+     *
+     * @param changedKeys 只注入这些配置项, 为 null 时全部注入
      */
-    private void inject2OneConf(String fileName, DisconfCenterFile disconfCenterFile) {
+    private void inject2OneConf(String fileName, DisconfCenterFile disconfCenterFile, Set<String> changedKeys) {
 
         if (disconfCenterFile == null) {
             return;
@@ -225,6 +389,11 @@ public class DisconfFileCoreProcessorImpl implements DisconfCoreProcessor {
                 object = disconfCenterFile.getObject();
                 if (object == null) {
                     object = registry.getFirstByType(disconfCenterFile.getCls(), false, true);
+
+                    // 第一次注入这个实例
+                    if (object != null) {
+                        changedKeys = null;
+                    }
                 }
 
             } catch (Exception e) {
@@ -234,7 +403,13 @@ public class DisconfFileCoreProcessorImpl implements DisconfCoreProcessor {
             }
 
             // 注入实体中
-            disconfStoreProcessor.inject2Instance(object, fileName);
+            long injectStart = Timer.start();
+            if (changedKeys == null) {
+                disconfStoreProcessor.inject2Instance(object, fileName);
+            } else {
+                disconfStoreProcessor.inject2Instance(object, fileName, changedKeys);
+            }
+            metricsRegistry.timer(MetricsNames.PHASE_INJECT).stop(injectStart);
 
         } catch (Exception e) {
             LOGGER.warn(e.toString(), e);
@@ -254,7 +429,7 @@ public class DisconfFileCoreProcessorImpl implements DisconfCoreProcessor {
 
             DisconfCenterFile disconfCenterFile = (DisconfCenterFile) disconfStoreProcessor.getConfData(key);
 
-            inject2OneConf(key, disconfCenterFile);
+            inject2OneConf(key, disconfCenterFile, null);
         }
     }
 }
@@ -1,12 +1,21 @@
 package com.baidu.disconf.client.core.processor.impl;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.baidu.disconf.client.common.model.DisConfCommonModel;
 import com.baidu.disconf.client.common.model.DisconfCenterItem;
+import com.baidu.disconf.client.common.update.IDisconfUpdate;
 import com.baidu.disconf.client.common.update.IDisconfUpdatePipeline;
 import com.baidu.disconf.client.config.DisClientConfig;
+import com.baidu.disconf.client.config.DisClientSysConfig;
 import com.baidu.disconf.client.core.processor.DisconfCoreProcessor;
 import com.baidu.disconf.client.fetcher.FetcherMgr;
 import com.baidu.disconf.client.store.DisconfStoreProcessor;
@@ -16,9 +25,16 @@ import com.baidu.disconf.client.store.processor.model.DisconfValue;
 import com.baidu.disconf.client.support.registry.Registry;
 import com.baidu.disconf.client.watch.WatchMgr;
 import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
+import com.baidu.disconf.core.common.metrics.MetricsNames;
+import com.baidu.disconf.core.common.metrics.MetricsRegistry;
+import com.baidu.disconf.core.common.metrics.Timer;
+import com.baidu.disconf.core.common.path.DisconfWebPathMgr;
+import com.baidu.disconf.core.common.utils.ConfigStampUtils;
 
 /**
  * 配置项处理器实现
+ * <p/>
+ * 更新时只有值有变化才注入和回调, 值没有变化(如重新发布)时不注入也不回调
  *
  * @author liaoqiqi
  * @version 2014-8-4
@@ -39,6 +55,12 @@ public class DisconfItemCoreProcessorImpl implements DisconfCoreProcessor {
     // 仓库算子
     private DisconfStoreProcessor disconfStoreProcessor = DisconfStoreProcessorFactory.getDisconfStoreItemProcessor();
 
+    // 指标
+    private MetricsRegistry metricsRegistry = MetricsRegistry.getInstance();
+
+    // 已经更新, 还没有回调的配置项
+    private final Set<String> pendingChanges = new HashSet<String>();
+
     public DisconfItemCoreProcessorImpl(WatchMgr watchMgr, FetcherMgr fetcherMgr, Registry registry) {
         this.registry = registry;
         this.fetcherMgr = fetcherMgr;
@@ -51,38 +73,100 @@ public class DisconfItemCoreProcessorImpl implements DisconfCoreProcessor {
     @Override
     public void processAllItems() {
 
+        // 同一个 app env version 的配置项通过列表接口一次获取
+        Map<String, String> prefetched = prefetchItems();
+
         /**
          * 配置ITEM列表处理
          */
         for (String key : disconfStoreProcessor.getConfKeySet()) {
-            processOneItem(key);
+            processOneItem(key, prefetched);
         }
     }
 
     @Override
     public void processOneItem(String key) {
+        processOneItem(key, Collections.<String, String>emptyMap());
+    }
+
+    private void processOneItem(String key, Map<String, String> prefetched) {
         LOGGER.debug("==============\tstart to process disconf item: " + key + "\t=============================");
 
         DisconfCenterItem disconfCenterItem = (DisconfCenterItem) disconfStoreProcessor.getConfData(key);
         if (disconfCenterItem != null) {
             try {
-                updateOneConfItem(key, disconfCenterItem);
+                updateOneConfItem(key, disconfCenterItem, prefetched, null);
             } catch (Exception e) {
                 LOGGER.error(e.toString(), e);
             }
         }
     }
 
+    /**
+     * 按 app env version 分组, 每组请求一次列表接口. 列表中没有的配置项, 或者列表获取失败的组, 之后仍然逐个下载
+     *
+     * @return 配置项 key 到值
+     */
+    private Map<String, String> prefetchItems() {
+
+        Map<String, String> prefetched = new HashMap<String, String>();
+        if (!DisClientConfig.getInstance().ENABLE_DISCONF) {
+            return prefetched;
+        }
+
+        // 列表 URL 到该列表中的配置项, 获取失败时为 null
+        Map<String, Map<String, String>> lists = new HashMap<String, Map<String, String>>();
+
+        for (String key : disconfStoreProcessor.getConfKeySet()) {
+
+            DisConfCommonModel disConfCommonModel = disconfStoreProcessor.getCommonModel(key);
+            if (disConfCommonModel == null) {
+                continue;
+            }
+
+            String url = DisconfWebPathMgr.getRemoteListUrlParameter(
+                    DisClientSysConfig.getInstance().CONF_SERVER_STORE_ACTION, disConfCommonModel.getApp(),
+                    disConfCommonModel.getVersion(), disConfCommonModel.getEnv());
+
+            if (!lists.containsKey(url)) {
+                long fetchStart = Timer.start();
+                try {
+                    lists.put(url, fetcherMgr.getItemValuesFromServer(url));
+                    metricsRegistry.timer(MetricsNames.PHASE_FETCH).stop(fetchStart);
+                } catch (Exception e) {
+                    LOGGER.warn("cannot get item list, fetch items one by one: " + url + ", " + e.toString());
+                    lists.put(url, null);
+                }
+            }
+
+            Map<String, String> values = lists.get(url);
+            if (values != null && values.containsKey(key)) {
+                prefetched.put(key, values.get(key));
+            }
+        }
+
+        return prefetched;
+    }
+
     /**
      * 更新 一个配置
      */
-    private void updateOneConf(String keyName) throws Exception {
+    @Override
+    public void updateOneConf(String keyName, String stamp) throws Exception {
 
         DisconfCenterItem disconfCenterItem = (DisconfCenterItem) disconfStoreProcessor.getConfData(keyName);
         if (disconfCenterItem != null) {
 
             // 更新仓库
-            updateOneConfItem(keyName, disconfCenterItem);
+            if (!updateOneConfItem(keyName, disconfCenterItem, Collections.<String, String>emptyMap(), stamp)) {
+                LOGGER.info("{} not changed", keyName);
+                return;
+            }
+
+            // 等待回调
+            synchronized(pendingChanges) {
+                pendingChanges.add(keyName);
+            }
 
             // 更新实例
             inject2OneConf(keyName, disconfCenterItem);
@@ -90,9 +174,14 @@ public class DisconfItemCoreProcessorImpl implements DisconfCoreProcessor {
     }
 
     /**
-     * 更新一个配置
+     * 更新一个配置, prefetched 中有值时不再下载
+     *
+     * @param zkStamp ZK结点上的版本戳, 未知时为 null
+     *
+     * @return 仓库中的值是否有变化
      */
-    private void updateOneConfItem(String keyName, DisconfCenterItem disconfCenterItem) throws Exception {
+    private boolean updateOneConfItem(String keyName, DisconfCenterItem disconfCenterItem,
+                                      Map<String, String> prefetched, String zkStamp) throws Exception {
 
         if (disconfCenterItem == null) {
             throw new Exception("cannot find disconfCenterItem " + keyName);
@@ -100,6 +189,9 @@ public class DisconfItemCoreProcessorImpl implements DisconfCoreProcessor {
 
         String value = null;
 
+        // 下载成功时才知道版本戳
+        String stamp = null;
+
         //
         // 开启disconf才需要远程下载, 否则就用默认值
         //
@@ -107,13 +199,26 @@ public class DisconfItemCoreProcessorImpl implements DisconfCoreProcessor {
             //
             // 下载配置
             //
+            long fetchStart = Timer.start();
             try {
-                String url = disconfCenterItem.getRemoteServerUrl();
-                value = fetcherMgr.getValueFromServer(url);
+                if (prefetched.containsKey(keyName)) {
+                    value = prefetched.get(keyName);
+                } else {
+                    String url = DisconfWebPathMgr.appendStamp(disconfCenterItem.getRemoteServerUrl(), zkStamp);
+                    value = fetcherMgr.getValueFromServer(url);
+
+                    long nanos = metricsRegistry.timer(MetricsNames.FETCH_LATENCY_PREFIX + keyName).stop(fetchStart);
+                    metricsRegistry.timer(MetricsNames.PHASE_FETCH).update(nanos);
+                }
                 if (value != null) {
                     LOGGER.debug("value: " + value);
+                    stamp = ConfigStampUtils.getStamp(value);
+                    metricsRegistry.counter(MetricsNames.FETCH_BYTES_PREFIX + keyName)
+                            .add(value.getBytes(StandardCharsets.UTF_8).length);
                 }
+
             } catch (Exception e) {
+                metricsRegistry.counter(MetricsNames.FETCH_FAILURE_PREFIX + keyName).inc();
                 LOGGER.error("cannot use remote configuration: " + keyName, e);
                 LOGGER.info("using local variable: " + keyName);
             }
@@ -123,7 +228,9 @@ public class DisconfItemCoreProcessorImpl implements DisconfCoreProcessor {
         //
         // 注入到仓库中
         //
-        disconfStoreProcessor.inject2Store(keyName, new DisconfValue(value, null));
+        long injectStart = Timer.start();
+        boolean changed = !disconfStoreProcessor.inject2Store(keyName, new DisconfValue(value, null)).isEmpty();
+        metricsRegistry.timer(MetricsNames.PHASE_INJECT).stop(injectStart);
         LOGGER.debug("inject ok.");
 
         //
@@ -132,12 +239,16 @@ public class DisconfItemCoreProcessorImpl implements DisconfCoreProcessor {
         if (DisClientConfig.getInstance().ENABLE_DISCONF) {
             if (watchMgr != null) {
                 DisConfCommonModel disConfCommonModel = disconfStoreProcessor.getCommonModel(keyName);
-                watchMgr.watchPath(this, disConfCommonModel, keyName, DisConfigTypeEnum.ITEM, value);
+                long watchStart = Timer.start();
+                watchMgr.watchPath(this, disConfCommonModel, keyName, DisConfigTypeEnum.ITEM, value, stamp);
+                metricsRegistry.timer(MetricsNames.PHASE_WATCH).stop(watchStart);
                 LOGGER.debug("watch ok.");
             } else {
                 LOGGER.warn("cannot monitor {} because watch mgr is null", keyName);
             }
         }
+
+        return changed;
     }
 
     /**
@@ -147,10 +258,28 @@ public class DisconfItemCoreProcessorImpl implements DisconfCoreProcessor {
     public void updateOneConfAndCallback(String key) throws Exception {
 
         // 更新 配置
-        updateOneConf(key);
+        updateOneConf(key, null);
 
         // 回调
-        DisconfCoreProcessUtils.callOneConf(disconfStoreProcessor, key);
+        callOneConf(key, DisconfCoreProcessUtils.newCalledSet());
+    }
+
+    /**
+     * 调用回调函数
+     */
+    @Override
+    public void callOneConf(String key, Set<IDisconfUpdate> called) throws Exception {
+
+        boolean changed;
+        synchronized(pendingChanges) {
+            changed = pendingChanges.remove(key);
+        }
+        if (!changed) {
+            LOGGER.info("{} not changed, skip callback", key);
+            return;
+        }
+
+        DisconfCoreProcessUtils.callOneConf(disconfStoreProcessor, key, called);
         callUpdatePipeline(key);
     }
 
@@ -166,11 +295,14 @@ public class DisconfItemCoreProcessorImpl implements DisconfCoreProcessor {
             IDisconfUpdatePipeline iDisconfUpdatePipeline =
                     DisconfCenterStore.getInstance().getiDisconfUpdatePipeline();
             if (iDisconfUpdatePipeline != null) {
+                long callbackStart = Timer.start();
                 try {
                     iDisconfUpdatePipeline.reloadDisconfItem(key, disconfCenterItem.getValue());
                 } catch (Exception e) {
+                    metricsRegistry.counter(MetricsNames.CALLBACK_FAILURE).inc();
                     LOGGER.error(e.toString(), e);
                 }
+                metricsRegistry.timer(MetricsNames.CALLBACK).stop(callbackStart);
             }
         }
     }
@@ -196,7 +328,9 @@ public class DisconfItemCoreProcessorImpl implements DisconfCoreProcessor {
                 object = registry.getFirstByType(disconfCenterItem.getDeclareClass(), false, true);
             }
 
+            long injectStart = Timer.start();
             disconfStoreProcessor.inject2Instance(object, key);
+            metricsRegistry.timer(MetricsNames.PHASE_INJECT).stop(injectStart);
 
         } catch (Exception e) {
             LOGGER.warn(e.toString(), e);
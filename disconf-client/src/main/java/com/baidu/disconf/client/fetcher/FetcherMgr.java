@@ -1,5 +1,8 @@
 package com.baidu.disconf.client.fetcher;
 
+import java.util.Map;
+import java.util.concurrent.Future;
+
 /**
  * 下载模块
  *
@@ -13,6 +16,11 @@ public interface FetcherMgr {
      */
     String getValueFromServer(String url) throws Exception;
 
+    /**
+     * 根据列表 URL 一次获取所有配置项的值, key 为配置项名. 只请求一次不重试, 失败时由调用方逐个获取
+     */
+    Map<String, String> getItemValuesFromServer(String url) throws Exception;
+
     /**
      * 下载配置文件, remoteUrl是目标 url, 下载到预定义的文件夹，并 下载到 targetDirPath 目录下
      *
@@ -20,6 +28,20 @@ public interface FetcherMgr {
      */
     String downloadFileFromServer(String url, String fileName, String targetDirPath) throws Exception;
 
+    /**
+     * 下载配置文件到内存
+     *
+     * @throws Exception
+     */
+    byte[] downloadFileBytesFromServer(String url) throws Exception;
+
+    /**
+     * 在后台把下载的配置文件写到磁盘(与 downloadFileFromServer 的位置相同), 同一个文件按提交的顺序写入
+     *
+     * @return 写入完成后得到文件路径
+     */
+    Future<String> saveFileAsync(String fileName, byte[] data, String targetDirPath);
+
     /**
      * 释放资源
      */
@@ -2,13 +2,23 @@ package com.baidu.disconf.client.fetcher.impl;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.baidu.disconf.client.fetcher.FetcherMgr;
 import com.baidu.disconf.core.common.constants.Constants;
+import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
+import com.baidu.disconf.core.common.json.ConfListVo;
+import com.baidu.disconf.core.common.json.ConfVo;
 import com.baidu.disconf.core.common.json.ValueVo;
 import com.baidu.disconf.core.common.restful.RestfulMgr;
 import com.baidu.disconf.core.common.restful.core.RemoteUrl;
@@ -45,6 +55,9 @@ public class FetcherMgrImpl implements FetcherMgr {
     // result tool
     private RestfulMgr restfulMgr = null;
 
+    // 写配置文件的线程, 只有一个, 同一个文件按顺序写
+    private ExecutorService fileWriter;
+
     //
     // 创建对象
     //
@@ -74,7 +87,7 @@ public class FetcherMgrImpl implements FetcherMgr {
         RemoteUrl remoteUrl = new RemoteUrl(url, hostList);
 
         ValueVo confItemVo = restfulMgr.getJsonData(ValueVo.class, remoteUrl, retryTime, retrySleepSeconds);
-        LOGGER.debug("remote server return: " + confItemVo.toString());
+        LOGGER.debug("remote server return: {}", confItemVo);
 
         if (confItemVo.getStatus().equals(Constants.NOTOK)) {
             throw new Exception("status is not ok.");
@@ -83,6 +96,32 @@ public class FetcherMgrImpl implements FetcherMgr {
         return confItemVo.getValue();
     }
 
+    /**
+     * 根据列表 URL 一次获取所有配置项的值
+     */
+    @Override
+    public Map<String, String> getItemValuesFromServer(String url) throws Exception {
+
+        // 远程地址
+        RemoteUrl remoteUrl = new RemoteUrl(url, hostList);
+
+        // 只是优化, 不重试, 失败时仍然逐个下载
+        ConfListVo confListVo = restfulMgr.getJsonData(ConfListVo.class, remoteUrl, 1, 0);
+        if (confListVo == null || !confListVo.isOk()) {
+            throw new Exception("status is not ok.");
+        }
+
+        Map<String, String> values = new HashMap<String, String>();
+        for (ConfVo confVo : confListVo.getResult()) {
+            if (confVo.getType() != null && confVo.getType() == DisConfigTypeEnum.ITEM.getType()) {
+                values.put(confVo.getName(), confVo.getValue());
+            }
+        }
+        LOGGER.debug("remote server return {} items", values.size());
+
+        return values;
+    }
+
     /**
      * 下载配置文件, remoteUrl是 url
      *
@@ -105,6 +144,45 @@ public class FetcherMgrImpl implements FetcherMgr {
 
     }
 
+    @Override
+    public byte[] downloadFileBytesFromServer(String url) throws Exception {
+
+        // 设置远程地址
+        RemoteUrl remoteUrl = new RemoteUrl(url, hostList);
+
+        return restfulMgr.downloadBytes(remoteUrl, retryTime, retrySleepSeconds);
+    }
+
+    @Override
+    public Future<String> saveFileAsync(final String fileName, final byte[] data, final String targetFileDir) {
+
+        return getFileWriter().submit(new Callable<String>() {
+
+            @Override
+            public String call() throws Exception {
+
+                return restfulMgr.saveFile(data, fileName, getLocalDownloadDirPath(), targetFileDir,
+                        enableLocalDownloadDirInClassPath);
+            }
+        });
+    }
+
+    private synchronized ExecutorService getFileWriter() {
+
+        if (fileWriter == null) {
+            fileWriter = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "disconf-file-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return fileWriter;
+    }
+
     /**
      * 获取本地下载的路径DIR, 通过参数判断是否是临时路径
      *
@@ -124,6 +202,14 @@ public class FetcherMgrImpl implements FetcherMgr {
     @Override
     public void release() {
 
+        // 已提交的文件仍然写完
+        synchronized(this) {
+            if (fileWriter != null) {
+                fileWriter.shutdown();
+                fileWriter = null;
+            }
+        }
+
         restfulMgr.close();
     }
 }
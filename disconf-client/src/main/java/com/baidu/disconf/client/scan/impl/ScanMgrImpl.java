@@ -14,7 +14,7 @@ import com.baidu.disconf.client.scan.inner.statically.StaticScannerMgrFactory;
 import com.baidu.disconf.client.scan.inner.statically.impl.StaticScannerNonAnnotationFileMgrImpl;
 import com.baidu.disconf.client.scan.inner.statically.model.ScanStaticModel;
 import com.baidu.disconf.client.scan.inner.statically.strategy.ScanStaticStrategy;
-import com.baidu.disconf.client.scan.inner.statically.strategy.impl.ReflectionScanStatic;
+import com.baidu.disconf.client.scan.inner.statically.strategy.impl.IndexScanStatic;
 import com.baidu.disconf.client.store.inner.DisconfCenterHostFilesStore;
 import com.baidu.disconf.client.support.registry.Registry;
 
@@ -36,7 +36,7 @@ public class ScanMgrImpl implements ScanMgr {
 
     private List<StaticScannerMgr> staticScannerMgrList = new ArrayList<StaticScannerMgr>();
 
-    private ScanStaticStrategy scanStaticStrategy = new ReflectionScanStatic();
+    private ScanStaticStrategy scanStaticStrategy = new IndexScanStatic();
 
     /**
      *
@@ -0,0 +1,204 @@
+package com.baidu.disconf.client.scan.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 编译期生成的 disconf 注解索引
+ * <p/>
+ * 每行一条记录: 类型=类名 或 类型=类名#方法名, 以 # 开头的行为注释
+ * <p/>
+ * 编译期也会用到此类, 所以不依赖日志等第三方库
+ */
+public final class DisconfIndex {
+
+    /**
+     * 索引文件在classpath中的位置
+     */
+    public static final String INDEX_LOCATION = "META-INF/disconf/disconf.index";
+
+    /**
+     * 类名与方法名的分隔符
+     */
+    public static final String METHOD_SEPARATOR = "#";
+
+    private static final String KV_SEPARATOR = "=";
+    private static final String COMMENT_PREFIX = "#";
+    private static final String ENCODING = "UTF-8";
+
+    /**
+     * 索引的记录类型
+     */
+    public static final String DISCONF_FILE = "DisconfFile";
+    public static final String DISCONF_FILE_ITEM = "DisconfFileItem";
+    public static final String DISCONF_ITEM = "DisconfItem";
+    public static final String DISCONF_UPDATE_SERVICE = "DisconfUpdateService";
+    public static final String DISCONF_ACTIVE_BACKUP_SERVICE = "DisconfActiveBackupService";
+    public static final String DISCONF_UPDATE_PIPELINE = "IDisconfUpdatePipeline";
+
+    // 类型 -> 记录
+    private final Map<String, Set<String>> entries = new HashMap<String, Set<String>>();
+
+    public DisconfIndex() {
+    }
+
+    /**
+     * 增加一条记录
+     */
+    public void add(String kind, String value) {
+
+        Set<String> values = entries.get(kind);
+        if (values == null) {
+            values = new TreeSet<String>();
+            entries.put(kind, values);
+        }
+        values.add(value);
+    }
+
+    /**
+     * 获取某类型的所有记录
+     */
+    public Set<String> get(String kind) {
+
+        Set<String> values = entries.get(kind);
+        if (values == null) {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(values);
+    }
+
+    /**
+     * 获取所有记录中涉及到的类名
+     */
+    public Set<String> getClassNames() {
+
+        Set<String> classNames = new LinkedHashSet<String>();
+        for (Set<String> values : entries.values()) {
+            for (String value : values) {
+                classNames.add(getClassName(value));
+            }
+        }
+        return classNames;
+    }
+
+    /**
+     * 合并另一个索引
+     */
+    public void merge(DisconfIndex other) {
+
+        for (Map.Entry<String, Set<String>> entry : other.entries.entrySet()) {
+            for (String value : entry.getValue()) {
+                add(entry.getKey(), value);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * 从记录中获取类名
+     */
+    public static String getClassName(String value) {
+
+        int index = value.indexOf(METHOD_SEPARATOR);
+        if (index < 0) {
+            return value;
+        }
+        return value.substring(0, index);
+    }
+
+    /**
+     * 从记录中获取方法名, 没有则返回null
+     */
+    public static String getMethodName(String value) {
+
+        int index = value.indexOf(METHOD_SEPARATOR);
+        if (index < 0) {
+            return null;
+        }
+        return value.substring(index + 1);
+    }
+
+    /**
+     * 读取索引
+     */
+    public static DisconfIndex read(Reader reader) throws IOException {
+
+        DisconfIndex index = new DisconfIndex();
+
+        BufferedReader bufferedReader = new BufferedReader(reader);
+        String line;
+        while ((line = bufferedReader.readLine()) != null) {
+
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith(COMMENT_PREFIX)) {
+                continue;
+            }
+
+            int pos = line.indexOf(KV_SEPARATOR);
+            if (pos <= 0 || pos == line.length() - 1) {
+                continue;
+            }
+
+            index.add(line.substring(0, pos).trim(), line.substring(pos + 1).trim());
+        }
+
+        return index;
+    }
+
+    /**
+     * 写入索引
+     */
+    public void write(Writer writer) throws IOException {
+
+        writer.write(COMMENT_PREFIX + " generated by " + DisconfIndexProcessor.class.getName() + "\n");
+
+        for (String kind : new TreeSet<String>(entries.keySet())) {
+            for (String value : entries.get(kind)) {
+                writer.write(kind + KV_SEPARATOR + value + "\n");
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * 读取classpath中所有的索引文件并合并, 一个索引都没有时返回null
+     */
+    public static DisconfIndex load(ClassLoader classLoader, String location) throws IOException {
+
+        Enumeration<URL> urls = classLoader.getResources(location);
+        if (!urls.hasMoreElements()) {
+            return null;
+        }
+
+        DisconfIndex index = new DisconfIndex();
+
+        while (urls.hasMoreElements()) {
+
+            URL url = urls.nextElement();
+
+            InputStream inputStream = url.openStream();
+            try {
+                index.merge(read(new InputStreamReader(inputStream, ENCODING)));
+            } finally {
+                inputStream.close();
+            }
+        }
+
+        return index;
+    }
+}
@@ -0,0 +1,216 @@
+package com.baidu.disconf.client.scan.index;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import com.baidu.disconf.client.common.annotations.DisconfActiveBackupService;
+import com.baidu.disconf.client.common.annotations.DisconfFile;
+import com.baidu.disconf.client.common.annotations.DisconfFileItem;
+import com.baidu.disconf.client.common.annotations.DisconfItem;
+import com.baidu.disconf.client.common.annotations.DisconfUpdateService;
+import com.baidu.disconf.client.common.update.IDisconfUpdatePipeline;
+
+/**
+ * 编译期扫描 disconf 注解, 生成 {@link DisconfIndex#INDEX_LOCATION} 索引文件, 运行时不再需要扫描classpath
+ * <p/>
+ * 通过 META-INF/services 自动注册, 依赖 disconf-client 的工程编译时自动生效
+ */
+@SupportedAnnotationTypes("*")
+public class DisconfIndexProcessor extends AbstractProcessor {
+
+    private Elements elementUtils;
+    private Types typeUtils;
+
+    // 本次编译生成的索引
+    private final DisconfIndex index = new DisconfIndex();
+
+    // 本次编译涉及到的类, 增量编译时用于剔除旧索引中过期的记录
+    private final Set<String> compiledClasses = new HashSet<String>();
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+
+        elementUtils = processingEnv.getElementUtils();
+        typeUtils = processingEnv.getTypeUtils();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            return false;
+        }
+
+        //
+        // 类注解
+        //
+        collectTypes(roundEnv, DisconfFile.class, DisconfIndex.DISCONF_FILE);
+        collectTypes(roundEnv, DisconfUpdateService.class, DisconfIndex.DISCONF_UPDATE_SERVICE);
+        collectTypes(roundEnv, DisconfActiveBackupService.class, DisconfIndex.DISCONF_ACTIVE_BACKUP_SERVICE);
+
+        //
+        // 方法注解
+        //
+        collectMethods(roundEnv, DisconfFileItem.class, DisconfIndex.DISCONF_FILE_ITEM);
+        collectMethods(roundEnv, DisconfItem.class, DisconfIndex.DISCONF_ITEM);
+
+        //
+        // update pipeline 的实现类
+        //
+        TypeElement pipelineElement = elementUtils.getTypeElement(IDisconfUpdatePipeline.class.getName());
+        TypeMirror pipelineType = pipelineElement == null ? null : typeUtils.erasure(pipelineElement.asType());
+
+        for (TypeElement typeElement : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            collectCompiledType(typeElement, pipelineType);
+        }
+
+        // 不占用注解, 其它processor仍可以处理
+        return false;
+    }
+
+    /**
+     * 收集类注解
+     */
+    private void collectTypes(RoundEnvironment roundEnv, Class<? extends Annotation> annotation, String kind) {
+
+        for (TypeElement typeElement : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+            index.add(kind, getBinaryName(typeElement));
+        }
+    }
+
+    /**
+     * 收集方法注解
+     */
+    private void collectMethods(RoundEnvironment roundEnv, Class<? extends Annotation> annotation, String kind) {
+
+        for (ExecutableElement method : ElementFilter.methodsIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+
+            TypeElement typeElement = (TypeElement) method.getEnclosingElement();
+            index.add(kind, getBinaryName(typeElement) + DisconfIndex.METHOD_SEPARATOR + method.getSimpleName());
+        }
+    }
+
+    /**
+     * 记录本次编译的类(含内部类), 并收集 IDisconfUpdatePipeline 的实现类
+     */
+    private void collectCompiledType(TypeElement typeElement, TypeMirror pipelineType) {
+
+        String binaryName = getBinaryName(typeElement);
+        compiledClasses.add(binaryName);
+
+        if (pipelineType != null && typeElement.getKind() == ElementKind.CLASS &&
+                !typeElement.getModifiers().contains(Modifier.ABSTRACT) &&
+                typeUtils.isAssignable(typeUtils.erasure(typeElement.asType()), pipelineType)) {
+            index.add(DisconfIndex.DISCONF_UPDATE_PIPELINE, binaryName);
+        }
+
+        for (Element enclosed : typeElement.getEnclosedElements()) {
+            if (enclosed instanceof TypeElement) {
+                collectCompiledType((TypeElement) enclosed, pipelineType);
+            }
+        }
+    }
+
+    /**
+     * 写索引文件, 增量编译时保留未重新编译的类的旧记录
+     */
+    private void writeIndex() {
+
+        DisconfIndex result = new DisconfIndex();
+        DisconfIndex previous = readPreviousIndex();
+
+        if (previous != null) {
+            for (String kind : new String[] {DisconfIndex.DISCONF_FILE, DisconfIndex.DISCONF_FILE_ITEM,
+                                             DisconfIndex.DISCONF_ITEM, DisconfIndex.DISCONF_UPDATE_SERVICE,
+                                             DisconfIndex.DISCONF_ACTIVE_BACKUP_SERVICE,
+                                             DisconfIndex.DISCONF_UPDATE_PIPELINE}) {
+
+                for (String value : previous.get(kind)) {
+
+                    String className = DisconfIndex.getClassName(value);
+                    if (!compiledClasses.contains(className) &&
+                            elementUtils.getTypeElement(className.replace('$', '.')) != null) {
+                        result.add(kind, value);
+                    }
+                }
+            }
+        }
+
+        result.merge(index);
+
+        // 没有编译任何类时不生成索引. 有编译的类但没有注解时生成空索引, 表示这些类不需要扫描
+        if (result.isEmpty() && compiledClasses.isEmpty()) {
+            return;
+        }
+
+        try {
+
+            FileObject fileObject = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    DisconfIndex.INDEX_LOCATION);
+            Writer writer = fileObject.openWriter();
+            try {
+                result.write(writer);
+            } finally {
+                writer.close();
+            }
+
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "cannot write disconf index " + DisconfIndex.INDEX_LOCATION + ": " + e.toString());
+        }
+    }
+
+    /**
+     * 读取上一次编译生成的索引, 不存在则返回null
+     */
+    private DisconfIndex readPreviousIndex() {
+
+        try {
+
+            FileObject fileObject = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "",
+                    DisconfIndex.INDEX_LOCATION);
+            Reader reader = fileObject.openReader(true);
+            try {
+                return DisconfIndex.read(reader);
+            } finally {
+                reader.close();
+            }
+
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private String getBinaryName(TypeElement typeElement) {
+        return elementUtils.getBinaryName(typeElement).toString();
+    }
+}
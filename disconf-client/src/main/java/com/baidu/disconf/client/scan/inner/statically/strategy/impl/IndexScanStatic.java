@@ -0,0 +1,348 @@
+package com.baidu.disconf.client.scan.inner.statically.strategy.impl;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.baidu.disconf.client.common.annotations.DisconfActiveBackupService;
+import com.baidu.disconf.client.common.annotations.DisconfFile;
+import com.baidu.disconf.client.common.annotations.DisconfFileItem;
+import com.baidu.disconf.client.common.annotations.DisconfItem;
+import com.baidu.disconf.client.common.annotations.DisconfUpdateService;
+import com.baidu.disconf.client.common.constants.Constants;
+import com.baidu.disconf.client.common.update.IDisconfUpdatePipeline;
+import com.baidu.disconf.client.config.DisClientConfig;
+import com.baidu.disconf.client.scan.index.DisconfIndex;
+import com.baidu.disconf.client.scan.inner.statically.model.ScanStaticModel;
+
+/**
+ * 扫描静态注解，并且进行分析整合数据
+ * <p/>
+ * 使用编译期生成的 {@link DisconfIndex}, 没有索引或索引与classpath不一致时使用 Reflection Lib.
+ * 索引只包含用 {@link com.baidu.disconf.client.scan.index.DisconfIndexProcessor} 编译的类,
+ * 扫描的包所在的某个classpath目录或jar中没有索引时, 这个包仍使用 Reflection Lib
+ */
+public class IndexScanStatic extends ReflectionScanStatic {
+
+    private final String indexLocation;
+
+    public IndexScanStatic() {
+        this(DisconfIndex.INDEX_LOCATION);
+    }
+
+    public IndexScanStatic(String indexLocation) {
+        this.indexLocation = indexLocation;
+    }
+
+    /**
+     * 扫描想要的类
+     */
+    @Override
+    public ScanStaticModel scan(List<String> packNameList) {
+
+        if (DisClientConfig.getInstance().enableScanIndex) {
+
+            try {
+
+                ScanStaticModel scanModel = scanIndex(packNameList);
+                if (scanModel != null) {
+
+                    // 分析
+                    analysis(scanModel);
+
+                    return scanModel;
+                }
+
+            } catch (Exception e) {
+                LOGGER.warn("cannot scan with disconf index " + indexLocation + ", using classpath scan. " +
+                        e.toString());
+            }
+        }
+
+        return super.scan(packNameList);
+    }
+
+    /**
+     * 根据索引获取基本信息, 没有可用的索引时返回null
+     */
+    private ScanStaticModel scanIndex(List<String> packNameList) throws Exception {
+
+        ClassLoader classLoader = getClassLoader();
+
+        Set<String> indexRoots = getIndexRoots(classLoader);
+        if (indexRoots.isEmpty()) {
+            LOGGER.debug("cannot find disconf index " + indexLocation);
+            return null;
+        }
+
+        // 索引覆盖的包和需要扫描的包
+        List<String> indexedPackNames = new ArrayList<String>();
+        List<String> scanPackNames = new ArrayList<String>();
+        for (String packName : packNameList) {
+            if (isIndexed(classLoader, packName, indexRoots)) {
+                indexedPackNames.add(packName);
+            } else {
+                scanPackNames.add(packName);
+            }
+        }
+
+        if (indexedPackNames.isEmpty()) {
+            LOGGER.debug("disconf index " + indexLocation + " does not cover " + packNameList);
+            return null;
+        }
+
+        DisconfIndex index = DisconfIndex.load(classLoader, indexLocation);
+
+        LOGGER.debug("scan " + indexedPackNames + " with disconf index " + indexLocation);
+
+        IndexFilter filter = new IndexFilter(indexedPackNames);
+
+        ScanStaticModel scanModel = new ScanStaticModel();
+
+        //
+        // 获取DisconfFile class
+        //
+        scanModel.setDisconfFileClassSet(loadClasses(classLoader, filter, index.get(DisconfIndex.DISCONF_FILE)));
+
+        //
+        // 获取DisconfFileItem method
+        //
+        scanModel.setDisconfFileItemMethodSet(loadMethods(classLoader, filter,
+                index.get(DisconfIndex.DISCONF_FILE_ITEM), DisconfFileItem.class));
+
+        //
+        // 获取DisconfItem method
+        //
+        scanModel.setDisconfItemMethodSet(loadMethods(classLoader, filter, index.get(DisconfIndex.DISCONF_ITEM),
+                DisconfItem.class));
+
+        //
+        // 获取DisconfActiveBackupService
+        //
+        scanModel.setDisconfActiveBackupServiceClassSet(loadClasses(classLoader, filter,
+                index.get(DisconfIndex.DISCONF_ACTIVE_BACKUP_SERVICE)));
+
+        //
+        // 获取DisconfUpdateService
+        //
+        scanModel.setDisconfUpdateService(loadClasses(classLoader, filter,
+                index.get(DisconfIndex.DISCONF_UPDATE_SERVICE)));
+
+        // update pipeline
+        Set<Class<?>> iDisconfUpdatePipeline = loadClasses(classLoader, filter,
+                index.get(DisconfIndex.DISCONF_UPDATE_PIPELINE));
+        for (Class<?> pipeline : iDisconfUpdatePipeline) {
+            if (IDisconfUpdatePipeline.class.isAssignableFrom(pipeline)) {
+                scanModel.setiDisconfUpdatePipeline((Class<IDisconfUpdatePipeline>) pipeline);
+                break;
+            }
+        }
+
+        //
+        // 索引与classpath中的类是否一致
+        //
+        verify(scanModel);
+
+        //
+        // 没有索引的包
+        //
+        if (!scanPackNames.isEmpty()) {
+            LOGGER.info("disconf index " + indexLocation + " does not cover " + scanPackNames +
+                    ", using classpath scan for them");
+            merge(scanModel, scanBasicInfo(scanPackNames));
+        }
+
+        return scanModel;
+    }
+
+    /**
+     * 所有索引文件所在的classpath目录或jar
+     */
+    private Set<String> getIndexRoots(ClassLoader classLoader) throws IOException {
+
+        Set<String> roots = new HashSet<String>();
+
+        Enumeration<URL> urls = classLoader.getResources(indexLocation);
+        while (urls.hasMoreElements()) {
+            String url = urls.nextElement().toString();
+            roots.add(url.substring(0, url.length() - indexLocation.length()));
+        }
+
+        return roots;
+    }
+
+    /**
+     * 包所在的每个classpath目录或jar都有索引. 找不到包时(如没有目录项的jar)不能确定, 视为没有索引
+     */
+    private boolean isIndexed(ClassLoader classLoader, String packName, Set<String> indexRoots) throws IOException {
+
+        String packPath = packName.replace('.', '/');
+
+        boolean matched = false;
+
+        Enumeration<URL> urls = classLoader.getResources(packPath);
+        while (urls.hasMoreElements()) {
+
+            String url = urls.nextElement().toString();
+            if (url.endsWith("/")) {
+                url = url.substring(0, url.length() - 1);
+            }
+
+            if (!url.endsWith(packPath) ||
+                    !indexRoots.contains(url.substring(0, url.length() - packPath.length()))) {
+                return false;
+            }
+            matched = true;
+        }
+
+        return matched;
+    }
+
+    /**
+     * 合并 Reflection 扫描的结果
+     */
+    private void merge(ScanStaticModel scanModel, ScanStaticModel other) {
+
+        scanModel.setReflections(other.getReflections());
+
+        scanModel.setDisconfFileClassSet(union(scanModel.getDisconfFileClassSet(),
+                other.getDisconfFileClassSet()));
+        scanModel.setDisconfFileItemMethodSet(union(scanModel.getDisconfFileItemMethodSet(),
+                other.getDisconfFileItemMethodSet()));
+        scanModel.setDisconfItemMethodSet(union(scanModel.getDisconfItemMethodSet(),
+                other.getDisconfItemMethodSet()));
+        scanModel.setDisconfActiveBackupServiceClassSet(union(scanModel.getDisconfActiveBackupServiceClassSet(),
+                other.getDisconfActiveBackupServiceClassSet()));
+        scanModel.setDisconfUpdateService(union(scanModel.getDisconfUpdateService(),
+                other.getDisconfUpdateService()));
+
+        if (scanModel.getiDisconfUpdatePipeline() == null) {
+            scanModel.setiDisconfUpdatePipeline(other.getiDisconfUpdatePipeline());
+        }
+    }
+
+    private static <T> Set<T> union(Set<T> first, Set<T> second) {
+
+        Set<T> result = new HashSet<T>(first);
+        if (second != null) {
+            result.addAll(second);
+        }
+        return result;
+    }
+
+    /**
+     * 索引中的类注解在运行时必须仍然存在, 否则索引已过期
+     */
+    private void verify(ScanStaticModel scanModel) throws Exception {
+
+        verifyAnnotation(scanModel.getDisconfFileClassSet(), DisconfFile.class);
+        verifyAnnotation(scanModel.getDisconfUpdateService(), DisconfUpdateService.class);
+        verifyAnnotation(scanModel.getDisconfActiveBackupServiceClassSet(), DisconfActiveBackupService.class);
+    }
+
+    private void verifyAnnotation(Set<Class<?>> classSet, Class<? extends Annotation> annotation) throws Exception {
+
+        for (Class<?> clazz : classSet) {
+            if (!clazz.isAnnotationPresent(annotation)) {
+                throw new Exception("disconf index is out of date, " + clazz.getName() + " has no annotation " +
+                        annotation.getName());
+            }
+        }
+    }
+
+    /**
+     * 加载索引中的类
+     */
+    private Set<Class<?>> loadClasses(ClassLoader classLoader, IndexFilter filter, Set<String> values)
+            throws ClassNotFoundException {
+
+        Set<Class<?>> classSet = new HashSet<Class<?>>();
+
+        for (String value : values) {
+
+            if (!filter.accept(value)) {
+                continue;
+            }
+
+            classSet.add(Class.forName(value, false, classLoader));
+        }
+
+        return classSet;
+    }
+
+    /**
+     * 加载索引中的方法
+     */
+    private Set<Method> loadMethods(ClassLoader classLoader, IndexFilter filter, Set<String> values,
+                                   Class<? extends Annotation> annotation) throws Exception {
+
+        Set<Method> methodSet = new HashSet<Method>();
+
+        for (String value : values) {
+
+            String className = DisconfIndex.getClassName(value);
+            if (!filter.accept(className)) {
+                continue;
+            }
+
+            String methodName = DisconfIndex.getMethodName(value);
+            Class<?> clazz = Class.forName(className, false, classLoader);
+
+            boolean found = false;
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (method.getName().equals(methodName) && method.isAnnotationPresent(annotation)) {
+                    methodSet.add(method);
+                    found = true;
+                }
+            }
+
+            if (!found) {
+                throw new Exception("disconf index is out of date, cannot find method " + value + " with " +
+                        "annotation " + annotation.getName());
+            }
+        }
+
+        return methodSet;
+    }
+
+    private ClassLoader getClassLoader() {
+
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = IndexScanStatic.class.getClassLoader();
+        }
+        return classLoader;
+    }
+
+    /**
+     * 与 Reflection 扫描相同的包过滤规则
+     */
+    private static class IndexFilter {
+
+        private final List<String> prefixList = new ArrayList<String>();
+
+        IndexFilter(List<String> packNameList) {
+
+            prefixList.add(Constants.DISCONF_PACK_NAME + ".");
+            for (String packName : packNameList) {
+                prefixList.add(packName + ".");
+            }
+        }
+
+        boolean accept(String className) {
+
+            for (String prefix : prefixList) {
+                if (className.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
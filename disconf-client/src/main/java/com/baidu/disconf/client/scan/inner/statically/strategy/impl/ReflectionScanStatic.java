@@ -102,7 +102,7 @@ public class ReflectionScanStatic implements ScanStaticStrategy {
     /**
      * 分析出一些关系 出来
      */
-    private void analysis(ScanStaticModel scanModel) {
+    protected void analysis(ScanStaticModel scanModel) {
 
         // 分析出配置文件MAP
         analysis4DisconfFile(scanModel);
@@ -174,7 +174,7 @@ public class ReflectionScanStatic implements ScanStaticStrategy {
     /**
      * 扫描基本信息
      */
-    private ScanStaticModel scanBasicInfo(List<String> packNameList) {
+    protected ScanStaticModel scanBasicInfo(List<String> packNameList) {
 
         ScanStaticModel scanModel = new ScanStaticModel();
 
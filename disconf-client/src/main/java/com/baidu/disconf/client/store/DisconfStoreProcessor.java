@@ -51,6 +51,11 @@ public interface DisconfStoreProcessor {
      */
     void inject2Instance(Object object, String keyName);
 
+    /**
+     * 将对象object中的数据注入配置中, 只注入 changedKeys 中的配置项
+     */
+    void inject2Instance(Object object, String keyName, Set<String> changedKeys);
+
     /**
      * 当是配置文件时，有两个参数<br/>
      * 当是配置项时，只有一个参数 ，第二个参数忽略
@@ -59,8 +64,10 @@ public interface DisconfStoreProcessor {
 
     /**
      * 将配置数据注入到仓库
+     *
+     * @return 值有变化的配置项, 没有变化时为空
      */
-    void inject2Store(String fileName, DisconfValue disconfValue);
+    Set<String> inject2Store(String fileName, DisconfValue disconfValue);
 
     /**
      * 批量添加配置
@@ -19,6 +19,7 @@ import com.baidu.disconf.client.store.DisconfStoreProcessor;
 import com.baidu.disconf.client.store.DisconfStoreProcessorFactory;
 import com.baidu.disconf.client.support.utils.MethodUtils;
 import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
+import com.baidu.disconf.core.common.log.AccessLog;
 
 /**
  * 配置拦截
@@ -31,6 +32,8 @@ public class DisconfAspectJ {
 
     protected static final Logger LOGGER = LoggerFactory.getLogger(DisconfAspectJ.class);
 
+    private static final AccessLog ACCESS_LOG = AccessLog.getInstance();
+
     @Pointcut(value = "execution(public * *(..))")
     public void anyPublicMethod() {
     }
@@ -67,9 +70,8 @@ public class DisconfAspectJ {
                         DisconfStoreProcessorFactory.getDisconfStoreFileProcessor();
                 Object ret = disconfStoreProcessor.getConfig(disconfFile.filename(), disconfFileItem.name());
                 if (ret != null) {
-                    LOGGER.debug("using disconf store value: " + disconfFile.filename() + " ("
-                            + disconfFileItem.name() +
-                            " , " + ret + ")");
+                    ACCESS_LOG.log("store.file", DisClientConfig.getInstance().APP,
+                            disconfFile.filename() + "/" + disconfFileItem.name(), ret);
                     return ret;
                 }
             }
@@ -103,7 +105,7 @@ public class DisconfAspectJ {
             DisconfStoreProcessor disconfStoreProcessor = DisconfStoreProcessorFactory.getDisconfStoreItemProcessor();
             Object ret = disconfStoreProcessor.getConfig(null, disconfItem.key());
             if (ret != null) {
-                LOGGER.debug("using disconf store value: (" + disconfItem.key() + " , " + ret + ")");
+                ACCESS_LOG.log("store.item", DisClientConfig.getInstance().APP, disconfItem.key(), ret);
                 return ret;
             }
         }
@@ -3,10 +3,14 @@ package com.baidu.disconf.client.store.processor.impl;
 import static com.baidu.disconf.client.store.inner.DisconfCenterStore.getInstance;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 
+import org.apache.commons.lang3.ObjectUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,6 +23,9 @@ import com.baidu.disconf.client.common.model.DisconfCenterFile.FileItemValue;
 import com.baidu.disconf.client.common.update.IDisconfUpdate;
 import com.baidu.disconf.client.store.DisconfStoreProcessor;
 import com.baidu.disconf.client.store.processor.model.DisconfValue;
+import com.baidu.disconf.core.common.metrics.Counter;
+import com.baidu.disconf.core.common.metrics.MetricsNames;
+import com.baidu.disconf.core.common.metrics.MetricsRegistry;
 
 /**
  * 配置文件仓库实现器
@@ -30,6 +37,9 @@ public class DisconfStoreFileProcessorImpl implements DisconfStoreProcessor {
 
     protected static final Logger LOGGER = LoggerFactory.getLogger(DisconfStoreFileProcessorImpl.class);
 
+    // 仓库读取次数
+    private static final Counter STORE_READ = MetricsRegistry.getInstance().counter(MetricsNames.STORE_READ);
+
     /**
      *
      */
@@ -113,45 +123,76 @@ public class DisconfStoreFileProcessorImpl implements DisconfStoreProcessor {
         //
         // 注入实体
         //
-        Map<String, FileItemValue> keMap = disconfCenterFile.getKeyMaps();
-        for (String fileItem : keMap.keySet()) {
+        for (Map.Entry<String, FileItemValue> entry : disconfCenterFile.getKeyMaps().entrySet()) {
+            inject2Instance(object, fileName, entry.getKey(), entry.getValue());
+        }
+    }
 
-            // 根据类型设置值
-            try {
+    /**
+     * 只注入有变化的配置项, 其它的在实例中已经是仓库里的值
+     */
+    @Override
+    public void inject2Instance(Object object, String fileName, Set<String> changedKeys) {
 
-                //
-                // 静态类
-                //
-                if (object == null) {
+        DisconfCenterFile disconfCenterFile = getInstance().getConfFileMap().get(fileName);
 
-                    if (keMap.get(fileItem).isStatic()) {
-                        LOGGER.debug(fileItem + " is a static field. ");
-                        keMap.get(fileItem).setValue4StaticFileItem(keMap.get(fileItem).getValue());
-                    }
+        // 校验是否存在
+        if (disconfCenterFile == null) {
+            LOGGER.error("cannot find " + fileName + " in store....");
+            return;
+        }
 
-                    //
-                    // 非静态类
-                    //
-                } else {
+        if (object != null) {
+            disconfCenterFile.setObject(object);
+        }
 
-                    LOGGER.debug(fileItem + " is a non-static field. ");
+        Map<String, FileItemValue> keMap = disconfCenterFile.getKeyMaps();
+        for (String fileItem : changedKeys) {
 
-                    if (keMap.get(fileItem).getValue() == null) {
+            FileItemValue fileItemValue = keMap.get(fileItem);
+            if (fileItemValue != null) {
+                inject2Instance(object, fileName, fileItem, fileItemValue);
+            }
+        }
+    }
 
-                        // 如果仓库值为空，则实例 直接使用默认值
-                        Object defaultValue = keMap.get(fileItem).getFieldDefaultValue(object);
-                        keMap.get(fileItem).setValue(defaultValue);
+    private void inject2Instance(Object object, String fileName, String fileItem, FileItemValue fileItemValue) {
 
-                    } else {
+        // 根据类型设置值
+        try {
 
-                        // 如果仓库里的值为非空，则实例使用仓库里的值
-                        keMap.get(fileItem).setValue4FileItem(object, keMap.get(fileItem).getValue());
-                    }
+            //
+            // 静态类
+            //
+            if (object == null) {
+
+                if (fileItemValue.isStatic()) {
+                    LOGGER.debug("{} is a static field. ", fileItem);
+                    fileItemValue.setValue4StaticFileItem(fileItemValue.getValue());
                 }
 
-            } catch (Exception e) {
-                LOGGER.error("inject2Instance fileName " + fileName + " " + e.toString(), e);
+                //
+                // 非静态类
+                //
+            } else {
+
+                LOGGER.debug("{} is a non-static field. ", fileItem);
+
+                if (fileItemValue.getValue() == null) {
+
+                    // 如果仓库值为空，则实例 直接使用默认值
+                    Object defaultValue = fileItemValue.getFieldDefaultValue(object);
+                    fileItemValue.setValue(defaultValue);
+
+                } else {
+
+                    // 如果仓库里的值为非空，则实例使用仓库里的值
+                    fileItemValue.setValue4FileItem(object, fileItemValue.getValue());
+                }
             }
+
+        } catch (Exception e) {
+            LOGGER.error("inject2Instance fileName " + fileName + " " + e.toString(), e);
         }
     }
 
@@ -161,16 +202,18 @@ public class DisconfStoreFileProcessorImpl implements DisconfStoreProcessor {
     @Override
     public Object getConfig(String fileName, String keyName) {
 
+        STORE_READ.inc();
+
         DisconfCenterFile disconfCenterFile = getInstance().getConfFileMap().get(fileName);
 
         // 校验是否存在
         if (disconfCenterFile == null) {
-            LOGGER.debug("cannot find " + fileName + " in store....");
+            LOGGER.debug("cannot find {} in store....", fileName);
             return null;
         }
 
         if (disconfCenterFile.getKeyMaps().get(keyName) == null) {
-            LOGGER.debug("cannot find " + fileName + ", " + keyName + " in store....");
+            LOGGER.debug("cannot find {}, {} in store....", fileName, keyName);
             return null;
         }
 
@@ -178,29 +221,32 @@ public class DisconfStoreFileProcessorImpl implements DisconfStoreProcessor {
     }
 
     /**
-     *
+     * 与仓库里的值比较, 返回有变化的配置项
      */
     @Override
-    public void inject2Store(String fileName, DisconfValue disconfValue) {
+    public Set<String> inject2Store(String fileName, DisconfValue disconfValue) {
 
         DisconfCenterFile disconfCenterFile = getInstance().getConfFileMap().get(fileName);
 
         // 校验是否存在
         if (disconfCenterFile == null) {
             LOGGER.error("cannot find " + fileName + " in store....");
-            return;
+            return Collections.emptySet();
         }
 
         if (disconfValue == null || disconfValue.getFileData() == null) {
             LOGGER.error("value is null for {}", fileName);
-            return;
+            return Collections.emptySet();
         }
 
+        Set<String> changedKeys = new HashSet<String>();
+
         // 存储
         Map<String, FileItemValue> keMap = disconfCenterFile.getKeyMaps();
         if (keMap.size() > 0) {
-            for (String fileItem : keMap.keySet()) {
+            for (Map.Entry<String, FileItemValue> entry : keMap.entrySet()) {
 
+                String fileItem = entry.getKey();
                 Object object = disconfValue.getFileData().get(fileItem);
                 if (object == null) {
                     LOGGER.error("cannot find {} to be injected. file content is: {}", fileItem,
@@ -211,8 +257,11 @@ public class DisconfStoreFileProcessorImpl implements DisconfStoreProcessor {
                 // 根据类型设置值
                 try {
 
-                    Object value = keMap.get(fileItem).getFieldValueByType(object);
-                    keMap.get(fileItem).setValue(value);
+                    Object value = entry.getValue().getFieldValueByType(object);
+                    if (!ObjectUtils.equals(value, entry.getValue().getValue())) {
+                        entry.getValue().setValue(value);
+                        changedKeys.add(fileItem);
+                    }
 
                 } catch (Exception e) {
                     LOGGER.error("inject2Store filename: " + fileName + " " + e.toString(), e);
@@ -223,12 +272,48 @@ public class DisconfStoreFileProcessorImpl implements DisconfStoreProcessor {
         // 使用过 XML式配置
         if (disconfCenterFile.isTaggedWithNonAnnotationFile()) {
 
+            Set<String> changedAdditionalKeys =
+                getChangedKeys(disconfCenterFile.getAdditionalKeyMaps(), disconfValue.getFileData());
+            if (changedAdditionalKeys.isEmpty()) {
+                return changedKeys;
+            }
+            changedKeys.addAll(changedAdditionalKeys);
+
             if (disconfCenterFile.getSupportFileTypeEnum().equals(SupportFileTypeEnum.PROPERTIES)) {
                 // 如果是采用XML进行配置的，则需要利用spring的reload将数据reload到bean里
-                ReloadConfigurationMonitor.reload();
+                // 直接使用刚获取到的内容, 不再从磁盘读取
+                Properties properties = new Properties();
+                for (Map.Entry<String, Object> entry : disconfValue.getFileData().entrySet()) {
+                    if (entry.getKey() != null && entry.getValue() != null) {
+                        properties.setProperty(entry.getKey(), String.valueOf(entry.getValue()));
+                    }
+                }
+                ReloadConfigurationMonitor.reload(fileName, properties);
             }
             disconfCenterFile.setAdditionalKeyMaps(disconfValue.getFileData());
         }
+
+        return changedKeys;
+    }
+
+    /**
+     * 新增, 删除和值变化的 key
+     */
+    private static Set<String> getChangedKeys(Map<String, Object> oldMap, Map<String, Object> newMap) {
+
+        Set<String> changedKeys = new HashSet<String>();
+        for (Map.Entry<String, Object> entry : newMap.entrySet()) {
+            if (!oldMap.containsKey(entry.getKey()) ||
+                    !ObjectUtils.equals(entry.getValue(), oldMap.get(entry.getKey()))) {
+                changedKeys.add(entry.getKey());
+            }
+        }
+        for (String key : oldMap.keySet()) {
+            if (!newMap.containsKey(key)) {
+                changedKeys.add(key);
+            }
+        }
+        return changedKeys;
     }
 
     /**
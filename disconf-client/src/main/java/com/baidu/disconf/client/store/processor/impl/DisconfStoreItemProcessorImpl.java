@@ -1,10 +1,12 @@
 package com.baidu.disconf.client.store.processor.impl;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.commons.lang3.ObjectUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -15,6 +17,9 @@ import com.baidu.disconf.client.common.update.IDisconfUpdate;
 import com.baidu.disconf.client.store.DisconfStoreProcessor;
 import com.baidu.disconf.client.store.inner.DisconfCenterStore;
 import com.baidu.disconf.client.store.processor.model.DisconfValue;
+import com.baidu.disconf.core.common.metrics.Counter;
+import com.baidu.disconf.core.common.metrics.MetricsNames;
+import com.baidu.disconf.core.common.metrics.MetricsRegistry;
 
 /**
  * 配置项仓库算子实现器
@@ -26,6 +31,9 @@ public class DisconfStoreItemProcessorImpl implements DisconfStoreProcessor {
 
     protected static final Logger LOGGER = LoggerFactory.getLogger(DisconfStoreItemProcessorImpl.class);
 
+    // 仓库读取次数
+    private static final Counter STORE_READ = MetricsRegistry.getInstance().counter(MetricsNames.STORE_READ);
+
     /**
      *
      */
@@ -141,17 +149,30 @@ public class DisconfStoreItemProcessorImpl implements DisconfStoreProcessor {
         }
     }
 
+    /**
+     * 配置项只有一个值, 有变化时全部注入
+     */
+    @Override
+    public void inject2Instance(Object object, String key, Set<String> changedKeys) {
+
+        if (!changedKeys.isEmpty()) {
+            inject2Instance(object, key);
+        }
+    }
+
     /**
      *
      */
     @Override
     public Object getConfig(String fileName, String keyName) {
 
+        STORE_READ.inc();
+
         DisconfCenterItem disconfCenterItem = DisconfCenterStore.getInstance().getConfItemMap().get(keyName);
 
         // 校验是否存在
         if (disconfCenterItem == null) {
-            LOGGER.debug("cannot find " + keyName + " in store....");
+            LOGGER.debug("cannot find {} in store....", keyName);
             return null;
         }
 
@@ -162,18 +183,18 @@ public class DisconfStoreItemProcessorImpl implements DisconfStoreProcessor {
      *
      */
     @Override
-    public void inject2Store(String key, DisconfValue disconfValue) {
+    public Set<String> inject2Store(String key, DisconfValue disconfValue) {
 
         DisconfCenterItem disconfCenterItem = DisconfCenterStore.getInstance().getConfItemMap().get(key);
 
         // 校验是否存在
         if (disconfCenterItem == null) {
             LOGGER.error("cannot find " + key + " in store....");
-            return;
+            return Collections.emptySet();
         }
 
         if (disconfValue == null || disconfValue.getValue() == null) {
-            return;
+            return Collections.emptySet();
         }
 
         // 根据类型设置值
@@ -183,12 +204,16 @@ public class DisconfStoreItemProcessorImpl implements DisconfStoreProcessor {
         try {
 
             Object newValue = disconfCenterItem.getFieldValueByType(disconfValue.getValue());
-            disconfCenterItem.setValue(newValue);
+            if (!ObjectUtils.equals(newValue, disconfCenterItem.getValue())) {
+                disconfCenterItem.setValue(newValue);
+                return Collections.singleton(key);
+            }
 
         } catch (Exception e) {
             LOGGER.error("key: " + key + " " + e.toString(), e);
         }
 
+        return Collections.emptySet();
     }
 
     /**
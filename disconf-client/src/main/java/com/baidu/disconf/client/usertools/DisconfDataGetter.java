@@ -1,7 +1,11 @@
 package com.baidu.disconf.client.usertools;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
+import com.baidu.disconf.client.common.model.TypedValue;
+
 import com.baidu.disconf.client.usertools.impl.DisconfDataGetterDefaultImpl;
 
 /**
@@ -44,4 +48,235 @@ public class DisconfDataGetter {
     public static Object getByItem(String itemName) {
         return iDisconfDataGetter.getByItem(itemName);
     }
+
+    /**
+     * 获取 分布式配置文件 中 某个配置项 的类型化的值, 不存在时返回null
+     *
+     * @param fileName
+     * @param fileItem
+     *
+     * @return
+     */
+    public static TypedValue getTypedByFileItem(String fileName, String fileItem) {
+        return iDisconfDataGetter.getTypedByFileItem(fileName, fileItem);
+    }
+
+    /**
+     * 获取 分布式配置 的类型化的值, 不存在时返回null
+     *
+     * @param itemName
+     *
+     * @return
+     */
+    public static TypedValue getTypedByItem(String itemName) {
+        return iDisconfDataGetter.getTypedByItem(itemName);
+    }
+
+    /**
+     * 获取 分布式配置文件 中 某个配置项 的 String 值, 不存在或无法转换时返回默认值
+     *
+     * @param fileName
+     * @param fileItem
+     * @param defaultValue
+     *
+     * @return
+     */
+    public static String getStringByFileItem(String fileName, String fileItem, String defaultValue) {
+
+        TypedValue typedValue = iDisconfDataGetter.getTypedByFileItem(fileName, fileItem);
+        if (typedValue == null) {
+            return defaultValue;
+        }
+        return typedValue.getString(defaultValue);
+    }
+
+    /**
+     * 获取 分布式配置文件 中 某个配置项 的 int 值, 不存在或无法转换时返回默认值
+     *
+     * @param fileName
+     * @param fileItem
+     * @param defaultValue
+     *
+     * @return
+     */
+    public static int getIntByFileItem(String fileName, String fileItem, int defaultValue) {
+
+        TypedValue typedValue = iDisconfDataGetter.getTypedByFileItem(fileName, fileItem);
+        if (typedValue == null) {
+            return defaultValue;
+        }
+        return typedValue.getInt(defaultValue);
+    }
+
+    /**
+     * 获取 分布式配置文件 中 某个配置项 的 long 值, 不存在或无法转换时返回默认值
+     *
+     * @param fileName
+     * @param fileItem
+     * @param defaultValue
+     *
+     * @return
+     */
+    public static long getLongByFileItem(String fileName, String fileItem, long defaultValue) {
+
+        TypedValue typedValue = iDisconfDataGetter.getTypedByFileItem(fileName, fileItem);
+        if (typedValue == null) {
+            return defaultValue;
+        }
+        return typedValue.getLong(defaultValue);
+    }
+
+    /**
+     * 获取 分布式配置文件 中 某个配置项 的 double 值, 不存在或无法转换时返回默认值
+     *
+     * @param fileName
+     * @param fileItem
+     * @param defaultValue
+     *
+     * @return
+     */
+    public static double getDoubleByFileItem(String fileName, String fileItem, double defaultValue) {
+
+        TypedValue typedValue = iDisconfDataGetter.getTypedByFileItem(fileName, fileItem);
+        if (typedValue == null) {
+            return defaultValue;
+        }
+        return typedValue.getDouble(defaultValue);
+    }
+
+    /**
+     * 获取 分布式配置文件 中 某个配置项 的 boolean 值, 不存在或无法转换时返回默认值
+     *
+     * @param fileName
+     * @param fileItem
+     * @param defaultValue
+     *
+     * @return
+     */
+    public static boolean getBooleanByFileItem(String fileName, String fileItem, boolean defaultValue) {
+
+        TypedValue typedValue = iDisconfDataGetter.getTypedByFileItem(fileName, fileItem);
+        if (typedValue == null) {
+            return defaultValue;
+        }
+        return typedValue.getBoolean(defaultValue);
+    }
+
+    /**
+     * 获取 分布式配置文件 中 某个配置项 以逗号分隔的列表值, 不存在时返回空列表
+     *
+     * @param fileName
+     * @param fileItem
+     *
+     * @return
+     */
+    public static List<String> getListByFileItem(String fileName, String fileItem) {
+
+        TypedValue typedValue = iDisconfDataGetter.getTypedByFileItem(fileName, fileItem);
+        if (typedValue == null) {
+            return Collections.emptyList();
+        }
+        return typedValue.getList();
+    }
+
+    /**
+     * 获取 分布式配置 的 String 值, 不存在或无法转换时返回默认值
+     *
+     * @param itemName
+     * @param defaultValue
+     *
+     * @return
+     */
+    public static String getStringByItem(String itemName, String defaultValue) {
+
+        TypedValue typedValue = iDisconfDataGetter.getTypedByItem(itemName);
+        if (typedValue == null) {
+            return defaultValue;
+        }
+        return typedValue.getString(defaultValue);
+    }
+
+    /**
+     * 获取 分布式配置 的 int 值, 不存在或无法转换时返回默认值
+     *
+     * @param itemName
+     * @param defaultValue
+     *
+     * @return
+     */
+    public static int getIntByItem(String itemName, int defaultValue) {
+
+        TypedValue typedValue = iDisconfDataGetter.getTypedByItem(itemName);
+        if (typedValue == null) {
+            return defaultValue;
+        }
+        return typedValue.getInt(defaultValue);
+    }
+
+    /**
+     * 获取 分布式配置 的 long 值, 不存在或无法转换时返回默认值
+     *
+     * @param itemName
+     * @param defaultValue
+     *
+     * @return
+     */
+    public static long getLongByItem(String itemName, long defaultValue) {
+
+        TypedValue typedValue = iDisconfDataGetter.getTypedByItem(itemName);
+        if (typedValue == null) {
+            return defaultValue;
+        }
+        return typedValue.getLong(defaultValue);
+    }
+
+    /**
+     * 获取 分布式配置 的 double 值, 不存在或无法转换时返回默认值
+     *
+     * @param itemName
+     * @param defaultValue
+     *
+     * @return
+     */
+    public static double getDoubleByItem(String itemName, double defaultValue) {
+
+        TypedValue typedValue = iDisconfDataGetter.getTypedByItem(itemName);
+        if (typedValue == null) {
+            return defaultValue;
+        }
+        return typedValue.getDouble(defaultValue);
+    }
+
+    /**
+     * 获取 分布式配置 的 boolean 值, 不存在或无法转换时返回默认值
+     *
+     * @param itemName
+     * @param defaultValue
+     *
+     * @return
+     */
+    public static boolean getBooleanByItem(String itemName, boolean defaultValue) {
+
+        TypedValue typedValue = iDisconfDataGetter.getTypedByItem(itemName);
+        if (typedValue == null) {
+            return defaultValue;
+        }
+        return typedValue.getBoolean(defaultValue);
+    }
+
+    /**
+     * 获取 分布式配置 以逗号分隔的列表值, 不存在时返回空列表
+     *
+     * @param itemName
+     *
+     * @return
+     */
+    public static List<String> getListByItem(String itemName) {
+
+        TypedValue typedValue = iDisconfDataGetter.getTypedByItem(itemName);
+        if (typedValue == null) {
+            return Collections.emptyList();
+        }
+        return typedValue.getList();
+    }
 }
@@ -2,6 +2,8 @@ package com.baidu.disconf.client.usertools;
 
 import java.util.Map;
 
+import com.baidu.disconf.client.common.model.TypedValue;
+
 /**
  * Created by knightliao on 16/5/28.
  * <p/>
@@ -36,4 +38,23 @@ public interface IDisconfDataGetter {
      * @return
      */
     Object getByItem(String itemName);
+
+    /**
+     * 获取 分布式配置文件 中 某个配置项 的类型化的值, 不存在时返回null
+     *
+     * @param fileName
+     * @param fileItem
+     *
+     * @return
+     */
+    TypedValue getTypedByFileItem(String fileName, String fileItem);
+
+    /**
+     * 获取 分布式配置 的类型化的值, 不存在时返回null
+     *
+     * @param itemName
+     *
+     * @return
+     */
+    TypedValue getTypedByItem(String itemName);
 }
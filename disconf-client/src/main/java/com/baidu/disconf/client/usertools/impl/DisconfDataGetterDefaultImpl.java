@@ -5,18 +5,28 @@ import java.util.Map;
 
 import com.baidu.disconf.client.common.model.DisconfCenterFile;
 import com.baidu.disconf.client.common.model.DisconfCenterItem;
+import com.baidu.disconf.client.common.model.TypedValue;
 import com.baidu.disconf.client.store.DisconfStoreProcessor;
 import com.baidu.disconf.client.store.DisconfStoreProcessorFactory;
+import com.baidu.disconf.client.store.inner.DisconfCenterStore;
 import com.baidu.disconf.client.usertools.IDisconfDataGetter;
+import com.baidu.disconf.core.common.metrics.Counter;
+import com.baidu.disconf.core.common.metrics.MetricsNames;
+import com.baidu.disconf.core.common.metrics.MetricsRegistry;
 
 /**
  * Created by knightliao on 16/5/28.
  */
 public class DisconfDataGetterDefaultImpl implements IDisconfDataGetter {
 
+    // 仓库读取次数
+    private static final Counter STORE_READ = MetricsRegistry.getInstance().counter(MetricsNames.STORE_READ);
+
     @Override
     public Map<String, Object> getByFile(String fileName) {
 
+        STORE_READ.inc();
+
         DisconfStoreProcessor disconfStoreProcessor =
                 DisconfStoreProcessorFactory.getDisconfStoreFileProcessor();
 
@@ -31,18 +41,18 @@ public class DisconfDataGetterDefaultImpl implements IDisconfDataGetter {
     @Override
     public Object getByFileItem(String fileName, String fileItem) {
 
-        Map<String, Object> map = getByFile(fileName);
-
-        if (map.containsKey(fileItem)) {
-
-            return map.get(fileItem);
+        TypedValue typedValue = getTypedByFileItem(fileName, fileItem);
+        if (typedValue == null) {
+            return null;
         }
-        return null;
+        return typedValue.getValue();
     }
 
     @Override
     public Object getByItem(String itemName) {
 
+        STORE_READ.inc();
+
         DisconfStoreProcessor disconfStoreProcessor =
                 DisconfStoreProcessorFactory.getDisconfStoreItemProcessor();
 
@@ -54,4 +64,36 @@ public class DisconfDataGetterDefaultImpl implements IDisconfDataGetter {
 
         return disconfCenterItem.getValue();
     }
+
+    /**
+     * 热点路径, 直接读取仓库, 不创建仓库算子
+     */
+    @Override
+    public TypedValue getTypedByFileItem(String fileName, String fileItem) {
+
+        STORE_READ.inc();
+
+        DisconfCenterFile disconfCenterFile = DisconfCenterStore.getInstance().getConfFileMap().get(fileName);
+        if (disconfCenterFile == null) {
+            return null;
+        }
+
+        return disconfCenterFile.getTypedValue(fileItem);
+    }
+
+    /**
+     * 热点路径, 直接读取仓库, 不创建仓库算子
+     */
+    @Override
+    public TypedValue getTypedByItem(String itemName) {
+
+        STORE_READ.inc();
+
+        DisconfCenterItem disconfCenterItem = DisconfCenterStore.getInstance().getConfItemMap().get(itemName);
+        if (disconfCenterItem == null) {
+            return null;
+        }
+
+        return disconfCenterItem.getTypedValue();
+    }
 }
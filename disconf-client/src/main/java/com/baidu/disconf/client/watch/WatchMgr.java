@@ -21,9 +21,12 @@ public interface WatchMgr {
 
     /**
      * 监控路径,监控前会事先创建路径,并且会新建一个自己的Temp子结点
+     *
+     * @param value 写入Temp子结点的值
+     * @param stamp 本地持有配置的版本戳, 与结点上的一致时不重新下载. 未知时为 null
      */
     void watchPath(DisconfCoreProcessor disconfCoreMgr, DisConfCommonModel disConfCommonModel, String keyName,
-                   DisConfigTypeEnum disConfigTypeEnum, String value) throws Exception;
+                   DisConfigTypeEnum disConfigTypeEnum, String value, String stamp) throws Exception;
 
     void release();
 }
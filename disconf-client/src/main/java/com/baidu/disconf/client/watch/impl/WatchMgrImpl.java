@@ -1,27 +1,42 @@
 package com.baidu.disconf.client.watch.impl;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.apache.zookeeper.CreateMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.baidu.disconf.client.common.model.DisConfCommonModel;
+import com.baidu.disconf.client.config.DisClientConfig;
 import com.baidu.disconf.client.config.inner.DisClientComConfig;
 import com.baidu.disconf.client.core.processor.DisconfCoreProcessor;
 import com.baidu.disconf.client.watch.WatchMgr;
 import com.baidu.disconf.client.watch.inner.DisconfSysUpdateCallback;
 import com.baidu.disconf.client.watch.inner.NodeWatcher;
+import com.baidu.disconf.client.watch.inner.ReloadBatcher;
 import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
+import com.baidu.disconf.core.common.metrics.Gauge;
+import com.baidu.disconf.core.common.metrics.MetricsNames;
+import com.baidu.disconf.core.common.metrics.MetricsRegistry;
 import com.baidu.disconf.core.common.path.ZooPathMgr;
 import com.baidu.disconf.core.common.utils.ZooUtils;
+import com.baidu.disconf.core.common.zookeeper.SessionListener;
 import com.baidu.disconf.core.common.zookeeper.ZookeeperMgr;
 
 /**
  * Watch 模块的一个实现
+ * <p/>
+ * ZK会话过期后重新建立时, 批量重新创建临时结点并重新监控所有路径, 只重新加载版本戳变化了的配置, 一起交给 {@link ReloadBatcher}
  *
  * @author liaoqiqi
  * @version 2014-6-10
  */
-public class WatchMgrImpl implements WatchMgr {
+public class WatchMgrImpl implements WatchMgr, SessionListener {
+
+    // 会话恢复后批量操作的超时时间
+    private static final long RECOVER_TIMEOUT_MILLIS = 30000;
 
     protected static final Logger LOGGER = LoggerFactory.getLogger(WatchMgrImpl.class);
 
@@ -35,6 +50,16 @@ public class WatchMgrImpl implements WatchMgr {
      */
     private boolean debug;
 
+    /**
+     * 已监控的路径, 及监控它的 Watcher 和临时结点的值
+     */
+    private final Map<String, WatchedNode> watchedPaths = new ConcurrentHashMap<String, WatchedNode>();
+
+    /**
+     * 合并同时到达的更新通知
+     */
+    private ReloadBatcher reloadBatcher;
+
     /**
      * @Description: 获取自己的主备类型
      */
@@ -45,6 +70,17 @@ public class WatchMgrImpl implements WatchMgr {
 
         // init zookeeper
         ZookeeperMgr.getInstance().init(hosts, zooUrlPrefix, debug);
+
+        reloadBatcher = new ReloadBatcher(DisClientConfig.getInstance().reloadBatchMillis);
+
+        ZookeeperMgr.getInstance().addSessionListener(this);
+
+        MetricsRegistry.getInstance().gauge(MetricsNames.ZK_WATCH_COUNT, new Gauge() {
+            @Override
+            public long getValue() {
+                return watchedPaths.size();
+            }
+        });
     }
 
     /**
@@ -118,21 +154,82 @@ public class WatchMgrImpl implements WatchMgr {
      * 监控路径,监控前会事先创建路径,并且会新建一个自己的Temp子结点
      */
     public void watchPath(DisconfCoreProcessor disconfCoreMgr, DisConfCommonModel disConfCommonModel, String keyName,
-                          DisConfigTypeEnum disConfigTypeEnum, String value) throws Exception {
+                          DisConfigTypeEnum disConfigTypeEnum, String value, String stamp) throws Exception {
 
         // 新建
         String monitorPath = makeMonitorPath(disConfigTypeEnum, disConfCommonModel, keyName, value);
 
         // 进行监控
         NodeWatcher nodeWatcher =
-                new NodeWatcher(disconfCoreMgr, monitorPath, keyName, disConfigTypeEnum, new DisconfSysUpdateCallback(),
-                        debug);
+                new NodeWatcher(disconfCoreMgr, monitorPath, keyName, disConfigTypeEnum,
+                        new DisconfSysUpdateCallback(reloadBatcher), stamp, debug);
         nodeWatcher.monitorMaster();
+
+        watchedPaths.put(monitorPath, new WatchedNode(nodeWatcher, value));
+    }
+
+    /**
+     * 原会话上的监控和临时结点都已经没有了: 先批量创建临时结点, 再批量重新监控, 版本戳变化了的一起重新加载
+     */
+    @Override
+    public void onSessionRecovered() {
+
+        Map<String, WatchedNode> nodes = new HashMap<String, WatchedNode>(watchedPaths);
+        if (nodes.isEmpty()) {
+            return;
+        }
+
+        LOGGER.info("zookeeper session recovered, re-watch {} paths", nodes.size());
+
+        String fingerPrint = DisClientComConfig.getInstance().getInstanceFingerprint();
+
+        Map<String, String> tempNodes = new HashMap<String, String>();
+        Map<String, NodeWatcher> watchers = new HashMap<String, NodeWatcher>();
+        for (Map.Entry<String, WatchedNode> entry : nodes.entrySet()) {
+
+            tempNodes.put(entry.getKey() + "/" + fingerPrint, entry.getValue().getValue());
+
+            NodeWatcher nodeWatcher = entry.getValue().getNodeWatcher().renew();
+            watchers.put(entry.getKey(), nodeWatcher);
+            watchedPaths.put(entry.getKey(), new WatchedNode(nodeWatcher, entry.getValue().getValue()));
+        }
+
+        try {
+            ZookeeperMgr.getInstance().createEphemeralNodes(tempNodes, CreateMode.EPHEMERAL, RECOVER_TIMEOUT_MILLIS);
+        } catch (Exception e) {
+            LOGGER.error("cannot create temp nodes after session recovered: " + e.toString());
+        }
+
+        Map<String, String> zkData;
+        try {
+            zkData = ZookeeperMgr.getInstance().readUrls(watchers, RECOVER_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            LOGGER.info(e.toString());
+            return;
+        }
+
+        // 读取失败的也重新加载, 重新加载时会重新监控
+        int reloaded = 0;
+        for (Map.Entry<String, NodeWatcher> entry : watchers.entrySet()) {
+            if (entry.getValue().resync(zkData.get(entry.getKey()))) {
+                reloaded++;
+            }
+        }
+
+        LOGGER.info("re-watch {} paths done, {} changed", watchers.size(), reloaded);
     }
 
     @Override
     public void release() {
 
+        watchedPaths.clear();
+        ZookeeperMgr.getInstance().removeSessionListener(this);
+
+        if (reloadBatcher != null) {
+            reloadBatcher.release();
+        }
+        MetricsRegistry.getInstance().removeGauge(MetricsNames.ZK_WATCH_COUNT);
+
         try {
             ZookeeperMgr.getInstance().release();
         } catch (InterruptedException e) {
@@ -141,4 +238,25 @@ public class WatchMgrImpl implements WatchMgr {
         }
     }
 
+    /**
+     * 一个已监控的路径
+     */
+    private static class WatchedNode {
+
+        private final NodeWatcher nodeWatcher;
+        private final String value;
+
+        WatchedNode(NodeWatcher nodeWatcher, String value) {
+            this.nodeWatcher = nodeWatcher;
+            this.value = value;
+        }
+
+        NodeWatcher getNodeWatcher() {
+            return nodeWatcher;
+        }
+
+        String getValue() {
+            return value;
+        }
+    }
 }
@@ -6,21 +6,27 @@ import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
 
 /**
  * 当配置更新时，系统会自动 调用此回调函数<br/>
- * 这个函数是系统调用的，当有配置更新时，便会进行回调
+ * 这个函数是系统调用的，当有配置更新时，便会进行回调. 交给 {@link ReloadBatcher} 与同时更新的配置一起重新加载
  *
  * @author liaoqiqi
  * @version 2014-5-16
  */
 public class DisconfSysUpdateCallback implements IDisconfSysUpdate {
 
+    private final ReloadBatcher reloadBatcher;
+
+    public DisconfSysUpdateCallback(ReloadBatcher reloadBatcher) {
+        this.reloadBatcher = reloadBatcher;
+    }
+
     /**
      *
      */
     @Override
-    public void reload(DisconfCoreProcessor disconfCoreMgr, DisConfigTypeEnum disConfigTypeEnum, String keyName)
-        throws Exception {
+    public void reload(DisconfCoreProcessor disconfCoreMgr, DisConfigTypeEnum disConfigTypeEnum, String keyName,
+                       String stamp) throws Exception {
 
         // 更新配置数据仓库 && 调用用户的回调函数列表
-        disconfCoreMgr.updateOneConfAndCallback(keyName);
+        reloadBatcher.submit(disconfCoreMgr, disConfigTypeEnum, keyName, stamp);
     }
 }
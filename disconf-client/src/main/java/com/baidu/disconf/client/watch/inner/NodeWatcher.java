@@ -11,10 +11,16 @@ import org.slf4j.LoggerFactory;
 
 import com.baidu.disconf.client.core.processor.DisconfCoreProcessor;
 import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
+import com.baidu.disconf.core.common.metrics.MetricsNames;
+import com.baidu.disconf.core.common.metrics.MetricsRegistry;
+import com.baidu.disconf.core.common.utils.ConfigStampUtils;
 import com.baidu.disconf.core.common.zookeeper.ZookeeperMgr;
 
 /**
  * 结点监控器
+ * <p/>
+ * 结点上是配置值的版本戳, 与本地持有的一致时 (例如重复通知) 只重新监控, 不重新下载.
+ * 会话过期由 ZK 的会话恢复统一处理, 恢复后由 WatchMgr 批量重新监控, 这里不处理
  *
  * @author liaoqiqi
  * @version 2014-6-16
@@ -29,13 +35,19 @@ public class NodeWatcher implements Watcher {
     private DisconfSysUpdateCallback disconfSysUpdateCallback;
     private boolean debug;
 
+    // 本地持有配置的版本戳, 未知时为 null
+    private final String stamp;
+
+    // 已交给新的 NodeWatcher 监控, 之后收到的事件不再处理
+    private volatile boolean retired = false;
+
     private DisconfCoreProcessor disconfCoreMgr;
 
     /**
      */
     public NodeWatcher(DisconfCoreProcessor disconfCoreMgr, String monitorPath, String keyName,
                        DisConfigTypeEnum disConfigTypeEnum, DisconfSysUpdateCallback disconfSysUpdateCallback,
-                       boolean debug) {
+                       String stamp, boolean debug) {
 
         super();
         this.debug = debug;
@@ -44,6 +56,7 @@ public class NodeWatcher implements Watcher {
         this.keyName = keyName;
         this.disConfigTypeEnum = disConfigTypeEnum;
         this.disconfSysUpdateCallback = disconfSysUpdateCallback;
+        this.stamp = stamp;
     }
 
     /**
@@ -66,8 +79,8 @@ public class NodeWatcher implements Watcher {
             LOGGER.error("cannot monitor " + monitorPath, e);
         }
 
-        LOGGER.debug("monitor path: (" + monitorPath + "," + keyName + "," + disConfigTypeEnum.getModelName() +
-                ") has been added!");
+        LOGGER.debug("monitor path: ({},{},{}) has been added!",
+                new Object[] {monitorPath, keyName, disConfigTypeEnum.getModelName()});
     }
 
     /**
@@ -76,6 +89,10 @@ public class NodeWatcher implements Watcher {
     @Override
     public void process(WatchedEvent event) {
 
+        if (retired) {
+            return;
+        }
+
         //
         // 结点更新时
         //
@@ -83,11 +100,23 @@ public class NodeWatcher implements Watcher {
 
             try {
 
-                LOGGER.info("============GOT UPDATE EVENT " + event.toString() + ": (" + monitorPath + "," + keyName
-                        + "," + disConfigTypeEnum.getModelName() + ")======================");
+                LOGGER.info("============GOT UPDATE EVENT {}: ({},{},{})======================",
+                        new Object[] {event, monitorPath, keyName, disConfigTypeEnum.getModelName()});
+
+                MetricsRegistry.getInstance().counter(MetricsNames.ZK_EVENT).inc();
 
-                // 调用回调函数, 回调函数里会重新进行监控
-                callback();
+                // 重新监控, 同时取得结点上的版本戳
+                String zkData = readStamp();
+                if (ConfigStampUtils.isSame(stamp, zkData)) {
+
+                    LOGGER.info("stamp of ({},{}) not changed, skip reload", monitorPath, keyName);
+                    MetricsRegistry.getInstance().counter(MetricsNames.ZK_EVENT_SKIPPED).inc();
+                    return;
+                }
+
+                // 调用回调函数, 回调函数里会用新的 NodeWatcher 重新进行监控
+                retired = true;
+                callback(zkData);
 
             } catch (Exception e) {
 
@@ -101,14 +130,11 @@ public class NodeWatcher implements Watcher {
         if (event.getState() == KeeperState.Disconnected) {
 
             if (!debug) {
-                LOGGER.warn("============GOT Disconnected EVENT " + event.toString() + ": (" + monitorPath + ","
-                        + keyName + "," + disConfigTypeEnum.getModelName() + ")======================");
+                LOGGER.warn("============GOT Disconnected EVENT {}: ({},{},{})======================",
+                        new Object[] {event, monitorPath, keyName, disConfigTypeEnum.getModelName()});
             } else {
-                LOGGER.debug("============DEBUG MODE: GOT Disconnected EVENT " + event.toString() + ": (" +
-                        monitorPath +
-                        "," +
-                        keyName +
-                        "," + disConfigTypeEnum.getModelName() + ")======================");
+                LOGGER.debug("============DEBUG MODE: GOT Disconnected EVENT {}: ({},{},{})======================",
+                        new Object[] {event, monitorPath, keyName, disConfigTypeEnum.getModelName()});
             }
         }
 
@@ -119,30 +145,82 @@ public class NodeWatcher implements Watcher {
 
             if (!debug) {
 
-                LOGGER.error("============GOT Expired  " + event.toString() + ": (" + monitorPath + "," + keyName
-                        + "," + disConfigTypeEnum.getModelName() + ")======================");
-
-                // 重新连接
-                ZookeeperMgr.getInstance().reconnect();
+                LOGGER.error("============GOT Expired  {}: ({},{},{})======================",
+                        new Object[] {event, monitorPath, keyName, disConfigTypeEnum.getModelName()});
 
-                callback();
+                // 会话恢复后由 WatchMgr 重新监控
             } else {
-                LOGGER.debug("============DEBUG MODE: GOT Expired  " + event.toString() + ": (" + monitorPath + ","
-                        + "" + keyName + "," + disConfigTypeEnum.getModelName() + ")======================");
+                LOGGER.debug("============DEBUG MODE: GOT Expired  {}: ({},{},{})======================",
+                        new Object[] {event, monitorPath, keyName, disConfigTypeEnum.getModelName()});
             }
         }
     }
 
     /**
+     * 同样的配置和版本戳, 用于会话恢复后重新监控
+     */
+    public NodeWatcher renew() {
+
+        retired = true;
+        return new NodeWatcher(disconfCoreMgr, monitorPath, keyName, disConfigTypeEnum, disconfSysUpdateCallback,
+                stamp, debug);
+    }
+
+    /**
+     * 会话恢复后已经用这个 Watcher 重新读取了结点, 版本戳变化时重新加载
      *
+     * @param zkData 结点上的数据, 读取失败时为 null
+     *
+     * @return 是否重新加载
+     */
+    public boolean resync(String zkData) {
+
+        if (ConfigStampUtils.isSame(stamp, zkData)) {
+            return false;
+        }
+
+        LOGGER.info("stamp of ({},{}) changed during session expired, reload", monitorPath, keyName);
+
+        retired = true;
+        callback(zkData);
+        return true;
+    }
+
+    public String getMonitorPath() {
+        return monitorPath;
+    }
+
+    /**
+     * 读取结点上的版本戳并重新监控, 失败时返回 null
+     */
+    private String readStamp() {
+
+        try {
+
+            return ZookeeperMgr.getInstance().read(monitorPath, this, new Stat());
+
+        } catch (InterruptedException e) {
+
+            LOGGER.info(e.toString());
+
+        } catch (KeeperException e) {
+            LOGGER.warn("cannot read stamp of " + monitorPath + ": " + e.toString());
+        }
+
+        return null;
+    }
+
+    /**
+     * @param zkData 结点上的数据, 其中的版本戳随下载请求发给 disconf-web
      */
-    private void callback() {
+    private void callback(String zkData) {
 
         try {
 
             // 调用回调函数, 回调函数里会重新进行监控
             try {
-                disconfSysUpdateCallback.reload(disconfCoreMgr, disConfigTypeEnum, keyName);
+                disconfSysUpdateCallback.reload(disconfCoreMgr, disConfigTypeEnum, keyName,
+                        ConfigStampUtils.parseStamp(zkData));
             } catch (Exception e) {
                 LOGGER.error(e.toString(), e);
             }
@@ -0,0 +1,174 @@
+package com.baidu.disconf.client.watch.inner;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.baidu.disconf.client.common.update.IDisconfUpdate;
+import com.baidu.disconf.client.core.processor.DisconfCoreProcessor;
+import com.baidu.disconf.client.core.processor.impl.DisconfCoreProcessUtils;
+import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
+import com.baidu.disconf.core.common.metrics.MetricsNames;
+import com.baidu.disconf.core.common.metrics.MetricsRegistry;
+import com.baidu.disconf.core.common.metrics.Timer;
+
+/**
+ * 合并配置更新通知, 一起重新加载
+ * <p/>
+ * disconf-web 一次更新多个配置时, 在一个ZK事务中更新所有结点, 客户端几乎同时收到多个通知.
+ * 收到第一个通知后等待 batchMillis 收集其它通知, 先更新全部配置, 再调用回调函数, 同一个回调函数只调用一次.
+ * 这样回调函数看不到只更新了一部分的配置.
+ * <p/>
+ * 重新加载在单独的线程中进行, 不占用ZK的事件线程
+ */
+public class ReloadBatcher {
+
+    protected static final Logger LOGGER = LoggerFactory.getLogger(ReloadBatcher.class);
+
+    private final BlockingQueue<ReloadTask> queue = new LinkedBlockingQueue<ReloadTask>();
+
+    private final long batchMillis;
+
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+    public ReloadBatcher(long batchMillis) {
+
+        this.batchMillis = Math.max(0, batchMillis);
+
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                loop();
+            }
+        }, "disconf-reload");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 提交一个配置的重新加载
+     *
+     * @param stamp ZK结点上的版本戳, 未知时为 null
+     */
+    public void submit(DisconfCoreProcessor disconfCoreMgr, DisConfigTypeEnum disConfigTypeEnum, String keyName,
+                       String stamp) {
+
+        queue.add(new ReloadTask(disconfCoreMgr, disConfigTypeEnum, keyName, stamp));
+    }
+
+    public void release() {
+
+        running = false;
+        thread.interrupt();
+    }
+
+    private void loop() {
+
+        while (running) {
+
+            try {
+
+                ReloadTask first = queue.take();
+                long batchStart = Timer.start();
+
+                // 同一个配置只加载一次, 使用最后一个通知的版本戳
+                Map<String, ReloadTask> batch = new LinkedHashMap<String, ReloadTask>();
+                batch.put(first.getId(), first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchMillis);
+                ReloadTask task;
+                while ((task = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) != null) {
+                    batch.put(task.getId(), task);
+                }
+
+                reload(new ArrayList<ReloadTask>(batch.values()));
+
+                MetricsRegistry.getInstance().timer(MetricsNames.ZK_EVENT_APPLIED).stop(batchStart);
+
+            } catch (InterruptedException e) {
+
+                LOGGER.info("reload thread exit");
+                return;
+
+            } catch (RuntimeException e) {
+
+                LOGGER.error(e.toString(), e);
+            }
+        }
+    }
+
+    /**
+     * 先全部更新, 再全部回调
+     */
+    void reload(List<ReloadTask> tasks) {
+
+        if (tasks.size() > 1) {
+            LOGGER.info("reload {} configs together", tasks.size());
+        }
+        MetricsRegistry.getInstance().counter(MetricsNames.ZK_RELOAD_BATCH).inc();
+
+        List<ReloadTask> updated = new ArrayList<ReloadTask>(tasks.size());
+        for (ReloadTask task : tasks) {
+            try {
+                task.getDisconfCoreMgr().updateOneConf(task.getKeyName(), task.getStamp());
+                updated.add(task);
+            } catch (Exception e) {
+                LOGGER.error("cannot reload " + task.getKeyName(), e);
+            }
+        }
+
+        Set<IDisconfUpdate> called = DisconfCoreProcessUtils.newCalledSet();
+        for (ReloadTask task : updated) {
+            try {
+                task.getDisconfCoreMgr().callOneConf(task.getKeyName(), called);
+            } catch (Exception e) {
+                LOGGER.error("cannot call back " + task.getKeyName(), e);
+            }
+        }
+    }
+
+    /**
+     * 一个配置的重新加载
+     */
+    static class ReloadTask {
+
+        private final DisconfCoreProcessor disconfCoreMgr;
+        private final DisConfigTypeEnum disConfigTypeEnum;
+        private final String keyName;
+        private final String stamp;
+
+        ReloadTask(DisconfCoreProcessor disconfCoreMgr, DisConfigTypeEnum disConfigTypeEnum, String keyName,
+                   String stamp) {
+            this.disconfCoreMgr = disconfCoreMgr;
+            this.disConfigTypeEnum = disConfigTypeEnum;
+            this.keyName = keyName;
+            this.stamp = stamp;
+        }
+
+        String getId() {
+            return disConfigTypeEnum.getType() + "/" + keyName;
+        }
+
+        DisconfCoreProcessor getDisconfCoreMgr() {
+            return disconfCoreMgr;
+        }
+
+        String getKeyName() {
+            return keyName;
+        }
+
+        String getStamp() {
+            return stamp;
+        }
+    }
+}
@@ -9,13 +9,15 @@ import com.baidu.disconf.client.test.core.DisconfCoreMgrTestCase;
 import com.baidu.disconf.client.test.fetcher.FetcherMgrMgrTestCase;
 import com.baidu.disconf.client.test.json.JsonTranslate;
 import com.baidu.disconf.client.test.scan.ScanMgrTestCase;
+import com.baidu.disconf.client.test.scan.inner.DisconfIndexProcessorTestCase;
+import com.baidu.disconf.client.test.scan.inner.IndexScanTestCase;
 import com.baidu.disconf.client.test.scan.inner.ScanPackTestCase;
 import com.baidu.disconf.client.test.watch.WatchMgrTestCase;
 
 @RunWith(Suite.class)
 @SuiteClasses({ScanPackTestCase.class, DisconfMgrTestCase.class, WatchMgrTestCase.class, ScanMgrTestCase.class,
                   JsonTranslate.class, FetcherMgrMgrTestCase.class, DisconfCoreMgrTestCase.class,
-                  ConfigMgrTestCase.class})
+                  ConfigMgrTestCase.class, IndexScanTestCase.class, DisconfIndexProcessorTestCase.class})
 public class TestSuite {
 
 }
\ No newline at end of file
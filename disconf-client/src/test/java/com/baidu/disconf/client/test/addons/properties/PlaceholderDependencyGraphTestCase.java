@@ -0,0 +1,47 @@
+package com.baidu.disconf.client.test.addons.properties;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.disconf.client.addons.properties.PlaceholderDependencyGraph;
+
+/**
+ * PlaceholderDependencyGraphTestCase
+ */
+public class PlaceholderDependencyGraphTestCase {
+
+    @Test
+    public void getAffectedKeys() {
+
+        PlaceholderDependencyGraph graph = new PlaceholderDependencyGraph();
+
+        // url=${host}:${port}, jdbc=jdbc:${url}
+        graph.setDependencies("url", Arrays.asList("host", "port"));
+        graph.setDependencies("jdbc", Arrays.asList("url"));
+
+        Set<String> affected = graph.getAffectedKeys(Collections.singleton("port"));
+        Assert.assertEquals(3, affected.size());
+        Assert.assertTrue(affected.containsAll(Arrays.asList("port", "url", "jdbc")));
+
+        // url 不再引用 port
+        graph.setDependencies("url", Arrays.asList("host"));
+        affected = graph.getAffectedKeys(Collections.singleton("port"));
+        Assert.assertEquals(1, affected.size());
+    }
+
+    @Test
+    public void cycle() {
+
+        PlaceholderDependencyGraph graph = new PlaceholderDependencyGraph();
+
+        graph.setDependencies("a", Arrays.asList("b"));
+        graph.setDependencies("b", Arrays.asList("a"));
+
+        Set<String> affected = graph.getAffectedKeys(Collections.singleton("a"));
+        Assert.assertEquals(2, affected.size());
+    }
+}
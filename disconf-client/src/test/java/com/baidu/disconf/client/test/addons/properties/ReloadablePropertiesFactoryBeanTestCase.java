@@ -0,0 +1,117 @@
+package com.baidu.disconf.client.test.addons.properties;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.disconf.client.addons.properties.IReloadablePropertiesListener;
+import com.baidu.disconf.client.addons.properties.PropertiesReloadedEvent;
+import com.baidu.disconf.client.addons.properties.ReloadConfigurationMonitor;
+import com.baidu.disconf.client.addons.properties.ReloadablePropertiesFactoryBean;
+
+/**
+ * disconf 更新时使用内存中的内容 reload, 文件被外部修改时由 WatchService 触发 reload
+ */
+public class ReloadablePropertiesFactoryBeanTestCase {
+
+    private static final String FILE_NAME = "reloadable-test.properties";
+
+    private static final long WATCH_TIMEOUT_MILLIS = 10000;
+
+    private final List<PropertiesReloadedEvent> events =
+            Collections.synchronizedList(new ArrayList<PropertiesReloadedEvent>());
+
+    private File dir;
+
+    private File file;
+
+    private ReloadablePropertiesFactoryBean factoryBean;
+
+    private Properties properties;
+
+    @Before
+    public void setUp() throws Exception {
+
+        dir = new File(FileUtils.getTempDirectory(), "disconf-reloadable-" + System.nanoTime());
+        file = new File(dir, FILE_NAME);
+        FileUtils.writeStringToFile(file, "port=8080", "UTF-8");
+
+        factoryBean = new ReloadablePropertiesFactoryBean();
+        factoryBean.setLocation("file:" + file.getAbsolutePath());
+        factoryBean.setWatchFiles(true);
+        factoryBean.setListeners(Collections.singletonList(new IReloadablePropertiesListener() {
+            @Override
+            public void propertiesReloaded(PropertiesReloadedEvent event) {
+                events.add(event);
+            }
+        }));
+        factoryBean.afterPropertiesSet();
+
+        properties = factoryBean.getObject();
+        Assert.assertEquals("8080", properties.getProperty("port"));
+        events.clear();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        factoryBean.destroy();
+        FileUtils.deleteDirectory(dir);
+
+        // 不再监控文件时监控线程退出, 等它退出再开始下一个测试
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("disconf-reloadable-file-watcher")) {
+                thread.join(WATCH_TIMEOUT_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * disconf 下载到的内容直接 reload, 内容相同时不 reload
+     */
+    @Test
+    public void reloadInMemory() throws Exception {
+
+        Properties fetched = new Properties();
+        fetched.setProperty("port", "9090");
+
+        ReloadConfigurationMonitor.reload(FILE_NAME, fetched);
+        Assert.assertEquals("9090", properties.getProperty("port"));
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals("8080", events.get(0).getOldProperties().getProperty("port"));
+
+        // 相同的内容
+        ReloadConfigurationMonitor.reload(FILE_NAME, fetched);
+        Assert.assertEquals(1, events.size());
+
+        // 其它文件
+        ReloadConfigurationMonitor.reload("other.properties", new Properties());
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals("9090", properties.getProperty("port"));
+    }
+
+    /**
+     * 文件被外部修改
+     */
+    @Test
+    public void reloadOnFileChanged() throws Exception {
+
+        FileUtils.writeStringToFile(file, "port=7070", "UTF-8");
+
+        long deadline = System.currentTimeMillis() + WATCH_TIMEOUT_MILLIS;
+        while (!"7070".equals(properties.getProperty("port")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        Assert.assertEquals("7070", properties.getProperty("port"));
+        Assert.assertFalse(events.isEmpty());
+    }
+}
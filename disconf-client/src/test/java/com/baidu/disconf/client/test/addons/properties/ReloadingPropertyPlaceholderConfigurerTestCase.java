@@ -0,0 +1,172 @@
+package com.baidu.disconf.client.test.addons.properties;
+
+import java.io.File;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.io.FileSystemResource;
+
+import com.baidu.disconf.client.addons.properties.ReloadablePropertiesBase;
+import com.baidu.disconf.client.addons.properties.ReloadingPropertyPlaceholderConfigurer;
+
+/**
+ * 配置变化时只更新引用了变化的 placeholder (含嵌套引用) 的 bean
+ */
+public class ReloadingPropertyPlaceholderConfigurerTestCase {
+
+    private GenericApplicationContext context;
+
+    private TestReloadableProperties reloadableProperties;
+
+    private File dir;
+
+    @Before
+    public void setUp() {
+
+        reloadableProperties = new TestReloadableProperties();
+        reloadableProperties.update(newProperties("localhost", "8080"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        if (context != null) {
+            context.close();
+        }
+        if (dir != null) {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    /**
+     * 没有 locations 时只合并变化的 key
+     */
+    @Test
+    public void reloadChangedKeys() throws Exception {
+
+        ReloadingPropertyPlaceholderConfigurer configurer = new ReloadingPropertyPlaceholderConfigurer();
+        configurer.setProperties(reloadableProperties);
+        refresh(configurer);
+
+        verifyReload();
+    }
+
+    /**
+     * 有 locations 时重新合并所有的 properties
+     */
+    @Test
+    public void reloadWithLocations() throws Exception {
+
+        dir = new File(FileUtils.getTempDirectory(), "disconf-placeholder-" + System.nanoTime());
+        File file = new File(dir, "other.properties");
+        FileUtils.writeStringToFile(file, "name=disconf", "UTF-8");
+
+        ReloadingPropertyPlaceholderConfigurer configurer = new ReloadingPropertyPlaceholderConfigurer();
+        configurer.setProperties(reloadableProperties);
+        configurer.setLocation(new FileSystemResource(file));
+        refresh(configurer);
+
+        Assert.assertEquals("disconf", getBean("nameBean").getValue());
+
+        verifyReload();
+        Assert.assertEquals(1, getBean("nameBean").getSetCount());
+    }
+
+    private void verifyReload() {
+
+        Assert.assertEquals("localhost", getBean("hostBean").getValue());
+        Assert.assertEquals("8080", getBean("portBean").getValue());
+        Assert.assertEquals("localhost:8080", getBean("urlBean").getValue());
+
+        // 只有 port 变化
+        reloadableProperties.update(newProperties("localhost", "9090"));
+
+        Assert.assertEquals("9090", getBean("portBean").getValue());
+        Assert.assertEquals(2, getBean("portBean").getSetCount());
+
+        // 嵌套引用了 port
+        Assert.assertEquals("localhost:9090", getBean("urlBean").getValue());
+        Assert.assertEquals(2, getBean("urlBean").getSetCount());
+
+        // 无关的 bean 不更新
+        Assert.assertEquals("localhost", getBean("hostBean").getValue());
+        Assert.assertEquals(1, getBean("hostBean").getSetCount());
+
+        // 内容相同时不更新
+        reloadableProperties.update(newProperties("localhost", "9090"));
+        Assert.assertEquals(2, getBean("portBean").getSetCount());
+        Assert.assertEquals(2, getBean("urlBean").getSetCount());
+    }
+
+    private void refresh(ReloadingPropertyPlaceholderConfigurer configurer) {
+
+        context = new GenericApplicationContext();
+        registerBean("hostBean", "${host}");
+        registerBean("portBean", "${port}");
+        registerBean("urlBean", "${url}");
+        registerBean("nameBean", "${name=none}");
+
+        configurer.setApplicationContext(context);
+        configurer.afterPropertiesSet();
+        context.addBeanFactoryPostProcessor(configurer);
+        context.refresh();
+    }
+
+    private void registerBean(String beanName, String value) {
+
+        context.registerBeanDefinition(beanName, BeanDefinitionBuilder.genericBeanDefinition(ValueBean.class)
+                .addPropertyValue("value", value).getBeanDefinition());
+    }
+
+    private ValueBean getBean(String beanName) {
+        return context.getBean(beanName, ValueBean.class);
+    }
+
+    private static Properties newProperties(String host, String port) {
+
+        Properties properties = new Properties();
+        properties.setProperty("host", host);
+        properties.setProperty("port", port);
+        properties.setProperty("url", "${host}:${port}");
+        return properties;
+    }
+
+    /**
+     * 直接设置内容的 reloadable properties
+     */
+    private static class TestReloadableProperties extends ReloadablePropertiesBase {
+
+        void update(Properties properties) {
+            setProperties(properties);
+        }
+    }
+
+    /**
+     * 记录设置的次数
+     */
+    public static class ValueBean {
+
+        private String value;
+
+        private int setCount;
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+            setCount++;
+        }
+
+        public int getSetCount() {
+            return setCount;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.baidu.disconf.client.test.core;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.disconf.client.common.model.DisconfCenterItem;
+import com.baidu.disconf.client.common.update.IDisconfUpdate;
+import com.baidu.disconf.client.config.DisClientConfig;
+import com.baidu.disconf.client.core.processor.DisconfCoreProcessor;
+import com.baidu.disconf.client.core.processor.impl.DisconfItemCoreProcessorImpl;
+import com.baidu.disconf.client.fetcher.FetcherMgr;
+import com.baidu.disconf.client.store.inner.DisconfCenterStore;
+
+/**
+ * 配置项的值没有变化时不注入也不回调
+ */
+public class DisconfItemCoreProcessorTestCase {
+
+    private static final String KEY = "changed.item";
+
+    private static int port;
+
+    private String value;
+
+    private String url;
+
+    private int called;
+
+    private boolean enableDisconf;
+
+    @Before
+    public void setUp() throws Exception {
+
+        enableDisconf = DisClientConfig.getInstance().ENABLE_DISCONF;
+        DisClientConfig.getInstance().ENABLE_DISCONF = true;
+
+        DisconfCenterItem disconfCenterItem = new DisconfCenterItem();
+        disconfCenterItem.setKey(KEY);
+        disconfCenterItem.setRemoteServerUrl("/api/config/item?key=" + KEY);
+        disconfCenterItem.setField(DisconfItemCoreProcessorTestCase.class.getDeclaredField("port"));
+        disconfCenterItem.getDisconfCommonCallbackModel().getDisconfConfUpdates()
+                .addAll(Arrays.<IDisconfUpdate>asList(new IDisconfUpdate() {
+                    @Override
+                    public void reload() throws Exception {
+                        called++;
+                    }
+                }));
+        DisconfCenterStore.getInstance().storeOneItem(disconfCenterItem);
+    }
+
+    @After
+    public void tearDown() {
+
+        DisconfCenterStore.getInstance().excludeOneItem(KEY);
+        DisClientConfig.getInstance().ENABLE_DISCONF = enableDisconf;
+    }
+
+    @Test
+    public void republish() throws Exception {
+
+        DisconfCoreProcessor processor = new DisconfItemCoreProcessorImpl(null, new FetcherMgrStub(), null);
+
+        value = "8080";
+        processor.updateOneConfAndCallback(KEY);
+        Assert.assertEquals(8080, port);
+        Assert.assertEquals(1, called);
+
+        // 重新发布相同的值
+        value = " 8080 ";
+        port = 0;
+        processor.updateOneConfAndCallback(KEY);
+        Assert.assertEquals(0, port);
+        Assert.assertEquals(1, called);
+
+        value = "9090";
+        processor.updateOneConfAndCallback(KEY);
+        Assert.assertEquals(9090, port);
+        Assert.assertEquals(2, called);
+    }
+
+    @Test
+    public void reloadWithStamp() throws Exception {
+
+        DisconfCoreProcessor processor = new DisconfItemCoreProcessorImpl(null, new FetcherMgrStub(), null);
+
+        // 收到通知后下载时带上ZK结点上的版本戳
+        value = "7070";
+        processor.updateOneConf(KEY, "abc");
+        Assert.assertEquals("/api/config/item?key=" + KEY + "&stamp=abc", url);
+        Assert.assertEquals(7070, port);
+
+        processor.updateOneConf(KEY, null);
+        Assert.assertEquals("/api/config/item?key=" + KEY, url);
+    }
+
+    private class FetcherMgrStub implements FetcherMgr {
+
+        @Override
+        public String getValueFromServer(String url) throws Exception {
+            DisconfItemCoreProcessorTestCase.this.url = url;
+            return value;
+        }
+
+        @Override
+        public Map<String, String> getItemValuesFromServer(String url) throws Exception {
+            return new HashMap<String, String>(Collections.singletonMap(KEY, value));
+        }
+
+        @Override
+        public String downloadFileFromServer(String url, String fileName, String targetDirPath) throws Exception {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public byte[] downloadFileBytesFromServer(String url) throws Exception {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Future<String> saveFileAsync(String fileName, byte[] data, String targetDirPath) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void release() {
+        }
+    }
+}
@@ -34,7 +34,29 @@ public class FileTypeProcessorUtilsTestCase {
             Map<String, Object> map = FileTypeProcessorUtils.getKvMap(SupportFileTypeEnum.XML, "testXml.xml");
 
             System.out.println(map.toString());
-            Assert.assertEquals(0, map.keySet().size());
+            Assert.assertEquals(4, map.keySet().size());
+            Assert.assertEquals("George", map.get("to"));
+            Assert.assertEquals("John", map.get("from"));
+            Assert.assertEquals("Reminder", map.get("heading"));
+            Assert.assertEquals("Don't forget the meeting!", map.get("body"));
+
+        } catch (Exception e) {
+            Assert.assertTrue(false);
+        }
+
+        try {
+
+            Map<String, Object> map =
+                FileTypeProcessorUtils.getKvMap(SupportFileTypeEnum.XML, "testXmlNested.xml");
+
+            System.out.println(map.toString());
+            Assert.assertEquals("127.0.0.1", map.get("db[@host]"));
+            Assert.assertEquals("3306", map.get("db.port"));
+            Assert.assertEquals("a", map.get("servers.server"));
+            Assert.assertEquals("b", map.get("servers.server(1)"));
+            Assert.assertEquals("8080", map.get("servers.server(1)[@port]"));
+            Assert.assertEquals("", map.get("empty"));
+            Assert.assertFalse(map.containsKey("servers"));
 
         } catch (Exception e) {
             Assert.assertTrue(false);
@@ -1,6 +1,7 @@
 package com.baidu.disconf.client.test.fetcher;
 
 import java.util.ArrayList;
+import java.util.Map;
 
 import org.junit.Test;
 
@@ -45,6 +46,23 @@ public class FetcherMgrMgrTestCase extends BaseSpringTestCase {
         }
     }
 
+    /**
+     * 验证一次获取所有配置项的接口, 只返回配置项
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testGetItemValuesFromServer() throws Exception {
+
+        final RestfulMgr restfulMgr = new RestfulMgrMock().getMockInstance();
+
+        FetcherMgr fetcherMgr = new FetcherMgrImpl(restfulMgr, 3, 5, true, "", "", new ArrayList<String>());
+
+        Map<String, String> values = fetcherMgr.getItemValuesFromServer(requestUrl);
+        Assert.assertEquals(1, values.size());
+        Assert.assertEquals(RestfulMgrMock.defaultValue, values.get(RestfulMgrMock.defaultItemName));
+    }
+
     /**
      * 验证下载文件的接口
      *
@@ -68,4 +86,31 @@ public class FetcherMgrMgrTestCase extends BaseSpringTestCase {
             Assert.assertTrue(false);
         }
     }
+
+    /**
+     * 验证下载到内存和后台写文件的接口
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testDownloadFileBytesFromServer() throws Exception {
+
+        final RestfulMgr restfulMgr = new RestfulMgrMock().getMockInstance();
+
+        FetcherMgr fetcherMgr = new FetcherMgrImpl(restfulMgr, 3, 5, true, "", "", new ArrayList<String>());
+
+        try {
+
+            byte[] data = fetcherMgr.downloadFileBytesFromServer(requestUrl);
+            Assert.assertEquals(RestfulMgrMock.defaultFileContent, new String(data, "UTF-8"));
+
+            String valueString =
+                    fetcherMgr.saveFileAsync(RestfulMgrMock.defaultFileName, data, "./disconf").get();
+            Assert.assertEquals(RestfulMgrMock.defaultFileName, valueString);
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            Assert.assertTrue(false);
+        }
+    }
 }
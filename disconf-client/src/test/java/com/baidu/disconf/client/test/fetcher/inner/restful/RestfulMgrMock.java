@@ -1,11 +1,15 @@
 package com.baidu.disconf.client.test.fetcher.inner.restful;
 
 import java.io.File;
+import java.util.Arrays;
 
 import org.apache.commons.io.FileUtils;
 
 import com.baidu.disconf.client.test.support.utils.DirUtils;
 import com.baidu.disconf.core.common.constants.Constants;
+import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
+import com.baidu.disconf.core.common.json.ConfListVo;
+import com.baidu.disconf.core.common.json.ConfVo;
 import com.baidu.disconf.core.common.json.ValueVo;
 import com.baidu.disconf.core.common.restful.RestfulMgr;
 import com.baidu.disconf.core.common.restful.core.RemoteUrl;
@@ -23,6 +27,7 @@ import mockit.MockUp;
 public class RestfulMgrMock extends MockUp<RestfulMgr> {
 
     public static final String defaultValue = "10000";
+    public static final String defaultItemName = "keyA";
     public static final String defaultFileName = "confA.properties";
     public static final String defaultFileContent = "varA=400000\r\nvarA2=500000";
 
@@ -41,6 +46,27 @@ public class RestfulMgrMock extends MockUp<RestfulMgr> {
     public <T> T getJsonData(Class<T> clazz, RemoteUrl remoteUrl, int retryTimes, int retrySleepSeconds)
             throws Exception {
 
+        if (ConfListVo.class.equals(clazz)) {
+
+            ConfVo item = new ConfVo();
+            item.setType(DisConfigTypeEnum.ITEM.getType());
+            item.setName(defaultItemName);
+            item.setValue(defaultValue);
+
+            ConfVo file = new ConfVo();
+            file.setType(DisConfigTypeEnum.FILE.getType());
+            file.setName(defaultFileName);
+
+            ConfListVo.Page page = new ConfListVo.Page();
+            page.setResult(Arrays.asList(item, file));
+            page.setTotalCount(2);
+
+            ConfListVo confListVo = new ConfListVo();
+            confListVo.setSuccess("true");
+            confListVo.setPage(page);
+            return (T) confListVo;
+        }
+
         ValueVo valueVo = new ValueVo();
         valueVo.setMessage("");
         valueVo.setStatus(Constants.OK);
@@ -76,6 +102,22 @@ public class RestfulMgrMock extends MockUp<RestfulMgr> {
         return fileName;
     }
 
+    @Mock
+    public byte[] downloadBytes(RemoteUrl remoteUrl, int retryTimes, int retrySleepSeconds) throws Exception {
+
+        return defaultFileContent.getBytes("UTF-8");
+    }
+
+    @Mock
+    public String saveFile(byte[] data, String fileName, String localFileDir, String targetDirPath,
+                           boolean enableLocalDownloadDirInClassPath) throws Exception {
+
+        File tempFile = DirUtils.createTempDirectory();
+        FileUtils.writeByteArrayToFile(new File(tempFile, fileName), data);
+
+        return fileName;
+    }
+
     @Mock
     public void close() {
         HttpClientUtil.close();
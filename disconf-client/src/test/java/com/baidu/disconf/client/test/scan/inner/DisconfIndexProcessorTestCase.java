@@ -0,0 +1,197 @@
+package com.baidu.disconf.client.test.scan.inner;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.disconf.client.common.annotations.DisconfFile;
+import com.baidu.disconf.client.scan.index.DisconfIndex;
+import com.baidu.disconf.client.scan.index.DisconfIndexProcessor;
+import com.baidu.disconf.client.scan.inner.statically.model.ScanStaticModel;
+import com.baidu.disconf.client.scan.inner.statically.strategy.impl.IndexScanStatic;
+
+/**
+ * 用 {@link DisconfIndexProcessor} 编译, 再用生成的索引扫描
+ */
+public class DisconfIndexProcessorTestCase {
+
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
+    private static final String CONF_A = "package com.disconf.indextest.a;\n" +
+            "import com.baidu.disconf.client.common.annotations.*;\n" +
+            "@DisconfFile(filename = \"indexa.properties\")\n" +
+            "public class ConfA {\n" +
+            "    private String value;\n" +
+            "    @DisconfFileItem(name = \"value\", associateField = \"value\")\n" +
+            "    public String getValue() { return value; }\n" +
+            "    public void setValue(String value) { this.value = value; }\n" +
+            "}\n";
+
+    private static final String CONF_B = "package com.disconf.indextest.b;\n" +
+            "import com.baidu.disconf.client.common.annotations.*;\n" +
+            "@DisconfFile(filename = \"indexb.properties\")\n" +
+            "public class ConfB {\n" +
+            "}\n";
+
+    private static final String PLAIN = "package com.disconf.indextest.c;\n" +
+            "public class Plain {\n" +
+            "}\n";
+
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+
+        Assume.assumeNotNull(ToolProvider.getSystemJavaCompiler());
+
+        dir = new File(FileUtils.getTempDirectory(), "disconf-index-" + System.nanoTime());
+        dir.mkdirs();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        if (dir != null) {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void writeIndex() throws Exception {
+
+        File classes = compile("a", true, "com/disconf/indextest/a/ConfA.java", CONF_A);
+
+        DisconfIndex index = readIndex(classes);
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("com.disconf.indextest.a.ConfA")),
+                index.get(DisconfIndex.DISCONF_FILE));
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("com.disconf.indextest.a.ConfA#getValue")),
+                index.get(DisconfIndex.DISCONF_FILE_ITEM));
+
+        // 没有注解时生成空索引, 表示不需要扫描
+        classes = compile("c", true, "com/disconf/indextest/c/Plain.java", PLAIN);
+        Assert.assertTrue(readIndex(classes).isEmpty());
+
+        // 没有使用 processor 时没有索引
+        classes = compile("b", false, "com/disconf/indextest/b/ConfB.java", CONF_B);
+        Assert.assertFalse(new File(classes, DisconfIndex.INDEX_LOCATION).exists());
+    }
+
+    @Test
+    public void scanWithIndex() throws Exception {
+
+        File classesA = compile("a", true, "com/disconf/indextest/a/ConfA.java", CONF_A);
+        File classesB = compile("b", false, "com/disconf/indextest/b/ConfB.java", CONF_B);
+
+        // 只扫描有索引的包
+        ScanStaticModel scanModel = scan(Arrays.asList("com.disconf.indextest.a"), classesA, classesB);
+        Assert.assertNull(scanModel.getReflections());
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("com.disconf.indextest.a.ConfA")),
+                getClassNames(scanModel.getDisconfFileClassSet()));
+        Assert.assertEquals(1, scanModel.getDisconfFileItemMethodSet().size());
+
+        // 没有索引的包使用 Reflection, 不会丢失
+        scanModel = scan(Arrays.asList("com.disconf.indextest.a", "com.disconf.indextest.b"), classesA, classesB);
+        Assert.assertNotNull(scanModel.getReflections());
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("com.disconf.indextest.a.ConfA",
+                "com.disconf.indextest.b.ConfB")), getClassNames(scanModel.getDisconfFileClassSet()));
+        Assert.assertEquals(2, scanModel.getDisconfFileItemMap().size());
+
+        // classpath 中找不到的包(如没有目录项的jar)不能确定有索引
+        scanModel = scan(Arrays.asList("com.disconf.indextest.a", "com.disconf.indextest.none"), classesA, classesB);
+        Assert.assertNotNull(scanModel.getReflections());
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("com.disconf.indextest.a.ConfA")),
+                getClassNames(scanModel.getDisconfFileClassSet()));
+
+        // 同一个包一部分有索引, 一部分没有
+        scanModel = scan(Arrays.asList("com.disconf.indextest"), classesA, classesB);
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("com.disconf.indextest.a.ConfA",
+                "com.disconf.indextest.b.ConfB")), getClassNames(scanModel.getDisconfFileClassSet()));
+    }
+
+    private ScanStaticModel scan(List<String> packNameList, File... classes) throws Exception {
+
+        URL[] urls = new URL[classes.length];
+        for (int i = 0; i < classes.length; i++) {
+            urls[i] = classes[i].toURI().toURL();
+        }
+
+        ClassLoader old = Thread.currentThread().getContextClassLoader();
+        URLClassLoader classLoader = new URLClassLoader(urls, DisconfIndexProcessorTestCase.class.getClassLoader());
+        Thread.currentThread().setContextClassLoader(classLoader);
+        try {
+            return new IndexScanStatic().scan(packNameList);
+        } finally {
+            Thread.currentThread().setContextClassLoader(old);
+        }
+    }
+
+    private File compile(String name, boolean withProcessor, String path, String source) throws Exception {
+
+        File sourceFile = new File(dir, name + "-src/" + path);
+        FileUtils.writeStringToFile(sourceFile, source, CHARSET);
+
+        File classes = new File(dir, name);
+        classes.mkdirs();
+
+        String classPath = new File(DisconfFile.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                .getPath();
+
+        List<String> options = new ArrayList<String>(Arrays.asList("-d", classes.getPath(), "-classpath", classPath));
+        if (withProcessor) {
+            options.addAll(Arrays.asList("-processor", DisconfIndexProcessor.class.getName()));
+        } else {
+            options.add("-proc:none");
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, CHARSET);
+        try {
+            Assert.assertTrue(compiler.getTask(null, fileManager, null, options, null,
+                    fileManager.getJavaFileObjects(sourceFile)).call());
+        } finally {
+            fileManager.close();
+        }
+
+        return classes;
+    }
+
+    private static DisconfIndex readIndex(File classes) throws Exception {
+
+        Reader reader = new InputStreamReader(new FileInputStream(new File(classes, DisconfIndex.INDEX_LOCATION)),
+                CHARSET);
+        try {
+            return DisconfIndex.read(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static Set<String> getClassNames(Set<Class<?>> classSet) {
+
+        Set<String> names = new HashSet<String>();
+        for (Class<?> clazz : classSet) {
+            names.add(clazz.getName());
+        }
+        return names;
+    }
+}
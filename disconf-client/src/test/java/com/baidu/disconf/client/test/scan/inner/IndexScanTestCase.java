@@ -0,0 +1,78 @@
+package com.baidu.disconf.client.test.scan.inner;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.baidu.disconf.client.scan.inner.statically.model.ScanStaticModel;
+import com.baidu.disconf.client.scan.inner.statically.strategy.ScanStaticStrategy;
+import com.baidu.disconf.client.scan.inner.statically.strategy.impl.IndexScanStatic;
+import com.baidu.disconf.client.support.utils.ScanPrinterUtils;
+import com.baidu.disconf.client.test.common.BaseSpringTestCase;
+
+/**
+ * 索引扫描测试
+ */
+public class IndexScanTestCase extends BaseSpringTestCase {
+
+    protected static final Logger LOGGER = LoggerFactory.getLogger(IndexScanTestCase.class);
+
+    /**
+     * 使用索引扫描
+     */
+    @Test
+    public void scanWithIndex() {
+
+        ScanStaticStrategy scanStaticStrategy = new IndexScanStatic("index/disconf-test.index");
+
+        ScanStaticModel scanModel = scanStaticStrategy.scan(ScanPackTestCase.SCAN_PACK_NAME_LIST);
+
+        // 没有使用 Reflection
+        Assert.assertNull(scanModel.getReflections());
+
+        verify(scanModel);
+    }
+
+    /**
+     * 没有索引时使用 Reflection
+     */
+    @Test
+    public void scanWithoutIndex() {
+
+        ScanStaticStrategy scanStaticStrategy = new IndexScanStatic("index/not-exist.index");
+
+        ScanStaticModel scanModel = scanStaticStrategy.scan(ScanPackTestCase.SCAN_PACK_NAME_LIST);
+
+        Assert.assertNotNull(scanModel.getReflections());
+
+        verify(scanModel);
+    }
+
+    private void verify(ScanStaticModel scanModel) {
+
+        // disconf file item
+        Set<Method> methods = scanModel.getDisconfFileItemMethodSet();
+        ScanPrinterUtils.printFileItemMethod(methods);
+        Assert.assertEquals(6, methods.size());
+        Assert.assertEquals(4, scanModel.getDisconfFileClassSet().size());
+
+        // disconf file
+        Map<Class<?>, Set<Method>> fileMap = scanModel.getDisconfFileItemMap();
+        Assert.assertEquals(4, fileMap.size());
+
+        // disconf item
+        methods = scanModel.getDisconfItemMethodSet();
+        Assert.assertEquals(1, methods.size());
+
+        // Active backup
+        Assert.assertEquals(0, scanModel.getDisconfActiveBackupServiceClassSet().size());
+
+        // Update service
+        Assert.assertEquals(2, scanModel.getDisconfUpdateService().size());
+    }
+}
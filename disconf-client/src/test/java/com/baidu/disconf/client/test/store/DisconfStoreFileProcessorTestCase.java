@@ -0,0 +1,72 @@
+package com.baidu.disconf.client.test.store;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.disconf.client.common.model.DisconfCenterFile;
+import com.baidu.disconf.client.common.model.DisconfCenterFile.FileItemValue;
+import com.baidu.disconf.client.store.DisconfStoreProcessor;
+import com.baidu.disconf.client.store.DisconfStoreProcessorFactory;
+import com.baidu.disconf.client.store.inner.DisconfCenterStore;
+import com.baidu.disconf.client.store.processor.model.DisconfValue;
+
+/**
+ * 配置文件只注入有变化的配置项
+ */
+public class DisconfStoreFileProcessorTestCase {
+
+    private static final String FILE_NAME = "changed.properties";
+
+    private int port;
+
+    private String host;
+
+    @Test
+    public void changedKeysTest() throws Exception {
+
+        Map<String, FileItemValue> keyMaps = new HashMap<String, FileItemValue>();
+        keyMaps.put("port", new FileItemValue(null, DisconfStoreFileProcessorTestCase.class.getDeclaredField("port")));
+        keyMaps.put("host", new FileItemValue(null, DisconfStoreFileProcessorTestCase.class.getDeclaredField("host")));
+
+        DisconfCenterFile disconfCenterFile = new DisconfCenterFile();
+        disconfCenterFile.setFileName(FILE_NAME);
+        disconfCenterFile.setKeyMaps(keyMaps);
+
+        DisconfStoreProcessor disconfStoreProcessor = DisconfStoreProcessorFactory.getDisconfStoreFileProcessor();
+        disconfStoreProcessor.transformScanData(disconfCenterFile);
+
+        try {
+
+            Map<String, Object> data = new HashMap<String, Object>();
+            data.put("port", "8080");
+            data.put("host", "localhost");
+
+            Assert.assertEquals(new HashSet<String>(keyMaps.keySet()),
+                    disconfStoreProcessor.inject2Store(FILE_NAME, new DisconfValue(null, data)));
+            disconfStoreProcessor.inject2Instance(this, FILE_NAME);
+            Assert.assertEquals(8080, port);
+            Assert.assertEquals("localhost", host);
+
+            // 相同的内容没有变化
+            Assert.assertTrue(disconfStoreProcessor.inject2Store(FILE_NAME, new DisconfValue(null, data)).isEmpty());
+
+            // 只注入有变化的
+            data.put("port", " 9090 ");
+            Assert.assertEquals(Collections.singleton("port"),
+                    disconfStoreProcessor.inject2Store(FILE_NAME, new DisconfValue(null, data)));
+
+            host = "untouched";
+            disconfStoreProcessor.inject2Instance(this, FILE_NAME, Collections.singleton("port"));
+            Assert.assertEquals(9090, port);
+            Assert.assertEquals("untouched", host);
+
+        } finally {
+            DisconfCenterStore.getInstance().excludeOneFile(FILE_NAME);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.baidu.disconf.client.test.usertools;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.disconf.client.common.model.FieldAccessor;
+
+/**
+ * 配置域的读取、设置和类型转换
+ */
+public class FieldAccessorTestCase {
+
+    private static long staticValue = 1L;
+
+    private static final String FINAL_VALUE = "final";
+
+    private int intValue = 3;
+
+    private Double doubleValue;
+
+    private String setterValue;
+
+    public void setSetterValue(String setterValue) {
+        this.setterValue = "set:" + setterValue;
+    }
+
+    @Test
+    public void fieldTest() throws Exception {
+
+        FieldAccessor accessor = new FieldAccessor(FieldAccessorTestCase.class.getDeclaredField("intValue"), null);
+        Assert.assertFalse(accessor.isStatic());
+        Assert.assertEquals(3, accessor.get(this));
+
+        accessor.set(this, accessor.convert(" 10 "));
+        Assert.assertEquals(10, intValue);
+
+        accessor = new FieldAccessor(FieldAccessorTestCase.class.getDeclaredField("doubleValue"), null);
+        Assert.assertNull(accessor.get(this));
+        accessor.set(this, accessor.convert("2.5"));
+        Assert.assertEquals(2.5, doubleValue, 0.0001);
+    }
+
+    @Test
+    public void staticFieldTest() throws Exception {
+
+        FieldAccessor accessor = new FieldAccessor(FieldAccessorTestCase.class.getDeclaredField("staticValue"), null);
+        Assert.assertTrue(accessor.isStatic());
+
+        accessor.set(null, accessor.convert("100"));
+        Assert.assertEquals(100L, accessor.get(null));
+        Assert.assertEquals(100L, staticValue);
+
+        // final 域不能设置, 与反射一致
+        accessor = new FieldAccessor(FieldAccessorTestCase.class.getDeclaredField("FINAL_VALUE"), null);
+        Assert.assertEquals("final", accessor.get(null));
+        try {
+            accessor.set(null, "changed");
+            Assert.fail();
+        } catch (Exception e) {
+            Assert.assertTrue(e instanceof IllegalAccessException);
+        }
+    }
+
+    @Test
+    public void setterTest() throws Exception {
+
+        FieldAccessor accessor =
+            new FieldAccessor(FieldAccessorTestCase.class.getDeclaredField("setterValue"),
+                                 FieldAccessorTestCase.class.getMethod("setSetterValue", String.class));
+
+        accessor.set(this, accessor.convert("abc"));
+        Assert.assertEquals("set:abc", setterValue);
+        Assert.assertEquals("set:abc", accessor.get(this));
+    }
+
+    @Test
+    public void convertTest() throws Exception {
+
+        FieldAccessor accessor = new FieldAccessor(FieldAccessorTestCase.class.getDeclaredField("intValue"), null);
+        Assert.assertEquals(5, accessor.convert(" 5"));
+
+        accessor = new FieldAccessor(FieldAccessorTestCase.class.getDeclaredField("setterValue"), null);
+        Assert.assertEquals(" a ", accessor.convert(" a "));
+        Assert.assertEquals("", accessor.convert(1));
+    }
+}
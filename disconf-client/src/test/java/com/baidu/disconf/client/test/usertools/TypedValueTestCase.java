@@ -0,0 +1,73 @@
+package com.baidu.disconf.client.test.usertools;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.disconf.client.common.model.TypedValue;
+
+public class TypedValueTestCase {
+
+    @Test
+    public void numberTest() {
+
+        TypedValue typedValue = TypedValue.of(" 100 ");
+        Assert.assertEquals(100, typedValue.getInt(0));
+        Assert.assertEquals(100L, typedValue.getLong(0L));
+        Assert.assertEquals(100.0, typedValue.getDouble(0.0), 0.0001);
+        Assert.assertEquals(" 100 ", typedValue.getString(null));
+
+        typedValue = TypedValue.of("3.5");
+        Assert.assertEquals(-1, typedValue.getInt(-1));
+        Assert.assertEquals(-1L, typedValue.getLong(-1L));
+        Assert.assertEquals(3.5, typedValue.getDouble(0.0), 0.0001);
+
+        typedValue = TypedValue.of(Long.MAX_VALUE);
+        Assert.assertEquals(-1, typedValue.getInt(-1));
+        Assert.assertEquals(Long.MAX_VALUE, typedValue.getLong(0L));
+
+        // 与注入规则一致, 空串视为0
+        Assert.assertEquals(0, TypedValue.of("").getInt(-1));
+    }
+
+    @Test
+    public void fractionTest() {
+
+        // 字符串和数字一样, 有小数部分时不能作为整数
+        for (TypedValue typedValue : Arrays.asList(TypedValue.of("3.7"), TypedValue.of(3.7))) {
+            Assert.assertEquals(-1, typedValue.getInt(-1));
+            Assert.assertEquals(-1L, typedValue.getLong(-1L));
+            Assert.assertEquals(3.7, typedValue.getDouble(0.0), 0.0001);
+        }
+
+        Assert.assertEquals(3, TypedValue.of(3.0).getInt(-1));
+        Assert.assertEquals(-1L, TypedValue.of(Double.NaN).getLong(-1L));
+    }
+
+    @Test
+    public void booleanTest() {
+
+        Assert.assertTrue(TypedValue.of("TRUE").getBoolean(false));
+        Assert.assertFalse(TypedValue.of("false").getBoolean(true));
+        Assert.assertTrue(TypedValue.of(Boolean.TRUE).getBoolean(false));
+        Assert.assertTrue(TypedValue.of("abc").getBoolean(true));
+    }
+
+    @Test
+    public void listTest() {
+
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), TypedValue.of("a, b,,c ").getList());
+        Assert.assertTrue(TypedValue.of("").getList().isEmpty());
+        Assert.assertTrue(TypedValue.of(null).getList().isEmpty());
+    }
+
+    @Test
+    public void nullTest() {
+
+        TypedValue typedValue = TypedValue.of(null);
+        Assert.assertTrue(typedValue.isNull());
+        Assert.assertEquals(7, typedValue.getInt(7));
+        Assert.assertEquals("x", typedValue.getString("x"));
+    }
+}
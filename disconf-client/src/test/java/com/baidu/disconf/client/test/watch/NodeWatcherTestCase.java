@@ -0,0 +1,69 @@
+package com.baidu.disconf.client.test.watch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.disconf.client.core.processor.DisconfCoreProcessor;
+import com.baidu.disconf.client.watch.inner.DisconfSysUpdateCallback;
+import com.baidu.disconf.client.watch.inner.NodeWatcher;
+import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
+import com.baidu.disconf.core.common.utils.ConfigStampUtils;
+
+/**
+ * 会话恢复后按版本戳决定是否重新加载
+ */
+public class NodeWatcherTestCase {
+
+    private static final String KEY = "resync.properties";
+
+    private final List<String> reloaded = new ArrayList<String>();
+
+    // 随下载请求发给 disconf-web 的版本戳
+    private final List<String> stamps = new ArrayList<String>();
+
+    private final DisconfSysUpdateCallback callback = new DisconfSysUpdateCallback(null) {
+        @Override
+        public void reload(DisconfCoreProcessor disconfCoreMgr, DisConfigTypeEnum disConfigTypeEnum,
+                           String keyName, String stamp) throws Exception {
+            reloaded.add(keyName);
+            stamps.add(stamp);
+        }
+    };
+
+    @Test
+    public void resync() throws Exception {
+
+        String stamp = ConfigStampUtils.getStamp("a=1");
+
+        // 版本戳没有变化, 不重新加载
+        Assert.assertFalse(newWatcher(stamp).resync(stamp + "\n"));
+        Assert.assertTrue(reloaded.isEmpty());
+
+        // 过期期间配置有变化
+        String newStamp = ConfigStampUtils.getStamp("a=2");
+        Assert.assertTrue(newWatcher(stamp).resync(newStamp + "\n"));
+        Assert.assertEquals(Arrays.asList(KEY), reloaded);
+        Assert.assertEquals(Arrays.asList(newStamp), stamps);
+
+        // 读取失败或本地版本戳未知时, 不能确定没有变化
+        reloaded.clear();
+        stamps.clear();
+        Assert.assertTrue(newWatcher(stamp).resync(null));
+        Assert.assertTrue(newWatcher(null).resync(stamp));
+        Assert.assertEquals(Arrays.asList(KEY, KEY), reloaded);
+        Assert.assertEquals(Arrays.asList(null, stamp), stamps);
+
+        // 旧版本 disconf-web 写入的是配置值, 不作为版本戳
+        stamps.clear();
+        Assert.assertTrue(newWatcher(stamp).resync("a=3"));
+        Assert.assertEquals(Arrays.asList((String) null), stamps);
+    }
+
+    private NodeWatcher newWatcher(String stamp) {
+        return new NodeWatcher(null, "/disconf/resync", KEY, DisConfigTypeEnum.FILE, callback, stamp, false);
+    }
+}
@@ -0,0 +1,88 @@
+package com.baidu.disconf.client.test.watch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.disconf.client.common.update.IDisconfUpdate;
+import com.baidu.disconf.client.core.processor.DisconfCoreProcessor;
+import com.baidu.disconf.client.watch.inner.ReloadBatcher;
+import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
+
+/**
+ * 同一批ZK通知合并为一次重新加载
+ */
+public class ReloadBatcherTestCase {
+
+    /**
+     * 同时到达的通知: 先全部更新再回调, 同一个配置只更新一次, 同一个回调函数只调用一次
+     */
+    @Test
+    public void batch() throws Exception {
+
+        final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch latch = new CountDownLatch(2);
+
+        final IDisconfUpdate sharedCallback = new IDisconfUpdate() {
+            @Override
+            public void reload() throws Exception {
+                events.add("callback");
+            }
+        };
+
+        DisconfCoreProcessor processor = new DisconfCoreProcessor() {
+
+            @Override
+            public void processAllItems() {
+            }
+
+            @Override
+            public void processOneItem(String key) {
+            }
+
+            @Override
+            public void updateOneConfAndCallback(String key) throws Exception {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void updateOneConf(String key, String stamp) throws Exception {
+                events.add("update " + key + " " + stamp);
+            }
+
+            @Override
+            public void callOneConf(String key, Set<IDisconfUpdate> called) throws Exception {
+                if (called.add(sharedCallback)) {
+                    sharedCallback.reload();
+                }
+                latch.countDown();
+            }
+
+            @Override
+            public void inject2Conf() {
+            }
+        };
+
+        ReloadBatcher reloadBatcher = new ReloadBatcher(500);
+        try {
+
+            reloadBatcher.submit(processor, DisConfigTypeEnum.ITEM, "a", "s1");
+            reloadBatcher.submit(processor, DisConfigTypeEnum.ITEM, "b", null);
+            reloadBatcher.submit(processor, DisConfigTypeEnum.ITEM, "a", "s2");
+
+            // 同一个配置使用最后一个通知的版本戳
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(Arrays.asList("update a s2", "update b null", "callback"), events);
+
+        } finally {
+            reloadBatcher.release();
+        }
+    }
+}
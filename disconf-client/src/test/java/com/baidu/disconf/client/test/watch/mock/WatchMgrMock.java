@@ -26,7 +26,7 @@ public class WatchMgrMock extends MockUp<WatchMgr> {
      */
     @Mock
     public void watchPath(DisconfCoreProcessor disconfCoreMgr, DisConfCommonModel disConfCommonModel, String keyName,
-                          DisConfigTypeEnum disConfigTypeEnum, String value) throws Exception {
+                          DisConfigTypeEnum disConfigTypeEnum, String value, String stamp) throws Exception {
 
         return;
     }
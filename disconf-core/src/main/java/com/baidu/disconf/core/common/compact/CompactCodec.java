@@ -0,0 +1,184 @@
+package com.baidu.disconf.core.common.compact;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.baidu.disconf.core.common.json.ConfListVo;
+import com.baidu.disconf.core.common.json.ConfVo;
+import com.baidu.disconf.core.common.json.ValueVo;
+
+/**
+ * disconf-client 与 disconf-web 之间的紧凑二进制格式
+ * <p/>
+ * 客户端在 Accept 中声明 {@link #MEDIA_TYPE}, 服务端支持时返回二进制, 否则仍然返回 JSON. 浏览器不声明, 始终是 JSON.
+ * <p/>
+ * 所有数据以头部 (magic, 版本, 数据类型) 开始:
+ * <pre>
+ * 配置项 (KIND_VALUE): status(nullable long) message(string) value(string)
+ * 配置列表 (KIND_LIST): count(varint) 之后是 count 条记录, 每条记录依次为
+ *     id type status name value appId version envId createTime updateTime, 整数字段均可为 null
+ * </pre>
+ */
+public final class CompactCodec {
+
+    public static final String MEDIA_TYPE = "application/x-disconf-compact";
+
+    /**
+     * 客户端请求时的 Accept, 旧的服务端会忽略二进制格式, 返回 JSON
+     */
+    public static final String ACCEPT = MEDIA_TYPE + ", application/json;q=0.9";
+
+    static final int MAGIC = 0xDC;
+    static final int VERSION = 1;
+
+    public static final int KIND_VALUE = 1;
+    public static final int KIND_LIST = 2;
+
+    private CompactCodec() {
+    }
+
+    /**
+     * 请求的 Accept 是否声明了二进制格式
+     */
+    public static boolean isAccepted(String accept) {
+        return accept != null && accept.contains(MEDIA_TYPE);
+    }
+
+    /**
+     * 响应的 Content-Type 是否为二进制格式
+     */
+    public static boolean isCompact(String contentType) {
+        return contentType != null && contentType.startsWith(MEDIA_TYPE);
+    }
+
+    /**
+     * 是否可以用二进制格式解析
+     */
+    public static boolean canRead(Class<?> clazz) {
+        return ValueVo.class.equals(clazz) || ConfListVo.class.equals(clazz);
+    }
+
+    /**
+     * 从流中解析, 不负责关闭流
+     */
+    public static <T> T read(Class<T> clazz, InputStream in) throws IOException {
+
+        if (ValueVo.class.equals(clazz)) {
+            return clazz.cast(readValueVo(in));
+        }
+        if (ConfListVo.class.equals(clazz)) {
+            return clazz.cast(readConfListVo(in));
+        }
+        throw new IOException("compact format does not support " + clazz.getName());
+    }
+
+    public static void writeValueVo(ValueVo valueVo, OutputStream out) throws IOException {
+
+        CompactWriter writer = new CompactWriter(out);
+        writer.writeHeader(KIND_VALUE);
+        writer.writeNullableLong(valueVo.getStatus() == null ? null : valueVo.getStatus().longValue());
+        writer.writeString(valueVo.getMessage());
+        writer.writeString(valueVo.getValue());
+        writer.flush();
+    }
+
+    public static ValueVo readValueVo(InputStream in) throws IOException {
+
+        CompactReader reader = new CompactReader(in);
+        reader.readHeader(KIND_VALUE);
+
+        ValueVo valueVo = new ValueVo();
+        Long status = reader.readNullableLong();
+        valueVo.setStatus(status == null ? null : status.intValue());
+        valueVo.setMessage(reader.readString());
+        valueVo.setValue(reader.readString());
+        return valueVo;
+    }
+
+    public static byte[] toBytes(ValueVo valueVo) throws IOException {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeValueVo(valueVo, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * 写入配置列表, 服务端的配置需要先转为 {@link ConfVo}
+     */
+    public static void writeConfList(List<ConfVo> confVos, OutputStream out) throws IOException {
+
+        CompactWriter writer = new CompactWriter(out);
+        writer.writeHeader(KIND_LIST);
+        writer.writeVarInt(confVos.size());
+
+        for (ConfVo confVo : confVos) {
+            writer.writeNullableLong(confVo.getId());
+            writer.writeNullableLong(toLong(confVo.getType()));
+            writer.writeNullableLong(toLong(confVo.getStatus()));
+            writer.writeString(confVo.getName());
+            writer.writeString(confVo.getValue());
+            writer.writeNullableLong(confVo.getAppId());
+            writer.writeString(confVo.getVersion());
+            writer.writeNullableLong(confVo.getEnvId());
+            writer.writeString(confVo.getCreateTime());
+            writer.writeString(confVo.getUpdateTime());
+        }
+        writer.flush();
+    }
+
+    /**
+     * 解析整个配置列表, 结构与 JSON 的列表接口一致
+     */
+    public static ConfListVo readConfListVo(InputStream in) throws IOException {
+
+        CompactReader reader = new CompactReader(in);
+        reader.readHeader(KIND_LIST);
+
+        int count = reader.readVarInt();
+
+        // 数量来自数据本身, 不按它预分配, 防止错误的数据导致分配过大的内存
+        List<ConfVo> confVos = new ArrayList<ConfVo>(Math.min(count, 1024));
+        for (int i = 0; i < count; i++) {
+            ConfVo confVo = new ConfVo();
+            confVo.setId(reader.readNullableLong());
+            confVo.setType(toInteger(reader.readNullableLong()));
+            confVo.setStatus(toInteger(reader.readNullableLong()));
+            confVo.setName(reader.readString());
+            confVo.setValue(reader.readString());
+            confVo.setAppId(reader.readNullableLong());
+            confVo.setVersion(reader.readString());
+            confVo.setEnvId(reader.readNullableLong());
+            confVo.setCreateTime(reader.readString());
+            confVo.setUpdateTime(reader.readString());
+            confVos.add(confVo);
+        }
+
+        ConfListVo.Page page = new ConfListVo.Page();
+        page.setResult(confVos);
+        page.setTotalCount(count);
+
+        ConfListVo confListVo = new ConfListVo();
+        confListVo.setSuccess("true");
+        confListVo.setPage(page);
+        return confListVo;
+    }
+
+    public static byte[] toBytes(List<ConfVo> confVos) throws IOException {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(confVos.size() * 64 + 16);
+        writeConfList(confVos, out);
+        return out.toByteArray();
+    }
+
+    private static Long toLong(Integer value) {
+        return value == null ? null : value.longValue();
+    }
+
+    private static Integer toInteger(Long value) {
+        return value == null ? null : value.intValue();
+    }
+}
@@ -0,0 +1,119 @@
+package com.baidu.disconf.core.common.compact;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * 紧凑二进制格式的流式读取, 格式见 {@link CompactWriter}
+ * <p/>
+ * 直接从流中读取, 不需要先把整个响应读入内存
+ */
+public class CompactReader {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    // 单个字符串的上限, 防止错误的数据导致分配过大的内存
+    private static final int MAX_STRING_LENGTH = 64 * 1024 * 1024;
+
+    private final InputStream in;
+
+    // 复用的缓冲区
+    private byte[] buffer = new byte[256];
+
+    public CompactReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * 读取并校验头部
+     *
+     * @param kind 期望的数据类型
+     */
+    public void readHeader(int kind) throws IOException {
+
+        int magic = readByte();
+        int version = readByte();
+        int actualKind = readByte();
+
+        if (magic != CompactCodec.MAGIC) {
+            throw new IOException("not a compact stream, magic: " + magic);
+        }
+        if (version != CompactCodec.VERSION) {
+            throw new IOException("unsupported compact version: " + version);
+        }
+        if (actualKind != kind) {
+            throw new IOException("unexpected compact kind: " + actualKind + ", expected: " + kind);
+        }
+    }
+
+    public int readVarInt() throws IOException {
+
+        long value = readVarLong();
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("varint overflow: " + value);
+        }
+        return (int) value;
+    }
+
+    public long readVarLong() throws IOException {
+
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    public Long readNullableLong() throws IOException {
+
+        long value = readVarLong();
+        if (value == 0) {
+            return null;
+        }
+        value -= 1;
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public String readString() throws IOException {
+
+        int length = readVarInt();
+        if (length == 0) {
+            return null;
+        }
+        length -= 1;
+
+        if (length > MAX_STRING_LENGTH) {
+            throw new IOException("string too long: " + length);
+        }
+
+        if (buffer.length < length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+        }
+
+        int offset = 0;
+        while (offset < length) {
+            int n = in.read(buffer, offset, length - offset);
+            if (n < 0) {
+                throw new EOFException();
+            }
+            offset += n;
+        }
+
+        return new String(buffer, 0, length, UTF8);
+    }
+
+    private int readByte() throws IOException {
+
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException();
+        }
+        return b;
+    }
+}
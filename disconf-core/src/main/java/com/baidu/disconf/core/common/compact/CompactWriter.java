@@ -0,0 +1,80 @@
+package com.baidu.disconf.core.common.compact;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * 紧凑二进制格式的写入
+ * <p/>
+ * 整数使用 varint (每字节7位, 高位表示后面还有字节), 字符串为 varint 长度 + UTF-8 字节, 长度写入时加1, 0 表示 null
+ */
+public class CompactWriter {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final OutputStream out;
+
+    public CompactWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * 写入头部: magic, 版本, 数据类型
+     */
+    public void writeHeader(int kind) throws IOException {
+        out.write(CompactCodec.MAGIC);
+        out.write(CompactCodec.VERSION);
+        out.write(kind);
+    }
+
+    /**
+     * 非负整数
+     */
+    public void writeVarInt(int value) throws IOException {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 非负长整数
+     */
+    public void writeVarLong(long value) throws IOException {
+
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * 可为 null 的整数, 0 表示 null. 不支持 Long.MIN_VALUE
+     */
+    public void writeNullableLong(Long value) throws IOException {
+
+        if (value == null) {
+            writeVarLong(0);
+        } else if (value == Long.MIN_VALUE) {
+            throw new IllegalArgumentException("compact format does not support Long.MIN_VALUE");
+        } else {
+            // zigzag 编码后加1, 负数也可以写入
+            writeVarLong(((value << 1) ^ (value >> 63)) + 1);
+        }
+    }
+
+    public void writeString(String value) throws IOException {
+
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(UTF8);
+        writeVarInt(bytes.length + 1);
+        out.write(bytes);
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+}
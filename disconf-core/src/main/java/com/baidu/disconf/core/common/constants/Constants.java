@@ -20,6 +20,11 @@ public class Constants {
     public final static String KEY = "key";
     public final static String TYPE = "type";
 
+    /**
+     * 客户端下载配置时带上ZK结点上的版本戳, 从库的值与之不同时 disconf-web 改读主库
+     */
+    public final static String STAMP = "stamp";
+
     /**
      * Disconf-web返回的常量
      */
@@ -31,6 +36,7 @@ public class Constants {
      */
     public final static String STORE_FILE_URL_KEY = "file";
     public final static String STORE_ITEM_URL_KEY = "item";
+    public final static String STORE_LIST_URL_KEY = "list";
     public final static String ZOO_HOSTS_URL_KEY = "hosts";
     public final static String ZOO_HOSTS_URL_PREFIX_KEY = "prefix";
 
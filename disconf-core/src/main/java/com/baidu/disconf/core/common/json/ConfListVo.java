@@ -0,0 +1,82 @@
+package com.baidu.disconf.core.common.json;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 配置列表, 与 disconf-web 列表接口的 JSON 结构一致: {"success":"true","page":{"result":[...],"totalCount":1}}
+ * <p/>
+ * 出错时 page 为空
+ */
+public class ConfListVo {
+
+    private String success;
+
+    private Page page;
+
+    public String getSuccess() {
+        return success;
+    }
+
+    public void setSuccess(String success) {
+        this.success = success;
+    }
+
+    public Page getPage() {
+        return page;
+    }
+
+    public void setPage(Page page) {
+        this.page = page;
+    }
+
+    /**
+     * 是否成功返回了列表
+     */
+    public boolean isOk() {
+        return "true".equals(success) && page != null && page.getResult() != null;
+    }
+
+    /**
+     * 成功时返回列表, 否则返回空列表
+     */
+    public List<ConfVo> getResult() {
+        return isOk() ? page.getResult() : new ArrayList<ConfVo>();
+    }
+
+    @Override
+    public String toString() {
+        return "ConfListVo [success=" + success + ", page=" + page + "]";
+    }
+
+    /**
+     * 列表数据
+     */
+    public static class Page {
+
+        private List<ConfVo> result;
+
+        private Integer totalCount;
+
+        public List<ConfVo> getResult() {
+            return result;
+        }
+
+        public void setResult(List<ConfVo> result) {
+            this.result = result;
+        }
+
+        public Integer getTotalCount() {
+            return totalCount;
+        }
+
+        public void setTotalCount(Integer totalCount) {
+            this.totalCount = totalCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Page [result=" + result + ", totalCount=" + totalCount + "]";
+        }
+    }
+}
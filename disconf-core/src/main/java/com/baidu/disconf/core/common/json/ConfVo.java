@@ -0,0 +1,115 @@
+package com.baidu.disconf.core.common.json;
+
+/**
+ * 配置列表中的一条配置, 字段与 disconf-web 返回的配置一致
+ */
+public class ConfVo {
+
+    private Long id;
+
+    // 0 配置文件, 1 配置项
+    private Integer type;
+
+    private Integer status;
+
+    private String name;
+
+    private String value;
+
+    private Long appId;
+
+    private String version;
+
+    private Long envId;
+
+    private String createTime;
+
+    private String updateTime;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getType() {
+        return type;
+    }
+
+    public void setType(Integer type) {
+        this.type = type;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public void setStatus(Integer status) {
+        this.status = status;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public Long getAppId() {
+        return appId;
+    }
+
+    public void setAppId(Long appId) {
+        this.appId = appId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public Long getEnvId() {
+        return envId;
+    }
+
+    public void setEnvId(Long envId) {
+        this.envId = envId;
+    }
+
+    public String getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(String createTime) {
+        this.createTime = createTime;
+    }
+
+    public String getUpdateTime() {
+        return updateTime;
+    }
+
+    public void setUpdateTime(String updateTime) {
+        this.updateTime = updateTime;
+    }
+
+    @Override
+    public String toString() {
+        return "ConfVo [id=" + id + ", type=" + type + ", status=" + status + ", name=" + name + ", value=" + value
+                + ", appId=" + appId + ", version=" + version + ", envId=" + envId + ", createTime=" + createTime
+                + ", updateTime=" + updateTime + "]";
+    }
+}
@@ -0,0 +1,183 @@
+package com.baidu.disconf.core.common.log;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 采样的访问日志, 进程内唯一
+ * <p/>
+ * 输出到名为 {@link #LOGGER_NAME} 的 logger, 格式为 action=.. app=.. key=.. detail=.., 由日志配置决定输出位置
+ * (建议使用异步 appender). 采样率可以按 app 或 app/key 单独设置, 并通过 JMX 在运行时调整.
+ * <p/>
+ * 未被采样时不会拼接任何字符串
+ */
+public final class AccessLog implements AccessLogMBean {
+
+    public static final String LOGGER_NAME = "disconf.access";
+
+    /**
+     * 默认每 100 次访问记录一次
+     */
+    public static final int DEFAULT_RATE = 100;
+
+    private static final String TARGET_SEPARATOR = "/";
+
+    protected static final Logger LOGGER = LoggerFactory.getLogger(AccessLog.class);
+
+    private static final Logger ACCESS_LOGGER = LoggerFactory.getLogger(LOGGER_NAME);
+
+    private static final AccessLog INSTANCE = new AccessLog();
+
+    public static AccessLog getInstance() {
+        return INSTANCE;
+    }
+
+    private volatile int defaultRate = DEFAULT_RATE;
+
+    // app 或 app/key -> 采样率
+    private final ConcurrentMap<String, Integer> rates = new ConcurrentHashMap<String, Integer>();
+
+    // 已注册的 JMX 名称
+    private ObjectName objectName;
+
+    private AccessLog() {
+    }
+
+    /**
+     * 记录一次访问
+     *
+     * @param action 例如 config.item
+     * @param app
+     * @param key
+     * @param detail 只在被采样时才会调用 toString
+     */
+    public void log(String action, String app, String key, Object detail) {
+
+        if (!ACCESS_LOGGER.isInfoEnabled() || !isSampled(app, key)) {
+            return;
+        }
+
+        ACCESS_LOGGER.info("action={} app={} key={} detail={}", new Object[] {action, app, key, detail});
+    }
+
+    /**
+     * 是否采样, app/key 的设置优先于 app, app 的设置优先于默认值
+     */
+    public boolean isSampled(String app, String key) {
+
+        int rate = getRate(app, key);
+        if (rate <= 0) {
+            return false;
+        }
+        return rate == 1 || ThreadLocalRandom.current().nextInt(rate) == 0;
+    }
+
+    private int getRate(String app, String key) {
+
+        // 大多数情况下没有单独的设置
+        if (rates.isEmpty() || app == null) {
+            return defaultRate;
+        }
+
+        if (key != null) {
+            Integer rate = rates.get(app + TARGET_SEPARATOR + key);
+            if (rate != null) {
+                return rate;
+            }
+        }
+
+        Integer rate = rates.get(app);
+        return rate == null ? defaultRate : rate;
+    }
+
+    @Override
+    public int getDefaultRate() {
+        return defaultRate;
+    }
+
+    @Override
+    public void setDefaultRate(int rate) {
+        defaultRate = rate;
+        LOGGER.info("access log default rate: {}", rate);
+    }
+
+    @Override
+    public void setRate(String target, int rate) {
+        rates.put(target, rate);
+        LOGGER.info("access log rate of {}: {}", target, rate);
+    }
+
+    @Override
+    public void removeRate(String target) {
+        rates.remove(target);
+        LOGGER.info("access log rate of {} removed", target);
+    }
+
+    @Override
+    public String[] getRates() {
+
+        Map<String, Integer> sorted = new TreeMap<String, Integer>(rates);
+
+        String[] values = new String[sorted.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : sorted.entrySet()) {
+            values[i++] = entry.getKey() + "=" + entry.getValue();
+        }
+        return values;
+    }
+
+    /**
+     * 注册到 JMX, 失败时只打印日志
+     *
+     * @param name 例如 com.baidu.disconf:type=DisconfClientAccessLog
+     */
+    public synchronized void registerMBean(String name) {
+
+        if (objectName != null) {
+            return;
+        }
+
+        try {
+
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName newObjectName = new ObjectName(name);
+
+            // 同一个JVM中有多个应用时, 只注册一次
+            if (!mBeanServer.isRegistered(newObjectName)) {
+                mBeanServer.registerMBean(this, newObjectName);
+                objectName = newObjectName;
+            }
+
+        } catch (Exception e) {
+            LOGGER.warn("cannot register access log mbean " + name + ": " + e.toString());
+        }
+    }
+
+    /**
+     * 从 JMX 注销
+     */
+    public synchronized void unregisterMBean() {
+
+        if (objectName == null) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (Exception e) {
+            LOGGER.warn("cannot unregister access log mbean " + objectName + ": " + e.toString());
+        }
+
+        objectName = null;
+    }
+}
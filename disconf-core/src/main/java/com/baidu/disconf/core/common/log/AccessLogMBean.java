@@ -0,0 +1,32 @@
+package com.baidu.disconf.core.common.log;
+
+/**
+ * 访问日志的 JMX 接口, 运行时调整采样率
+ */
+public interface AccessLogMBean {
+
+    /**
+     * 默认采样率: 每 N 次访问记录一次, 0 表示不记录, 1 表示全部记录
+     */
+    int getDefaultRate();
+
+    void setDefaultRate(int rate);
+
+    /**
+     * 设置某个app或配置的采样率
+     *
+     * @param target app, 或 app/key
+     * @param rate   每 N 次访问记录一次, 0 表示不记录
+     */
+    void setRate(String target, int rate);
+
+    /**
+     * 恢复为默认采样率
+     */
+    void removeRate(String target);
+
+    /**
+     * 所有单独设置的采样率, 格式 target=rate
+     */
+    String[] getRates();
+}
@@ -0,0 +1,52 @@
+package com.baidu.disconf.core.common.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 计数器
+ * <p/>
+ * 按线程分段累加, 读取时求和, 避免热点路径上多线程竞争同一个 AtomicLong
+ */
+public class Counter {
+
+    private static final int STRIPES = 16;
+
+    // 每段之间间隔一个缓存行, 避免伪共享
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+    private final String name;
+    private final MetricsRegistry registry;
+
+    Counter(String name, MetricsRegistry registry) {
+        this.name = name;
+        this.registry = registry;
+    }
+
+    public void inc() {
+        add(1L);
+    }
+
+    public void add(long delta) {
+
+        int index = (int) (Thread.currentThread().getId() & (STRIPES - 1)) * PADDING;
+        cells.addAndGet(index, delta);
+
+        registry.notifyCount(name, delta);
+    }
+
+    public long getCount() {
+
+        long sum = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(getCount());
+    }
+}
@@ -0,0 +1,9 @@
+package com.baidu.disconf.core.common.metrics;
+
+/**
+ * 瞬时值, 读取时计算
+ */
+public interface Gauge {
+
+    long getValue();
+}
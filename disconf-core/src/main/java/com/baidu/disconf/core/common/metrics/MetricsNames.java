@@ -0,0 +1,62 @@
+package com.baidu.disconf.core.common.metrics;
+
+/**
+ * 指标名称
+ */
+public final class MetricsNames {
+
+    private MetricsNames() {
+    }
+
+    //
+    // 各阶段耗时, 启动和之后的每次更新都会累计
+    //
+    public static final String PHASE_PREFIX = "phase.";
+    public static final String PHASE_SCAN = PHASE_PREFIX + "scan";
+    public static final String PHASE_FETCH = PHASE_PREFIX + "fetch";
+    public static final String PHASE_PARSE = PHASE_PREFIX + "parse";
+    public static final String PHASE_INJECT = PHASE_PREFIX + "inject";
+    public static final String PHASE_WATCH = PHASE_PREFIX + "watch";
+
+    //
+    // 启动耗时, 启动结束时记录各阶段的累计耗时(毫秒), 例如 startup.fetch
+    //
+    public static final String STARTUP_TOTAL = "startup.total";
+    public static final String STARTUP_PREFIX = "startup.";
+
+    //
+    // 每个配置的获取耗时和大小, 后面接配置名
+    //
+    public static final String FETCH_LATENCY_PREFIX = "fetch.latency.";
+    public static final String FETCH_BYTES_PREFIX = "fetch.bytes.";
+    public static final String FETCH_FAILURE_PREFIX = "fetch.failure.";
+
+    //
+    // http 重试和切换server
+    //
+    public static final String HTTP_RETRY = "http.retry";
+    public static final String HTTP_FAILOVER = "http.failover";
+    public static final String HTTP_FAILURE = "http.failure";
+
+    //
+    // zookeeper
+    //
+    public static final String ZK_WATCH_COUNT = "zk.watch.count";
+    public static final String ZK_EVENT = "zk.event";
+    public static final String ZK_EVENT_APPLIED = "zk.event.applied";
+    // 版本戳与本地一致, 不需要重新下载的事件
+    public static final String ZK_EVENT_SKIPPED = "zk.event.skipped";
+    // 合并后的重新加载次数
+    public static final String ZK_RELOAD_BATCH = "zk.reload.batch";
+
+    //
+    // 用户回调
+    //
+    public static final String CALLBACK = "callback";
+    public static final String CALLBACK_FAILURE = "callback.failure";
+
+    //
+    // 仓库读取
+    //
+    public static final String STORE_READ = "store.read";
+}
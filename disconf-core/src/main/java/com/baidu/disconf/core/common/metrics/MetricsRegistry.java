@@ -0,0 +1,207 @@
+package com.baidu.disconf.core.common.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 指标仓库, 进程内唯一
+ * <p/>
+ * 计数器和计时器按名称创建, 热点路径上建议持有 {@link Counter} / {@link Timer} 的引用, 不要每次按名称查找.
+ * 所有指标通过 {@link #registerMBean(String)} 暴露到 JMX, 也可以通过 {@link #addSink(MetricsSink)} 输出到其它系统
+ */
+public final class MetricsRegistry {
+
+    protected static final Logger LOGGER = LoggerFactory.getLogger(MetricsRegistry.class);
+
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<String, Counter>();
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<String, Timer>();
+    private final ConcurrentMap<String, Gauge> gauges = new ConcurrentHashMap<String, Gauge>();
+
+    private final CopyOnWriteArrayList<MetricsSink> sinks = new CopyOnWriteArrayList<MetricsSink>();
+
+    // 已注册的 JMX 名称
+    private ObjectName objectName;
+
+    MetricsRegistry() {
+    }
+
+    /**
+     * 获取计数器, 不存在则新建
+     */
+    public Counter counter(String name) {
+
+        Counter counter = counters.get(name);
+        if (counter == null) {
+            counters.putIfAbsent(name, new Counter(name, this));
+            counter = counters.get(name);
+        }
+        return counter;
+    }
+
+    /**
+     * 获取计时器, 不存在则新建
+     */
+    public Timer timer(String name) {
+
+        Timer timer = timers.get(name);
+        if (timer == null) {
+            timers.putIfAbsent(name, new Timer(name, this));
+            timer = timers.get(name);
+        }
+        return timer;
+    }
+
+    /**
+     * 注册瞬时值, 同名的会被覆盖
+     */
+    public void gauge(String name, Gauge gauge) {
+        gauges.put(name, gauge);
+    }
+
+    public void removeGauge(String name) {
+        gauges.remove(name);
+    }
+
+    public void addSink(MetricsSink sink) {
+        sinks.add(sink);
+    }
+
+    public void removeSink(MetricsSink sink) {
+        sinks.remove(sink);
+    }
+
+    void notifyCount(String name, long delta) {
+
+        if (sinks.isEmpty()) {
+            return;
+        }
+
+        for (MetricsSink sink : sinks) {
+            try {
+                sink.onCount(name, delta);
+            } catch (RuntimeException e) {
+                LOGGER.warn("metrics sink failed: " + e.toString());
+            }
+        }
+    }
+
+    void notifyTime(String name, long nanos) {
+
+        if (sinks.isEmpty()) {
+            return;
+        }
+
+        for (MetricsSink sink : sinks) {
+            try {
+                sink.onTime(name, nanos);
+            } catch (RuntimeException e) {
+                LOGGER.warn("metrics sink failed: " + e.toString());
+            }
+        }
+    }
+
+    /**
+     * 所有计时器, 按名称排序
+     */
+    public Map<String, Timer> getTimers() {
+        return new TreeMap<String, Timer>(timers);
+    }
+
+    /**
+     * 所有指标的当前值, 按名称排序. 计时器展开为 name.count, name.totalMillis 等多项
+     */
+    public Map<String, Object> snapshot() {
+
+        Map<String, Object> map = new TreeMap<String, Object>();
+
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            map.put(entry.getKey(), entry.getValue().getCount());
+        }
+
+        for (Map.Entry<String, Timer> entry : timers.entrySet()) {
+
+            String name = entry.getKey();
+            Timer timer = entry.getValue();
+
+            map.put(name + ".count", timer.getCount());
+            map.put(name + ".totalMillis", timer.getTotalMillis());
+            map.put(name + ".maxMillis", timer.getMaxMillis());
+            map.put(name + ".lastMillis", timer.getLastMillis());
+            map.put(name + ".meanMillis", timer.getMeanMillis());
+            map.put(name + ".p50Millis", timer.getPercentileMillis(0.5));
+            map.put(name + ".p95Millis", timer.getPercentileMillis(0.95));
+            map.put(name + ".p99Millis", timer.getPercentileMillis(0.99));
+        }
+
+        for (Map.Entry<String, Gauge> entry : gauges.entrySet()) {
+            try {
+                map.put(entry.getKey(), entry.getValue().getValue());
+            } catch (RuntimeException e) {
+                LOGGER.warn("cannot get gauge " + entry.getKey() + ": " + e.toString());
+            }
+        }
+
+        return map;
+    }
+
+    /**
+     * 注册到 JMX, 失败时只打印日志
+     *
+     * @param name 例如 com.baidu.disconf:type=DisconfClient
+     */
+    public synchronized void registerMBean(String name) {
+
+        if (objectName != null) {
+            return;
+        }
+
+        try {
+
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName newObjectName = new ObjectName(name);
+
+            // 同一个JVM中有多个应用时, 只注册一次
+            if (!mBeanServer.isRegistered(newObjectName)) {
+                mBeanServer.registerMBean(new MetricsMBean(this), newObjectName);
+                objectName = newObjectName;
+            }
+
+        } catch (Exception e) {
+            LOGGER.warn("cannot register metrics mbean " + name + ": " + e.toString());
+        }
+    }
+
+    /**
+     * 从 JMX 注销
+     */
+    public synchronized void unregisterMBean() {
+
+        if (objectName == null) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (Exception e) {
+            LOGGER.warn("cannot unregister metrics mbean " + objectName + ": " + e.toString());
+        }
+
+        objectName = null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.baidu.disconf.core.common.metrics;
+
+/**
+ * 可插拔的指标输出, 例如对接公司内部的监控系统
+ * <p/>
+ * 在记录指标的线程中同步调用, 实现时不要做耗时的操作
+ */
+public interface MetricsSink {
+
+    /**
+     * 计数器增加
+     */
+    void onCount(String name, long delta);
+
+    /**
+     * 计时器记录一次耗时
+     */
+    void onTime(String name, long nanos);
+}
@@ -0,0 +1,160 @@
+package com.baidu.disconf.core.common.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 计时器, 记录次数、总耗时、最大耗时、最近一次耗时, 以及按固定区间统计的耗时分布(用于估算分位数)
+ */
+public class Timer {
+
+    /**
+     * 耗时分布的区间上限(毫秒), 最后还有一个无上限的区间
+     */
+    public static final long[] BUCKET_BOUNDS_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000};
+
+    private static final long[] BUCKET_BOUNDS_NANOS = new long[BUCKET_BOUNDS_MILLIS.length];
+
+    static {
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+            BUCKET_BOUNDS_NANOS[i] = TimeUnit.MILLISECONDS.toNanos(BUCKET_BOUNDS_MILLIS[i]);
+        }
+    }
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MILLIS.length + 1);
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private volatile long lastNanos;
+
+    private final String name;
+    private final MetricsRegistry registry;
+
+    Timer(String name, MetricsRegistry registry) {
+        this.name = name;
+        this.registry = registry;
+    }
+
+    /**
+     * 开始计时, 返回值传给 {@link #stop(long)}
+     */
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * 结束计时
+     *
+     * @return 耗时(纳秒)
+     */
+    public long stop(long startNanos) {
+
+        long nanos = System.nanoTime() - startNanos;
+        update(nanos);
+        return nanos;
+    }
+
+    public void update(long nanos) {
+
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        lastNanos = nanos;
+        buckets.incrementAndGet(bucketIndex(nanos));
+
+        long max;
+        while (nanos > (max = maxNanos.get())) {
+            if (maxNanos.compareAndSet(max, nanos)) {
+                break;
+            }
+        }
+
+        registry.notifyTime(name, nanos);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    public long getTotalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalNanos.get());
+    }
+
+    public long getMaxMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+
+    public long getLastMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastNanos);
+    }
+
+    public double getMeanMillis() {
+
+        long c = count.get();
+        if (c == 0) {
+            return 0.0;
+        }
+        return totalNanos.get() / (double) c / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * 各区间的次数, 下标与 {@link #BUCKET_BOUNDS_MILLIS} 对应, 最后一项为超过最大上限的次数
+     */
+    public long[] getBuckets() {
+
+        long[] values = new long[buckets.length()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = buckets.get(i);
+        }
+        return values;
+    }
+
+    /**
+     * 估算分位数(毫秒), 返回所在区间的上限, 落在最后一个区间时返回最大耗时
+     *
+     * @param quantile 0 到 1 之间, 例如 0.99
+     */
+    public long getPercentileMillis(double quantile) {
+
+        long[] values = getBuckets();
+
+        long total = 0;
+        for (long value : values) {
+            total += value;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long threshold = (long) Math.ceil(total * quantile);
+        long accumulated = 0;
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+            accumulated += values[i];
+            if (accumulated >= threshold) {
+                return BUCKET_BOUNDS_MILLIS[i];
+            }
+        }
+        return getMaxMillis();
+    }
+
+    private static int bucketIndex(long nanos) {
+
+        for (int i = 0; i < BUCKET_BOUNDS_NANOS.length; i++) {
+            if (nanos <= BUCKET_BOUNDS_NANOS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_NANOS.length;
+    }
+
+    @Override
+    public String toString() {
+        return "Timer{count=" + getCount() + ", totalMillis=" + getTotalMillis() + ", maxMillis=" + getMaxMillis() +
+                ", lastMillis=" + getLastMillis() + "}";
+    }
+}
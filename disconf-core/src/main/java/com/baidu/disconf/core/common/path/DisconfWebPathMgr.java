@@ -56,6 +56,43 @@ public class DisconfWebPathMgr {
         return sb.toString();
     }
 
+    /**
+     * 在配置的远程URL后带上期望的版本戳, 版本戳为 null 时不变
+     *
+     * @return
+     */
+    public static String appendStamp(String url, String stamp) {
+
+        if (stamp == null) {
+            return url;
+        }
+
+        return url + (url.indexOf('?') < 0 ? "?" : "&") + Constants.STAMP + "=" + stamp;
+    }
+
+    /**
+     * 获取 app env version 下所有配置(含值)的远程URL
+     *
+     * @return
+     */
+    public static String getRemoteListUrlParameter(String urlPrefix, String app, String version, String env) {
+
+        Map<String, String> parameterMap = getConfServerBasePathMap(app, version, env, null);
+        parameterMap.remove(Constants.KEY);
+
+        StringBuffer sb = new StringBuffer();
+        sb.append(urlPrefix);
+        sb.append(Constants.SEP_STRING + Constants.STORE_LIST_URL_KEY);
+
+        sb.append("?");
+        for (String thisKey : parameterMap.keySet()) {
+            sb.append(thisKey + "=" + parameterMap.get(thisKey) + "&");
+        }
+        sb.deleteCharAt(sb.length() - 1);
+
+        return sb.toString();
+    }
+
     /**
      * @return String
      *
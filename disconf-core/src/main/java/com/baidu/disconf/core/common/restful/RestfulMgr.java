@@ -37,6 +37,33 @@ public interface RestfulMgr {
                               boolean enableLocalDownloadDirInClassPath,
                               int retryTimes, int retrySleepSeconds) throws Exception;
 
+    /**
+     * 下载文件到内存
+     *
+     * @param remoteUrl 远程地址
+     *
+     * @return 文件内容
+     *
+     * @throws Exception
+     */
+    byte[] downloadBytes(RemoteUrl remoteUrl, int retryTimes, int retrySleepSeconds) throws Exception;
+
+    /**
+     * 把下载的内容写到磁盘, 每个文件写一次再原子改名. 与 {@link #downloadFromServer} 一样总是写到 localFileDir,
+     * 需要放到 targetDirPath 时再写一份到 targetDirPath
+     *
+     * @param data          文件内容
+     * @param fileName      文件名
+     * @param localFileDir  本地文件地址
+     * @param targetDirPath 配置文件放到此目录下
+     *
+     * @return 同 {@link #downloadFromServer}
+     *
+     * @throws Exception
+     */
+    String saveFile(byte[] data, String fileName, String localFileDir, String targetDirPath,
+                    boolean enableLocalDownloadDirInClassPath) throws Exception;
+
     void close();
 
 }
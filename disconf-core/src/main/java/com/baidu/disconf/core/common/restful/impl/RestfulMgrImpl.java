@@ -2,14 +2,19 @@ package com.baidu.disconf.core.common.restful.impl;
 
 import java.io.File;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.baidu.disconf.core.common.metrics.MetricsNames;
+import com.baidu.disconf.core.common.metrics.MetricsRegistry;
 import com.baidu.disconf.core.common.restful.RestfulMgr;
 import com.baidu.disconf.core.common.restful.core.RemoteUrl;
 import com.baidu.disconf.core.common.restful.core.UnreliableInterface;
 import com.baidu.disconf.core.common.restful.retry.RetryStrategy;
+import com.baidu.disconf.core.common.restful.type.FetchConfBytes;
 import com.baidu.disconf.core.common.restful.type.FetchConfFile;
 import com.baidu.disconf.core.common.restful.type.RestfulGet;
 import com.baidu.disconf.core.common.utils.ClassLoaderUtil;
@@ -51,8 +56,11 @@ public class RestfulMgrImpl implements RestfulMgr {
     public <T> T getJsonData(Class<T> clazz, RemoteUrl remoteUrl, int retryTimes, int retrySleepSeconds)
             throws Exception {
         Exception ex = null;
+        int remaining = remoteUrl.getUrls().size();
         for (URL url : remoteUrl.getUrls()) {
 
+            remaining--;
+
             // 可重试的下载
             UnreliableInterface unreliableImpl = new RestfulGet<T>(clazz, url);
 
@@ -64,6 +72,11 @@ public class RestfulMgrImpl implements RestfulMgr {
 
             } catch (Exception e) {
                 ex = e;
+
+                // 切换到下一台server
+                if (remaining > 0) {
+                    MetricsRegistry.getInstance().counter(MetricsNames.HTTP_FAILOVER).inc();
+                }
                 try {
                     Thread.sleep(1000);
                 } catch (InterruptedException e1) {
@@ -138,6 +151,50 @@ public class RestfulMgrImpl implements RestfulMgr {
         // 下面为下载成功
         //
 
+        return getReturnPath(localFile, localFileDir);
+    }
+
+    @Override
+    public byte[] downloadBytes(RemoteUrl remoteUrl, int retryTimes, int retrySleepSeconds) throws Exception {
+
+        List<UnreliableInterface> calls = new ArrayList<UnreliableInterface>();
+        for (URL url : remoteUrl.getUrls()) {
+            calls.add(new FetchConfBytes(url));
+        }
+
+        return retryOnUrls(calls, retryTimes, retrySleepSeconds);
+    }
+
+    @Override
+    public String saveFile(byte[] data, String fileName, String localFileDir, String targetDirPath,
+                           boolean enableLocalDownloadDirInClassPath) throws Exception {
+
+        // 与 downloadFromServer 一样, localFileDir 下总有一份, 不放到 classpath 时从这里读取
+        File localFile = writeFile(data, localFileDir, fileName);
+
+        if (targetDirPath != null) {
+            if (enableLocalDownloadDirInClassPath || !targetDirPath.equals(ClassLoaderUtil.getClassPath())) {
+                localFile = writeFile(data, targetDirPath, fileName);
+            }
+        }
+
+        return getReturnPath(localFile, localFileDir);
+    }
+
+    private File writeFile(byte[] data, String dir, String fileName) throws Exception {
+
+        File file = new File(OsUtil.pathJoin(dir, fileName));
+        if (OsUtil.writeFileAtom(data, file)) {
+            LOGGER.debug("write to: " + file.getAbsolutePath());
+        }
+        return file;
+    }
+
+    /**
+     * 在 localFileDir 下时返回相对路径, 否则返回全路径
+     */
+    private String getReturnPath(File localFile, String localFileDir) {
+
         // 返回相对路径
         String relativePathString = OsUtil.getRelativePath(localFile, new File(localFileDir));
         if (relativePathString != null) {
@@ -216,11 +273,24 @@ public class RestfulMgrImpl implements RestfulMgr {
      */
     private Object retry4ConfDownload(RemoteUrl remoteUrl, File localTmpFile, int retryTimes, int sleepSeconds)
             throws Exception {
-        Exception ex = null;
+
+        List<UnreliableInterface> calls = new ArrayList<UnreliableInterface>();
         for (URL url : remoteUrl.getUrls()) {
+            calls.add(new FetchConfFile(url, localTmpFile));
+        }
 
-            // 可重试的下载
-            UnreliableInterface unreliableImpl = new FetchConfFile(url, localTmpFile);
+        return retryOnUrls(calls, retryTimes, sleepSeconds);
+    }
+
+    /**
+     * 依次在每台 server 上重试下载, 成功即返回
+     */
+    private <T> T retryOnUrls(List<UnreliableInterface> calls, int retryTimes, int sleepSeconds) throws Exception {
+        Exception ex = null;
+        int remaining = calls.size();
+        for (UnreliableInterface unreliableImpl : calls) {
+
+            remaining--;
 
             try {
 
@@ -228,6 +298,11 @@ public class RestfulMgrImpl implements RestfulMgr {
 
             } catch (Exception e) {
                 ex = e;
+
+                // 切换到下一台server
+                if (remaining > 0) {
+                    MetricsRegistry.getInstance().counter(MetricsNames.HTTP_FAILOVER).inc();
+                }
                 try {
                     Thread.sleep(1000);
                 } catch (InterruptedException e1) {
@@ -3,6 +3,8 @@ package com.baidu.disconf.core.common.restful.retry.impl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.baidu.disconf.core.common.metrics.MetricsNames;
+import com.baidu.disconf.core.common.metrics.MetricsRegistry;
 import com.baidu.disconf.core.common.restful.core.UnreliableInterface;
 import com.baidu.disconf.core.common.restful.retry.RetryStrategy;
 
@@ -34,6 +36,10 @@ public class RetryStrategyRoundBin implements RetryStrategy {
 
                 LOGGER.warn("cannot reach, will retry " + cur_time + " .... " + e.toString());
 
+                if (cur_time < retryTimes - 1) {
+                    MetricsRegistry.getInstance().counter(MetricsNames.HTTP_RETRY).inc();
+                }
+
                 try {
                     Thread.sleep(sleepSeconds * 1000);
                 } catch (InterruptedException e1) {
@@ -42,6 +48,7 @@ public class RetryStrategyRoundBin implements RetryStrategy {
         }
 
         LOGGER.warn("finally failed....");
+        MetricsRegistry.getInstance().counter(MetricsNames.HTTP_FAILURE).inc();
 
         throw new Exception();
     }
@@ -0,0 +1,46 @@
+package com.baidu.disconf.core.common.restful.type;
+
+import java.net.URL;
+
+import org.apache.http.client.methods.HttpGet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.baidu.disconf.core.common.restful.core.UnreliableInterface;
+import com.baidu.disconf.core.common.utils.http.HttpClientUtil;
+import com.baidu.disconf.core.common.utils.http.impl.HttpResponseCallbackHandlerBytesHandler;
+
+/**
+ * 下载文件到内存
+ */
+public class FetchConfBytes implements UnreliableInterface {
+
+    protected static final Logger LOGGER = LoggerFactory.getLogger(FetchConfBytes.class);
+
+    private URL remoteUrl;
+
+    public FetchConfBytes(URL remoteUrl) {
+
+        this.remoteUrl = remoteUrl;
+    }
+
+    /**
+     * 进行下载, 响应为空时返回空数组
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T call() throws Exception {
+
+        LOGGER.debug("start to download. From: " + remoteUrl);
+
+        byte[] data = HttpClientUtil.execute(new HttpGet(remoteUrl.toString()),
+                new HttpResponseCallbackHandlerBytesHandler());
+        if (data == null) {
+            data = new byte[0];
+        }
+
+        LOGGER.debug("download success! " + remoteUrl + ", " + data.length + " bytes");
+
+        return (T) data;
+    }
+}
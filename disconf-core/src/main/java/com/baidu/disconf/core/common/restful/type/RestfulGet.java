@@ -7,7 +7,9 @@ import org.apache.http.client.methods.HttpRequestBase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.baidu.disconf.core.common.compact.CompactCodec;
 import com.baidu.disconf.core.common.restful.core.UnreliableInterface;
+import com.baidu.disconf.core.common.utils.http.impl.HttpResponseCallbackHandlerCompactHandler;
 import com.baidu.disconf.core.common.utils.http.impl.HttpResponseCallbackHandlerJsonHandler;
 import com.baidu.disconf.core.common.utils.http.HttpClientUtil;
 import com.baidu.disconf.core.common.utils.http.HttpResponseCallbackHandler;
@@ -30,8 +32,18 @@ public class RestfulGet<T> implements UnreliableInterface {
         HttpGet request = new HttpGet(url.toString());
         request.addHeader("content-type", "application/json");
         this.request = request;
-        this.httpResponseCallbackHandler = new
-                HttpResponseCallbackHandlerJsonHandler<T>(clazz);
+
+        if (CompactCodec.canRead(clazz)) {
+
+            // 优先使用二进制格式, 服务端不支持时仍然返回 JSON
+            request.addHeader("Accept", CompactCodec.ACCEPT);
+            this.httpResponseCallbackHandler = new HttpResponseCallbackHandlerCompactHandler<T>(clazz);
+
+        } else {
+
+            this.httpResponseCallbackHandler = new
+                    HttpResponseCallbackHandlerJsonHandler<T>(clazz);
+        }
     }
 
     /**
@@ -0,0 +1,83 @@
+package com.baidu.disconf.core.common.utils;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.regex.Pattern;
+
+/**
+ * 配置值的版本戳
+ * <p/>
+ * disconf-web 更新配置时只把版本戳 (配置值UTF-8字节的MD5, 32位小写十六进制) 写入ZK结点, 不再写入配置值本身.
+ * 客户端收到结点更新事件后, 版本戳与本地持有的一致时不再重新下载.
+ */
+public final class ConfigStampUtils {
+
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final Pattern STAMP_PATTERN = Pattern.compile("[0-9a-f]{32}");
+
+    private ConfigStampUtils() {
+
+    }
+
+    /**
+     * 配置值的版本戳, null 视为空串
+     */
+    public static String getStamp(String value) {
+
+        return getStamp(value == null ? new byte[0] : value.getBytes(CHARSET));
+    }
+
+    /**
+     * 配置文件内容的版本戳
+     */
+    public static String getStamp(byte[] data) {
+
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        byte[] digest = messageDigest.digest(data);
+
+        char[] chars = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            chars[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX[digest[i] & 0xf];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 本地持有的版本戳与ZK结点上的是否一致. 本地版本戳未知时视为不一致
+     *
+     * @param localStamp 本地持有配置的版本戳, 下载失败时为 null
+     * @param zkData     ZK结点上的数据, 旧版本的 disconf-web 写入的是配置值本身
+     */
+    public static boolean isSame(String localStamp, String zkData) {
+
+        return localStamp != null && zkData != null && localStamp.equals(zkData.trim());
+    }
+
+    /**
+     * ZK结点上的版本戳
+     *
+     * @param zkData ZK结点上的数据
+     *
+     * @return 版本戳; 读取失败, 或旧版本的 disconf-web 写入的是配置值本身时为 null
+     */
+    public static String parseStamp(String zkData) {
+
+        if (zkData == null) {
+            return null;
+        }
+
+        String stamp = zkData.trim();
+        return STAMP_PATTERN.matcher(stamp).matches() ? stamp : null;
+    }
+}
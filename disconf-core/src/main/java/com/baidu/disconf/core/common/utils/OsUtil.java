@@ -1,11 +1,14 @@
 package com.baidu.disconf.core.common.utils;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.channels.FileChannel;
-import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -137,103 +140,163 @@ public final class OsUtil {
         FileUtils.copyFile(src, dest);
     }
 
+    // 已发布文件的版本戳, 文件的长度和修改时间不变时不需要重新读取
+    private static final Map<String, FileStamp> FILE_STAMPS = new ConcurrentHashMap<String, FileStamp>();
+
+    /**
+     * 把数据写入 dest: 先写到同一目录下的临时文件, 再原子地改名为 dest, 读取方不会看到写了一半的文件.
+     * 内容与 dest 一样时不写
+     *
+     * @return 是否写入了
+     */
+    public static boolean writeFileAtom(byte[] data, File dest) throws IOException {
+
+        String stamp = ConfigStampUtils.getStamp(data);
+        if (isSameContent(dest, data.length, stamp)) {
+            return false;
+        }
+
+        File parent = dest.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+
+        // 多个进程同时写时临时文件也不会冲突
+        File tmp = File.createTempFile("." + dest.getName() + ".", ".tmp", parent);
+        try {
+
+            FileOutputStream out = new FileOutputStream(tmp);
+            try {
+                out.write(data);
+                out.getFD().sync();
+            } finally {
+                out.close();
+            }
+
+            // 改名不改变 inode, 在改名前取临时文件的属性. 改名后再读 dest 可能已经是其它进程改名过来的文件
+            FileStamp fileStamp = new FileStamp(readAttributes(tmp), stamp);
+            renameAtom(tmp, dest);
+            FILE_STAMPS.put(dest.getAbsolutePath(), fileStamp);
+
+        } finally {
+            if (tmp.exists()) {
+                tmp.delete();
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * 原子地把 src 改名为 dest, 替换已有的. 文件系统不支持原子改名时直接替换
+     */
+    public static void renameAtom(File src, File dest) throws IOException {
+
+        try {
+            Files.move(src.toPath(), dest.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            logger.warn("atomic move not supported: " + dest + ", " + e.toString());
+            Files.move(src.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     /**
      * @param src
      * @param dest
      *
      * @return void
      *
-     * @Description: 具有重试机制的 ATOM 转移文件 ，并且会校验文件是否一致 才替换
+     * @Description: ATOM 转移文件: 内容与 dest 一样时不替换, 否则写到同一目录的临时文件后原子改名.
+     * 不加锁也不等待, 多个进程同时发布时最后改名的生效, 读取方总是看到完整的文件
      * @author liaoqiqi
      * @date 2013-6-20
      */
     public static void transferFileAtom(File src, File dest, boolean isDeleteSource) throws Exception {
 
-        // 文件锁所在文件
-        File lockFile = new File(dest + ".lock");
-        FileOutputStream outStream = null;
-        FileLock lock = null;
+        byte[] data = Files.readAllBytes(src.toPath());
+        String stamp = ConfigStampUtils.getStamp(data);
 
-        try {
+        if (isSameContent(dest, data.length, stamp)) {
 
-            int tryTime = 0;
-            while (tryTime < 3) {
-
-                try {
-
-                    outStream = new FileOutputStream(lockFile);
-                    FileChannel channel = outStream.getChannel();
-
-                    lock = channel.tryLock();
-                    if (lock != null) {
-
-                        if (dest.exists()) {
-                            // 判断内容是否一样
-                            if (FileUtils.isFileEqual(src, dest)) {
-                                // 内容如果一样，就只需要删除源文件就行了
-                                if (isDeleteSource) {
-                                    src.delete();
-                                }
-                                break;
-                            }
-                        }
-
-                        logger.debug("start to replace " + src.getAbsolutePath() + " to " + dest.getAbsolutePath());
-
-                        // 转移
-                        transferFile(src, dest);
-
-                        // 删除源文件
-                        if (isDeleteSource) {
-                            src.delete();
-                        }
-
-                        break;
-                    }
-
-                } catch (FileNotFoundException e) {
-
-                    // 打不开文件，则后面进行重试
-                    logger.warn(e.toString());
-
-                } finally {
-
-                    // 释放锁，通道；删除锁文件
-                    if (null != lock) {
-                        try {
-                            lock.release();
-                        } catch (IOException e) {
-                            logger.warn(e.toString());
-                        }
-
-                        if (lockFile != null) {
-                            lockFile.delete();
-                        }
-                    }
-                    if (outStream != null) {
-                        try {
-                            outStream.close();
-                        } catch (IOException e) {
-                            logger.warn(e.toString());
-                        }
-                    }
-                }
+            // 内容如果一样，就只需要删除源文件就行了
+            if (isDeleteSource) {
+                src.delete();
+            }
+            return;
+        }
 
-                // 进行重试
-                logger.warn("try lock failed. sleep and try " + tryTime);
-                tryTime++;
+        logger.debug("start to replace " + src.getAbsolutePath() + " to " + dest.getAbsolutePath());
 
-                try {
-                    Thread.sleep(1000 * tryTime);
-                } catch (Exception e) {
-                    System.out.print("");
-                }
+        if (isDeleteSource) {
 
+            // 同一个文件系统时直接改名
+            try {
+                FileStamp fileStamp = new FileStamp(readAttributes(src), stamp);
+                Files.move(src.toPath(), dest.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+                FILE_STAMPS.put(dest.getAbsolutePath(), fileStamp);
+                return;
+            } catch (IOException e) {
+                logger.debug("cannot rename " + src + " to " + dest + ", copy it. " + e.toString());
             }
+        }
 
-        } catch (IOException e) {
-            logger.warn(e.toString());
+        writeFileAtom(data, dest);
+
+        // 删除源文件
+        if (isDeleteSource) {
+            src.delete();
         }
+    }
+
+    /**
+     * dest 的内容的版本戳是否为 stamp. 长度不同时不读文件, 本进程写入后没有变化时使用记下的版本戳
+     */
+    private static boolean isSameContent(File dest, long length, String stamp) throws IOException {
 
+        if (!dest.isFile() || dest.length() != length) {
+            return false;
+        }
+
+        String key = dest.getAbsolutePath();
+        FileStamp fileStamp = FILE_STAMPS.get(key);
+        if (fileStamp == null || !fileStamp.matches(dest)) {
+            // 先取属性再读内容, 期间被替换时记下的属性与新文件不符, 下次重新读取
+            BasicFileAttributes attributes = readAttributes(dest);
+            fileStamp = new FileStamp(attributes, ConfigStampUtils.getStamp(Files.readAllBytes(dest.toPath())));
+            FILE_STAMPS.put(key, fileStamp);
+        }
+
+        return fileStamp.stamp.equals(stamp);
+    }
+
+    private static BasicFileAttributes readAttributes(File file) throws IOException {
+        return Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+    }
+
+    /**
+     * 文件的版本戳, 以及计算时文件的 inode, 长度和修改时间. 每次改名发布都是新的 inode,
+     * 因此其它进程在同一秒内写入相同长度的内容也能发现
+     */
+    private static class FileStamp {
+
+        private final Object fileKey;
+        private final long length;
+        private final long lastModified;
+        private final String stamp;
+
+        FileStamp(BasicFileAttributes attributes, String stamp) {
+            this.fileKey = attributes.fileKey();
+            this.length = attributes.size();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+            this.stamp = stamp;
+        }
+
+        boolean matches(File file) throws IOException {
+            BasicFileAttributes attributes = readAttributes(file);
+            return fileKey != null && fileKey.equals(attributes.fileKey()) && attributes.size() == length &&
+                       attributes.lastModifiedTime().toMillis() == lastModified;
+        }
     }
 }
@@ -0,0 +1,20 @@
+package com.baidu.disconf.core.common.utils.http.impl;
+
+import java.io.IOException;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.util.EntityUtils;
+
+import com.baidu.disconf.core.common.utils.http.HttpResponseCallbackHandler;
+
+/**
+ * 返回响应的原始字节, 用于下载配置文件
+ */
+public class HttpResponseCallbackHandlerBytesHandler implements HttpResponseCallbackHandler<byte[]> {
+
+    @Override
+    public byte[] handleResponse(String requestBody, HttpEntity entity) throws IOException {
+
+        return EntityUtils.toByteArray(entity);
+    }
+}
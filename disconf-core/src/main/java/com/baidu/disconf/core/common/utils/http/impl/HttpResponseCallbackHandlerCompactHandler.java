@@ -0,0 +1,41 @@
+package com.baidu.disconf.core.common.utils.http.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+
+import com.baidu.disconf.core.common.compact.CompactCodec;
+import com.baidu.disconf.core.common.utils.http.HttpResponseCallbackHandler;
+
+/**
+ * 服务端返回二进制格式时直接从流中解析, 否则按 JSON 解析
+ */
+public class HttpResponseCallbackHandlerCompactHandler<T> implements HttpResponseCallbackHandler<T> {
+
+    private Class<T> clazz = null;
+
+    private HttpResponseCallbackHandlerJsonHandler<T> jsonHandler = null;
+
+    public HttpResponseCallbackHandlerCompactHandler(Class<T> clazz) {
+        this.clazz = clazz;
+        this.jsonHandler = new HttpResponseCallbackHandlerJsonHandler<T>(clazz);
+    }
+
+    @Override
+    public T handleResponse(String requestBody, HttpEntity entity) throws IOException {
+
+        Header contentType = entity.getContentType();
+        if (contentType == null || !CompactCodec.isCompact(contentType.getValue())) {
+            return jsonHandler.handleResponse(requestBody, entity);
+        }
+
+        InputStream in = entity.getContent();
+        try {
+            return CompactCodec.read(clazz, in);
+        } finally {
+            in.close();
+        }
+    }
+}
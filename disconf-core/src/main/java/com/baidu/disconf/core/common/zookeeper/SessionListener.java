@@ -0,0 +1,12 @@
+package com.baidu.disconf.core.common.zookeeper;
+
+/**
+ * ZK会话过期后重新建立时的通知. 原会话上的监控和临时结点都已经没有了, 需要重新建立
+ */
+public interface SessionListener {
+
+    /**
+     * 在恢复会话的线程中调用, 同一次恢复只调用一次
+     */
+    void onSessionRecovered();
+}
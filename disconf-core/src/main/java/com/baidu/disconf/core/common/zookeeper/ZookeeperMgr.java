@@ -2,6 +2,7 @@ package com.baidu.disconf.core.common.zookeeper;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
@@ -73,12 +74,23 @@ public class ZookeeperMgr {
     }
 
     /**
-     * 重新连接
+     * 重新连接, 已经在重新连接时直接返回
      */
     public void reconnect() {
         store.reconnect();
     }
 
+    /**
+     * 会话过期后重新建立时通知
+     */
+    public void addSessionListener(SessionListener listener) {
+        store.addSessionListener(listener);
+    }
+
+    public void removeSessionListener(SessionListener listener) {
+        store.removeSessionListener(listener);
+    }
+
     /**
      * @return void
      *
@@ -138,7 +150,7 @@ public class ZookeeperMgr {
      */
     public void release() throws InterruptedException {
 
-        store.close();
+        store.release();
     }
 
     /**
@@ -165,6 +177,14 @@ public class ZookeeperMgr {
         store.write(url, value);
     }
 
+    /**
+     * @Description: 在一个事务中更新多个持久化结点, 结点必须已经存在
+     */
+    public void writePersistentUrls(Map<String, String> urlValues) throws Exception {
+
+        store.writeMulti(urlValues);
+    }
+
     /**
      * @return List<String>
      *
@@ -177,6 +197,26 @@ public class ZookeeperMgr {
         return store.read(url, watcher, null);
     }
 
+    /**
+     * 批量读数据并监控
+     *
+     * @return 读取成功的结点数据
+     */
+    public Map<String, String> readUrls(Map<String, ? extends Watcher> urlWatchers, long timeoutMillis)
+        throws InterruptedException {
+
+        return store.readAll(urlWatchers, timeoutMillis);
+    }
+
+    /**
+     * 批量生成临时结点
+     */
+    public void createEphemeralNodes(Map<String, String> pathValues, CreateMode createMode, long timeoutMillis)
+        throws Exception {
+
+        store.createEphemeralNodes(pathValues, createMode, timeoutMillis);
+    }
+
     /*
      * 返回zk
      */
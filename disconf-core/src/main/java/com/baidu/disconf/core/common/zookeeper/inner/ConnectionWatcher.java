@@ -1,8 +1,12 @@
 package com.baidu.disconf.core.common.zookeeper.inner;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.zookeeper.WatchedEvent;
 import org.apache.zookeeper.Watcher;
@@ -12,8 +16,13 @@ import org.apache.zookeeper.ZooKeeper.States;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.baidu.disconf.core.common.zookeeper.SessionListener;
+
 /**
  * 连接管理
+ * <p/>
+ * 会话过期时只由这里恢复一次: 在单独的线程中按指数退避(带随机抖动)重新建立会话, 成功后通知所有 {@link SessionListener},
+ * 由它们批量重新监控和创建临时结点. 各个结点的 Watcher 收到的过期事件不需要处理
  *
  * @author liaoqiqi
  */
@@ -27,8 +36,22 @@ public class ConnectionWatcher implements Watcher {
     // 3秒
     private static final int CONNECT_TIMEOUT = 3000;
 
-    protected ZooKeeper zk;
-    private CountDownLatch connectedSignal = new CountDownLatch(1);
+    // 重新建立会话的退避时间: 1秒起, 每次加倍, 最多1分钟
+    private static final long RECOVER_BASE_MILLIS = 1000;
+    private static final long RECOVER_MAX_MILLIS = 60000;
+
+    protected volatile ZooKeeper zk;
+    private volatile CountDownLatch connectedSignal = new CountDownLatch(1);
+
+    // 正在恢复会话
+    private final AtomicBoolean recovering = new AtomicBoolean(false);
+
+    // 已释放, 不再恢复
+    private volatile boolean released = false;
+
+    private final List<SessionListener> sessionListeners = new CopyOnWriteArrayList<SessionListener>();
+
+    private final Random random = new Random();
 
     private static String internalHost = "";
 
@@ -55,10 +78,12 @@ public class ConnectionWatcher implements Watcher {
      */
     public void connect(String hosts) throws IOException, InterruptedException {
         internalHost = hosts;
+        CountDownLatch signal = new CountDownLatch(1);
+        connectedSignal = signal;
         zk = new ZooKeeper(internalHost, SESSION_TIMEOUT, this);
 
         // 连接有超时哦
-        connectedSignal.await(CONNECT_TIMEOUT, TimeUnit.MILLISECONDS);
+        signal.await(CONNECT_TIMEOUT, TimeUnit.MILLISECONDS);
 
         LOGGER.info("zookeeper: " + hosts + " , connected.");
     }
@@ -86,7 +111,7 @@ public class ConnectionWatcher implements Watcher {
                 LOGGER.error("zk Expired");
 
                 // just reconnect forever
-                reconnect();
+                recover();
             } else {
                 LOGGER.info("zk Expired");
             }
@@ -98,19 +123,51 @@ public class ConnectionWatcher implements Watcher {
     }
 
     /**
-     * 含有重试机制的retry，加锁, 一直尝试连接，直至成功
+     * 恢复会话, 已经在恢复时直接返回. 不阻塞调用线程
      */
-    public synchronized void reconnect() {
+    public void reconnect() {
+        recover();
+    }
+
+    private void recover() {
+
+        if (released || !recovering.compareAndSet(false, true)) {
+            return;
+        }
+
+        Thread thread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    if (recoverSession()) {
+                        notifyRecovered();
+                    }
+                } finally {
+                    recovering.set(false);
+                }
+            }
+        }, "disconf-zk-recover");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 一直尝试重新建立会话, 直至成功或已释放
+     *
+     * @return 是否建立了新的会话
+     */
+    private boolean recoverSession() {
 
         LOGGER.info("start to reconnect....");
 
         int retries = 0;
-        while (true) {
+        while (!released) {
 
             try {
 
                 if (!zk.getState().equals(States.CLOSED)) {
-                    break;
+                    return retries > 0;
                 }
 
                 LOGGER.warn("zookeeper lost connection, reconnect");
@@ -119,19 +176,78 @@ public class ConnectionWatcher implements Watcher {
 
                 connect(internalHost);
 
+                if (!zk.getState().isConnected()) {
+                    throw new IOException("cannot connect to zookeeper in " + CONNECT_TIMEOUT + " ms");
+                }
+
+                return true;
+
             } catch (Exception e) {
 
                 LOGGER.error(retries + "\t" + e.toString());
 
+                // 连接失败时关闭, 下次重新建立
+                try {
+                    close();
+                } catch (Exception e1) {
+                }
+
                 // sleep then retry
                 try {
-                    int sec = ResilientActiveKeyValueStore.RETRY_PERIOD_SECONDS;
-                    LOGGER.warn("sleep " + sec);
-                    TimeUnit.SECONDS.sleep(sec);
+                    long millis = getBackoffMillis(retries++);
+                    LOGGER.warn("sleep " + millis + " ms");
+                    TimeUnit.MILLISECONDS.sleep(millis);
                 } catch (InterruptedException e1) {
+                    return false;
                 }
             }
         }
+
+        return false;
+    }
+
+    /**
+     * 第 retries 次重试前的等待时间: 上限为 1秒 * 2^retries (最多1分钟), 取上限的一半到上限之间的随机值,
+     * 避免所有客户端同时重连
+     */
+    long getBackoffMillis(int retries) {
+
+        long max = RECOVER_BASE_MILLIS << Math.min(retries, 16);
+        max = Math.min(max, RECOVER_MAX_MILLIS);
+
+        long half = max / 2;
+        synchronized(random) {
+            return half + (long) (random.nextDouble() * (max - half));
+        }
+    }
+
+    private void notifyRecovered() {
+
+        LOGGER.info("zookeeper session recovered, notify " + sessionListeners.size() + " listeners");
+
+        for (SessionListener listener : sessionListeners) {
+            try {
+                listener.onSessionRecovered();
+            } catch (Exception e) {
+                LOGGER.error("session listener failed", e);
+            }
+        }
+    }
+
+    public void addSessionListener(SessionListener listener) {
+        sessionListeners.add(listener);
+    }
+
+    public void removeSessionListener(SessionListener listener) {
+        sessionListeners.remove(listener);
+    }
+
+    /**
+     * 关闭, 之后不再恢复会话
+     */
+    public void release() throws InterruptedException {
+        released = true;
+        close();
     }
 
     /**
@@ -2,11 +2,17 @@ package com.baidu.disconf.core.common.zookeeper.inner;
 
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.zookeeper.AsyncCallback;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.Op;
 import org.apache.zookeeper.Watcher;
 import org.apache.zookeeper.ZooDefs.Ids;
 import org.apache.zookeeper.data.Stat;
@@ -89,6 +95,45 @@ public class ResilientActiveKeyValueStore extends ConnectionWatcher {
         }
     }
 
+    /**
+     * @param pathValues 结点路径 -> 值
+     *
+     * @throws InterruptedException
+     * @throws KeeperException
+     * @Description: 在一个事务(multi)中更新多个结点的数据, 要么全部成功, 要么全部失败. 结点必须已经存在,
+     * 只有连接断开时重试, 结点不存在等错误重试也不会成功, 直接抛出
+     */
+    public void writeMulti(Map<String, String> pathValues) throws InterruptedException, KeeperException {
+
+        List<Op> ops = new ArrayList<Op>(pathValues.size());
+        for (Map.Entry<String, String> entry : pathValues.entrySet()) {
+            ops.add(Op.setData(entry.getKey(), entry.getValue().getBytes(CHARSET), -1));
+        }
+
+        int retries = 0;
+        while (true) {
+
+            try {
+
+                // 不检查版本, 连接断开后重试是幂等的
+                zk.multi(ops);
+                break;
+
+            } catch (KeeperException.ConnectionLossException e) {
+
+                LOGGER.warn("multi write connect lost... will retry " + retries + "\t" + e.toString());
+
+                if (retries++ == MAX_RETRIES) {
+                    throw e;
+                }
+                // sleep then retry
+                int sec = RETRY_PERIOD_SECONDS * retries;
+                LOGGER.warn("sleep " + sec);
+                TimeUnit.SECONDS.sleep(sec);
+            }
+        }
+    }
+
     /**
      * @param path
      * @param value
@@ -210,6 +255,77 @@ public class ResilientActiveKeyValueStore extends ConnectionWatcher {
         return new String(data, CHARSET);
     }
 
+    /**
+     * 批量读数据并监控, 所有请求一起发出再等待结果, 不需要每个结点等待一次往返
+     *
+     * @return 读取成功的结点数据, 结点不存在或失败的不包含在内
+     */
+    public Map<String, String> readAll(Map<String, ? extends Watcher> pathWatchers, long timeoutMillis)
+        throws InterruptedException {
+
+        final Map<String, String> result = new ConcurrentHashMap<String, String>();
+        final CountDownLatch latch = new CountDownLatch(pathWatchers.size());
+
+        AsyncCallback.DataCallback callback = new AsyncCallback.DataCallback() {
+
+            @Override
+            public void processResult(int rc, String path, Object ctx, byte[] data, Stat stat) {
+
+                if (rc == KeeperException.Code.OK.intValue() && data != null) {
+                    result.put(path, new String(data, CHARSET));
+                } else {
+                    LOGGER.warn("cannot read " + path + ": " + KeeperException.Code.get(rc));
+                }
+                latch.countDown();
+            }
+        };
+
+        for (Map.Entry<String, ? extends Watcher> entry : pathWatchers.entrySet()) {
+            zk.getData(entry.getKey(), entry.getValue(), callback, null);
+        }
+
+        if (!latch.await(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            LOGGER.warn("read " + pathWatchers.size() + " nodes timeout, got " + result.size());
+        }
+
+        return new HashMap<String, String>(result);
+    }
+
+    /**
+     * 批量创建临时结点, 所有请求一起发出再等待结果. 已存在或失败的再用 {@link #createEphemeralNode} 逐个处理
+     */
+    public void createEphemeralNodes(Map<String, String> pathValues, CreateMode createMode, long timeoutMillis)
+        throws InterruptedException, KeeperException {
+
+        final Map<String, Boolean> created = new ConcurrentHashMap<String, Boolean>();
+        final CountDownLatch latch = new CountDownLatch(pathValues.size());
+
+        AsyncCallback.StringCallback callback = new AsyncCallback.StringCallback() {
+
+            @Override
+            public void processResult(int rc, String path, Object ctx, String name) {
+
+                if (rc == KeeperException.Code.OK.intValue()) {
+                    created.put(path, Boolean.TRUE);
+                }
+                latch.countDown();
+            }
+        };
+
+        for (Map.Entry<String, String> entry : pathValues.entrySet()) {
+            String value = entry.getValue() == null ? "" : entry.getValue();
+            zk.create(entry.getKey(), value.getBytes(CHARSET), Ids.OPEN_ACL_UNSAFE, createMode, callback, null);
+        }
+
+        latch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+
+        for (Map.Entry<String, String> entry : pathValues.entrySet()) {
+            if (!created.containsKey(entry.getKey())) {
+                createEphemeralNode(entry.getKey(), entry.getValue() == null ? "" : entry.getValue(), createMode);
+            }
+        }
+    }
+
     /**
      * @return List<String>
      *
@@ -4,11 +4,18 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import com.baidu.disconf.core.test.compact.CompactCodecTestCase;
+import com.baidu.disconf.core.test.log.AccessLogTestCase;
+import com.baidu.disconf.core.test.metrics.MetricsRegistryTestCase;
 import com.baidu.disconf.core.test.path.DisconfWebPathMgrTestCase;
 import com.baidu.disconf.core.test.path.ZooPathMgrTestCase;
 import com.baidu.disconf.core.test.restful.RestfulMgrTestCase;
+import com.baidu.disconf.core.test.utils.ConfigStampUtilsTestCase;
 import com.baidu.disconf.core.test.utils.MyStringUtilsTestCase;
+import com.baidu.disconf.core.test.utils.OsUtilTestCase;
 import com.baidu.disconf.core.test.zookeeper.ZookeeperMgrTest;
+import com.baidu.disconf.core.test.zookeeper.inner.ConnectionWatcherTestCase;
+import com.baidu.disconf.core.test.zookeeper.inner.ResilientActiveKeyValueStoreTestCase;
 
 /**
  * @author liaoqiqi
@@ -16,7 +23,10 @@ import com.baidu.disconf.core.test.zookeeper.ZookeeperMgrTest;
  */
 @RunWith(Suite.class)
 @SuiteClasses({DisconfWebPathMgrTestCase.class, ZooPathMgrTestCase.class, RestfulMgrTestCase.class,
-                  ZookeeperMgrTest.class, MyStringUtilsTestCase.class})
+                  ZookeeperMgrTest.class, MyStringUtilsTestCase.class, MetricsRegistryTestCase.class,
+                  AccessLogTestCase.class, CompactCodecTestCase.class, ConfigStampUtilsTestCase.class,
+                  OsUtilTestCase.class, ResilientActiveKeyValueStoreTestCase.class,
+                  ConnectionWatcherTestCase.class})
 public class TestSuite {
 
 }
\ No newline at end of file
@@ -5,6 +5,8 @@ import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 
+import java.util.Arrays;
+
 import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Rule;
@@ -13,6 +15,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.baidu.disconf.core.common.constants.Constants;
+import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
+import com.baidu.disconf.core.common.json.ConfListVo;
+import com.baidu.disconf.core.common.json.ConfVo;
 import com.baidu.disconf.core.common.json.ValueVo;
 import com.baidu.disconf.core.common.utils.GsonUtils;
 import com.baidu.disconf.core.test.restful.RemoteMockServer;
@@ -58,6 +63,23 @@ public class BaseCoreTestCase {
                 .willReturn(aResponse().withHeader("Content-Type", RemoteMockServer.CONTENT_TYPE).withStatus(200)
                         .withBody(GsonUtils.toJson(valueVo))));
 
+        //
+        // 配置列表, 与旧的服务端一样返回 JSON
+        //
+        ConfVo confVo = new ConfVo();
+        confVo.setType(DisConfigTypeEnum.ITEM.getType());
+        confVo.setName(RemoteMockServer.ITEM_NAME);
+        confVo.setValue(RemoteMockServer.DEFAULT_ITEM_VALUE);
+        ConfListVo.Page page = new ConfListVo.Page();
+        page.setResult(Arrays.asList(confVo));
+        page.setTotalCount(1);
+        ConfListVo confListVo = new ConfListVo();
+        confListVo.setSuccess("true");
+        confListVo.setPage(page);
+        stubFor(get(urlEqualTo(RemoteMockServer.LIST_URL))
+                .willReturn(aResponse().withHeader("Content-Type", RemoteMockServer.CONTENT_TYPE).withStatus(200)
+                        .withBody(GsonUtils.toJson(confListVo))));
+
         //
         // 配置文件
         //
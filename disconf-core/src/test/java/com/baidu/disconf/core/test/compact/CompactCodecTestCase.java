@@ -0,0 +1,152 @@
+package com.baidu.disconf.core.test.compact;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.disconf.core.common.compact.CompactCodec;
+import com.baidu.disconf.core.common.compact.CompactReader;
+import com.baidu.disconf.core.common.compact.CompactWriter;
+import com.baidu.disconf.core.common.constants.Constants;
+import com.baidu.disconf.core.common.json.ConfListVo;
+import com.baidu.disconf.core.common.json.ConfVo;
+import com.baidu.disconf.core.common.json.ValueVo;
+import com.google.gson.Gson;
+
+/**
+ * CompactCodecTestCase
+ */
+public class CompactCodecTestCase {
+
+    @Test
+    public void valueVo() throws Exception {
+
+        ValueVo valueVo = new ValueVo();
+        valueVo.setStatus(Constants.NOTOK);
+        valueVo.setMessage("错误");
+        valueVo.setValue(null);
+
+        ValueVo result = CompactCodec.readValueVo(new ByteArrayInputStream(CompactCodec.toBytes(valueVo)));
+        Assert.assertEquals(valueVo.getStatus(), result.getStatus());
+        Assert.assertEquals("错误", result.getMessage());
+        Assert.assertNull(result.getValue());
+
+        valueVo.setStatus(Constants.OK);
+        valueVo.setValue("10000");
+        result = CompactCodec.read(ValueVo.class, new ByteArrayInputStream(CompactCodec.toBytes(valueVo)));
+        Assert.assertEquals(valueVo.getStatus(), result.getStatus());
+        Assert.assertEquals("10000", result.getValue());
+    }
+
+    @Test
+    public void confList() throws Exception {
+
+        List<ConfVo> confVos = new ArrayList<ConfVo>();
+        for (int i = 0; i < 300; i++) {
+            ConfVo confVo = new ConfVo();
+            confVo.setId((long) i);
+            confVo.setType(1);
+            confVo.setStatus(1);
+            confVo.setName("key" + i);
+            confVo.setValue(i % 2 == 0 ? "值" + i : null);
+            confVo.setAppId(2L);
+            confVo.setVersion("1_0_0_0");
+            confVo.setEnvId(3L);
+            confVo.setCreateTime("20261019120000");
+            confVos.add(confVo);
+        }
+
+        byte[] bytes = CompactCodec.toBytes(confVos);
+        ConfListVo result = CompactCodec.read(ConfListVo.class, new ByteArrayInputStream(bytes));
+        Assert.assertTrue(result.isOk());
+        Assert.assertEquals(Integer.valueOf(300), result.getPage().getTotalCount());
+        Assert.assertEquals(300, result.getResult().size());
+
+        for (int i = 0; i < 300; i++) {
+            ConfVo expected = confVos.get(i);
+            ConfVo actual = result.getResult().get(i);
+            Assert.assertEquals(expected.getId(), actual.getId());
+            Assert.assertEquals(expected.getType(), actual.getType());
+            Assert.assertEquals(expected.getName(), actual.getName());
+            Assert.assertEquals(expected.getValue(), actual.getValue());
+            Assert.assertEquals(expected.getEnvId(), actual.getEnvId());
+            Assert.assertEquals(expected.getCreateTime(), actual.getCreateTime());
+            Assert.assertNull(actual.getUpdateTime());
+        }
+
+        // 空列表
+        result = CompactCodec.readConfListVo(new ByteArrayInputStream(CompactCodec.toBytes(new ArrayList<ConfVo>())));
+        Assert.assertTrue(result.isOk());
+        Assert.assertTrue(result.getResult().isEmpty());
+    }
+
+    /**
+     * 旧的服务端返回 JSON, 同一个类可以解析
+     */
+    @Test
+    public void confListJson() {
+
+        String json = "{\"message\":{},\"sessionId\":\"abc\",\"success\":\"true\",\"page\":{\"result\":" +
+                "[{\"id\":1,\"type\":1,\"status\":1,\"name\":\"keyA\",\"value\":\"1000\",\"valueEncoding\":1," +
+                "\"appId\":2,\"version\":\"1_0_0_0\",\"envId\":3}],\"totalCount\":1}}";
+
+        ConfListVo result = new Gson().fromJson(json, ConfListVo.class);
+        Assert.assertTrue(result.isOk());
+        Assert.assertEquals("keyA", result.getResult().get(0).getName());
+        Assert.assertEquals("1000", result.getResult().get(0).getValue());
+
+        json = "{\"message\":{\"global\":\"error\"},\"success\":\"false\"}";
+        result = new Gson().fromJson(json, ConfListVo.class);
+        Assert.assertFalse(result.isOk());
+        Assert.assertTrue(result.getResult().isEmpty());
+    }
+
+    @Test
+    public void primitives() throws Exception {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompactWriter writer = new CompactWriter(out);
+        writer.writeHeader(CompactCodec.KIND_LIST);
+        writer.writeVarInt(Integer.MAX_VALUE);
+        writer.writeVarLong(Long.MAX_VALUE);
+        writer.writeNullableLong(null);
+        writer.writeNullableLong(-1L);
+        writer.writeNullableLong(Long.MIN_VALUE + 1);
+        writer.writeString("");
+        writer.writeString(null);
+        writer.flush();
+
+        CompactReader reader = new CompactReader(new ByteArrayInputStream(out.toByteArray()));
+        reader.readHeader(CompactCodec.KIND_LIST);
+        Assert.assertEquals(Integer.MAX_VALUE, reader.readVarInt());
+        Assert.assertEquals(Long.MAX_VALUE, reader.readVarLong());
+        Assert.assertNull(reader.readNullableLong());
+        Assert.assertEquals(Long.valueOf(-1L), reader.readNullableLong());
+        Assert.assertEquals(Long.valueOf(Long.MIN_VALUE + 1), reader.readNullableLong());
+        Assert.assertEquals("", reader.readString());
+        Assert.assertNull(reader.readString());
+    }
+
+    @Test(expected = IOException.class)
+    public void wrongKind() throws Exception {
+
+        ValueVo valueVo = new ValueVo();
+        CompactReader reader = new CompactReader(new ByteArrayInputStream(CompactCodec.toBytes(valueVo)));
+        reader.readHeader(CompactCodec.KIND_LIST);
+    }
+
+    @Test
+    public void negotiate() {
+
+        Assert.assertTrue(CompactCodec.isAccepted(CompactCodec.ACCEPT));
+        Assert.assertFalse(CompactCodec.isAccepted("text/html,application/xhtml+xml,*/*;q=0.8"));
+        Assert.assertFalse(CompactCodec.isAccepted(null));
+        Assert.assertTrue(CompactCodec.isCompact(CompactCodec.MEDIA_TYPE + ";charset=UTF-8"));
+        Assert.assertFalse(CompactCodec.isCompact("application/json;charset=UTF-8"));
+    }
+}
@@ -0,0 +1,44 @@
+package com.baidu.disconf.core.test.log;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.disconf.core.common.log.AccessLog;
+
+/**
+ * AccessLogTestCase
+ */
+public class AccessLogTestCase {
+
+    @Test
+    public void rate() {
+
+        AccessLog accessLog = AccessLog.getInstance();
+        int defaultRate = accessLog.getDefaultRate();
+
+        try {
+
+            accessLog.setDefaultRate(0);
+            Assert.assertFalse(accessLog.isSampled("app", "key"));
+
+            // app 的设置
+            accessLog.setRate("app", 1);
+            Assert.assertTrue(accessLog.isSampled("app", "key"));
+            Assert.assertFalse(accessLog.isSampled("other", "key"));
+
+            // app/key 的设置优先
+            accessLog.setRate("app/key", 0);
+            Assert.assertFalse(accessLog.isSampled("app", "key"));
+            Assert.assertTrue(accessLog.isSampled("app", "key2"));
+
+            Assert.assertArrayEquals(new String[] {"app=1", "app/key=0"}, accessLog.getRates());
+
+        } finally {
+            accessLog.removeRate("app");
+            accessLog.removeRate("app/key");
+            accessLog.setDefaultRate(defaultRate);
+        }
+
+        Assert.assertEquals(0, accessLog.getRates().length);
+    }
+}
@@ -0,0 +1,122 @@
+package com.baidu.disconf.core.test.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.disconf.core.common.metrics.Gauge;
+import com.baidu.disconf.core.common.metrics.MetricsRegistry;
+import com.baidu.disconf.core.common.metrics.MetricsSink;
+import com.baidu.disconf.core.common.metrics.Timer;
+
+/**
+ * MetricsRegistryTestCase
+ */
+public class MetricsRegistryTestCase {
+
+    @Test
+    public void counterAndTimer() {
+
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+
+        registry.counter("test.counter").inc();
+        registry.counter("test.counter").add(2);
+        Assert.assertEquals(3, registry.counter("test.counter").getCount());
+
+        registry.timer("test.timer").update(3000000L);
+        registry.timer("test.timer").update(1000000L);
+
+        Map<String, Object> snapshot = registry.snapshot();
+        Assert.assertEquals(3L, snapshot.get("test.counter"));
+        Assert.assertEquals(2L, snapshot.get("test.timer.count"));
+        Assert.assertEquals(4L, snapshot.get("test.timer.totalMillis"));
+        Assert.assertEquals(3L, snapshot.get("test.timer.maxMillis"));
+        Assert.assertEquals(1L, snapshot.get("test.timer.lastMillis"));
+    }
+
+    @Test
+    public void percentile() {
+
+        Timer timer = MetricsRegistry.getInstance().timer("test.percentile");
+        Assert.assertEquals(0, timer.getPercentileMillis(0.99));
+
+        for (int i = 0; i < 98; i++) {
+            timer.update(1000000L);
+        }
+        timer.update(150000000L);
+        timer.update(20000000000L);
+
+        Assert.assertEquals(1, timer.getPercentileMillis(0.5));
+        Assert.assertEquals(1, timer.getPercentileMillis(0.95));
+        Assert.assertEquals(200, timer.getPercentileMillis(0.99));
+        Assert.assertEquals(20000, timer.getPercentileMillis(1));
+
+        long[] buckets = timer.getBuckets();
+        Assert.assertEquals(Timer.BUCKET_BOUNDS_MILLIS.length + 1, buckets.length);
+        Assert.assertEquals(98, buckets[0]);
+        Assert.assertEquals(1, buckets[buckets.length - 1]);
+
+        Map<String, Object> snapshot = MetricsRegistry.getInstance().snapshot();
+        Assert.assertEquals(200L, snapshot.get("test.percentile.p99Millis"));
+    }
+
+    @Test
+    public void sink() {
+
+        final long[] received = new long[2];
+
+        MetricsSink sink = new MetricsSink() {
+
+            @Override
+            public void onCount(String name, long delta) {
+                received[0] += delta;
+            }
+
+            @Override
+            public void onTime(String name, long nanos) {
+                received[1] += nanos;
+            }
+        };
+
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        registry.addSink(sink);
+        try {
+            registry.counter("test.sink.counter").add(5);
+            registry.timer("test.sink.timer").update(7);
+        } finally {
+            registry.removeSink(sink);
+        }
+
+        Assert.assertEquals(5, received[0]);
+        Assert.assertEquals(7, received[1]);
+    }
+
+    @Test
+    public void jmx() throws Exception {
+
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        registry.gauge("test.gauge", new Gauge() {
+            @Override
+            public long getValue() {
+                return 42;
+            }
+        });
+
+        String name = "com.baidu.disconf:type=MetricsRegistryTestCase";
+        registry.registerMBean(name);
+        try {
+
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            Assert.assertEquals(42L, mBeanServer.getAttribute(new ObjectName(name), "test.gauge"));
+
+        } finally {
+            registry.unregisterMBean();
+            registry.removeGauge("test.gauge");
+        }
+    }
+}
@@ -41,5 +41,20 @@ public class DisconfWebPathMgrTestCase extends BaseCoreTestCase {
                 DisconfWebPathMgr.getRemoteUrlParameter("test", "app", "version", "env", "key", DisConfigTypeEnum.ITEM);
         System.out.println(fileUrl);
         Assert.assertEquals("test/item?version=version&app=app&env=env&key=key&type=1", itemUrl);
+
+        String listUrl = DisconfWebPathMgr.getRemoteListUrlParameter("test", "app", "version", "env");
+        Assert.assertEquals("test/list?version=version&app=app&env=env", listUrl);
+    }
+
+    @Test
+    public void appendStampTest() {
+
+        String itemUrl =
+                DisconfWebPathMgr.getRemoteUrlParameter("test", "app", "version", "env", "key", DisConfigTypeEnum.ITEM);
+
+        Assert.assertEquals(itemUrl, DisconfWebPathMgr.appendStamp(itemUrl, null));
+        Assert.assertEquals("test/item?version=version&app=app&env=env&key=key&type=1&stamp=abc",
+                DisconfWebPathMgr.appendStamp(itemUrl, "abc"));
+        Assert.assertEquals("test/item?stamp=abc", DisconfWebPathMgr.appendStamp("test/item", "abc"));
     }
 }
@@ -65,6 +65,12 @@ public class RemoteMockServer {
     public static final String CONTENT_TYPE = "application/json";
     public static final String DEFAULT_ITEM_VALUE = "1000";
 
+    //
+    // 配置列表
+    //
+    public static final String LIST_URL = "/api/config/list?version=1_0_0_0&app=disconf_testcase&env=rd";
+    public static final String ITEM_NAME = "keyA";
+
     //
     public static final String LOCAL_DOWNLOAD_DIR = "./disconf/download";
     public static final String LOCAL_DOWNLOAD_DIR_TEMP = "./disconf/tmp/download";
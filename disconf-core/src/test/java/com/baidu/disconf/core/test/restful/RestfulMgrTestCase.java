@@ -13,6 +13,7 @@ import com.baidu.disconf.core.common.restful.RestfulMgr;
 import com.baidu.disconf.core.common.restful.core.RemoteUrl;
 import com.baidu.disconf.core.common.restful.impl.RestfulMgrImpl;
 import com.baidu.disconf.core.common.restful.retry.impl.RetryStrategyRoundBin;
+import com.baidu.disconf.core.common.utils.ClassLoaderUtil;
 import com.baidu.disconf.core.test.common.BaseCoreTestCase;
 
 /**
@@ -117,4 +118,33 @@ public class RestfulMgrTestCase extends BaseCoreTestCase {
             Assert.assertTrue(false);
         }
     }
+
+    /**
+     * 不放到 classpath 时从 localFileDir 读取, localFileDir 下也要有一份
+     */
+    @Test
+    public void testSaveFile() throws Exception {
+
+        File dir = new File(FileUtils.getTempDirectory(), "disconf-save-" + System.nanoTime());
+        String localFileDir = new File(dir, "download").getAbsolutePath();
+        String targetDirPath = new File(dir, "target").getAbsolutePath();
+        byte[] data = "a=1".getBytes("UTF-8");
+
+        try {
+
+            String path = restfulMgr.saveFile(data, "save.properties", localFileDir, targetDirPath, false);
+            Assert.assertEquals(new File(targetDirPath, "save.properties").getAbsolutePath(), path);
+            Assert.assertEquals("a=1", FileUtils.readFileToString(new File(localFileDir, "save.properties")));
+            Assert.assertEquals("a=1", FileUtils.readFileToString(new File(targetDirPath, "save.properties")));
+
+            // 目标目录是 classpath 时不写到 classpath
+            data = "a=2".getBytes("UTF-8");
+            restfulMgr.saveFile(data, "save.properties", localFileDir, ClassLoaderUtil.getClassPath(), false);
+            Assert.assertEquals("a=2", FileUtils.readFileToString(new File(localFileDir, "save.properties")));
+            Assert.assertFalse(new File(ClassLoaderUtil.getClassPath(), "save.properties").exists());
+
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
 }
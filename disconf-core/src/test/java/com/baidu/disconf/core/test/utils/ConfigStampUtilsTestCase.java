@@ -0,0 +1,52 @@
+package com.baidu.disconf.core.test.utils;
+
+import java.nio.charset.Charset;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.disconf.core.common.utils.ConfigStampUtils;
+
+/**
+ * ConfigStampUtilsTestCase
+ */
+public class ConfigStampUtilsTestCase {
+
+    @Test
+    public void getStamp() {
+
+        Assert.assertEquals("d41d8cd98f00b204e9800998ecf8427e", ConfigStampUtils.getStamp((String) null));
+        Assert.assertEquals("900150983cd24fb0d6963f7d28e17f72", ConfigStampUtils.getStamp("abc"));
+
+        String value = "name=中文\nport=8080";
+        Assert.assertEquals(ConfigStampUtils.getStamp(value),
+                ConfigStampUtils.getStamp(value.getBytes(Charset.forName("UTF-8"))));
+    }
+
+    @Test
+    public void isSame() {
+
+        String stamp = ConfigStampUtils.getStamp("0.5");
+
+        Assert.assertTrue(ConfigStampUtils.isSame(stamp, stamp));
+        Assert.assertTrue(ConfigStampUtils.isSame(stamp, stamp + "\n"));
+
+        // 下载失败, 或旧版本 disconf-web 写入的配置值
+        Assert.assertFalse(ConfigStampUtils.isSame(null, stamp));
+        Assert.assertFalse(ConfigStampUtils.isSame(stamp, "0.5"));
+        Assert.assertFalse(ConfigStampUtils.isSame(stamp, null));
+    }
+
+    @Test
+    public void parseStamp() {
+
+        String stamp = ConfigStampUtils.getStamp("0.5");
+
+        Assert.assertEquals(stamp, ConfigStampUtils.parseStamp(stamp + "\n"));
+
+        // 读取失败, 或旧版本 disconf-web 写入的配置值
+        Assert.assertNull(ConfigStampUtils.parseStamp(null));
+        Assert.assertNull(ConfigStampUtils.parseStamp("0.5"));
+        Assert.assertNull(ConfigStampUtils.parseStamp(stamp.toUpperCase()));
+    }
+}
@@ -0,0 +1,94 @@
+package com.baidu.disconf.core.test.utils;
+
+import java.io.File;
+import java.nio.charset.Charset;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.disconf.core.common.utils.OsUtil;
+
+/**
+ * OsUtilTestCase
+ */
+public class OsUtilTestCase {
+
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+
+        dir = new File(FileUtils.getTempDirectory(), "disconf-osutil-" + System.nanoTime());
+        dir.mkdirs();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void writeFileAtom() throws Exception {
+
+        File dest = new File(dir, "a/conf.properties");
+
+        Assert.assertTrue(OsUtil.writeFileAtom("a=1".getBytes(CHARSET), dest));
+        Assert.assertFalse(OsUtil.writeFileAtom("a=1".getBytes(CHARSET), dest));
+
+        // 其它进程写入了长度相同的内容
+        FileUtils.writeStringToFile(dest, "a=2", CHARSET);
+        Assert.assertTrue(OsUtil.writeFileAtom("a=1".getBytes(CHARSET), dest));
+
+        Assert.assertEquals("a=1", FileUtils.readFileToString(dest, CHARSET));
+
+        // 没有留下临时文件
+        Assert.assertEquals(1, dest.getParentFile().list().length);
+    }
+
+    @Test
+    public void renamedByOthers() throws Exception {
+
+        File dest = new File(dir, "conf.properties");
+        Assert.assertTrue(OsUtil.writeFileAtom("a=1".getBytes(CHARSET), dest));
+
+        // 其它进程把自己的文件改名为 dest, 长度和修改时间都相同
+        File other = new File(dir, "other.tmp");
+        FileUtils.writeStringToFile(other, "a=2", CHARSET);
+        Assert.assertTrue(other.setLastModified(dest.lastModified()));
+        OsUtil.renameAtom(other, dest);
+
+        // 记下的是本进程写入的文件的 inode, 不会把其它进程的文件当作内容相同
+        Assert.assertTrue(OsUtil.writeFileAtom("a=1".getBytes(CHARSET), dest));
+        Assert.assertEquals("a=1", FileUtils.readFileToString(dest, CHARSET));
+        Assert.assertFalse(OsUtil.writeFileAtom("a=1".getBytes(CHARSET), dest));
+    }
+
+    @Test
+    public void transferFileAtom() throws Exception {
+
+        File src = new File(dir, "src.tmp");
+        File dest = new File(dir, "conf.properties");
+
+        FileUtils.writeStringToFile(src, "a=1", CHARSET);
+        OsUtil.transferFileAtom(src, dest, false);
+        Assert.assertTrue(src.exists());
+        Assert.assertEquals("a=1", FileUtils.readFileToString(dest, CHARSET));
+
+        // 内容一样时只删除源文件
+        OsUtil.transferFileAtom(src, dest, true);
+        Assert.assertFalse(src.exists());
+
+        FileUtils.writeStringToFile(src, "a=22", CHARSET);
+        OsUtil.transferFileAtom(src, dest, true);
+        Assert.assertFalse(src.exists());
+        Assert.assertEquals("a=22", FileUtils.readFileToString(dest, CHARSET));
+
+        Assert.assertFalse(new File(dir, "conf.properties.lock").exists());
+    }
+}
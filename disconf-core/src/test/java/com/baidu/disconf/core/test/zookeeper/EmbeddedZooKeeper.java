@@ -0,0 +1,44 @@
+package com.baidu.disconf.core.test.zookeeper;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.zookeeper.server.ServerCnxnFactory;
+import org.apache.zookeeper.server.ZooKeeperServer;
+
+/**
+ * 测试用的单机ZK, 监听本机随机端口, 数据放在临时目录
+ */
+public class EmbeddedZooKeeper {
+
+    private final File dir;
+
+    private ServerCnxnFactory factory;
+
+    public EmbeddedZooKeeper() {
+        dir = new File(FileUtils.getTempDirectory(), "disconf-zk-" + System.nanoTime());
+    }
+
+    public void start() throws Exception {
+
+        dir.mkdirs();
+
+        ZooKeeperServer server = new ZooKeeperServer(dir, dir, 2000);
+        factory = ServerCnxnFactory.createFactory(new InetSocketAddress("127.0.0.1", 0), 100);
+        factory.startup(server);
+    }
+
+    public String getHosts() {
+        return "127.0.0.1:" + factory.getLocalPort();
+    }
+
+    public void stop() throws Exception {
+
+        if (factory != null) {
+            factory.shutdown();
+            factory = null;
+        }
+        FileUtils.deleteDirectory(dir);
+    }
+}
@@ -0,0 +1,39 @@
+package com.baidu.disconf.core.test.zookeeper.inner;
+
+import java.lang.reflect.Method;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.disconf.core.common.zookeeper.inner.ConnectionWatcher;
+
+/**
+ * 重新建立会话的退避时间
+ */
+public class ConnectionWatcherTestCase {
+
+    private static final int TIMES = 100;
+
+    @Test
+    public void backoff() throws Exception {
+
+        ConnectionWatcher connectionWatcher = new ConnectionWatcher(true);
+
+        Method method = ConnectionWatcher.class.getDeclaredMethod("getBackoffMillis", int.class);
+        method.setAccessible(true);
+
+        // 上限为 1秒 * 2^retries, 最多1分钟, 在上限的一半到上限之间
+        for (int retries = 0; retries < 40; retries++) {
+
+            long max = Math.min(1000L << Math.min(retries, 16), 60000L);
+
+            for (int i = 0; i < TIMES; i++) {
+                long millis = (Long) method.invoke(connectionWatcher, retries);
+                Assert.assertTrue(retries + ": " + millis, millis >= max / 2 && millis <= max);
+            }
+        }
+
+        Assert.assertTrue((Long) method.invoke(connectionWatcher, 0) <= 1000);
+        Assert.assertTrue((Long) method.invoke(connectionWatcher, Integer.MAX_VALUE) >= 30000);
+    }
+}
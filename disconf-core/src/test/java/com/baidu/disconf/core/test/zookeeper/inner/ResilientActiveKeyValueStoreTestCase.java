@@ -0,0 +1,83 @@
+package com.baidu.disconf.core.test.zookeeper.inner;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.zookeeper.KeeperException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.disconf.core.common.zookeeper.inner.ResilientActiveKeyValueStore;
+import com.baidu.disconf.core.test.zookeeper.EmbeddedZooKeeper;
+
+/**
+ * 在本机ZK上测试 {@link ResilientActiveKeyValueStore#writeMulti}
+ */
+public class ResilientActiveKeyValueStoreTestCase {
+
+    private EmbeddedZooKeeper server;
+
+    private ResilientActiveKeyValueStore store;
+
+    @Before
+    public void setUp() throws Exception {
+
+        server = new EmbeddedZooKeeper();
+        server.start();
+
+        store = new ResilientActiveKeyValueStore(true);
+        store.connect(server.getHosts());
+
+        store.write("/a", "a0");
+        store.write("/b", "b0");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        if (store != null) {
+            store.release();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void writeMulti() throws Exception {
+
+        Map<String, String> pathValues = new LinkedHashMap<String, String>();
+        pathValues.put("/a", "a1");
+        pathValues.put("/b", "b1");
+
+        store.writeMulti(pathValues);
+
+        Assert.assertEquals("a1", store.read("/a", null, null));
+        Assert.assertEquals("b1", store.read("/b", null, null));
+    }
+
+    @Test
+    public void writeMultiNoNode() throws Exception {
+
+        Map<String, String> pathValues = new LinkedHashMap<String, String>();
+        pathValues.put("/a", "a1");
+        pathValues.put("/missing", "m1");
+        pathValues.put("/b", "b1");
+
+        long start = System.currentTimeMillis();
+        try {
+            store.writeMulti(pathValues);
+            Assert.fail();
+        } catch (KeeperException.NoNodeException e) {
+            // 不重试
+            Assert.assertTrue(System.currentTimeMillis() - start < ResilientActiveKeyValueStore.RETRY_PERIOD_SECONDS *
+                                                                       1000);
+        }
+
+        // 一个失败时都不更新
+        Assert.assertEquals("a0", store.read("/a", null, null));
+        Assert.assertEquals("b0", store.read("/b", null, null));
+    }
+}
@@ -0,0 +1,4 @@
+INSERT INTO `role_resource` (`role_id`, `url_pattern`, `url_description`, `method_mask`) VALUES
+  (1,'/api/web/config/changeset' , '批量修改配置' , '0100'),
+  (2,'/api/web/config/changeset' , '批量修改配置' , '0100'),
+  (3,'/api/web/config/changeset' , '批量修改配置' , '0000');
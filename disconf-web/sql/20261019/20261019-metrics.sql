@@ -0,0 +1,4 @@
+INSERT INTO `role_resource` (`role_id`, `url_pattern`, `url_description`, `method_mask`) VALUES
+  (1,'/api/metrics' , '运行指标' , '0000'),
+  (2,'/api/metrics' , '运行指标' , '1000'),
+  (3,'/api/metrics' , '运行指标' , '0000');
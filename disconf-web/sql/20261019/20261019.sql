@@ -0,0 +1,34 @@
+CREATE TABLE `notification_outbox` (
+  `id` BIGINT NOT NULL AUTO_INCREMENT,
+  `app_id` BIGINT NOT NULL COMMENT 'appid',
+  `config_id` BIGINT NULL DEFAULT NULL COMMENT '配置变更通知时为配置ID, 其它通知为空',
+  `title` VARCHAR(255) NOT NULL DEFAULT '' COMMENT '邮件标题',
+  `old_value` LONGTEXT NULL COMMENT '配置变更前的值',
+  `new_value` LONGTEXT NULL COMMENT '配置变更后的值',
+  `content` LONGTEXT NULL COMMENT '配置变更通知时为配置描述, 其它通知为邮件内容',
+  `operator` VARCHAR(255) NOT NULL DEFAULT '' COMMENT '操作人',
+  `status` TINYINT(4) NOT NULL DEFAULT '0' COMMENT '状态：0待发送 1已发送 2放弃发送 3发送中',
+  `retry_count` INT NOT NULL DEFAULT '0' COMMENT '已失败次数',
+  `next_retry_time` VARCHAR(14) NOT NULL DEFAULT '99991231235959' COMMENT '下次发送时间',
+  `create_time` VARCHAR(14) NOT NULL DEFAULT '99991231235959' COMMENT '生成时间',
+  `update_time` VARCHAR(14) NOT NULL DEFAULT '99991231235959' COMMENT '修改时间',
+  PRIMARY KEY (`id`),
+  KEY `idx_status_next_retry_time` (`status`, `next_retry_time`)
+) DEFAULT CHARSET=utf8 ENGINE=InnoDB COMMENT='待发送的通知';
+
+ALTER TABLE `config`
+	ADD COLUMN `value_encoding` TINYINT(4) NOT NULL DEFAULT '0' COMMENT 'value的编码：0是非ASCII字符转为\\uXXXX 1是直接保存' AFTER `value`;
+
+ALTER TABLE `config_history`
+	ADD COLUMN `revision` INT NULL DEFAULT NULL COMMENT '版本号, 每个配置从1开始, 旧数据为空' AFTER `config_id`,
+	ADD COLUMN `storage` TINYINT(4) NOT NULL DEFAULT '0' COMMENT 'data的保存方式：0是旧数据(old_value/new_value为完整值) 1是完整值 2是从下一个版本还原的差异' AFTER `new_value`,
+	ADD COLUMN `data` LONGTEXT NULL COMMENT 'gzip并base64后的完整值或差异' AFTER `storage`,
+	ADD UNIQUE KEY `uniq_config_revision` (`config_id`, `revision`);
+
+INSERT INTO `role_resource` (`role_id`, `url_pattern`, `url_description`, `method_mask`) VALUES
+  (1,'/api/web/config/clone' , '复制版本' , '0010'),
+  (2,'/api/web/config/clone' , '复制版本' , '0010'),
+  (3,'/api/web/config/clone' , '复制版本' , '0000'),
+  (1,'/api/web/config/import' , '批量创建配置' , '0010'),
+  (2,'/api/web/config/import' , '批量创建配置' , '0010'),
+  (3,'/api/web/config/import' , '批量创建配置' , '0000');
@@ -7,4 +7,8 @@ public class Constants {
 
     public final static Integer STATUS_NORMAL = 1;
     public final static Integer STATUS_DELETE = 0;
+
+    // config.value 的编码: 非ASCII字符转为 \\uXXXX / 直接保存
+    public final static Integer VALUE_ENCODING_UNICODE = 0;
+    public final static Integer VALUE_ENCODING_UTF8 = 1;
 }
@@ -0,0 +1,165 @@
+package com.baidu.disconf.web.common.comparator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+
+import com.baidu.disconf.web.common.comparator.LineDiff.Edit;
+
+/**
+ * 把 {@link LineDiff} 的结果按 unified 格式写出, 每处修改前后带 context 行上下文, 可以输出为文本或HTML.
+ * <p/>
+ * 边生成边写, 不在内存中拼接. 写出的字符数超过 maxChars 后停止, 并写一行截断提示
+ */
+public class DiffFormatter {
+
+    private static final String TRUNCATED = "... (diff truncated)";
+
+    private final Writer out;
+
+    private final boolean html;
+
+    // 上下文行数
+    private int context = 3;
+
+    // 最多写出的字符数, 0 表示不限制
+    private long maxChars = 0;
+
+    private long written = 0;
+
+    private boolean truncated = false;
+
+    public DiffFormatter(Writer out, boolean html) {
+        this.out = out;
+        this.html = html;
+    }
+
+    public void setContext(int context) {
+        this.context = Math.max(0, context);
+    }
+
+    public void setMaxChars(long maxChars) {
+        this.maxChars = Math.max(0, maxChars);
+    }
+
+    /**
+     * 是否因为超过 maxChars 而没有写完
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void format(LineDiff diff) throws IOException {
+
+        List<Edit> edits = diff.getEdits();
+
+        if (html) {
+            out.write("<pre style='font-family:monospace'>");
+        }
+
+        int i = 0;
+        while (i < edits.size() && !truncated) {
+
+            // 相距不超过 2*context 的修改合并为一段
+            int last = i;
+            while (last + 1 < edits.size() &&
+                       edits.get(last + 1).getBeginA() - edits.get(last).getEndA() <= 2 * context) {
+                last++;
+            }
+
+            writeHunk(diff, edits.subList(i, last + 1));
+            i = last + 1;
+        }
+
+        if (html) {
+            out.write("</pre>");
+        }
+        out.flush();
+    }
+
+    private void writeHunk(LineDiff diff, List<Edit> hunk) throws IOException {
+
+        Edit first = hunk.get(0);
+        Edit last = hunk.get(hunk.size() - 1);
+
+        int beginA = Math.max(0, first.getBeginA() - context);
+        int beginB = Math.max(0, first.getBeginB() - context);
+        int endA = Math.min(diff.getOriginalSize(), last.getEndA() + context);
+        int endB = Math.min(diff.getRevisedSize(), last.getEndB() + context);
+
+        if (!writeLine('@', "@ " + range('-', beginA, endA) + " " + range('+', beginB, endB) + " @@")) {
+            return;
+        }
+
+        int a = beginA;
+        for (Edit edit : hunk) {
+
+            for (; a < edit.getBeginA(); a++) {
+                if (!writeLine(' ', diff.getOriginalLine(a))) {
+                    return;
+                }
+            }
+            for (a = edit.getBeginA(); a < edit.getEndA(); a++) {
+                if (!writeLine('-', diff.getOriginalLine(a))) {
+                    return;
+                }
+            }
+            for (int b = edit.getBeginB(); b < edit.getEndB(); b++) {
+                if (!writeLine('+', diff.getRevisedLine(b))) {
+                    return;
+                }
+            }
+        }
+
+        for (; a < endA; a++) {
+            if (!writeLine(' ', diff.getOriginalLine(a))) {
+                return;
+            }
+        }
+    }
+
+    private static String range(char prefix, int begin, int end) {
+
+        int count = end - begin;
+        // 与 diff -u 相同, 空区间的起始行号为前一行
+        return prefix + String.valueOf(count == 0 ? begin : begin + 1) + "," + count;
+    }
+
+    /**
+     * 写一行
+     *
+     * @return 超过 maxChars 时返回 false
+     */
+    private boolean writeLine(char type, String line) throws IOException {
+
+        String text = html ? toHtml(type, line) : type + line + "\n";
+
+        if (maxChars > 0 && written + text.length() > maxChars) {
+            truncated = true;
+            out.write(TRUNCATED);
+            out.write('\n');
+            return false;
+        }
+
+        out.write(text);
+        written += text.length();
+        return true;
+    }
+
+    private static String toHtml(char type, String line) {
+
+        String text = StringEscapeUtils.escapeHtml4(type + line);
+        switch (type) {
+            case '-':
+                return "<span style='color:#FF0000'>" + text + "</span>\n";
+            case '+':
+                return "<span style='color:#008000'>" + text + "</span>\n";
+            case '@':
+                return "<span style='color:#808080'>" + text + "</span>\n";
+            default:
+                return text + "\n";
+        }
+    }
+}
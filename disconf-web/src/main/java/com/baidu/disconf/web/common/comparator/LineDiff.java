@@ -0,0 +1,377 @@
+package com.baidu.disconf.web.common.comparator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按行对比, 使用 Myers 的线性空间算法(从两端同时搜索, 找到中间点后分成两半递归)
+ * <p/>
+ * 逐行读入, 相同的行只保存一份, 每行用一个整数表示. 除输入外只需要 O(N+M) 的内存.
+ * 修改很多时耗时为 O((N+M)D), 超过 maxEditCost 的部分不再求最优解, 直接当作整段修改
+ */
+public class LineDiff {
+
+    /**
+     * 默认的最大编辑距离
+     */
+    public static final int DEFAULT_MAX_EDIT_COST = 4096;
+
+    // 不同的行
+    private final List<String> lines = new ArrayList<String>();
+    private final Map<String, Integer> lineIds = new HashMap<String, Integer>();
+
+    private final int[] a;
+    private final int[] b;
+
+    // 被删除/新增的行
+    private final boolean[] deleted;
+    private final boolean[] inserted;
+
+    private final int maxEditCost;
+
+    private final List<Edit> edits;
+
+    public LineDiff(String original, String revised) {
+        this(original, revised, DEFAULT_MAX_EDIT_COST);
+    }
+
+    public LineDiff(String original, String revised, int maxEditCost) {
+        this(toReader(original), toReader(revised), maxEditCost);
+    }
+
+    public LineDiff(Reader original, Reader revised) {
+        this(original, revised, DEFAULT_MAX_EDIT_COST);
+    }
+
+    public LineDiff(Reader original, Reader revised, int maxEditCost) {
+
+        this.maxEditCost = Math.max(1, maxEditCost);
+
+        try {
+            a = readLines(original);
+            b = readLines(revised);
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot read diff input", e);
+        }
+
+        deleted = new boolean[a.length];
+        inserted = new boolean[b.length];
+
+        compare(0, a.length, 0, b.length);
+
+        edits = buildEdits();
+    }
+
+    /**
+     * 对比已经分好的行, 行的内容由调用方决定(例如保留换行符)
+     */
+    public LineDiff(List<String> original, List<String> revised, int maxEditCost) {
+
+        this.maxEditCost = Math.max(1, maxEditCost);
+
+        a = toIds(original);
+        b = toIds(revised);
+
+        deleted = new boolean[a.length];
+        inserted = new boolean[b.length];
+
+        compare(0, a.length, 0, b.length);
+
+        edits = buildEdits();
+    }
+
+    /**
+     * 修改的区间, 按顺序
+     */
+    public List<Edit> getEdits() {
+        return edits;
+    }
+
+    public int getOriginalSize() {
+        return a.length;
+    }
+
+    public int getRevisedSize() {
+        return b.length;
+    }
+
+    public String getOriginalLine(int index) {
+        return lines.get(a[index]);
+    }
+
+    public String getRevisedLine(int index) {
+        return lines.get(b[index]);
+    }
+
+    private static Reader toReader(String data) {
+        return new StringReader(data == null ? "" : data);
+    }
+
+    private int[] readLines(Reader reader) throws IOException {
+
+        BufferedReader in = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+
+        int[] ids = new int[64];
+        int size = 0;
+
+        String line;
+        while ((line = in.readLine()) != null) {
+
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = getLineId(line);
+        }
+
+        return Arrays.copyOf(ids, size);
+    }
+
+    private int[] toIds(List<String> lineList) {
+
+        int[] ids = new int[lineList.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = getLineId(lineList.get(i));
+        }
+        return ids;
+    }
+
+    private int getLineId(String line) {
+
+        Integer id = lineIds.get(line);
+        if (id == null) {
+            id = lines.size();
+            lines.add(line);
+            lineIds.put(line, id);
+        }
+        return id;
+    }
+
+    /**
+     * 对比 a[aLo, aHi) 与 b[bLo, bHi)
+     */
+    private void compare(int aLo, int aHi, int bLo, int bHi) {
+
+        // 去掉相同的开头和结尾
+        while (aLo < aHi && bLo < bHi && a[aLo] == b[bLo]) {
+            aLo++;
+            bLo++;
+        }
+        while (aLo < aHi && bLo < bHi && a[aHi - 1] == b[bHi - 1]) {
+            aHi--;
+            bHi--;
+        }
+
+        if (aLo == aHi) {
+            Arrays.fill(inserted, bLo, bHi, true);
+            return;
+        }
+        if (bLo == bHi) {
+            Arrays.fill(deleted, aLo, aHi, true);
+            return;
+        }
+
+        int[] split = bisect(aLo, aHi, bLo, bHi);
+        if (split == null) {
+            Arrays.fill(deleted, aLo, aHi, true);
+            Arrays.fill(inserted, bLo, bHi, true);
+            return;
+        }
+
+        compare(aLo, split[0], bLo, split[1]);
+        compare(split[0], aHi, split[1], bHi);
+    }
+
+    /**
+     * 从两端同时搜索最短编辑路径, 返回两个方向相遇的位置. 没有相同的行或超过 maxEditCost 时返回 null
+     */
+    private int[] bisect(int aLo, int aHi, int bLo, int bHi) {
+
+        int n = aHi - aLo;
+        int m = bHi - bLo;
+
+        int maxD = Math.min((n + m + 1) / 2, maxEditCost);
+        int offset = maxD;
+        int length = 2 * maxD + 2;
+
+        int[] v1 = new int[length];
+        int[] v2 = new int[length];
+        Arrays.fill(v1, -1);
+        Arrays.fill(v2, -1);
+        v1[offset + 1] = 0;
+        v2[offset + 1] = 0;
+
+        int delta = n - m;
+        // 长度差为奇数时, 在正向搜索中相遇
+        boolean front = (delta % 2 != 0);
+
+        // 超出边界的对角线
+        int k1Start = 0;
+        int k1End = 0;
+        int k2Start = 0;
+        int k2End = 0;
+
+        for (int d = 0; d < maxD; d++) {
+
+            // 正向
+            for (int k1 = -d + k1Start; k1 <= d - k1End; k1 += 2) {
+
+                int k1Offset = offset + k1;
+                int x1;
+                if (k1 == -d || (k1 != d && v1[k1Offset - 1] < v1[k1Offset + 1])) {
+                    x1 = v1[k1Offset + 1];
+                } else {
+                    x1 = v1[k1Offset - 1] + 1;
+                }
+                int y1 = x1 - k1;
+                while (x1 < n && y1 < m && a[aLo + x1] == b[bLo + y1]) {
+                    x1++;
+                    y1++;
+                }
+                v1[k1Offset] = x1;
+
+                if (x1 > n) {
+                    k1End += 2;
+                } else if (y1 > m) {
+                    k1Start += 2;
+                } else if (front) {
+                    int k2Offset = offset + delta - k1;
+                    if (k2Offset >= 0 && k2Offset < length && v2[k2Offset] != -1) {
+                        int x2 = n - v2[k2Offset];
+                        if (x1 >= x2) {
+                            return new int[] {aLo + x1, bLo + y1};
+                        }
+                    }
+                }
+            }
+
+            // 反向
+            for (int k2 = -d + k2Start; k2 <= d - k2End; k2 += 2) {
+
+                int k2Offset = offset + k2;
+                int x2;
+                if (k2 == -d || (k2 != d && v2[k2Offset - 1] < v2[k2Offset + 1])) {
+                    x2 = v2[k2Offset + 1];
+                } else {
+                    x2 = v2[k2Offset - 1] + 1;
+                }
+                int y2 = x2 - k2;
+                while (x2 < n && y2 < m && a[aHi - x2 - 1] == b[bHi - y2 - 1]) {
+                    x2++;
+                    y2++;
+                }
+                v2[k2Offset] = x2;
+
+                if (x2 > n) {
+                    k2End += 2;
+                } else if (y2 > m) {
+                    k2Start += 2;
+                } else if (!front) {
+                    int k1Offset = offset + delta - k2;
+                    if (k1Offset >= 0 && k1Offset < length && v1[k1Offset] != -1) {
+                        int x1 = v1[k1Offset];
+                        int y1 = offset + x1 - k1Offset;
+                        if (x1 >= n - x2) {
+                            return new int[] {aLo + x1, bLo + y1};
+                        }
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * 把连续的删除/新增行合并为修改区间
+     */
+    private List<Edit> buildEdits() {
+
+        List<Edit> result = new ArrayList<Edit>();
+
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+
+            if (i < a.length && j < b.length && !deleted[i] && !inserted[j]) {
+                i++;
+                j++;
+                continue;
+            }
+
+            int beginA = i;
+            int beginB = j;
+            while (i < a.length && deleted[i]) {
+                i++;
+            }
+            while (j < b.length && inserted[j]) {
+                j++;
+            }
+            if (i == beginA && j == beginB) {
+                throw new IllegalStateException("inconsistent diff at " + i + ", " + j);
+            }
+            result.add(new Edit(beginA, i, beginB, j));
+        }
+
+        return result;
+    }
+
+    /**
+     * 一处修改: 原文 [beginA, endA) 被替换为 [beginB, endB)
+     */
+    public static class Edit {
+
+        public enum Type {
+            INSERT, DELETE, CHANGE
+        }
+
+        private final int beginA;
+        private final int endA;
+        private final int beginB;
+        private final int endB;
+
+        public Edit(int beginA, int endA, int beginB, int endB) {
+            this.beginA = beginA;
+            this.endA = endA;
+            this.beginB = beginB;
+            this.endB = endB;
+        }
+
+        public Type getType() {
+            if (beginA == endA) {
+                return Type.INSERT;
+            }
+            if (beginB == endB) {
+                return Type.DELETE;
+            }
+            return Type.CHANGE;
+        }
+
+        public int getBeginA() {
+            return beginA;
+        }
+
+        public int getEndA() {
+            return endA;
+        }
+
+        public int getBeginB() {
+            return beginB;
+        }
+
+        public int getEndB() {
+            return endB;
+        }
+
+        @Override
+        public String toString() {
+            return getType() + "(" + beginA + "-" + endA + "," + beginB + "-" + endB + ")";
+        }
+    }
+}
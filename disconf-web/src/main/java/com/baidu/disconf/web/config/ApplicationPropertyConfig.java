@@ -37,6 +37,42 @@ public class ApplicationPropertyConfig {
     //
     private String domain;
 
+    //
+    // watch(长轮询)
+    //
+
+    // 同时等待的 watch 请求上限, 超过时立即返回, 由客户端稍后重试
+    private int watchMaxWaiters = 20000;
+
+    // watch 请求最长等待时间
+    private long watchTimeoutMillis = 30000;
+
+    //
+    // 邮件通知(后台发送)
+    //
+
+    // 每次最多发送的通知条数
+    private int notifyBatchSize = 500;
+
+    // 发送失败的最大次数, 超过后放弃
+    private int notifyMaxRetries = 6;
+
+    //
+    // 配置值转为直接保存(后台任务)
+    //
+
+    private boolean valueMigrateOn = true;
+
+    // 每批转换的配置数
+    private int valueMigrateBatchSize = 200;
+
+    //
+    // 配置历史
+    //
+
+    // 每隔多少个版本保留一个完整值, 其余版本保存差异
+    private int historyCheckpointInterval = 20;
+
     public String getEmailHost() {
         return emailHost;
     }
@@ -109,12 +145,71 @@ public class ApplicationPropertyConfig {
         this.domain = domain;
     }
 
+    public int getWatchMaxWaiters() {
+        return watchMaxWaiters;
+    }
+
+    public void setWatchMaxWaiters(int watchMaxWaiters) {
+        this.watchMaxWaiters = watchMaxWaiters;
+    }
+
+    public long getWatchTimeoutMillis() {
+        return watchTimeoutMillis;
+    }
+
+    public void setWatchTimeoutMillis(long watchTimeoutMillis) {
+        this.watchTimeoutMillis = watchTimeoutMillis;
+    }
+
+    public int getNotifyBatchSize() {
+        return notifyBatchSize;
+    }
+
+    public void setNotifyBatchSize(int notifyBatchSize) {
+        this.notifyBatchSize = notifyBatchSize;
+    }
+
+    public int getNotifyMaxRetries() {
+        return notifyMaxRetries;
+    }
+
+    public void setNotifyMaxRetries(int notifyMaxRetries) {
+        this.notifyMaxRetries = notifyMaxRetries;
+    }
+
+    public boolean isValueMigrateOn() {
+        return valueMigrateOn;
+    }
+
+    public void setValueMigrateOn(boolean valueMigrateOn) {
+        this.valueMigrateOn = valueMigrateOn;
+    }
+
+    public int getValueMigrateBatchSize() {
+        return valueMigrateBatchSize;
+    }
+
+    public void setValueMigrateBatchSize(int valueMigrateBatchSize) {
+        this.valueMigrateBatchSize = valueMigrateBatchSize;
+    }
+
+    public int getHistoryCheckpointInterval() {
+        return historyCheckpointInterval;
+    }
+
+    public void setHistoryCheckpointInterval(int historyCheckpointInterval) {
+        this.historyCheckpointInterval = historyCheckpointInterval;
+    }
+
     @Override
     public String toString() {
         return "ApplicationPropertyConfig [emailHost=" + emailHost + ", emailPassword=" + emailPassword +
                    ", emailUser=" + emailUser + ", emailPort=" + emailPort + ", fromEmail=" + fromEmail +
                    ", emailReceiver=" + emailReceiver + ", emailMonitorOn=" + emailMonitorOn + ", checkConsistencyOn=" +
-                   checkConsistencyOn + "]";
+                   checkConsistencyOn + ", watchMaxWaiters=" + watchMaxWaiters + ", watchTimeoutMillis=" +
+                   watchTimeoutMillis + ", notifyBatchSize=" + notifyBatchSize + ", notifyMaxRetries=" +
+                   notifyMaxRetries + ", valueMigrateOn=" + valueMigrateOn + ", valueMigrateBatchSize=" +
+                   valueMigrateBatchSize + ", historyCheckpointInterval=" + historyCheckpointInterval + "]";
     }
 
 }
@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Map;
 
 import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
+import com.baidu.disconf.web.service.config.vo.ConfListVo;
 import com.baidu.disconf.web.service.zookeeper.dto.ZkDisconfData;
 
 /**
@@ -18,11 +19,19 @@ public interface ZooKeeperDriver {
      * @param app
      * @param env
      * @param version
+     * @param value             配置值, 结点上只写入它的版本戳
      * @param disConfigTypeEnum
      */
     void notifyNodeUpdate(String app, String env, String version, String key, String value,
                           DisConfigTypeEnum disConfigTypeEnum);
 
+    /**
+     * 在一个ZK事务中通知多个Node更新, 客户端看到的要么全部更新, 要么都没有更新
+     *
+     * @param confListVos
+     */
+    void notifyNodesUpdate(List<ConfListVo> confListVos);
+
     /**
      * 获取分布式配置 Map
      *
@@ -5,6 +5,7 @@ import java.text.Collator;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -19,9 +20,13 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
+import com.baidu.disconf.core.common.metrics.MetricsRegistry;
+import com.baidu.disconf.core.common.metrics.Timer;
 import com.baidu.disconf.core.common.path.ZooPathMgr;
+import com.baidu.disconf.core.common.utils.ConfigStampUtils;
 import com.baidu.disconf.core.common.zookeeper.ZookeeperMgr;
 import com.baidu.disconf.web.innerapi.zookeeper.ZooKeeperDriver;
+import com.baidu.disconf.web.service.config.vo.ConfListVo;
 import com.baidu.disconf.web.service.zookeeper.config.ZooConfig;
 import com.baidu.disconf.web.service.zookeeper.dto.ZkDisconfData;
 import com.baidu.dsp.common.exception.RemoteException;
@@ -33,6 +38,18 @@ public class ZookeeperDriverImpl implements ZooKeeperDriver, InitializingBean, D
 
     protected static final Logger LOG = LoggerFactory.getLogger(ZookeeperDriverImpl.class);
 
+    //
+    // zk 调用耗时
+    //
+    public static final String ZK_NOTIFY = "zk.notifyNodeUpdate";
+    public static final String ZK_NOTIFY_MULTI = "zk.notifyNodesUpdate";
+    public static final String ZK_GET_DATA_MAP = "zk.getDisconfDataMap";
+    public static final String ZK_GET_DATA = "zk.getDisconfData";
+    public static final String ZK_GET_CONF = "zk.getConf";
+    public static final String ZK_FAILURE = "zk.failure";
+
+    private final MetricsRegistry metricsRegistry = MetricsRegistry.getInstance();
+
     @Autowired
     private ZooConfig zooConfig;
 
@@ -42,7 +59,7 @@ public class ZookeeperDriverImpl implements ZooKeeperDriver, InitializingBean, D
     private static boolean isInit = false;
 
     /**
-     * 通知某个Node更新
+     * 通知某个Node更新, 结点上只写入配置值的版本戳, 见 {@link ConfigStampUtils}
      *
      * @param app
      * @param env
@@ -53,22 +70,10 @@ public class ZookeeperDriverImpl implements ZooKeeperDriver, InitializingBean, D
     public void notifyNodeUpdate(String app, String env, String version, String key, String value,
                                  DisConfigTypeEnum disConfigTypeEnum) {
 
-        //
-        // 获取路径
-        //
-        String baseUrlString = ZooPathMgr.getZooBaseUrl(zooConfig.getZookeeperUrlPrefix(), app, env, version);
-
-        String path = "";
-        if (disConfigTypeEnum.equals(DisConfigTypeEnum.ITEM)) {
-
-            path = ZooPathMgr.getItemZooPath(baseUrlString);
-        } else {
-            path = ZooPathMgr.getFileZooPath(baseUrlString);
-        }
-
+        long start = Timer.start();
         try {
 
-            path = ZooPathMgr.joinPath(path, key);
+            String path = getNodePath(app, env, version, key, disConfigTypeEnum);
 
             boolean isExist = ZookeeperMgr.getInstance().exists(path);
             if (!isExist) {
@@ -77,16 +82,82 @@ public class ZookeeperDriverImpl implements ZooKeeperDriver, InitializingBean, D
 
             } else {
                 //
-                // 通知
+                // 通知, 配置值由客户端从 disconf-web 获取
                 //
-                ZookeeperMgr.getInstance().writePersistentUrl(path, value);
+                ZookeeperMgr.getInstance().writePersistentUrl(path, ConfigStampUtils.getStamp(value));
+            }
+
+        } catch (Exception e) {
+
+            metricsRegistry.counter(ZK_FAILURE).inc();
+            LOG.error(e.toString(), e);
+            throw new RemoteException("zk.notify.error", e);
+
+        } finally {
+            metricsRegistry.timer(ZK_NOTIFY).stop(start);
+        }
+    }
+
+    /**
+     * 在一个ZK事务中通知多个Node更新, 没有客户端监控(结点不存在)的配置跳过
+     *
+     * @param confListVos
+     */
+    @Override
+    public void notifyNodesUpdate(List<ConfListVo> confListVos) {
+
+        long start = Timer.start();
+        try {
+
+            Map<String, String> pathStamps = new LinkedHashMap<String, String>();
+
+            for (ConfListVo confListVo : confListVos) {
+
+                String path = getNodePath(confListVo.getAppName(), confListVo.getEnvName(), confListVo.getVersion(),
+                        confListVo.getKey(), DisConfigTypeEnum.getByType(confListVo.getTypeId()));
+
+                if (ZookeeperMgr.getInstance().exists(path)) {
+                    pathStamps.put(path, ConfigStampUtils.getStamp(confListVo.getValue()));
+                } else {
+                    LOG.info(path + " not exist. not update ZK.");
+                }
+            }
+
+            //
+            // 通知
+            //
+            if (!pathStamps.isEmpty()) {
+                ZookeeperMgr.getInstance().writePersistentUrls(pathStamps);
             }
 
         } catch (Exception e) {
 
+            metricsRegistry.counter(ZK_FAILURE).inc();
             LOG.error(e.toString(), e);
             throw new RemoteException("zk.notify.error", e);
+
+        } finally {
+            metricsRegistry.timer(ZK_NOTIFY_MULTI).stop(start);
+        }
+    }
+
+    /**
+     * 配置对应的结点路径
+     */
+    private String getNodePath(String app, String env, String version, String key,
+                               DisConfigTypeEnum disConfigTypeEnum) {
+
+        String baseUrlString = ZooPathMgr.getZooBaseUrl(zooConfig.getZookeeperUrlPrefix(), app, env, version);
+
+        String path = "";
+        if (disConfigTypeEnum.equals(DisConfigTypeEnum.ITEM)) {
+
+            path = ZooPathMgr.getItemZooPath(baseUrlString);
+        } else {
+            path = ZooPathMgr.getFileZooPath(baseUrlString);
         }
+
+        return ZooPathMgr.joinPath(path, key);
     }
 
     /**
@@ -105,6 +176,7 @@ public class ZookeeperDriverImpl implements ZooKeeperDriver, InitializingBean, D
 
         Map<String, ZkDisconfData> fileMap = new HashMap<String, ZkDisconfData>();
 
+        long start = Timer.start();
         try {
 
             fileMap = getDisconfData(ZooPathMgr.getFileZooPath(baseUrl));
@@ -112,9 +184,13 @@ public class ZookeeperDriverImpl implements ZooKeeperDriver, InitializingBean, D
             fileMap.putAll(itemMap);
 
         } catch (KeeperException e) {
+            metricsRegistry.counter(ZK_FAILURE).inc();
             LOG.error(e.getMessage(), e);
         } catch (InterruptedException e) {
+            metricsRegistry.counter(ZK_FAILURE).inc();
             LOG.error(e.getMessage(), e);
+        } finally {
+            metricsRegistry.timer(ZK_GET_DATA_MAP).stop(start);
         }
 
         return fileMap;
@@ -135,6 +211,7 @@ public class ZookeeperDriverImpl implements ZooKeeperDriver, InitializingBean, D
 
         String baseUrl = ZooPathMgr.getZooBaseUrl(zooConfig.getZookeeperUrlPrefix(), app, env, version);
 
+        long start = Timer.start();
         try {
 
             ZookeeperMgr zooKeeperMgr = ZookeeperMgr.getInstance();
@@ -150,9 +227,13 @@ public class ZookeeperDriverImpl implements ZooKeeperDriver, InitializingBean, D
             }
 
         } catch (KeeperException e) {
+            metricsRegistry.counter(ZK_FAILURE).inc();
             LOG.error(e.getMessage(), e);
         } catch (InterruptedException e) {
+            metricsRegistry.counter(ZK_FAILURE).inc();
             LOG.error(e.getMessage(), e);
+        } finally {
+            metricsRegistry.timer(ZK_GET_DATA).stop(start);
         }
 
         return null;
@@ -248,12 +329,17 @@ public class ZookeeperDriverImpl implements ZooKeeperDriver, InitializingBean, D
         ZooKeeper zooKeeper = zooKeeperMgr.getZk();
 
         List<String> retList = new ArrayList<String>();
+        long start = Timer.start();
         try {
             getConf(zooKeeper, groupName, groupName, retList);
         } catch (KeeperException e) {
+            metricsRegistry.counter(ZK_FAILURE).inc();
             LOG.error(e.getMessage(), e);
         } catch (InterruptedException e) {
+            metricsRegistry.counter(ZK_FAILURE).inc();
             LOG.error(e.getMessage(), e);
+        } finally {
+            metricsRegistry.timer(ZK_GET_CONF).stop(start);
         }
         return retList;
     }
@@ -5,6 +5,7 @@ import java.util.Map;
 
 import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
 import com.baidu.disconf.web.innerapi.zookeeper.ZooKeeperDriver;
+import com.baidu.disconf.web.service.config.vo.ConfListVo;
 import com.baidu.disconf.web.service.zookeeper.dto.ZkDisconfData;
 
 /**
@@ -18,6 +19,11 @@ public class ZookeeperDriverMock implements ZooKeeperDriver {
 
     }
 
+    @Override
+    public void notifyNodesUpdate(List<ConfListVo> confListVos) {
+
+    }
+
     @Override
     public Map<String, ZkDisconfData> getDisconfData(String app, String env, String version) {
         return null;
@@ -45,6 +45,12 @@ public class Config extends BaseObject<Long> {
     @Column(value = Columns.VALUE)
     private String value;
 
+    /**
+     * value 的编码, 见 Constants.VALUE_ENCODING_*
+     */
+    @Column(value = Columns.VALUE_ENCODING)
+    private Integer valueEncoding;
+
     /**
      *
      */
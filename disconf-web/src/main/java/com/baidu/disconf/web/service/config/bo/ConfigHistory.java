@@ -12,6 +12,21 @@ import lombok.Data;
 @Table(db = DB.DB_NAME, name = "config_history", keyColumn = "id")
 public class ConfigHistory extends BaseObject<Long> {
 
+    /**
+     * 旧数据, old_value/new_value 保存完整的值
+     */
+    public static final int STORAGE_LEGACY = 0;
+
+    /**
+     * data 保存这个版本的完整值
+     */
+    public static final int STORAGE_FULL = 1;
+
+    /**
+     * data 保存从下一个版本还原出这个版本的差异
+     */
+    public static final int STORAGE_DELTA = 2;
+
     /**
      *
      */
@@ -30,6 +45,24 @@ public class ConfigHistory extends BaseObject<Long> {
     @Column(value = "new_value")
     private String newValue;
 
+    /**
+     * 版本号, 每个配置从1开始, 旧数据为空
+     */
+    @Column(value = "revision")
+    private Integer revision;
+
+    /**
+     * data 的保存方式
+     */
+    @Column(value = "storage")
+    private Integer storage;
+
+    /**
+     * 压缩后的完整值或差异
+     */
+    @Column(value = "data")
+    private String data;
+
     /**
      * 创建时间
      */
@@ -43,10 +43,25 @@ public interface ConfigDao extends BaseDao<Long, Config> {
 
     /**
      * @param configId
+     * @param valueEncoding value 的编码
      *
      * @return
      */
-    void updateValue(Long configId, String value);
+    void updateValue(Long configId, String value, Integer valueEncoding);
+
+    /**
+     * 还是 \\uXXXX 编码的配置(包括已删除的), 按ID顺序
+     *
+     * @param afterId 从这个ID之后开始
+     */
+    List<Config> getUnicodeEncodedList(Long afterId, int limit);
+
+    /**
+     * 转为直接保存. 只在值没有被修改过时更新, 不修改更新时间
+     *
+     * @return 是否更新成功
+     */
+    boolean updateValueEncoding(Long configId, String oldValue, String newValue);
 
     /**
      *
@@ -67,4 +82,11 @@ public interface ConfigDao extends BaseDao<Long, Config> {
      * @param configId
      */
     void deleteItem(Long configId);
+
+    /**
+     * 批量新建, 多条合并为一条 insert 语句. 不回填ID
+     *
+     * @param configs
+     */
+    void createBatch(List<Config> configs);
 }
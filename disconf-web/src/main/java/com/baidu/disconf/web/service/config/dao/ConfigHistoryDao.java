@@ -1,5 +1,7 @@
 package com.baidu.disconf.web.service.config.dao;
 
+import java.util.List;
+
 import com.baidu.disconf.web.service.config.bo.ConfigHistory;
 import com.baidu.unbiz.common.genericdao.dao.BaseDao;
 
@@ -8,4 +10,24 @@ import com.baidu.unbiz.common.genericdao.dao.BaseDao;
  */
 
 public interface ConfigHistoryDao extends BaseDao<Long, ConfigHistory> {
+
+    /**
+     * 最新的版本, 没有时返回null
+     */
+    ConfigHistory getLatest(Long configId);
+
+    /**
+     * 版本在 [fromRevision, toRevision] 之间的历史, 按版本从小到大
+     */
+    List<ConfigHistory> getRevisionList(Long configId, int fromRevision, int toRevision);
+
+    /**
+     * 把完整值换为差异
+     */
+    void updateDelta(Long id, String data);
+
+    /**
+     * 批量新建, 多条合并为一条 insert 语句
+     */
+    void createBatch(List<ConfigHistory> configHistories);
 }
@@ -1,6 +1,7 @@
 package com.baidu.disconf.web.service.config.dao.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -29,6 +30,10 @@ import com.github.knightliao.apollo.utils.time.DateUtils;
 @Service
 public class ConfigDaoImpl extends AbstractDao<Long, Config> implements ConfigDao {
 
+    // 批量新建时每条 insert 语句最多的行数和值的字符数, 避免超过 max_allowed_packet
+    private static final int BATCH_SIZE = 200;
+    private static final int BATCH_CHARS = 1024 * 1024;
+
     /**
      *
      */
@@ -112,18 +117,71 @@ public class ConfigDaoImpl extends AbstractDao<Long, Config> implements ConfigDa
      *
      */
     @Override
-    public void updateValue(Long configId, String value) {
+    public void createBatch(List<Config> configs) {
+
+        List<Config> batch = new ArrayList<Config>();
+        int chars = 0;
+
+        for (Config config : configs) {
+
+            int length = config.getValue() == null ? 0 : config.getValue().length();
+            if (!batch.isEmpty() && (batch.size() >= BATCH_SIZE || chars + length > BATCH_CHARS)) {
+                createBatchQuick(batch);
+                batch.clear();
+                chars = 0;
+            }
+
+            batch.add(config);
+            chars += length;
+        }
+
+        createBatchQuick(batch);
+    }
+
+    /**
+     *
+     */
+    @Override
+    public void updateValue(Long configId, String value, Integer valueEncoding) {
 
         // 时间
         String curTime = DateUtils.format(new Date(), DataFormatConstants.COMMON_TIME_FORMAT);
 
         List<Modify> modifyList = new ArrayList<Modify>();
         modifyList.add(modify(Columns.VALUE, value));
+        modifyList.add(modify(Columns.VALUE_ENCODING, valueEncoding));
         modifyList.add(modify(Columns.UPDATE_TIME, curTime));
 
         update(modifyList, match(Columns.CONFIG_ID, configId));
     }
 
+    /**
+     *
+     */
+    @Override
+    public List<Config> getUnicodeEncodedList(Long afterId, int limit) {
+
+        List<Match> matchs = new ArrayList<Match>();
+        matchs.add(new Match(Columns.VALUE_ENCODING, Constants.VALUE_ENCODING_UNICODE));
+        matchs.add(new Match(Columns.CONFIG_ID, greaterThan(afterId)));
+
+        return find(matchs, Arrays.asList(order(Columns.CONFIG_ID, true)), 0, limit);
+    }
+
+    /**
+     *
+     */
+    @Override
+    public boolean updateValueEncoding(Long configId, String oldValue, String newValue) {
+
+        List<Modify> modifyList = new ArrayList<Modify>();
+        modifyList.add(modify(Columns.VALUE, newValue));
+        modifyList.add(modify(Columns.VALUE_ENCODING, Constants.VALUE_ENCODING_UTF8));
+
+        return update(modifyList, match(Columns.CONFIG_ID, configId),
+                match(Columns.VALUE_ENCODING, Constants.VALUE_ENCODING_UNICODE), match(Columns.VALUE, oldValue)) == 1;
+    }
+
     @Override
     public String getValue(Long configId) {
         Config config = get(configId);
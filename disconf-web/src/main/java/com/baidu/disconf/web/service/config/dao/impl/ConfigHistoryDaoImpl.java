@@ -1,14 +1,98 @@
 package com.baidu.disconf.web.service.config.dao.impl;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.springframework.stereotype.Service;
 
 import com.baidu.disconf.web.service.config.bo.ConfigHistory;
 import com.baidu.disconf.web.service.config.dao.ConfigHistoryDao;
 import com.baidu.dsp.common.dao.AbstractDao;
+import com.baidu.dsp.common.dao.Columns;
+import com.baidu.unbiz.common.genericdao.operator.Match;
+import com.baidu.unbiz.common.genericdao.operator.Modify;
 
 /**
  * Created by knightliao on 15/12/25.
  */
 @Service
 public class ConfigHistoryDaoImpl extends AbstractDao<Long, ConfigHistory> implements ConfigHistoryDao {
+
+    private static final String ID = "id";
+
+    private static final String REVISION = "revision";
+
+    private static final String STORAGE = "storage";
+
+    private static final String DATA = "data";
+
+    // 批量新建时每条 insert 语句最多的行数和字符数, 避免超过 max_allowed_packet
+    private static final int BATCH_SIZE = 200;
+    private static final int BATCH_CHARS = 1024 * 1024;
+
+    /**
+     *
+     */
+    @Override
+    public ConfigHistory getLatest(Long configId) {
+
+        List<Match> matchs = new ArrayList<Match>();
+        matchs.add(match(Columns.CONFIG_ID, configId));
+        matchs.add(match(REVISION, greaterThan(0)));
+
+        List<ConfigHistory> list = find(matchs, Arrays.asList(order(REVISION, false)), 0, 1);
+        return list.isEmpty() ? null : list.get(0);
+    }
+
+    /**
+     *
+     */
+    @Override
+    public List<ConfigHistory> getRevisionList(Long configId, int fromRevision, int toRevision) {
+
+        List<Match> matchs = new ArrayList<Match>();
+        matchs.add(match(Columns.CONFIG_ID, configId));
+        matchs.add(match(REVISION, between(fromRevision, toRevision)));
+
+        return find(matchs, Arrays.asList(order(REVISION, true)));
+    }
+
+    /**
+     *
+     */
+    @Override
+    public void updateDelta(Long id, String data) {
+
+        List<Modify> modifyList = new ArrayList<Modify>();
+        modifyList.add(modify(STORAGE, ConfigHistory.STORAGE_DELTA));
+        modifyList.add(modify(DATA, data));
+
+        update(modifyList, match(ID, id));
+    }
+
+    /**
+     *
+     */
+    @Override
+    public void createBatch(List<ConfigHistory> configHistories) {
+
+        List<ConfigHistory> batch = new ArrayList<ConfigHistory>();
+        int chars = 0;
+
+        for (ConfigHistory configHistory : configHistories) {
+
+            int length = configHistory.getData() == null ? 0 : configHistory.getData().length();
+            if (!batch.isEmpty() && (batch.size() >= BATCH_SIZE || chars + length > BATCH_CHARS)) {
+                createBatchQuick(batch);
+                batch.clear();
+                chars = 0;
+            }
+
+            batch.add(configHistory);
+            chars += length;
+        }
+
+        createBatchQuick(batch);
+    }
 }
@@ -0,0 +1,30 @@
+package com.baidu.disconf.web.service.config.form;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hibernate.validator.constraints.NotEmpty;
+
+/**
+ * 一次更新多个配置的表格, 请求参数形如 values[12]=0.5&values[13]=...
+ */
+public class ConfChangesetForm {
+
+    // configId -> 新的值, 配置文件为文件内容
+    @NotEmpty(message = "conf.changeset.empty")
+    private Map<Long, String> values = new LinkedHashMap<Long, String>();
+    public static final String VALUES = "values";
+
+    public Map<Long, String> getValues() {
+        return values;
+    }
+
+    public void setValues(Map<Long, String> values) {
+        this.values = values;
+    }
+
+    @Override
+    public String toString() {
+        return "ConfChangesetForm{" + "configIds=" + values.keySet() + '}';
+    }
+}
@@ -0,0 +1,57 @@
+package com.baidu.disconf.web.service.config.form;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.validation.constraints.NotNull;
+
+import org.hibernate.validator.constraints.NotEmpty;
+
+/**
+ * 复制一个版本的所有配置, 请求参数形如 appId=1&envId=1&version=1_0_0_0&newVersion=1_0_1_0&overrides[key]=value
+ */
+public class ConfCloneForm extends ConfNewForm {
+
+    // 目标环境, 为空时与源环境相同
+    private Long newEnvId;
+    public static final String NEW_ENVID = "newEnvId";
+
+    @NotNull(message = "version.empty")
+    @NotEmpty(message = "version.empty")
+    private String newVersion;
+    public static final String NEW_VERSION = "newVersion";
+
+    // key(配置文件为文件名) -> 新的值, 复制时直接使用新的值
+    private Map<String, String> overrides = new LinkedHashMap<String, String>();
+    public static final String OVERRIDES = "overrides";
+
+    public Long getNewEnvId() {
+        return newEnvId == null ? getEnvId() : newEnvId;
+    }
+
+    public void setNewEnvId(Long newEnvId) {
+        this.newEnvId = newEnvId;
+    }
+
+    public String getNewVersion() {
+        return newVersion;
+    }
+
+    public void setNewVersion(String newVersion) {
+        this.newVersion = newVersion;
+    }
+
+    public Map<String, String> getOverrides() {
+        return overrides;
+    }
+
+    public void setOverrides(Map<String, String> overrides) {
+        this.overrides = overrides;
+    }
+
+    @Override
+    public String toString() {
+        return "ConfCloneForm [" + super.toString() + ", newEnvId=" + newEnvId + ", newVersion=" + newVersion +
+                   ", overrides=" + overrides.keySet() + "]";
+    }
+}
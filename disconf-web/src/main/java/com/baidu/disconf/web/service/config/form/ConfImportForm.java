@@ -0,0 +1,39 @@
+package com.baidu.disconf.web.service.config.form;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 一次新建多个配置, 请求参数形如 appId=1&envId=1&version=1_0_0_0&items[key]=value&files[name]=content
+ */
+public class ConfImportForm extends ConfNewForm {
+
+    // 配置项 key -> value
+    private Map<String, String> items = new LinkedHashMap<String, String>();
+    public static final String ITEMS = "items";
+
+    // 配置文件 文件名 -> 文件内容
+    private Map<String, String> files = new LinkedHashMap<String, String>();
+    public static final String FILES = "files";
+
+    public Map<String, String> getItems() {
+        return items;
+    }
+
+    public void setItems(Map<String, String> items) {
+        this.items = items;
+    }
+
+    public Map<String, String> getFiles() {
+        return files;
+    }
+
+    public void setFiles(Map<String, String> files) {
+        this.files = files;
+    }
+
+    @Override
+    public String toString() {
+        return "ConfImportForm [" + super.toString() + ", items=" + items.keySet() + ", files=" + files.keySet() + "]";
+    }
+}
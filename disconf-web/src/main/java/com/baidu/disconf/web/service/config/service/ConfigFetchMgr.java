@@ -21,6 +21,15 @@ public interface ConfigFetchMgr {
      */
     ValueVo getConfItemByParameter(Long appId, Long envId, String version, String key);
 
+    /**
+     * 同上, 读到的值与客户端期望的版本戳不同时(从库还没有复制这次修改)改读主库
+     *
+     * @param stamp 客户端收到的ZK结点上的版本戳, 为 null 时不检查
+     *
+     * @return
+     */
+    ValueVo getConfItemByParameter(Long appId, Long envId, String version, String key, String stamp);
+
     /**
      * @param appId
      * @param envId
@@ -32,6 +41,16 @@ public interface ConfigFetchMgr {
      */
     Config getConfByParameter(Long appId, Long envId, String version, String key, DisConfigTypeEnum disConfigTypeEnum);
 
+    /**
+     * 同上, 读到的值与客户端期望的版本戳不同时(从库还没有复制这次修改)改读主库
+     *
+     * @param stamp 客户端收到的ZK结点上的版本戳, 为 null 时不检查
+     *
+     * @return
+     */
+    Config getConfByParameter(Long appId, Long envId, String version, String key, DisConfigTypeEnum disConfigTypeEnum,
+                              String stamp);
+
 
     /**
      * @param appId
@@ -1,9 +1,31 @@
 package com.baidu.disconf.web.service.config.service;
 
+import java.util.Map;
+
 /**
  * Created by knightliao on 15/12/25.
  */
 public interface ConfigHistoryMgr {
 
+    /**
+     * 记录一次修改, 值为原始值(不是保存到数据库的编码)
+     */
     void createOne(Long configId, String oldValue, String newValue);
+
+    /**
+     * 记录批量新建的配置, 每个配置写入第一个版本
+     *
+     * @param configValues configId -> 原始值
+     */
+    void createBatch(Map<Long, String> configValues);
+
+    /**
+     * 最新的版本号, 没有时返回0
+     */
+    int getLatestRevision(Long configId);
+
+    /**
+     * 还原某个版本修改后的值, 版本不存在时返回null
+     */
+    String getValue(Long configId, int revision);
 }
@@ -2,9 +2,12 @@ package com.baidu.disconf.web.service.config.service;
 
 import java.io.File;
 import java.util.List;
+import java.util.Map;
 
 import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
 import com.baidu.disconf.web.service.config.bo.Config;
+import com.baidu.disconf.web.service.config.form.ConfCloneForm;
+import com.baidu.disconf.web.service.config.form.ConfImportForm;
 import com.baidu.disconf.web.service.config.form.ConfListForm;
 import com.baidu.disconf.web.service.config.form.ConfNewItemForm;
 import com.baidu.disconf.web.service.config.vo.ConfListVo;
@@ -59,6 +62,15 @@ public interface ConfigMgr {
      */
     String updateItemValue(Long configId, String value);
 
+    /**
+     * 在一个数据库事务中更新多个 配置项/配置文件, 只发一封邮件通知
+     *
+     * @param configValues configId -> 新的值
+     *
+     * @return
+     */
+    String updateItemValues(Map<Long, String> configValues);
+
     /**
      * 获取config value
      *
@@ -75,6 +87,13 @@ public interface ConfigMgr {
      */
     void notifyZookeeper(Long configId);
 
+    /**
+     * 在一个ZK事务中通知多个配置的更新
+     *
+     * @param configIds
+     */
+    void notifyZookeeper(List<Long> configIds);
+
     /**
      * 新建一个config
      *
@@ -83,6 +102,25 @@ public interface ConfigMgr {
      */
     void newConfig(ConfNewItemForm confNewForm, DisConfigTypeEnum disConfigTypeEnum);
 
+    /**
+     * 复制一个版本的所有配置到新的 env/version, 可以同时覆盖部分配置的值. 覆盖的 key 在源版本中不存在时不复制,
+     * 抛出 FieldException 并列出这些 key
+     *
+     * @param confCloneForm
+     *
+     * @return 新建的配置数
+     */
+    int cloneVersion(ConfCloneForm confCloneForm);
+
+    /**
+     * 在同一个 app/env/version 下批量新建配置
+     *
+     * @param confImportForm
+     *
+     * @return 新建的配置数
+     */
+    int importConfigs(ConfImportForm confImportForm);
+
     /**
      * 删除一个config
      *
@@ -0,0 +1,45 @@
+package com.baidu.disconf.web.service.config.service;
+
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
+import com.baidu.disconf.core.common.json.ValueVo;
+import com.baidu.disconf.web.service.config.bo.Config;
+
+/**
+ * 配置的长轮询(watch)
+ * <p/>
+ * 客户端带上已有配置值的 hash 请求, 值不同时立即返回, 相同时挂起直到配置更新或超时. 挂起的请求不占用容器线程.
+ */
+public interface ConfigWatchMgr {
+
+    /**
+     * @param appId
+     * @param envId
+     * @param version
+     * @param key
+     * @param disConfigTypeEnum
+     * @param hash              客户端已有配置值的 hash, 为空时立即返回
+     *
+     * @return 返回的 value 为当前配置值的 hash, 配置不存在时为空串
+     */
+    DeferredResult<ValueVo> watch(Long appId, Long envId, String version, String key,
+                                  DisConfigTypeEnum disConfigTypeEnum, String hash);
+
+    /**
+     * 配置更新后, 唤醒等待此配置的请求
+     *
+     * @param config
+     */
+    void notifyChanged(Config config);
+
+    /**
+     * 当前挂起的请求数
+     */
+    int getWaiterCount();
+
+    /**
+     * 配置值的 hash, 与ZK结点上的版本戳相同
+     */
+    String getHash(String value);
+}
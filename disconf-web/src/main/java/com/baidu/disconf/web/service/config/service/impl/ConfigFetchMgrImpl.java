@@ -10,10 +10,13 @@ import org.springframework.stereotype.Service;
 import com.baidu.disconf.core.common.constants.Constants;
 import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
 import com.baidu.disconf.core.common.json.ValueVo;
+import com.baidu.disconf.core.common.utils.ConfigStampUtils;
 import com.baidu.disconf.web.service.config.bo.Config;
 import com.baidu.disconf.web.service.config.dao.ConfigDao;
 import com.baidu.disconf.web.service.config.service.ConfigFetchMgr;
 import com.baidu.disconf.web.service.config.utils.ConfigUtils;
+import com.baidu.ub.common.dbmanage.datasource.MultiDataSourceKeyContext;
+import com.baidu.ub.common.dbmanage.datasource.ReadMode;
 
 /**
  * @author knightliao
@@ -36,18 +39,49 @@ public class ConfigFetchMgrImpl implements ConfigFetchMgr {
         return configDao.getByParameter(appId, envId, version, key, disConfigTypeEnum);
     }
 
+    /**
+     * 根据详细参数获取配置, 从库的值与期望的版本戳不同时改读主库
+     */
+    @Override
+    public Config getConfByParameter(Long appId, Long envId, String version, String key,
+                                     DisConfigTypeEnum disConfigTypeEnum, String stamp) {
+
+        Config config = configDao.getByParameter(appId, envId, version, key, disConfigTypeEnum);
+        if (stamp == null || MultiDataSourceKeyContext.getReadMode() == ReadMode.MASTER) {
+            return config;
+        }
+
+        if (config != null && stamp.equals(ConfigStampUtils.getStamp(ConfigUtils.getValue(config)))) {
+            return config;
+        }
+
+        // 客户端收到ZK通知后马上下载, 从库可能还没有复制这次修改. 本请求之后的读都使用主库
+        LOG.info("stamp of " + key + " not matched on slave, read from master");
+        MultiDataSourceKeyContext.setReadMode(ReadMode.MASTER);
+        return configDao.getByParameter(appId, envId, version, key, disConfigTypeEnum);
+    }
+
     /**
      * 根据详细参数获取配置返回
      */
     public ValueVo getConfItemByParameter(Long appId, Long envId, String version, String key) {
 
-        Config config = configDao.getByParameter(appId, envId, version, key, DisConfigTypeEnum.ITEM);
+        return getConfItemByParameter(appId, envId, version, key, null);
+    }
+
+    /**
+     * 根据详细参数获取配置返回, 从库的值与期望的版本戳不同时改读主库
+     */
+    @Override
+    public ValueVo getConfItemByParameter(Long appId, Long envId, String version, String key, String stamp) {
+
+        Config config = getConfByParameter(appId, envId, version, key, DisConfigTypeEnum.ITEM, stamp);
         if (config == null) {
             return ConfigUtils.getErrorVo("cannot find this config");
         }
 
         ValueVo valueVo = new ValueVo();
-        valueVo.setValue(config.getValue());
+        valueVo.setValue(ConfigUtils.getValue(config));
         valueVo.setStatus(Constants.OK);
 
         return valueVo;
@@ -57,7 +91,12 @@ public class ConfigFetchMgrImpl implements ConfigFetchMgr {
      * 根据详细参数获取配置列表返回
      */
     public List<Config> getConfListByParameter(Long appId, Long envId, String version, Boolean hasValue) {
-        return configDao.getConfigList(appId, envId, version, hasValue);
+
+        List<Config> configs = configDao.getConfigList(appId, envId, version, hasValue);
+        for (Config config : configs) {
+            ConfigUtils.decodeValue(config);
+        }
+        return configs;
     }
 
 }
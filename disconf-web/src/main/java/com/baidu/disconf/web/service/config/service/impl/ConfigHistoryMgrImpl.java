@@ -1,19 +1,30 @@
 package com.baidu.disconf.web.service.config.service.impl;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.baidu.disconf.web.config.ApplicationPropertyConfig;
 import com.baidu.disconf.web.service.config.bo.ConfigHistory;
 import com.baidu.disconf.web.service.config.dao.ConfigHistoryDao;
 import com.baidu.disconf.web.service.config.service.ConfigHistoryMgr;
+import com.baidu.disconf.web.service.config.utils.ConfigHistoryUtils;
 import com.baidu.disconf.web.service.user.dto.Visitor;
 import com.baidu.dsp.common.constant.DataFormatConstants;
 import com.baidu.ub.common.commons.ThreadContext;
 import com.github.knightliao.apollo.utils.time.DateUtils;
 
 /**
+ * 配置历史按版本保存.
+ * <p/>
+ * 最新版本保存完整值, 新版本写入后, 上一个版本换为从新版本还原的差异(反向差异).
+ * 版本号是 historyCheckpointInterval 整数倍的版本一直保留完整值, 因此还原任意版本最多应用 interval 个差异
+ * <p/>
  * Created by knightliao on 15/12/25.
  */
 @Service
@@ -22,23 +33,134 @@ public class ConfigHistoryMgrImpl implements ConfigHistoryMgr {
     @Autowired
     private ConfigHistoryDao configHistoryDao;
 
+    @Autowired
+    private ApplicationPropertyConfig applicationPropertyConfig;
+
+    /**
+     * 同一个配置同时修改时, (config_id, revision) 唯一, 后写入的会失败
+     */
     @Override
     public void createOne(Long configId, String oldValue, String newValue) {
 
-        ConfigHistory configHistory = new ConfigHistory();
+        ConfigHistory latest = configHistoryDao.getLatest(configId);
 
-        configHistory.setConfigId(configId);
-        configHistory.setOldValue(oldValue);
-        configHistory.setNewValue(newValue);
+        int revision;
+        if (latest != null) {
+            revision = latest.getRevision() + 1;
+        } else {
+            revision = 1;
+
+            // 第一次按版本保存, 先把修改前的值保存为第一个版本
+            if (!StringUtils.isEmpty(oldValue)) {
+                latest = newHistory(configId, revision, oldValue);
+                configHistoryDao.create(latest);
+                revision++;
+            }
+        }
+
+        ConfigHistory configHistory = newHistory(configId, revision, newValue);
 
         Visitor visitor = ThreadContext.getSessionVisitor();
         if (visitor != null) {
             configHistory.setUpdateBy(visitor.getLoginUserId());
         }
 
+        configHistoryDao.create(configHistory);
+
+        // 上一个版本不是检查点时, 换为差异
+        if (latest != null && Integer.valueOf(ConfigHistory.STORAGE_FULL).equals(latest.getStorage()) &&
+                latest.getRevision() % getCheckpointInterval() != 0) {
+
+            String lastValue = ConfigHistoryUtils.decompress(latest.getData());
+            String delta = ConfigHistoryUtils.makeDelta(newValue, lastValue);
+            configHistoryDao.updateDelta(latest.getId(), ConfigHistoryUtils.compress(delta));
+        }
+    }
+
+    @Override
+    public void createBatch(Map<Long, String> configValues) {
+
+        Visitor visitor = ThreadContext.getSessionVisitor();
+
+        List<ConfigHistory> configHistories = new ArrayList<ConfigHistory>(configValues.size());
+        for (Map.Entry<Long, String> entry : configValues.entrySet()) {
+
+            ConfigHistory configHistory = newHistory(entry.getKey(), 1, entry.getValue());
+            if (visitor != null) {
+                configHistory.setUpdateBy(visitor.getLoginUserId());
+            }
+            configHistories.add(configHistory);
+        }
+
+        configHistoryDao.createBatch(configHistories);
+    }
+
+    @Override
+    public int getLatestRevision(Long configId) {
+
+        ConfigHistory latest = configHistoryDao.getLatest(configId);
+        return latest == null ? 0 : latest.getRevision();
+    }
+
+    /**
+     * 从这个版本往后找到最近的完整值, 再依次应用差异
+     */
+    @Override
+    public String getValue(Long configId, int revision) {
+
+        if (revision <= 0) {
+            return null;
+        }
+
+        // 完整值一般在下一个检查点或最新版本. 检查点间隔修改过时, 再查之后的所有版本
+        List<ConfigHistory> list =
+            configHistoryDao.getRevisionList(configId, revision, revision + getCheckpointInterval());
+        int full = findFull(list);
+        if (full < 0 && !list.isEmpty()) {
+            list = configHistoryDao.getRevisionList(configId, revision, Integer.MAX_VALUE);
+            full = findFull(list);
+        }
+
+        if (full < 0 || list.get(0).getRevision() != revision) {
+            return null;
+        }
+
+        String value = ConfigHistoryUtils.decompress(list.get(full).getData());
+        for (int i = full - 1; i >= 0; i--) {
+            value = ConfigHistoryUtils.applyDelta(value, ConfigHistoryUtils.decompress(list.get(i).getData()));
+        }
+
+        return value;
+    }
+
+    private static int findFull(List<ConfigHistory> list) {
+
+        for (int i = 0; i < list.size(); i++) {
+            if (Integer.valueOf(ConfigHistory.STORAGE_FULL).equals(list.get(i).getStorage())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int getCheckpointInterval() {
+        return Math.max(1, applicationPropertyConfig.getHistoryCheckpointInterval());
+    }
+
+    private static ConfigHistory newHistory(Long configId, int revision, String value) {
+
+        ConfigHistory configHistory = new ConfigHistory();
+
+        configHistory.setConfigId(configId);
+        configHistory.setRevision(revision);
+        configHistory.setOldValue("");
+        configHistory.setNewValue("");
+        configHistory.setStorage(ConfigHistory.STORAGE_FULL);
+        configHistory.setData(ConfigHistoryUtils.compress(value == null ? "" : value));
+
         String curTime = DateUtils.format(new Date(), DataFormatConstants.COMMON_TIME_FORMAT);
         configHistory.setCreateTime(curTime);
 
-        configHistoryDao.create(configHistory);
+        return configHistory;
     }
 }
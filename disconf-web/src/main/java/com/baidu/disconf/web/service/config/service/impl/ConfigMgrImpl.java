@@ -8,14 +8,19 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringEscapeUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
 import com.baidu.disconf.web.common.Constants;
@@ -25,24 +30,28 @@ import com.baidu.disconf.web.service.app.bo.App;
 import com.baidu.disconf.web.service.app.service.AppMgr;
 import com.baidu.disconf.web.service.config.bo.Config;
 import com.baidu.disconf.web.service.config.dao.ConfigDao;
+import com.baidu.disconf.web.service.config.form.ConfCloneForm;
+import com.baidu.disconf.web.service.config.form.ConfImportForm;
 import com.baidu.disconf.web.service.config.form.ConfListForm;
 import com.baidu.disconf.web.service.config.form.ConfNewItemForm;
 import com.baidu.disconf.web.service.config.service.ConfigHistoryMgr;
 import com.baidu.disconf.web.service.config.service.ConfigMgr;
+import com.baidu.disconf.web.service.config.service.ConfigWatchMgr;
+import com.baidu.disconf.web.service.config.utils.ConfigUtils;
 import com.baidu.disconf.web.service.config.vo.ConfListVo;
 import com.baidu.disconf.web.service.config.vo.MachineListVo;
 import com.baidu.disconf.web.service.env.bo.Env;
 import com.baidu.disconf.web.service.env.service.EnvMgr;
+import com.baidu.disconf.web.service.notification.service.NotificationOutboxMgr;
 import com.baidu.disconf.web.service.zookeeper.dto.ZkDisconfData;
 import com.baidu.disconf.web.service.zookeeper.dto.ZkDisconfData.ZkDisconfDataItem;
 import com.baidu.disconf.web.service.zookeeper.service.ZkDeployMgr;
-import com.baidu.disconf.web.utils.CodeUtils;
 import com.baidu.disconf.web.utils.DiffUtils;
 import com.baidu.disconf.web.utils.MyStringUtils;
 import com.baidu.dsp.common.constant.DataFormatConstants;
+import com.baidu.dsp.common.exception.FieldException;
 import com.baidu.dsp.common.utils.DataTransfer;
 import com.baidu.dsp.common.utils.ServiceUtil;
-import com.baidu.dsp.common.utils.email.LogMailBean;
 import com.baidu.ub.common.db.DaoPageResult;
 import com.github.knightliao.apollo.utils.data.GsonUtils;
 import com.github.knightliao.apollo.utils.io.OsUtil;
@@ -73,7 +82,7 @@ public class ConfigMgrImpl implements ConfigMgr {
     private ZkDeployMgr zkDeployMgr;
 
     @Autowired
-    private LogMailBean logMailBean;
+    private NotificationOutboxMgr notificationOutboxMgr;
 
     @Autowired
     private ApplicationPropertyConfig applicationPropertyConfig;
@@ -81,6 +90,9 @@ public class ConfigMgrImpl implements ConfigMgr {
     @Autowired
     private ConfigHistoryMgr configHistoryMgr;
 
+    @Autowired
+    private ConfigWatchMgr configWatchMgr;
+
     /**
      * 根据APPid获取其版本列表
      */
@@ -126,7 +138,7 @@ public class ConfigMgrImpl implements ConfigMgr {
 
                 File file = new File(curTime, config.getName());
                 try {
-                    FileUtils.writeByteArrayToFile(file, config.getValue().getBytes());
+                    FileUtils.writeByteArrayToFile(file, ConfigUtils.getValue(config).getBytes("UTF-8"));
                 } catch (IOException e) {
                     LOG.warn(e.toString());
                 }
@@ -266,27 +278,54 @@ public class ConfigMgrImpl implements ConfigMgr {
         //
         // 配置数据库的值 encode to db
         //
-        configDao.updateValue(configId, CodeUtils.utf8ToUnicode(value));
-        configHistoryMgr.createOne(configId, oldValue, CodeUtils.utf8ToUnicode(value));
+        Integer valueEncoding = ConfigUtils.getValueEncoding(value);
+        String newValue = ConfigUtils.encodeValue(value, valueEncoding);
+        configHistoryMgr.createOne(configId, ConfigUtils.getValue(config), value);
+        configDao.updateValue(configId, newValue, valueEncoding);
 
         //
-        // 发送邮件通知
+        // 邮件通知, 由后台任务发送
         //
-        String toEmails = appMgr.getEmails(config.getAppId());
-
         if (applicationPropertyConfig.isEmailMonitorOn()) {
-            boolean isSendSuccess = logMailBean.sendHtmlEmail(toEmails,
-                    " config update", DiffUtils.getDiff(CodeUtils.unicodeToUtf8(oldValue),
-                            value,
-                            config.toString(),
-                            getConfigUrlHtml(config)));
-            if (isSendSuccess) {
-                return "修改成功，邮件通知成功";
-            } else {
-                return "修改成功，邮件发送失败，请检查邮箱配置";
+            notificationOutboxMgr.addConfigChange(config, " config update", oldValue, newValue);
+            return "修改成功，邮件通知已加入发送队列";
+        }
+
+        return "修改成功";
+    }
+
+    /**
+     * 在一个数据库事务中更新多个 配置项/配置文件
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = false)
+    public String updateItemValues(Map<Long, String> configValues) {
+
+        boolean emailMonitorOn = applicationPropertyConfig.isEmailMonitorOn();
+
+        for (Map.Entry<Long, String> entry : configValues.entrySet()) {
+
+            Config config = getConfigById(entry.getKey());
+            String oldValue = config.getValue();
+            Integer valueEncoding = ConfigUtils.getValueEncoding(entry.getValue());
+            String newValue = ConfigUtils.encodeValue(entry.getValue(), valueEncoding);
+
+            //
+            // 配置数据库的值 encode to db
+            //
+            configHistoryMgr.createOne(config.getId(), ConfigUtils.getValue(config), entry.getValue());
+            configDao.updateValue(config.getId(), newValue, valueEncoding);
+
+            // 与配置在同一个事务中写入, 后台任务发送时同一个APP的通知合并为一封邮件
+            if (emailMonitorOn) {
+                notificationOutboxMgr.addConfigChange(config, " config update", oldValue, newValue);
             }
         }
 
+        if (emailMonitorOn) {
+            return "修改成功，邮件通知已加入发送队列";
+        }
+
         return "修改成功";
     }
 
@@ -301,8 +340,7 @@ public class ConfigMgrImpl implements ConfigMgr {
         if (confListVo.getTypeId().equals(DisConfigTypeEnum.FILE.getType())) {
 
             zooKeeperDriver.notifyNodeUpdate(confListVo.getAppName(), confListVo.getEnvName(), confListVo.getVersion(),
-                    confListVo.getKey(), GsonUtils.toJson(confListVo.getValue()),
-                    DisConfigTypeEnum.FILE);
+                    confListVo.getKey(), confListVo.getValue(), DisConfigTypeEnum.FILE);
 
         } else {
 
@@ -310,6 +348,27 @@ public class ConfigMgrImpl implements ConfigMgr {
                     confListVo.getKey(), confListVo.getValue(), DisConfigTypeEnum.ITEM);
         }
 
+        // 唤醒本机上 watch 此配置的请求
+        configWatchMgr.notifyChanged(getConfigById(configId));
+    }
+
+    /**
+     * 在一个ZK事务中通知多个配置的更新
+     */
+    @Override
+    public void notifyZookeeper(List<Long> configIds) {
+
+        List<ConfListVo> confListVos = new ArrayList<ConfListVo>(configIds.size());
+        for (Long configId : configIds) {
+            confListVos.add(getConfVo(configId));
+        }
+
+        zooKeeperDriver.notifyNodesUpdate(confListVos);
+
+        // 唤醒本机上 watch 这些配置的请求
+        for (Long configId : configIds) {
+            configWatchMgr.notifyChanged(getConfigById(configId));
+        }
     }
 
     /**
@@ -317,7 +376,7 @@ public class ConfigMgrImpl implements ConfigMgr {
      */
     @Override
     public String getValue(Long configId) {
-        return configDao.getValue(configId);
+        return ConfigUtils.getValue(configDao.get(configId));
     }
 
     /**
@@ -326,14 +385,139 @@ public class ConfigMgrImpl implements ConfigMgr {
     @Override
     public void newConfig(ConfNewItemForm confNewForm, DisConfigTypeEnum disConfigTypeEnum) {
 
+        Config config = newConfig(confNewForm.getAppId(), confNewForm.getEnvId(), confNewForm.getVersion(),
+                confNewForm.getKey(), disConfigTypeEnum.getType(), confNewForm.getValue());
+
+        configDao.create(config);
+        configHistoryMgr.createOne(config.getId(), "", confNewForm.getValue());
+
+        // 邮件通知, 由后台任务发送
+        //
+        if (applicationPropertyConfig.isEmailMonitorOn() == true) {
+            notificationOutboxMgr.addMessage(config.getAppId(), " config new",
+                    getNewValue(confNewForm.getValue(), config.toString(), getConfigUrlHtml(config)));
+        }
+    }
+
+    /**
+     * 复制一个版本的所有配置, 在一个数据库事务中批量写入
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = false)
+    public int cloneVersion(ConfCloneForm confCloneForm) {
+
+        List<Config> sources = configDao.getConfigList(confCloneForm.getAppId(), confCloneForm.getEnvId(),
+                confCloneForm.getVersion(), true);
+
+        // 覆盖的 key 不在源版本中时不能静默丢弃
+        Set<String> missingKeys = new TreeSet<String>(confCloneForm.getOverrides().keySet());
+        for (Config source : sources) {
+            missingKeys.remove(source.getName());
+        }
+        if (!missingKeys.isEmpty()) {
+
+            Map<String, String> errorMap = new HashMap<String, String>();
+            errorMap.put(ConfCloneForm.OVERRIDES, "conf.clone.override.not.exist");
+            Map<String, Object[]> errorArgs = new HashMap<String, Object[]>();
+            errorArgs.put(ConfCloneForm.OVERRIDES, new Object[] {StringUtils.join(missingKeys, ",")});
+
+            throw new FieldException(errorMap, errorArgs, null);
+        }
+
+        List<Config> configs = new ArrayList<Config>(sources.size());
+        List<String> values = new ArrayList<String>(sources.size());
+        for (Config source : sources) {
+
+            String value = confCloneForm.getOverrides().get(source.getName());
+            if (value == null) {
+                value = ConfigUtils.getValue(source);
+            }
+
+            configs.add(newConfig(confCloneForm.getAppId(), confCloneForm.getNewEnvId(), confCloneForm.getNewVersion(),
+                    source.getName(), source.getType(), value));
+            values.add(value);
+        }
+
+        createConfigs(configs, values, " config clone");
+        return configs.size();
+    }
+
+    /**
+     * 批量新建配置, 在一个数据库事务中批量写入
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = false)
+    public int importConfigs(ConfImportForm confImportForm) {
+
+        List<Config> configs = new ArrayList<Config>();
+        List<String> values = new ArrayList<String>();
+
+        for (Map.Entry<String, String> entry : confImportForm.getItems().entrySet()) {
+            configs.add(newConfig(confImportForm.getAppId(), confImportForm.getEnvId(), confImportForm.getVersion(),
+                    entry.getKey(), DisConfigTypeEnum.ITEM.getType(), entry.getValue()));
+            values.add(entry.getValue());
+        }
+        for (Map.Entry<String, String> entry : confImportForm.getFiles().entrySet()) {
+            configs.add(newConfig(confImportForm.getAppId(), confImportForm.getEnvId(), confImportForm.getVersion(),
+                    entry.getKey(), DisConfigTypeEnum.FILE.getType(), entry.getValue()));
+            values.add(entry.getValue());
+        }
+
+        createConfigs(configs, values, " config import");
+        return configs.size();
+    }
+
+    /**
+     * 批量写入配置和历史, 配置必须属于同一个 app/env/version
+     *
+     * @param values 与 configs 一一对应的原始值
+     */
+    private void createConfigs(List<Config> configs, List<String> values, String title) {
+
+        if (configs.isEmpty()) {
+            return;
+        }
+
+        Config first = configs.get(0);
+        configDao.createBatch(configs);
+
+        // 批量写入不回填ID, 按 type/name 查回来
+        Map<String, Long> configIds = new HashMap<String, Long>();
+        for (Config config : configDao.getConfigList(first.getAppId(), first.getEnvId(), first.getVersion(), false)) {
+            configIds.put(config.getType() + "/" + config.getName(), config.getId());
+        }
+
+        Map<Long, String> configValues = new HashMap<Long, String>();
+        StringBuilder keys = new StringBuilder();
+        for (int i = 0; i < configs.size(); i++) {
+
+            Config config = configs.get(i);
+            configValues.put(configIds.get(config.getType() + "/" + config.getName()), values.get(i));
+            keys.append(StringEscapeUtils.escapeHtml4(config.getName())).append("<br/>");
+        }
+        configHistoryMgr.createBatch(configValues);
+
+        // 邮件通知, 由后台任务发送, 只列出 key
+        if (applicationPropertyConfig.isEmailMonitorOn()) {
+
+            String identify = "appId=" + first.getAppId() + ", envId=" + first.getEnvId() + ", version=" +
+                    first.getVersion() + ", count=" + configs.size();
+            notificationOutboxMgr.addMessage(first.getAppId(), title,
+                    StringEscapeUtils.escapeHtml4(identify) + "<br/><br/>" + keys);
+        }
+    }
+
+    private static Config newConfig(Long appId, Long envId, String version, String key, Integer type, String value) {
+
         Config config = new Config();
 
-        config.setAppId(confNewForm.getAppId());
-        config.setEnvId(confNewForm.getEnvId());
-        config.setName(confNewForm.getKey());
-        config.setType(disConfigTypeEnum.getType());
-        config.setVersion(confNewForm.getVersion());
-        config.setValue(CodeUtils.utf8ToUnicode(confNewForm.getValue()));
+        config.setAppId(appId);
+        config.setEnvId(envId);
+        config.setName(key);
+        config.setType(type);
+        config.setVersion(version);
+        config.setValueEncoding(ConfigUtils.getValueEncoding(value));
+        config.setValue(ConfigUtils.encodeValue(value, config.getValueEncoding()));
         config.setStatus(Constants.STATUS_NORMAL);
 
         // 时间
@@ -341,16 +525,7 @@ public class ConfigMgrImpl implements ConfigMgr {
         config.setCreateTime(curTime);
         config.setUpdateTime(curTime);
 
-        configDao.create(config);
-        configHistoryMgr.createOne(config.getId(), "", config.getValue());
-
-        // 发送邮件通知
-        //
-        String toEmails = appMgr.getEmails(config.getAppId());
-        if (applicationPropertyConfig.isEmailMonitorOn() == true) {
-            logMailBean.sendHtmlEmail(toEmails, " config new", getNewValue(confNewForm.getValue(), config.toString(),
-                    getConfigUrlHtml(config)));
-        }
+        return config;
     }
 
     /**
@@ -362,7 +537,7 @@ public class ConfigMgrImpl implements ConfigMgr {
     public void delete(Long configId) {
 
         Config config = configDao.get(configId);
-        configHistoryMgr.createOne(configId, config.getValue(), "");
+        configHistoryMgr.createOne(configId, ConfigUtils.getValue(config), "");
 
         configDao.deleteItem(configId);
     }
@@ -479,7 +654,7 @@ public class ConfigMgrImpl implements ConfigMgr {
         confListVo.setModifyTime(config.getUpdateTime().substring(0, 12));
         confListVo.setKey(config.getName());
         // StringEscapeUtils.escapeHtml escape
-        confListVo.setValue(CodeUtils.unicodeToUtf8(config.getValue()));
+        confListVo.setValue(ConfigUtils.getValue(config));
         confListVo.setVersion(config.getVersion());
         confListVo.setType(DisConfigTypeEnum.getByType(config.getType()).getModelName());
         confListVo.setTypeId(config.getType());
@@ -513,7 +688,7 @@ public class ConfigMgrImpl implements ConfigMgr {
 
             if (config.getType().equals(DisConfigTypeEnum.FILE.getType())) {
 
-                List<String> errorKeyList = compareConfig(zkDisconfDataItem.getValue(), config.getValue());
+                List<String> errorKeyList = compareConfig(zkDisconfDataItem.getValue(), ConfigUtils.getValue(config));
 
                 if (errorKeyList.size() != 0) {
                     zkDisconfDataItem.setErrorList(errorKeyList);
@@ -525,11 +700,12 @@ public class ConfigMgrImpl implements ConfigMgr {
                 // 配置项
                 //
 
-                if (zkDisconfDataItem.getValue().trim().equals(config.getValue().trim())) {
+                String value = ConfigUtils.getValue(config).trim();
+                if (zkDisconfDataItem.getValue().trim().equals(value)) {
 
                 } else {
                     List<String> errorKeyList = new ArrayList<String>();
-                    errorKeyList.add(config.getValue().trim());
+                    errorKeyList.add(value);
                     zkDisconfDataItem.setErrorList(errorKeyList);
                     errorNum++;
                 }
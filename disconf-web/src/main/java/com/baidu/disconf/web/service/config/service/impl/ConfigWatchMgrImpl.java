@@ -0,0 +1,322 @@
+package com.baidu.disconf.web.service.config.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.baidu.disconf.core.common.constants.Constants;
+import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
+import com.baidu.disconf.core.common.json.ValueVo;
+import com.baidu.disconf.core.common.metrics.Counter;
+import com.baidu.disconf.core.common.metrics.Gauge;
+import com.baidu.disconf.core.common.metrics.MetricsRegistry;
+import com.baidu.disconf.core.common.utils.ConfigStampUtils;
+import com.baidu.disconf.web.config.ApplicationPropertyConfig;
+import com.baidu.disconf.web.service.config.bo.Config;
+import com.baidu.disconf.web.service.config.service.ConfigFetchMgr;
+import com.baidu.disconf.web.service.config.service.ConfigWatchMgr;
+import com.baidu.disconf.web.service.config.utils.ConfigUtils;
+
+/**
+ * 挂起的请求按配置分组保存, 配置更新时一次唤醒. 挂起数超过上限时立即返回错误, 由客户端稍后重试.
+ * <p/>
+ * 每个配置的分组只在有 watch 时存在: watch 开始时引用, 请求结束时释放, 没有引用时删除, 不会随配置数一直增长.
+ * <p/>
+ * 只能唤醒本机挂起的请求, 其它机器上的请求在超时后重新 watch 时通过 hash 发现变化
+ */
+@Service
+public class ConfigWatchMgrImpl implements ConfigWatchMgr, InitializingBean, DisposableBean {
+
+    protected static final Logger LOG = LoggerFactory.getLogger(ConfigWatchMgrImpl.class);
+
+    public static final String WATCH_WAITERS = "watch.waiters";
+    public static final String WATCH_KEYS = "watch.keys";
+    public static final String WATCH_REJECTED = "watch.rejected";
+    public static final String WATCH_NOTIFIED = "watch.notified";
+
+    private static final Counter REJECTED_COUNTER = MetricsRegistry.getInstance().counter(WATCH_REJECTED);
+    private static final Counter NOTIFIED_COUNTER = MetricsRegistry.getInstance().counter(WATCH_NOTIFIED);
+
+    @Autowired
+    private ConfigFetchMgr configFetchMgr;
+
+    @Autowired
+    private ApplicationPropertyConfig applicationPropertyConfig;
+
+    // 配置 -> 正在 watch 此配置的请求
+    private final ConcurrentMap<String, WatchEntry> entries = new ConcurrentHashMap<String, WatchEntry>();
+
+    private final AtomicInteger waiterCount = new AtomicInteger();
+
+    @Override
+    public DeferredResult<ValueVo> watch(Long appId, Long envId, String version, String key,
+                                         DisConfigTypeEnum disConfigTypeEnum, String hash) {
+
+        String watchKey = getWatchKey(appId, envId, version, key, disConfigTypeEnum);
+
+        // 先引用分组并取更新次数, 再读配置, 之后的更新都会计入分组
+        final WatchEntry entry = acquire(watchKey);
+        boolean suspended = false;
+
+        try {
+
+            long startGeneration = entry.getGeneration();
+
+            String currentHash = getCurrentHash(appId, envId, version, key, disConfigTypeEnum);
+
+            // 已经变化
+            if (hash == null || !hash.equals(currentHash)) {
+                return completed(buildResult(currentHash));
+            }
+
+            // 挂起的请求过多
+            if (waiterCount.incrementAndGet() > applicationPropertyConfig.getWatchMaxWaiters()) {
+                waiterCount.decrementAndGet();
+                REJECTED_COUNTER.inc();
+                return completed(ConfigUtils.getErrorVo("too many watchers, retry later"));
+            }
+
+            final DeferredResult<ValueVo> deferredResult =
+                    new DeferredResult<ValueVo>(applicationPropertyConfig.getWatchTimeoutMillis(),
+                            buildResult(currentHash));
+
+            // 请求结束(唤醒、超时或出错)时释放
+            deferredResult.onCompletion(new Runnable() {
+                @Override
+                public void run() {
+                    entry.removeWaiter(deferredResult);
+                    waiterCount.decrementAndGet();
+                    release(entry);
+                }
+            });
+
+            // 读配置之后、挂起之前发生了更新
+            boolean changed = !entry.addWaiter(deferredResult, startGeneration);
+            suspended = true;
+
+            if (changed) {
+                deferredResult.setResult(buildResult(getCurrentHash(appId, envId, version, key, disConfigTypeEnum)));
+            }
+
+            return deferredResult;
+
+        } finally {
+            if (!suspended) {
+                release(entry);
+            }
+        }
+    }
+
+    @Override
+    public void notifyChanged(Config config) {
+
+        DisConfigTypeEnum disConfigTypeEnum = DisConfigTypeEnum.getByType(config.getType());
+        String watchKey =
+                getWatchKey(config.getAppId(), config.getEnvId(), config.getVersion(), config.getName(),
+                        disConfigTypeEnum);
+
+        // 没有分组时没有正在进行的 watch, 之后的 watch 会读到新的配置
+        WatchEntry entry = entries.get(watchKey);
+        if (entry == null) {
+            return;
+        }
+
+        List<DeferredResult<ValueVo>> keyWaiters = entry.changed();
+        if (keyWaiters.isEmpty()) {
+            return;
+        }
+
+        ValueVo result = buildResult(getHash(config.getValue()));
+
+        int notified = 0;
+        for (DeferredResult<ValueVo> deferredResult : keyWaiters) {
+            if (deferredResult.setResult(result)) {
+                notified++;
+            }
+        }
+
+        NOTIFIED_COUNTER.add(notified);
+        LOG.info("notify {} watchers of {}", notified, watchKey);
+    }
+
+    @Override
+    public int getWaiterCount() {
+        return waiterCount.get();
+    }
+
+    /**
+     * 当前有 watch 的配置数
+     */
+    public int getWatchKeyCount() {
+        return entries.size();
+    }
+
+    @Override
+    public String getHash(String value) {
+        return value == null ? "" : ConfigStampUtils.getStamp(value);
+    }
+
+    private String getCurrentHash(Long appId, Long envId, String version, String key,
+                                  DisConfigTypeEnum disConfigTypeEnum) {
+
+        Config config = configFetchMgr.getConfByParameter(appId, envId, version, key, disConfigTypeEnum);
+        return config == null ? "" : getHash(ConfigUtils.getValue(config));
+    }
+
+    private ValueVo buildResult(String hash) {
+
+        ValueVo valueVo = new ValueVo();
+        valueVo.setStatus(Constants.OK);
+        valueVo.setValue(hash);
+        return valueVo;
+    }
+
+    private DeferredResult<ValueVo> completed(ValueVo valueVo) {
+
+        DeferredResult<ValueVo> deferredResult = new DeferredResult<ValueVo>();
+        deferredResult.setResult(valueVo);
+        return deferredResult;
+    }
+
+    private String getWatchKey(Long appId, Long envId, String version, String key,
+                               DisConfigTypeEnum disConfigTypeEnum) {
+        return appId + "/" + envId + "/" + version + "/" + disConfigTypeEnum.getType() + "/" + key;
+    }
+
+    /**
+     * 引用配置的分组, 不存在或者正在被删除时新建
+     */
+    private WatchEntry acquire(String watchKey) {
+
+        while (true) {
+
+            WatchEntry entry = entries.get(watchKey);
+            if (entry == null) {
+                WatchEntry newEntry = new WatchEntry(watchKey);
+                entry = entries.putIfAbsent(watchKey, newEntry);
+                if (entry == null) {
+                    entry = newEntry;
+                }
+            }
+
+            if (entry.acquire()) {
+                return entry;
+            }
+        }
+    }
+
+    /**
+     * 释放引用, 最后一个引用释放时删除分组
+     */
+    private void release(WatchEntry entry) {
+
+        if (entry.release()) {
+            entries.remove(entry.watchKey, entry);
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+
+        MetricsRegistry.getInstance().gauge(WATCH_WAITERS, new Gauge() {
+            @Override
+            public long getValue() {
+                return waiterCount.get();
+            }
+        });
+        MetricsRegistry.getInstance().gauge(WATCH_KEYS, new Gauge() {
+            @Override
+            public long getValue() {
+                return entries.size();
+            }
+        });
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        MetricsRegistry.getInstance().removeGauge(WATCH_WAITERS);
+        MetricsRegistry.getInstance().removeGauge(WATCH_KEYS);
+    }
+
+    /**
+     * 一个配置的 watch: 更新次数用于发现挂起过程中发生的更新, 引用数为进行中的 watch 和挂起的请求
+     */
+    private static class WatchEntry {
+
+        private final String watchKey;
+
+        private final Set<DeferredResult<ValueVo>> waiters = new HashSet<DeferredResult<ValueVo>>();
+
+        private long generation;
+
+        private int refs;
+
+        // 已从 entries 中删除, 不能再引用
+        private boolean removed;
+
+        WatchEntry(String watchKey) {
+            this.watchKey = watchKey;
+        }
+
+        synchronized boolean acquire() {
+
+            if (removed) {
+                return false;
+            }
+            refs++;
+            return true;
+        }
+
+        /**
+         * @return 是否是最后一个引用
+         */
+        synchronized boolean release() {
+
+            refs--;
+            if (refs == 0) {
+                removed = true;
+            }
+            return removed;
+        }
+
+        synchronized long getGeneration() {
+            return generation;
+        }
+
+        /**
+         * @return startGeneration 之后没有更新时加入并返回 true
+         */
+        synchronized boolean addWaiter(DeferredResult<ValueVo> deferredResult, long startGeneration) {
+
+            waiters.add(deferredResult);
+            return generation == startGeneration;
+        }
+
+        synchronized void removeWaiter(DeferredResult<ValueVo> deferredResult) {
+            waiters.remove(deferredResult);
+        }
+
+        /**
+         * 记录一次更新
+         *
+         * @return 需要唤醒的请求
+         */
+        synchronized List<DeferredResult<ValueVo>> changed() {
+
+            generation++;
+            return new ArrayList<DeferredResult<ValueVo>>(waiters);
+        }
+    }
+}
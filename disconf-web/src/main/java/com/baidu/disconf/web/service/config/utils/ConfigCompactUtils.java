@@ -0,0 +1,43 @@
+package com.baidu.disconf.web.service.config.utils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.baidu.disconf.core.common.compact.CompactCodec;
+import com.baidu.disconf.core.common.json.ConfVo;
+import com.baidu.disconf.web.service.config.bo.Config;
+
+/**
+ * 配置列表的二进制格式, 见 {@link CompactCodec#writeConfList}
+ * <p/>
+ * 不返回 value 的列表中 value 为 null
+ */
+public class ConfigCompactUtils {
+
+    public static byte[] toBytes(List<Config> configs) throws IOException {
+
+        List<ConfVo> confVos = new ArrayList<ConfVo>(configs.size());
+        for (Config config : configs) {
+            confVos.add(toConfVo(config));
+        }
+
+        return CompactCodec.toBytes(confVos);
+    }
+
+    public static ConfVo toConfVo(Config config) {
+
+        ConfVo confVo = new ConfVo();
+        confVo.setId(config.getId());
+        confVo.setType(config.getType());
+        confVo.setStatus(config.getStatus());
+        confVo.setName(config.getName());
+        confVo.setValue(config.getValue());
+        confVo.setAppId(config.getAppId());
+        confVo.setVersion(config.getVersion());
+        confVo.setEnvId(config.getEnvId());
+        confVo.setCreateTime(config.getCreateTime());
+        confVo.setUpdateTime(config.getUpdateTime());
+        return confVo;
+    }
+}
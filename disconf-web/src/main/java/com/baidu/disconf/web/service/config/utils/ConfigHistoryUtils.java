@@ -0,0 +1,175 @@
+package com.baidu.disconf.web.service.config.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.io.IOUtils;
+
+import com.baidu.disconf.web.common.comparator.LineDiff;
+import com.baidu.disconf.web.common.comparator.LineDiff.Edit;
+
+/**
+ * 配置历史的差异和压缩.
+ * <p/>
+ * 差异按行计算, 每行保留自己的换行符, 因此可以完整还原(包括 \r\n 和末尾是否有换行).
+ * 格式为若干段 "起始行,结束行,行数\n", 每段后面是替换进来的行, 每行为 "长度:内容".
+ * <p/>
+ * 保存到数据库前先 gzip 再 base64, 只包含 ASCII 字符, 与数据库的字符集无关
+ */
+public class ConfigHistoryUtils {
+
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
+    /**
+     * 生成把 from 变为 to 的差异
+     */
+    public static String makeDelta(String from, String to) {
+
+        List<String> fromLines = splitLines(from);
+        List<String> toLines = splitLines(to);
+
+        LineDiff lineDiff = new LineDiff(fromLines, toLines, LineDiff.DEFAULT_MAX_EDIT_COST);
+
+        StringBuilder sb = new StringBuilder();
+        for (Edit edit : lineDiff.getEdits()) {
+
+            sb.append(edit.getBeginA()).append(',').append(edit.getEndA()).append(',')
+                .append(edit.getEndB() - edit.getBeginB()).append('\n');
+
+            for (int i = edit.getBeginB(); i < edit.getEndB(); i++) {
+                String line = toLines.get(i);
+                sb.append(line.length()).append(':').append(line);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * 在 from 上应用 {@link #makeDelta(String, String)} 生成的差异
+     */
+    public static String applyDelta(String from, String delta) {
+
+        List<String> fromLines = splitLines(from);
+
+        StringBuilder sb = new StringBuilder();
+        int line = 0;
+        int pos = 0;
+
+        while (pos < delta.length()) {
+
+            int end = delta.indexOf('\n', pos);
+            if (end < 0) {
+                throw new IllegalArgumentException("bad history delta at " + pos);
+            }
+            String[] header = delta.substring(pos, end).split(",");
+            if (header.length != 3) {
+                throw new IllegalArgumentException("bad history delta at " + pos);
+            }
+            pos = end + 1;
+
+            int beginA = Integer.parseInt(header[0]);
+            int endA = Integer.parseInt(header[1]);
+            int count = Integer.parseInt(header[2]);
+            if (beginA < line || endA < beginA || endA > fromLines.size()) {
+                throw new IllegalArgumentException("history delta does not match: " + beginA + "," + endA);
+            }
+
+            for (; line < beginA; line++) {
+                sb.append(fromLines.get(line));
+            }
+            line = endA;
+
+            for (int i = 0; i < count; i++) {
+                int colon = delta.indexOf(':', pos);
+                if (colon < 0) {
+                    throw new IllegalArgumentException("bad history delta at " + pos);
+                }
+                int length = Integer.parseInt(delta.substring(pos, colon));
+                sb.append(delta, colon + 1, colon + 1 + length);
+                pos = colon + 1 + length;
+            }
+        }
+
+        for (; line < fromLines.size(); line++) {
+            sb.append(fromLines.get(line));
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * 按行拆分, 每行带着自己的换行符(\n, \r\n 或 \r)
+     */
+    public static List<String> splitLines(String value) {
+
+        List<String> lines = new ArrayList<String>();
+        if (value == null) {
+            return lines;
+        }
+
+        int start = 0;
+        int len = value.length();
+        for (int i = 0; i < len; i++) {
+
+            char c = value.charAt(i);
+            if (c == '\r' && i + 1 < len && value.charAt(i + 1) == '\n') {
+                i++;
+            } else if (c != '\n' && c != '\r') {
+                continue;
+            }
+            lines.add(value.substring(start, i + 1));
+            start = i + 1;
+        }
+        if (start < len) {
+            lines.add(value.substring(start));
+        }
+
+        return lines;
+    }
+
+    /**
+     * gzip 后 base64
+     */
+    public static String compress(String data) {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream out = null;
+        try {
+            out = new GZIPOutputStream(bytes);
+            out.write(data.getBytes(CHARSET));
+            out.close();
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot compress history", e);
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+
+        return Base64.encodeBase64String(bytes.toByteArray());
+    }
+
+    /**
+     * {@link #compress(String)} 的逆过程
+     */
+    public static String decompress(String data) {
+
+        InputStream in = null;
+        try {
+            in = new GZIPInputStream(new ByteArrayInputStream(Base64.decodeBase64(data)));
+            return new String(IOUtils.toByteArray(in), CHARSET);
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot decompress history", e);
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+}
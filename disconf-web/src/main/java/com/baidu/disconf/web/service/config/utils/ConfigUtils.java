@@ -2,6 +2,8 @@ package com.baidu.disconf.web.service.config.utils;
 
 import com.baidu.disconf.core.common.constants.Constants;
 import com.baidu.disconf.core.common.json.ValueVo;
+import com.baidu.disconf.web.service.config.bo.Config;
+import com.baidu.disconf.web.utils.CodeUtils;
 
 public class ConfigUtils {
 
@@ -19,4 +21,54 @@ public class ConfigUtils {
 
         return confItemVo;
     }
+
+    /**
+     * 配置的原始值. 直接保存的不需要转换, 旧数据还原 \\uXXXX
+     */
+    public static String getValue(Config config) {
+
+        if (com.baidu.disconf.web.common.Constants.VALUE_ENCODING_UTF8.equals(config.getValueEncoding())) {
+            return config.getValue();
+        }
+        return CodeUtils.unescapeUnicode(config.getValue());
+    }
+
+    /**
+     * 把 config 中的值转为原始值, 用于直接返回 config 的接口
+     */
+    public static void decodeValue(Config config) {
+
+        if (config.getValue() == null) {
+            return;
+        }
+
+        config.setValue(getValue(config));
+        config.setValueEncoding(com.baidu.disconf.web.common.Constants.VALUE_ENCODING_UTF8);
+    }
+
+    /**
+     * 保存时使用的编码. 一般直接保存, 含有 BMP 以外的字符(例如 emoji, MySQL 的 utf8 无法保存)时仍转为 \\uXXXX
+     */
+    public static Integer getValueEncoding(String value) {
+
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                if (Character.isSurrogate(value.charAt(i))) {
+                    return com.baidu.disconf.web.common.Constants.VALUE_ENCODING_UNICODE;
+                }
+            }
+        }
+        return com.baidu.disconf.web.common.Constants.VALUE_ENCODING_UTF8;
+    }
+
+    /**
+     * 按编码转为保存到数据库的值
+     */
+    public static String encodeValue(String value, Integer valueEncoding) {
+
+        if (com.baidu.disconf.web.common.Constants.VALUE_ENCODING_UTF8.equals(valueEncoding)) {
+            return value;
+        }
+        return CodeUtils.utf8ToUnicode(value);
+    }
 }
@@ -0,0 +1,96 @@
+package com.baidu.disconf.web.service.metrics.service;
+
+import java.util.Collection;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+
+import com.baidu.disconf.core.common.metrics.MetricsRegistry;
+import com.baidu.disconf.core.common.metrics.Timer;
+import com.baidu.ub.common.db.DaoPageResult;
+
+/**
+ * 记录 DAO 每个方法的数据库耗时和行数
+ * <p/>
+ * 指标名为 dao.{Dao实现类}.{方法}, 行数为 dao.{Dao实现类}.{方法}.rows. <br/>
+ * 只统计从外部调用 DAO 的方法, DAO 内部的相互调用不经过代理, 不会重复统计
+ */
+@Aspect
+public class DaoMetricsAspect {
+
+    public static final String DAO_PREFIX = "dao.";
+    public static final String ROWS_SUFFIX = ".rows";
+    public static final String FAILURE_SUFFIX = ".failure";
+
+    private final MetricsRegistry registry = MetricsRegistry.getInstance();
+
+    /**
+     * AbstractDao 子类的公有方法, 不包括注入和拼装查询条件的方法
+     */
+    @Pointcut(value = "execution(public * *(..)) && target(com.baidu.dsp.common.dao.AbstractDao) && " +
+            "!execution(* set*(..)) && !execution(* getTableName(..)) && !execution(* recordLog(..)) && " +
+            "!execution(* order(..)) && !execution(* match(..)) && !execution(* modify(..))")
+    public void daoMethod() {
+    }
+
+    @Around("daoMethod()")
+    public Object record(ProceedingJoinPoint pjp) throws Throwable {
+
+        String name = DAO_PREFIX + pjp.getTarget().getClass().getSimpleName() + "." + pjp.getSignature().getName();
+
+        long start = Timer.start();
+        try {
+
+            Object result = pjp.proceed();
+
+            long rows = getRows(pjp.getSignature().getName(), result);
+            if (rows > 0) {
+                registry.counter(name + ROWS_SUFFIX).add(rows);
+            }
+
+            return result;
+
+        } catch (Throwable e) {
+            registry.counter(name + FAILURE_SUFFIX).inc();
+            throw e;
+        } finally {
+            registry.timer(name).stop(start);
+        }
+    }
+
+    /**
+     * 查询返回的行数, 或者更新影响的行数
+     */
+    private long getRows(String methodName, Object result) {
+
+        if (result == null) {
+            return 0;
+        }
+
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+
+        if (result instanceof DaoPageResult) {
+            Collection<?> list = ((DaoPageResult<?>) result).getResult();
+            return list == null ? 0 : list.size();
+        }
+
+        if (result instanceof Boolean) {
+            return (Boolean) result ? 1 : 0;
+        }
+
+        if (result instanceof Number) {
+            // 更新返回影响的行数, 其它(count, 取id)只读一行
+            if (methodName.startsWith("update") || methodName.startsWith("delete") || methodName.startsWith(
+                    "insert")) {
+                return ((Number) result).longValue();
+            }
+            return 1;
+        }
+
+        return 1;
+    }
+}
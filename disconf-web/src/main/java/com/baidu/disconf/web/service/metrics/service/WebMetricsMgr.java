@@ -0,0 +1,128 @@
+package com.baidu.disconf.web.service.metrics.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.baidu.disconf.core.common.log.AccessLog;
+import com.baidu.disconf.core.common.metrics.Gauge;
+import com.baidu.disconf.core.common.metrics.MetricsRegistry;
+import com.baidu.disconf.core.common.metrics.Timer;
+
+/**
+ * disconf-web 的指标: 注册缓存命中率, 导出到 JMX, 并提供给 /api/metrics. 访问日志的采样率也通过 JMX 调整
+ */
+@Service
+public class WebMetricsMgr implements InitializingBean, DisposableBean {
+
+    protected static final Logger LOG = LoggerFactory.getLogger(WebMetricsMgr.class);
+
+    public static final String METRICS_OBJECT_NAME = "com.baidu.disconf:type=DisconfWeb";
+    public static final String ACCESS_LOG_OBJECT_NAME = "com.baidu.disconf:type=DisconfWebAccessLog";
+
+    public static final String CACHE_PREFIX = "cache.";
+
+    private final MetricsRegistry registry = MetricsRegistry.getInstance();
+
+    @Autowired(required = false)
+    private CacheManager cacheManager;
+
+    // 已注册的 gauge, 销毁时移除
+    private final List<String> gaugeNames = new ArrayList<String>();
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+
+        if (cacheManager != null) {
+            for (String cacheName : cacheManager.getCacheNames()) {
+                registerCacheGauges(cacheManager.getEhcache(cacheName));
+            }
+        }
+
+        registry.registerMBean(METRICS_OBJECT_NAME);
+        AccessLog.getInstance().registerMBean(ACCESS_LOG_OBJECT_NAME);
+    }
+
+    /**
+     * 缓存的命中数, 未命中数, 命中率(百分比)
+     */
+    private void registerCacheGauges(final Ehcache cache) {
+
+        if (cache == null) {
+            return;
+        }
+
+        String prefix = CACHE_PREFIX + cache.getName();
+
+        registerGauge(prefix + ".hit", new Gauge() {
+            @Override
+            public long getValue() {
+                return cache.getStatistics().cacheHitCount();
+            }
+        });
+
+        registerGauge(prefix + ".miss", new Gauge() {
+            @Override
+            public long getValue() {
+                return cache.getStatistics().cacheMissCount();
+            }
+        });
+
+        registerGauge(prefix + ".hitRatioPercent", new Gauge() {
+            @Override
+            public long getValue() {
+
+                long hit = cache.getStatistics().cacheHitCount();
+                long total = hit + cache.getStatistics().cacheMissCount();
+                return total == 0 ? 0 : hit * 100 / total;
+            }
+        });
+    }
+
+    private void registerGauge(String name, Gauge gauge) {
+        registry.gauge(name, gauge);
+        gaugeNames.add(name);
+    }
+
+    /**
+     * 所有指标的当前值
+     */
+    public Map<String, Object> getMetrics() {
+        return registry.snapshot();
+    }
+
+    /**
+     * 每个计时器的耗时分布, 与 {@link Timer#BUCKET_BOUNDS_MILLIS} 一一对应, 最后一项为超出上限的次数
+     */
+    public Map<String, long[]> getHistograms() {
+
+        Map<String, long[]> histograms = new LinkedHashMap<String, long[]>();
+        for (Map.Entry<String, Timer> entry : registry.getTimers().entrySet()) {
+            histograms.put(entry.getKey(), entry.getValue().getBuckets());
+        }
+        return histograms;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+
+        registry.unregisterMBean();
+        AccessLog.getInstance().unregisterMBean();
+
+        for (String name : gaugeNames) {
+            registry.removeGauge(name);
+        }
+        gaugeNames.clear();
+    }
+}
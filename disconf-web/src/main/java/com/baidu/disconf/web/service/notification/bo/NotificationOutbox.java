@@ -0,0 +1,96 @@
+package com.baidu.disconf.web.service.notification.bo;
+
+import com.baidu.dsp.common.dao.Columns;
+import com.baidu.dsp.common.dao.DB;
+import com.baidu.unbiz.common.genericdao.annotation.Column;
+import com.baidu.unbiz.common.genericdao.annotation.Table;
+import com.github.knightliao.apollo.db.bo.BaseObject;
+
+import lombok.Data;
+
+/**
+ * 待发送的通知, 由后台任务合并发送
+ */
+@Data
+@Table(db = DB.DB_NAME, name = "notification_outbox", keyColumn = "id")
+public class NotificationOutbox extends BaseObject<Long> {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final Integer STATUS_PENDING = 0;
+    public static final Integer STATUS_SENT = 1;
+    public static final Integer STATUS_FAILED = 2;
+    public static final Integer STATUS_SENDING = 3;
+
+    /**
+     * APP
+     */
+    @Column(value = Columns.APP_ID)
+    private Long appId;
+
+    /**
+     * 配置变更通知时为配置ID, 其它通知为空
+     */
+    @Column(value = Columns.CONFIG_ID)
+    private Long configId;
+
+    /**
+     * 邮件标题
+     */
+    @Column(value = Columns.NotificationColumns.TITLE)
+    private String title;
+
+    /**
+     * 配置变更前的值(数据库中的编码)
+     */
+    @Column(value = Columns.NotificationColumns.OLD_VALUE)
+    private String oldValue;
+
+    /**
+     * 配置变更后的值(数据库中的编码)
+     */
+    @Column(value = Columns.NotificationColumns.NEW_VALUE)
+    private String newValue;
+
+    /**
+     * 配置变更通知时为配置描述, 其它通知为邮件内容
+     */
+    @Column(value = Columns.NotificationColumns.CONTENT)
+    private String content;
+
+    /**
+     * 操作人
+     */
+    @Column(value = Columns.NotificationColumns.OPERATOR)
+    private String operator;
+
+    /**
+     * 状态
+     */
+    @Column(value = Columns.STATUS)
+    private Integer status;
+
+    /**
+     * 已失败次数
+     */
+    @Column(value = Columns.NotificationColumns.RETRY_COUNT)
+    private Integer retryCount;
+
+    /**
+     * 下次发送时间
+     */
+    @Column(value = Columns.NotificationColumns.NEXT_RETRY_TIME)
+    private String nextRetryTime;
+
+    /**
+     * 创建时间
+     */
+    @Column(value = Columns.CREATE_TIME)
+    private String createTime;
+
+    /**
+     * 修改时间
+     */
+    @Column(value = Columns.UPDATE_TIME)
+    private String updateTime;
+}
@@ -0,0 +1,41 @@
+package com.baidu.disconf.web.service.notification.dao;
+
+import java.util.List;
+
+import com.baidu.disconf.web.service.notification.bo.NotificationOutbox;
+import com.baidu.unbiz.common.genericdao.dao.BaseDao;
+
+/**
+ * 待发送通知的数据访问
+ */
+public interface NotificationOutboxDao extends BaseDao<Long, NotificationOutbox> {
+
+    /**
+     * 到了发送时间的待发送通知, 按创建顺序
+     */
+    List<NotificationOutbox> getDueList(String curTime, int limit);
+
+    /**
+     * 抢占一条待发送通知, 多台机器同时发送时只有一台能抢到
+     *
+     * @return 是否抢到
+     */
+    boolean claim(Long id);
+
+    /**
+     * 标记状态
+     */
+    void updateStatus(List<Long> ids, Integer status);
+
+    /**
+     * 发送失败, 稍后重试
+     */
+    void updateRetry(Long id, int retryCount, String nextRetryTime);
+
+    /**
+     * 发送中的机器退出后, 通知会一直处于发送中, 把修改时间早于 before 的重置为待发送
+     *
+     * @return 重置的条数
+     */
+    int resetSending(String before);
+}
@@ -0,0 +1,88 @@
+package com.baidu.disconf.web.service.notification.dao.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.baidu.disconf.web.service.notification.bo.NotificationOutbox;
+import com.baidu.disconf.web.service.notification.dao.NotificationOutboxDao;
+import com.baidu.dsp.common.constant.DataFormatConstants;
+import com.baidu.dsp.common.dao.AbstractDao;
+import com.baidu.dsp.common.dao.Columns;
+import com.baidu.unbiz.common.genericdao.operator.Match;
+import com.baidu.unbiz.common.genericdao.operator.Modify;
+import com.baidu.unbiz.common.genericdao.param.LteParam;
+import com.github.knightliao.apollo.utils.time.DateUtils;
+
+/**
+ * 待发送通知的数据访问
+ */
+@Service
+public class NotificationOutboxDaoImpl extends AbstractDao<Long, NotificationOutbox> implements NotificationOutboxDao {
+
+    private static final String ID = "id";
+
+    @Override
+    public List<NotificationOutbox> getDueList(String curTime, int limit) {
+
+        List<Match> matchs = new ArrayList<Match>();
+        matchs.add(new Match(Columns.STATUS, NotificationOutbox.STATUS_PENDING));
+        matchs.add(new Match(Columns.NotificationColumns.NEXT_RETRY_TIME, new LteParam(curTime)));
+
+        return find(matchs, Arrays.asList(order(ID, true)), 0, limit);
+    }
+
+    @Override
+    public boolean claim(Long id) {
+
+        List<Modify> modifyList = new ArrayList<Modify>();
+        modifyList.add(modify(Columns.STATUS, NotificationOutbox.STATUS_SENDING));
+        modifyList.add(modify(Columns.UPDATE_TIME, getCurTime()));
+
+        return update(modifyList, match(ID, id), match(Columns.STATUS, NotificationOutbox.STATUS_PENDING)) == 1;
+    }
+
+    @Override
+    public void updateStatus(List<Long> ids, Integer status) {
+
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        List<Modify> modifyList = new ArrayList<Modify>();
+        modifyList.add(modify(Columns.STATUS, status));
+        modifyList.add(modify(Columns.UPDATE_TIME, getCurTime()));
+
+        update(modifyList, match(ID, ids));
+    }
+
+    @Override
+    public void updateRetry(Long id, int retryCount, String nextRetryTime) {
+
+        List<Modify> modifyList = new ArrayList<Modify>();
+        modifyList.add(modify(Columns.STATUS, NotificationOutbox.STATUS_PENDING));
+        modifyList.add(modify(Columns.NotificationColumns.RETRY_COUNT, retryCount));
+        modifyList.add(modify(Columns.NotificationColumns.NEXT_RETRY_TIME, nextRetryTime));
+        modifyList.add(modify(Columns.UPDATE_TIME, getCurTime()));
+
+        update(modifyList, match(ID, id));
+    }
+
+    @Override
+    public int resetSending(String before) {
+
+        List<Modify> modifyList = new ArrayList<Modify>();
+        modifyList.add(modify(Columns.STATUS, NotificationOutbox.STATUS_PENDING));
+        modifyList.add(modify(Columns.UPDATE_TIME, getCurTime()));
+
+        return update(modifyList, match(Columns.STATUS, NotificationOutbox.STATUS_SENDING),
+                match(Columns.UPDATE_TIME, lessThan(before)));
+    }
+
+    private String getCurTime() {
+        return DateUtils.format(new Date(), DataFormatConstants.COMMON_TIME_FORMAT);
+    }
+}
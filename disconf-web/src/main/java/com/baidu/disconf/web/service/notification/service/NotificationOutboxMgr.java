@@ -0,0 +1,29 @@
+package com.baidu.disconf.web.service.notification.service;
+
+import com.baidu.disconf.web.service.config.bo.Config;
+
+/**
+ * 通知先写入数据库, 由后台任务按APP合并后发送, 发送失败时稍后重试
+ */
+public interface NotificationOutboxMgr {
+
+    /**
+     * 配置变更通知, 发送时再生成对比内容
+     *
+     * @param oldValue 变更前的值(数据库中的编码)
+     * @param newValue 变更后的值(数据库中的编码)
+     */
+    void addConfigChange(Config config, String title, String oldValue, String newValue);
+
+    /**
+     * 普通通知
+     */
+    void addMessage(Long appId, String title, String content);
+
+    /**
+     * 发送到期的通知
+     *
+     * @return 发送成功的条数
+     */
+    int dispatch();
+}
@@ -0,0 +1,275 @@
+package com.baidu.disconf.web.service.notification.service.impl;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.baidu.disconf.core.common.metrics.Counter;
+import com.baidu.disconf.core.common.metrics.MetricsRegistry;
+import com.baidu.disconf.core.common.metrics.Timer;
+import com.baidu.disconf.web.config.ApplicationPropertyConfig;
+import com.baidu.disconf.web.service.app.service.AppMgr;
+import com.baidu.disconf.web.service.config.bo.Config;
+import com.baidu.disconf.web.service.notification.bo.NotificationOutbox;
+import com.baidu.disconf.web.service.notification.dao.NotificationOutboxDao;
+import com.baidu.disconf.web.service.notification.service.NotificationOutboxMgr;
+import com.baidu.disconf.web.service.user.dto.Visitor;
+import com.baidu.disconf.web.utils.CodeUtils;
+import com.baidu.disconf.web.utils.DiffUtils;
+import com.baidu.dsp.common.constant.DataFormatConstants;
+import com.baidu.dsp.common.utils.email.LogMailBean;
+import com.baidu.ub.common.commons.ThreadContext;
+import com.github.knightliao.apollo.utils.time.DateUtils;
+
+/**
+ * 同一个APP的多条通知合并为一封邮件. 发送失败时按 1, 2, 4 ... 分钟(最长1小时)重试, 超过次数后放弃
+ */
+@Service
+public class NotificationOutboxMgrImpl implements NotificationOutboxMgr {
+
+    protected static final Logger LOG = LoggerFactory.getLogger(NotificationOutboxMgrImpl.class);
+
+    public static final String NOTIFY_DISPATCH = "notify.dispatch";
+    public static final String NOTIFY_SENT = "notify.sent";
+    public static final String NOTIFY_RETRY = "notify.retry";
+    public static final String NOTIFY_FAILED = "notify.failed";
+
+    private static final Timer DISPATCH_TIMER = MetricsRegistry.getInstance().timer(NOTIFY_DISPATCH);
+    private static final Counter SENT_COUNTER = MetricsRegistry.getInstance().counter(NOTIFY_SENT);
+    private static final Counter RETRY_COUNTER = MetricsRegistry.getInstance().counter(NOTIFY_RETRY);
+    private static final Counter FAILED_COUNTER = MetricsRegistry.getInstance().counter(NOTIFY_FAILED);
+
+    private static final long RETRY_BASE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long RETRY_MAX_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    // 发送中超过这个时间的, 认为发送的机器已经退出
+    private static final long SENDING_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final String SEPARATOR = "<br/><br/><hr/><br/>";
+
+    @Autowired
+    private NotificationOutboxDao notificationOutboxDao;
+
+    @Autowired
+    private AppMgr appMgr;
+
+    @Autowired
+    private LogMailBean logMailBean;
+
+    @Autowired
+    private ApplicationPropertyConfig applicationPropertyConfig;
+
+    @Override
+    public void addConfigChange(Config config, String title, String oldValue, String newValue) {
+
+        NotificationOutbox notificationOutbox = newOutbox(config.getAppId(), title, config.toString());
+        notificationOutbox.setConfigId(config.getId());
+        notificationOutbox.setOldValue(oldValue);
+        notificationOutbox.setNewValue(newValue);
+
+        notificationOutboxDao.create(notificationOutbox);
+    }
+
+    @Override
+    public void addMessage(Long appId, String title, String content) {
+
+        notificationOutboxDao.create(newOutbox(appId, title, content));
+    }
+
+    private NotificationOutbox newOutbox(Long appId, String title, String content) {
+
+        NotificationOutbox notificationOutbox = new NotificationOutbox();
+
+        notificationOutbox.setAppId(appId);
+        notificationOutbox.setTitle(title);
+        notificationOutbox.setContent(content);
+        notificationOutbox.setStatus(NotificationOutbox.STATUS_PENDING);
+        notificationOutbox.setRetryCount(0);
+
+        String operator = "";
+        Visitor visitor = ThreadContext.getSessionVisitor();
+        if (visitor != null && visitor.getLoginUserName() != null) {
+            operator = visitor.getLoginUserName();
+        }
+        notificationOutbox.setOperator(operator);
+
+        String curTime = getTime(System.currentTimeMillis());
+        notificationOutbox.setNextRetryTime(curTime);
+        notificationOutbox.setCreateTime(curTime);
+        notificationOutbox.setUpdateTime(curTime);
+
+        return notificationOutbox;
+    }
+
+    @Override
+    public int dispatch() {
+
+        long start = Timer.start();
+        long now = System.currentTimeMillis();
+
+        int reset = notificationOutboxDao.resetSending(getTime(now - SENDING_TIMEOUT_MILLIS));
+        if (reset > 0) {
+            LOG.warn("reset " + reset + " notifications left sending");
+        }
+
+        List<NotificationOutbox> dueList =
+                notificationOutboxDao.getDueList(getTime(now), applicationPropertyConfig.getNotifyBatchSize());
+        if (dueList.isEmpty()) {
+            return 0;
+        }
+
+        // 按APP合并, 多台机器同时发送时, 只发送自己抢到的
+        Map<Long, List<NotificationOutbox>> appMap = new LinkedHashMap<Long, List<NotificationOutbox>>();
+        for (NotificationOutbox notificationOutbox : dueList) {
+
+            if (!notificationOutboxDao.claim(notificationOutbox.getId())) {
+                continue;
+            }
+
+            List<NotificationOutbox> list = appMap.get(notificationOutbox.getAppId());
+            if (list == null) {
+                list = new ArrayList<NotificationOutbox>();
+                appMap.put(notificationOutbox.getAppId(), list);
+            }
+            list.add(notificationOutbox);
+        }
+
+        int sent = 0;
+        for (Map.Entry<Long, List<NotificationOutbox>> entry : appMap.entrySet()) {
+            try {
+                sent += sendDigest(entry.getKey(), entry.getValue());
+            } catch (RuntimeException e) {
+                LOG.error("cannot send notification of app " + entry.getKey(), e);
+                retry(entry.getValue());
+            }
+        }
+
+        DISPATCH_TIMER.stop(start);
+        return sent;
+    }
+
+    /**
+     * 一个APP的通知合并成一封邮件
+     */
+    private int sendDigest(Long appId, List<NotificationOutbox> list) {
+
+        List<Long> ids = new ArrayList<Long>(list.size());
+        Set<String> titles = new LinkedHashSet<String>();
+        Set<String> operators = new LinkedHashSet<String>();
+        StringBuilder content = new StringBuilder();
+
+        for (NotificationOutbox notificationOutbox : list) {
+
+            ids.add(notificationOutbox.getId());
+            titles.add(notificationOutbox.getTitle());
+            if (!StringUtils.isEmpty(notificationOutbox.getOperator())) {
+                operators.add(notificationOutbox.getOperator());
+            }
+
+            if (content.length() > 0) {
+                content.append(SEPARATOR);
+            }
+            content.append(render(notificationOutbox));
+        }
+
+        String toEmails = appMgr.getEmails(appId);
+        if (StringUtils.isBlank(toEmails)) {
+
+            // 没有收件人, 重试也不会成功
+            LOG.warn("app " + appId + " has no emails, drop " + ids.size() + " notifications");
+            notificationOutboxDao.updateStatus(ids, NotificationOutbox.STATUS_FAILED);
+            FAILED_COUNTER.add(ids.size());
+            return 0;
+        }
+
+        String title = StringUtils.join(titles, ",");
+        if (list.size() > 1) {
+            title += " (" + list.size() + ")";
+        }
+
+        if (logMailBean.sendHtmlEmail(toEmails, StringUtils.join(operators, ","), title, content.toString())) {
+
+            notificationOutboxDao.updateStatus(ids, NotificationOutbox.STATUS_SENT);
+            SENT_COUNTER.add(ids.size());
+            return ids.size();
+        }
+
+        retry(list);
+        return 0;
+    }
+
+    /**
+     * 配置变更通知在发送时才生成对比内容
+     */
+    private String render(NotificationOutbox notificationOutbox) {
+
+        if (notificationOutbox.getConfigId() == null) {
+            return notificationOutbox.getContent();
+        }
+
+        return DiffUtils.getDiff(CodeUtils.unescapeUnicode(notificationOutbox.getOldValue()),
+                CodeUtils.unescapeUnicode(notificationOutbox.getNewValue()), notificationOutbox.getContent(),
+                getConfigUrlHtml(notificationOutbox.getConfigId()));
+    }
+
+    /**
+     * 发送失败
+     */
+    private void retry(List<NotificationOutbox> list) {
+
+        List<Long> failedIds = new ArrayList<Long>();
+        long now = System.currentTimeMillis();
+
+        for (NotificationOutbox notificationOutbox : list) {
+
+            int retryCount = notificationOutbox.getRetryCount() + 1;
+            if (retryCount >= applicationPropertyConfig.getNotifyMaxRetries()) {
+                failedIds.add(notificationOutbox.getId());
+                continue;
+            }
+
+            notificationOutboxDao.updateRetry(notificationOutbox.getId(), retryCount,
+                    getTime(now + getRetryDelayMillis(retryCount)));
+            RETRY_COUNTER.inc();
+        }
+
+        if (!failedIds.isEmpty()) {
+            LOG.error("give up notifications " + failedIds);
+            notificationOutboxDao.updateStatus(failedIds, NotificationOutbox.STATUS_FAILED);
+            FAILED_COUNTER.add(failedIds.size());
+        }
+    }
+
+    /**
+     * 第 retryCount 次失败后的等待时间
+     */
+    private static long getRetryDelayMillis(int retryCount) {
+
+        long delay = RETRY_BASE_MILLIS;
+        for (int i = 1; i < retryCount && delay < RETRY_MAX_MILLIS; i++) {
+            delay *= 2;
+        }
+        return Math.min(delay, RETRY_MAX_MILLIS);
+    }
+
+    private String getConfigUrlHtml(Long configId) {
+
+        return "<br/>点击<a href='http://" + applicationPropertyConfig.getDomain() + "/modifyFile.html?configId=" +
+                configId + "'> 这里 </a> 进入查看<br/>";
+    }
+
+    private static String getTime(long millis) {
+        return DateUtils.format(new Date(millis), DataFormatConstants.COMMON_TIME_FORMAT);
+    }
+}
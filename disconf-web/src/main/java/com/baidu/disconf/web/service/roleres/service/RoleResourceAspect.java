@@ -72,7 +72,7 @@ public class RoleResourceAspect {
 
         if (noAuthCheckUrl != null && noAuthCheckUrl.contains(urlPattarn)) {
 
-            LOG.info("don't need to check this url: " + urlPattarn);
+            LOG.debug("don't need to check this url: {}", urlPattarn);
         } else {
 
             // 获取method上标注的http method，若未标注method则默认为GET
@@ -82,24 +82,22 @@ public class RoleResourceAspect {
                 methodType = methods[0];
             }
 
-            String urlInfo = urlPattarn + ", method:" + methodType.toString();
-
             // 获取用户角色
             Visitor visitor = ThreadContext.getSessionVisitor();
             if (visitor == null) {
                 LOG.warn("No session visitor!");
-                throw new AccessDeniedException("No session visitor! " + urlInfo);
+                throw new AccessDeniedException("No session visitor! " + urlPattarn + ", method:" + methodType);
             }
             Integer roleId = visitor.getRoleId();
-            String visitorInfo = ", UserId:" + visitor.getId() + ", RoleId:" + roleId;
 
-            Boolean isPriviledged = true;
             // 判断用户是否有权限访问方法
             if (!this.isMethodAccessible(urlPattarn, methodType, roleId)) {
-                isPriviledged = false;
-                throw new AccessDeniedException("Access Denied: " + urlInfo + visitorInfo);
+                throw new AccessDeniedException(
+                        "Access Denied: " + urlPattarn + ", method:" + methodType + ", UserId:" + visitor.getId() +
+                                ", RoleId:" + roleId);
             }
-            LOG.info("Accessing URL:" + urlInfo + visitorInfo + ", Is priviledged:" + isPriviledged.toString());
+            LOG.debug("Accessing URL:{}, method:{}, UserId:{}, RoleId:{}",
+                    new Object[] {urlPattarn, methodType, visitor.getId(), roleId});
         }
 
         Object rtnOb = null;
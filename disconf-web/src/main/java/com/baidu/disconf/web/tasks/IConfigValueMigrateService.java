@@ -0,0 +1,6 @@
+package com.baidu.disconf.web.tasks;
+
+public interface IConfigValueMigrateService {
+
+    void migrate();
+}
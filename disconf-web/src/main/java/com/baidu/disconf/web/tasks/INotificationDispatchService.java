@@ -0,0 +1,9 @@
+package com.baidu.disconf.web.tasks;
+
+/**
+ * 后台发送通知
+ */
+public interface INotificationDispatchService {
+
+    void dispatch();
+}
@@ -18,11 +18,11 @@ import com.baidu.disconf.web.service.config.service.ConfigMgr;
 import com.baidu.disconf.web.service.config.vo.ConfListVo;
 import com.baidu.disconf.web.service.env.bo.Env;
 import com.baidu.disconf.web.service.env.service.EnvMgr;
+import com.baidu.disconf.web.service.notification.service.NotificationOutboxMgr;
 import com.baidu.disconf.web.service.zookeeper.dto.ZkDisconfData.ZkDisconfDataItem;
 import com.baidu.disconf.web.service.zookeeper.service.ZkDeployMgr;
 import com.baidu.disconf.web.tasks.IConfigConsistencyMonitorService;
 import com.baidu.dsp.common.interceptor.session.SessionInterceptor;
-import com.baidu.dsp.common.utils.email.LogMailBean;
 import com.baidu.ub.common.db.DaoPageResult;
 import com.github.knightliao.apollo.utils.tool.TokenUtil;
 
@@ -53,7 +53,7 @@ public class ConfigConsistencyMonitorServiceImpl implements IConfigConsistencyMo
     private ConfigMgr configMgr;
 
     @Autowired
-    private LogMailBean logMailBean;
+    private NotificationOutboxMgr notificationOutboxMgr;
 
     // 每3分钟执行一次自动化校验
     //@Scheduled(fixedDelay = 3 * 60 * 1000)
@@ -145,9 +145,6 @@ public class ConfigConsistencyMonitorServiceImpl implements IConfigConsistencyMo
         //
         DaoPageResult<ConfListVo> daoPageResult = configMgr.getConfigList(confiConfListForm, true, true);
 
-        // 准备发送邮件通知
-        String toEmails = appMgr.getEmails(app.getId());
-
         List<ConfListVo> confListVos = daoPageResult.getResult();
 
         List<String> errorList = new ArrayList<String>();
@@ -174,7 +171,8 @@ public class ConfigConsistencyMonitorServiceImpl implements IConfigConsistencyMo
 
         if (errorList.size() != 0) {
 
-            logMailBean.sendHtmlEmail(toEmails, " monitor ConfigConsistency ",
+            // 由后台任务发送邮件通知
+            notificationOutboxMgr.addMessage(app.getId(), " monitor ConfigConsistency ",
                     monitorInfo + "<br/><br/><br/>" + errorList.toString());
         }
     }
@@ -0,0 +1,100 @@
+package com.baidu.disconf.web.tasks.impl;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.baidu.disconf.core.common.metrics.Counter;
+import com.baidu.disconf.core.common.metrics.MetricsRegistry;
+import com.baidu.disconf.web.common.Constants;
+import com.baidu.disconf.web.config.ApplicationPropertyConfig;
+import com.baidu.disconf.web.service.config.bo.Config;
+import com.baidu.disconf.web.service.config.dao.ConfigDao;
+import com.baidu.disconf.web.service.config.utils.ConfigUtils;
+import com.baidu.disconf.web.tasks.IConfigValueMigrateService;
+import com.baidu.dsp.common.interceptor.session.SessionInterceptor;
+import com.github.knightliao.apollo.utils.tool.TokenUtil;
+
+/**
+ * 把 \\uXXXX 编码保存的旧配置分批转为直接保存, 转换后读取时不再需要还原.
+ * <p/>
+ * 含有 BMP 以外字符的配置保持原样. 全部转换完后不再执行, 直到重启
+ */
+@Component
+public class ConfigValueMigrateServiceImpl implements IConfigValueMigrateService {
+
+    protected static final Logger LOG = LoggerFactory.getLogger(ConfigValueMigrateServiceImpl.class);
+
+    public static final String CONFIG_VALUE_MIGRATED = "config.value.migrated";
+
+    private static final Counter MIGRATED_COUNTER = MetricsRegistry.getInstance().counter(CONFIG_VALUE_MIGRATED);
+
+    @Autowired
+    private ApplicationPropertyConfig applicationPropertyConfig;
+
+    @Autowired
+    private ConfigDao configDao;
+
+    private volatile boolean finished = false;
+
+    /**
+     * 启动1分钟后开始, 每次处理完所有旧数据
+     */
+    @Scheduled(initialDelay = 60 * 1000, fixedDelay = 10 * 60 * 1000)
+    @Override
+    public void migrate() {
+
+        if (finished || !applicationPropertyConfig.isValueMigrateOn()) {
+            return;
+        }
+
+        MDC.put(SessionInterceptor.SESSION_KEY, TokenUtil.generateToken());
+
+        int batchSize = Math.max(1, applicationPropertyConfig.getValueMigrateBatchSize());
+        int migrated = 0;
+        int skipped = 0;
+        Long lastId = 0L;
+
+        try {
+
+            while (true) {
+
+                List<Config> configs = configDao.getUnicodeEncodedList(lastId, batchSize);
+                if (configs.isEmpty()) {
+                    break;
+                }
+
+                for (Config config : configs) {
+
+                    lastId = config.getId();
+
+                    String value = ConfigUtils.getValue(config);
+                    if (!Constants.VALUE_ENCODING_UTF8.equals(ConfigUtils.getValueEncoding(value))) {
+                        skipped++;
+                        continue;
+                    }
+
+                    // 转换过程中被修改的不处理, 修改时已经按新的方式保存
+                    if (configDao.updateValueEncoding(config.getId(), config.getValue(), value)) {
+                        migrated++;
+                        MIGRATED_COUNTER.inc();
+                    }
+                }
+            }
+
+            finished = true;
+
+        } catch (Exception e) {
+            LOG.error("migrate config value failed at " + lastId, e);
+        }
+
+        if (migrated > 0 || skipped > 0) {
+            LOG.info("migrate config value: " + migrated + " migrated, " + skipped + " kept");
+        }
+    }
+}
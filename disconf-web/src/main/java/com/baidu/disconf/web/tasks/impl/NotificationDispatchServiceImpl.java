@@ -0,0 +1,46 @@
+package com.baidu.disconf.web.tasks.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.baidu.disconf.web.service.notification.service.NotificationOutboxMgr;
+import com.baidu.disconf.web.tasks.INotificationDispatchService;
+import com.baidu.dsp.common.interceptor.session.SessionInterceptor;
+import com.github.knightliao.apollo.utils.tool.TokenUtil;
+
+/**
+ * 后台发送邮件通知, 修改配置的请求不再等待邮件服务器
+ */
+@Component
+public class NotificationDispatchServiceImpl implements INotificationDispatchService {
+
+    protected static final Logger LOG = LoggerFactory.getLogger(NotificationDispatchServiceImpl.class);
+
+    @Autowired
+    private NotificationOutboxMgr notificationOutboxMgr;
+
+    /**
+     * 每10秒发送一次, 这段时间内同一个APP的通知合并为一封邮件
+     */
+    @Scheduled(fixedDelay = 10 * 1000)
+    @Override
+    public void dispatch() {
+
+        MDC.put(SessionInterceptor.SESSION_KEY, TokenUtil.generateToken());
+
+        try {
+
+            int sent = notificationOutboxMgr.dispatch();
+            if (sent > 0) {
+                LOG.info("sent " + sent + " notifications");
+            }
+
+        } catch (Exception e) {
+            LOG.error("dispatch notifications failed", e);
+        }
+    }
+}
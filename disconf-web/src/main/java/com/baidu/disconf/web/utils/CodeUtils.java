@@ -26,10 +26,8 @@ public class CodeUtils {
                 int j = (int) myBuffer[i] - 65248;
                 sb.append((char) j);
             } else {
-                int chr1 = (char) myBuffer[i];
-                String hexS = Integer.toHexString(chr1);
-                String unicode = "\\u" + hexS;
-                sb.append(unicode.toLowerCase());
+                // 固定4位, 否则小于 0x1000 的字符无法还原
+                sb.append(String.format("\\u%04x", (int) myBuffer[i]));
             }
         }
         return sb.toString();
@@ -110,4 +108,50 @@ public class CodeUtils {
         }
         return outBuffer.toString();
     }
+
+    /**
+     * 只还原 \\uXXXX (4位十六进制), 其它反斜杠保持原样.
+     * 用于还原 {@link #utf8ToUnicode(String)} 保存的数据, 不会改动用户自己写的 \\n 等内容
+     */
+    public static String unescapeUnicode(String theString) {
+
+        if (theString == null || theString.indexOf('\\') < 0) {
+            return theString;
+        }
+
+        int len = theString.length();
+        StringBuilder outBuffer = new StringBuilder(len);
+        for (int x = 0; x < len; x++) {
+
+            char aChar = theString.charAt(x);
+            if (aChar == '\\' && x + 1 < len && theString.charAt(x + 1) == 'u') {
+
+                int value = parseHex4(theString, x + 2);
+                if (value >= 0) {
+                    outBuffer.append((char) value);
+                    x += 5;
+                    continue;
+                }
+            }
+            outBuffer.append(aChar);
+        }
+        return outBuffer.toString();
+    }
+
+    private static int parseHex4(String s, int begin) {
+
+        if (begin + 4 > s.length()) {
+            return -1;
+        }
+
+        int value = 0;
+        for (int i = begin; i < begin + 4; i++) {
+            int digit = Character.digit(s.charAt(i), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            value = (value << 4) + digit;
+        }
+        return value;
+    }
 }
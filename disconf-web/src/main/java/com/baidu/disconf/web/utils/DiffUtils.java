@@ -1,14 +1,16 @@
 package com.baidu.disconf.web.utils;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
 
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.baidu.disconf.web.common.comparator.StringComparator;
-
-import difflib.Chunk;
+import com.baidu.disconf.web.common.comparator.DiffFormatter;
+import com.baidu.disconf.web.common.comparator.LineDiff;
 
 /**
  *
@@ -17,6 +19,16 @@ public class DiffUtils {
 
     protected static final Logger LOG = LoggerFactory.getLogger(DiffUtils.class);
 
+    /**
+     * 每处修改前后显示的行数
+     */
+    public static final int CONTEXT_LINES = 3;
+
+    /**
+     * 邮件中对比内容的最大字符数
+     */
+    public static final long MAX_DIFF_CHARS = 512 * 1024;
+
     /**
      * 简单的对比工作
      *
@@ -27,13 +39,17 @@ public class DiffUtils {
      */
     public static String getDiffSimple(String old, String newData) {
 
-        StringComparator stringComparator = new StringComparator(old, newData);
+        StringWriter out = new StringWriter();
         try {
-            return stringComparator.getChangesFromOriginal().toString();
+            DiffFormatter diffFormatter = new DiffFormatter(out, false);
+            diffFormatter.setContext(0);
+            diffFormatter.setMaxChars(MAX_DIFF_CHARS);
+            diffFormatter.format(new LineDiff(old, newData));
         } catch (IOException e) {
             LOG.warn(e.toString());
             return "";
         }
+        return out.toString();
     }
 
     /**
@@ -47,55 +63,46 @@ public class DiffUtils {
      */
     public static String getDiff(String old, String newData, String identify, String htmlClick) {
 
-        StringComparator stringComparator = new StringComparator(old, newData);
-        String contentString = StringEscapeUtils.escapeHtml4(identify) + "<br/><br/>" + htmlClick + "<br/> ";
+        LineDiff lineDiff = new LineDiff(old, newData);
+        if (lineDiff.getEdits().isEmpty()) {
+            return "<span style='color:#FF0000'>OK, NO MODIFICATOIN!</span>";
+        }
 
+        StringWriter out = new StringWriter();
         try {
 
-            if (stringComparator.getChangesFromOriginal().size() == 0 &&
-                    stringComparator.getDeletesFromOriginal().size() == 0 &&
-                    stringComparator.getInsertsFromOriginal().size() == 0) {
-
-                return "<span style='color:#FF0000'>OK, NO MODIFICATOIN!</span>";
+            out.write(StringEscapeUtils.escapeHtml4(identify) + "<br/><br/>" + htmlClick + "<br/> ");
+            out.write("<br/><span style='color:#FF0000'>Diff info: </span><br/>");
+            format(lineDiff, out, true);
 
-            } else {
-
-                String oldValue = "<br/><br/><br/><span style='color:#FF0000'>Old value:</span><br/>" +
-                        StringEscapeUtils.escapeHtml4(old).replaceAll("\n", "<br/>");
+        } catch (IOException e) {
+            LOG.error("compare error", e);
 
-                String newValue = "<br/><br/><br/><span style='color:#FF0000'>New value:</span><br/>" +
-                        StringEscapeUtils.escapeHtml4(newData).replaceAll("\n", "<br/>");
+            return "comparator error" + e.toString();
+        }
 
-                String diff = "";
-                if (stringComparator.getChangesFromOriginal().size() != 0) {
-                    diff = "<span style='color:#FF0000'>Change info: </span><br/>";
-                    for (Chunk chunk : stringComparator.getChangesFromOriginal()) {
-                        diff += StringEscapeUtils.escapeHtml4(chunk.toString()) + "<br/>";
-                    }
-                }
+        return out.toString();
+    }
 
-                if (stringComparator.getInsertsFromOriginal().size() != 0) {
-                    diff += "<br/><span style='color:#FF0000'>Insert info: </span><br/>";
-                    for (Chunk chunk : stringComparator.getInsertsFromOriginal()) {
-                        diff += StringEscapeUtils.escapeHtml4(chunk.toString()) + "<br/>";
-                    }
-                }
+    /**
+     * 对比并直接写出, 不生成完整的字符串, 用于大文件
+     *
+     * @param html 是否输出HTML
+     */
+    public static void writeDiff(Reader old, Reader newData, Writer out, boolean html) throws IOException {
 
-                if (stringComparator.getDeletesFromOriginal().size() != 0) {
-                    diff += "<br/><span style='color:#FF0000'>Delete info: </span><br/>";
-                    for (Chunk chunk : stringComparator.getDeletesFromOriginal()) {
-                        diff += StringEscapeUtils.escapeHtml4(chunk.toString()) + "<br/>";
-                    }
-                }
+        format(new LineDiff(old, newData), out, html);
+    }
 
-                return contentString + diff + oldValue + newValue;
-            }
+    private static void format(LineDiff lineDiff, Writer out, boolean html) throws IOException {
 
-        } catch (IOException e) {
-            LOG.error("compare error", e);
+        DiffFormatter diffFormatter = new DiffFormatter(out, html);
+        diffFormatter.setContext(CONTEXT_LINES);
+        diffFormatter.setMaxChars(MAX_DIFF_CHARS);
+        diffFormatter.format(lineDiff);
 
-            return "comparator error" + e.toString();
+        if (diffFormatter.isTruncated()) {
+            LOG.info("diff truncated at " + MAX_DIFF_CHARS + " chars");
         }
     }
-
 }
@@ -21,4 +21,13 @@ public class LoginConstant {
      */
     public static final int XONE_COOKIE_AGE = 60 * 60 * 24 * 365;
 
+    /**
+     * 本地缓存的登录信息: 最多个数, 最长使用时间, 后台刷新间隔
+     */
+    public static final int NEAR_CACHE_SIZE = 10000;
+
+    public static final long NEAR_CACHE_TTL_MILLIS = 60 * 1000;
+
+    public static final long NEAR_CACHE_REFRESH_MILLIS = 10 * 1000;
+
 }
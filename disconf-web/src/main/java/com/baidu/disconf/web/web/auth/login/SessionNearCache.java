@@ -0,0 +1,214 @@
+package com.baidu.disconf.web.web.auth.login;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 登录信息的本地缓存, 放在 Redis 前面.
+ * <p/>
+ * 最多保存 maxSize 个(最近最少使用的先删除), 每个最多使用 ttlMillis.
+ * 超过 refreshMillis 的被访问过的项, 由后台线程每 refreshMillis 批量从 Redis 重新读取, 请求不需要等待 Redis;
+ * Redis 上已经没有的(在其它机器登出或已过期)从本地删除, 因此其它机器上的登出最多 2 * refreshMillis 后生效.
+ * 本机登出直接删除
+ */
+public class SessionNearCache<V> {
+
+    protected static final Logger LOG = LoggerFactory.getLogger(SessionNearCache.class);
+
+    /**
+     * 从 Redis 读取
+     */
+    public interface Loader<V> {
+
+        /**
+         * @return 不存在时返回 null
+         */
+        V load(String key);
+    }
+
+    private final Loader<V> loader;
+
+    private final int maxSize;
+
+    private final long ttlMillis;
+
+    private final long refreshMillis;
+
+    private final Map<String, Entry<V>> entries;
+
+    // 等待后台刷新的 key
+    private final Set<String> refreshKeys = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private ScheduledExecutorService executor;
+
+    public SessionNearCache(Loader<V> loader, final int maxSize, long ttlMillis, long refreshMillis) {
+
+        this.loader = loader;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.refreshMillis = refreshMillis;
+
+        this.entries = new LinkedHashMap<String, Entry<V>>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+                return size() > SessionNearCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * 先读本地, 没有或已过期时读 Redis. 不存在的不缓存, 其它机器上刚登录的可以马上读到
+     */
+    public V get(String key) {
+
+        long now = System.currentTimeMillis();
+
+        Entry<V> entry;
+        synchronized(entries) {
+            entry = entries.get(key);
+        }
+
+        if (entry != null && now - entry.loadTime < ttlMillis) {
+            if (now - entry.loadTime >= refreshMillis) {
+                refreshKeys.add(key);
+            }
+            return entry.value;
+        }
+
+        V value = loader.load(key);
+        if (value != null) {
+            put(key, value);
+        } else {
+            invalidate(key);
+        }
+        return value;
+    }
+
+    public void put(String key, V value) {
+
+        synchronized(entries) {
+            entries.put(key, new Entry<V>(value, System.currentTimeMillis()));
+        }
+    }
+
+    public void invalidate(String key) {
+
+        synchronized(entries) {
+            entries.remove(key);
+        }
+        refreshKeys.remove(key);
+    }
+
+    /**
+     * 重新读取所有等待刷新的项
+     */
+    public void refresh() {
+
+        List<String> keys = new ArrayList<String>(refreshKeys);
+        refreshKeys.removeAll(keys);
+
+        for (String key : keys) {
+
+            Entry<V> old;
+            synchronized(entries) {
+                old = entries.get(key);
+            }
+            if (old == null) {
+                continue;
+            }
+
+            V value;
+            try {
+                value = loader.load(key);
+            } catch (Exception e) {
+                // 下次访问时再刷新, 最多使用到 ttlMillis
+                LOG.warn("refresh session fail: " + e.toString());
+                continue;
+            }
+
+            // 刷新期间在本机登出或重新登录的, 以本机为准
+            synchronized(entries) {
+                if (entries.get(key) != old) {
+                    continue;
+                }
+                if (value == null) {
+                    entries.remove(key);
+                } else {
+                    entries.put(key, new Entry<V>(value, System.currentTimeMillis()));
+                }
+            }
+        }
+    }
+
+    public int size() {
+        synchronized(entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * 启动后台刷新
+     */
+    public synchronized void start() {
+
+        if (executor != null) {
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "session-near-cache-refresh");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        executor.scheduleWithFixedDelay(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    refresh();
+                } catch (Throwable t) {
+                    LOG.warn("refresh session near cache fail", t);
+                }
+            }
+        }, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private static class Entry<V> {
+
+        private final V value;
+        private final long loadTime;
+
+        public Entry(V value, long loadTime) {
+            this.value = value;
+            this.loadTime = loadTime;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.baidu.disconf.web.web.auth.login.impl;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
 
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import com.baidu.disconf.web.service.user.bo.User;
@@ -10,19 +12,32 @@ import com.baidu.disconf.web.service.user.constant.UserConstant;
 import com.baidu.disconf.web.service.user.dto.Visitor;
 import com.baidu.disconf.web.web.auth.constant.LoginConstant;
 import com.baidu.disconf.web.web.auth.login.RedisLogin;
+import com.baidu.disconf.web.web.auth.login.SessionNearCache;
 import com.baidu.ub.common.commons.ThreadContext;
 import com.github.knightliao.apollo.redis.RedisCacheManager;
 import com.github.knightliao.apollo.utils.web.CookieUtils;
 
 /**
+ * 登录信息保存在 Redis 上, 本机缓存一份, 见 {@link SessionNearCache}
+ *
  * @author liaoqiqi
  * @version 2014-2-4
  */
-public class RedisLoginImpl implements RedisLogin {
+public class RedisLoginImpl implements RedisLogin, InitializingBean, DisposableBean {
 
     @Autowired
     private RedisCacheManager redisCacheMgr;
 
+    private final SessionNearCache<Visitor> nearCache =
+        new SessionNearCache<Visitor>(new SessionNearCache.Loader<Visitor>() {
+
+            @Override
+            public Visitor load(String key) {
+                return (Visitor) redisCacheMgr.get(key);
+            }
+        }, LoginConstant.NEAR_CACHE_SIZE, LoginConstant.NEAR_CACHE_TTL_MILLIS,
+            LoginConstant.NEAR_CACHE_REFRESH_MILLIS);
+
     /**
      * 获取Redis上的User Key
      *
@@ -44,7 +59,7 @@ public class RedisLoginImpl implements RedisLogin {
 
         if (xId != null) {
 
-            Visitor visitor = (Visitor) redisCacheMgr.get(this.getRedisKey(xId));
+            Visitor visitor = nearCache.get(this.getRedisKey(xId));
 
             //
             // 登录了
@@ -106,10 +121,12 @@ public class RedisLoginImpl implements RedisLogin {
             if (visitor != null) {
 
                 redisCacheMgr.put(this.getRedisKey(xcookieName), expireTime, visitor);
+                nearCache.put(this.getRedisKey(xcookieName), visitor);
             } else {
 
                 // 删除
                 redisCacheMgr.remove(this.getRedisKey(xcookieName));
+                nearCache.invalidate(this.getRedisKey(xcookieName));
             }
         }
     }
@@ -147,4 +164,14 @@ public class RedisLoginImpl implements RedisLogin {
         updateRedisVisitor(null, request, 0);
     }
 
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        nearCache.start();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        nearCache.stop();
+    }
+
 }
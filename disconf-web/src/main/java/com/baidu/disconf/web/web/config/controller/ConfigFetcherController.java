@@ -1,7 +1,9 @@
 package com.baidu.disconf.web.web.config.controller;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.nio.charset.Charset;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -9,16 +11,27 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import com.baidu.disconf.core.common.compact.CompactCodec;
+import com.baidu.disconf.core.common.constants.Constants;
 import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
 import com.baidu.disconf.core.common.json.ValueVo;
+import com.baidu.disconf.core.common.log.AccessLog;
 import com.baidu.disconf.web.service.config.bo.Config;
 import com.baidu.disconf.web.service.config.form.ConfForm;
 import com.baidu.disconf.web.service.config.service.ConfigFetchMgr;
+import com.baidu.disconf.web.service.config.service.ConfigWatchMgr;
+import com.baidu.disconf.web.service.config.utils.ConfigCompactUtils;
 import com.baidu.disconf.web.service.config.utils.ConfigUtils;
 import com.baidu.disconf.web.web.config.dto.ConfigFullModel;
 import com.baidu.disconf.web.web.config.validator.ConfigValidator;
@@ -41,6 +54,10 @@ public class ConfigFetcherController extends BaseController {
 
     protected static final Logger LOG = LoggerFactory.getLogger(ConfigFetcherController.class);
 
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
+    private static final AccessLog ACCESS_LOG = AccessLog.getInstance();
+
     @Autowired
     private ConfigValidator configValidator;
 
@@ -50,8 +67,13 @@ public class ConfigFetcherController extends BaseController {
     @Autowired
     private ConfigFetchMgr configFetchMgr;
 
+    @Autowired
+    private ConfigWatchMgr configWatchMgr;
+
     /**
      * 获取指定app env version 的配置项列表
+     * <p/>
+     * Accept 中声明了 {@link CompactCodec#MEDIA_TYPE} 时返回二进制格式, 否则返回 JSON
      *
      * @param confForm
      *
@@ -60,30 +82,50 @@ public class ConfigFetcherController extends BaseController {
     @NoAuth
     @RequestMapping(value = "/list", method = RequestMethod.GET)
     @ResponseBody
-    public JsonObjectBase getList(ConfForm confForm) {
-        return getListImp(confForm, true);
+    public ResponseEntity<Object> getList(ConfForm confForm,
+                                          @RequestHeader(value = "Accept", required = false) String accept)
+            throws IOException {
+        return getListImp(confForm, true, accept);
     }
 
     @NoAuth
     @RequestMapping(value = "/simple/list", method = RequestMethod.GET)
     @ResponseBody
-    public JsonObjectBase getSimpleList(ConfForm confForm) {
-        return getListImp(confForm, false);
+    public ResponseEntity<Object> getSimpleList(ConfForm confForm,
+                                                @RequestHeader(value = "Accept", required = false) String accept)
+            throws IOException {
+        return getListImp(confForm, false, accept);
     }
 
     /**
      * 获取配置项 Item
+     * <p/>
+     * Accept 中声明了 {@link CompactCodec#MEDIA_TYPE} 时返回二进制格式, 否则返回 JSON
      *
      * @param confForm
+     * @param stamp    客户端收到的ZK结点上的版本戳, 从库的值与之不同时读主库
      *
      * @return
      */
     @NoAuth
     @RequestMapping(value = "/item", method = RequestMethod.GET)
     @ResponseBody
-    public ValueVo getItem(ConfForm confForm) {
+    public ResponseEntity<Object> getItem(ConfForm confForm,
+                                          @RequestParam(value = Constants.STAMP, required = false) String stamp,
+                                          @RequestHeader(value = "Accept", required = false) String accept)
+            throws IOException {
 
-        LOG.info(confForm.toString());
+        ACCESS_LOG.log("config.item", confForm.getApp(), confForm.getKey(), confForm);
+
+        ValueVo valueVo = getItemImp(confForm, stamp);
+
+        if (CompactCodec.isAccepted(accept)) {
+            return buildCompactResponse(CompactCodec.toBytes(valueVo));
+        }
+        return buildJsonResponse(valueVo);
+    }
+
+    private ValueVo getItemImp(ConfForm confForm, String stamp) {
 
         //
         // 校验
@@ -97,18 +139,64 @@ public class ConfigFetcherController extends BaseController {
         }
 
         return configFetchMgr.getConfItemByParameter(configModel.getApp().getId(), configModel.getEnv().getId(),
-                configModel.getVersion(), configModel.getKey());
+                configModel.getVersion(), configModel.getKey(), stamp);
+    }
+
+    /**
+     * 长轮询: 配置值的 hash 与参数 hash 不同时立即返回, 否则挂起到配置更新或超时
+     * <p/>
+     * 返回的 value 为当前配置值的 hash, 客户端发现变化后再通过 /item 或 /file 获取配置
+     *
+     * @param confForm
+     * @param type     0 配置文件, 1 配置项
+     * @param hash     客户端已有配置值的 hash
+     *
+     * @return
+     */
+    @NoAuth
+    @RequestMapping(value = "/watch", method = RequestMethod.GET)
+    @ResponseBody
+    public DeferredResult<ValueVo> watch(ConfForm confForm, @RequestParam(value = Constants.TYPE) int type,
+                                         @RequestParam(value = "hash", required = false) String hash) {
+
+        ACCESS_LOG.log("config.watch", confForm.getApp(), confForm.getKey(), confForm);
+
+        DisConfigTypeEnum disConfigTypeEnum = DisConfigTypeEnum.getByType(type);
+
+        //
+        // 校验
+        //
+        ConfigFullModel configModel = null;
+        try {
+            if (disConfigTypeEnum == null) {
+                throw new IllegalArgumentException("type " + type + " is not valid");
+            }
+            configModel = configValidator4Fetch.verifyConfForm(confForm, false);
+        } catch (Exception e) {
+            LOG.warn(e.toString());
+            DeferredResult<ValueVo> deferredResult = new DeferredResult<ValueVo>();
+            deferredResult.setResult(ConfigUtils.getErrorVo(e.getMessage()));
+            return deferredResult;
+        }
+
+        return configWatchMgr.watch(configModel.getApp().getId(), configModel.getEnv().getId(),
+                configModel.getVersion(), configModel.getKey(), disConfigTypeEnum, hash);
     }
 
     /**
      * 获取配置文件
      *
+     * @param stamp 客户端收到的ZK结点上的版本戳, 从库的值与之不同时读主库
+     *
      * @return
      */
     @NoAuth
     @RequestMapping(value = "/file", method = RequestMethod.GET)
     @ResponseBody
-    public HttpEntity<byte[]> getFile(ConfForm confForm) {
+    public HttpEntity<byte[]> getFile(ConfForm confForm,
+                                      @RequestParam(value = Constants.STAMP, required = false) String stamp) {
+
+        ACCESS_LOG.log("config.file", confForm.getApp(), confForm.getKey(), confForm);
 
         boolean hasError = false;
 
@@ -129,13 +217,13 @@ public class ConfigFetcherController extends BaseController {
                 Config config = configFetchMgr
                         .getConfByParameter(configModel.getApp().getId(), configModel.getEnv().getId(),
                                 configModel.getVersion(), configModel.getKey(),
-                                DisConfigTypeEnum.FILE);
+                                DisConfigTypeEnum.FILE, stamp);
                 if (config == null) {
                     hasError = true;
                     throw new DocumentNotFoundException(configModel.getKey());
                 }
                 //API获取节点内容也需要同样做格式转换
-                return downloadDspBill(configModel.getKey(), config.getValue());
+                return downloadDspBill(configModel.getKey(), ConfigUtils.getValue(config));
 
             } catch (Exception e) {
                 LOG.error(e.toString());
@@ -159,7 +247,7 @@ public class ConfigFetcherController extends BaseController {
     public HttpEntity<byte[]> downloadDspBill(String fileName, String value) {
 
         HttpHeaders header = new HttpHeaders();
-        byte[] res = value.getBytes();
+        byte[] res = value.getBytes(CHARSET);
 
         String name = null;
 
@@ -174,8 +262,10 @@ public class ConfigFetcherController extends BaseController {
         return new HttpEntity<byte[]>(res, header);
     }
 
-    private JsonObjectBase getListImp(ConfForm confForm, boolean hasValue) {
-        LOG.info(confForm.toString());
+    private ResponseEntity<Object> getListImp(ConfForm confForm, boolean hasValue, String accept)
+            throws IOException {
+
+        ACCESS_LOG.log("config.list", confForm.getApp(), null, confForm);
 
         //
         // 校验
@@ -186,7 +276,34 @@ public class ConfigFetcherController extends BaseController {
                 configFetchMgr.getConfListByParameter(configModel.getApp().getId(), configModel.getEnv().getId(),
                         configModel.getVersion(), hasValue);
 
-        return buildListSuccess(configs, configs.size());
+        if (CompactCodec.isAccepted(accept)) {
+            return buildCompactResponse(ConfigCompactUtils.toBytes(configs));
+        }
+
+        JsonObjectBase jsonObjectBase = buildListSuccess(configs, configs.size());
+        return buildJsonResponse(jsonObjectBase);
+    }
+
+    /**
+     * 二进制格式的响应
+     */
+    private ResponseEntity<Object> buildCompactResponse(byte[] body) {
+
+        HttpHeaders header = new HttpHeaders();
+        header.setContentType(MediaType.valueOf(CompactCodec.MEDIA_TYPE));
+        header.setContentLength(body.length);
+        header.set(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return new ResponseEntity<Object>(body, header, HttpStatus.OK);
+    }
+
+    /**
+     * JSON 响应, 由 Spring 按 Accept 选择转换器
+     */
+    private ResponseEntity<Object> buildJsonResponse(Object body) {
+
+        HttpHeaders header = new HttpHeaders();
+        header.set(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return new ResponseEntity<Object>(body, header, HttpStatus.OK);
     }
 
 }
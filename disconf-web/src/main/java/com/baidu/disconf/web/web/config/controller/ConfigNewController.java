@@ -14,6 +14,8 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
+import com.baidu.disconf.web.service.config.form.ConfCloneForm;
+import com.baidu.disconf.web.service.config.form.ConfImportForm;
 import com.baidu.disconf.web.service.config.form.ConfNewForm;
 import com.baidu.disconf.web.service.config.form.ConfNewItemForm;
 import com.baidu.disconf.web.service.config.service.ConfigMgr;
@@ -144,4 +146,46 @@ public class ConfigNewController extends BaseController {
 
         return buildSuccess("创建成功");
     }
+
+    /**
+     * 复制一个版本的所有配置, 例如由 1_0_0_0 生成 1_0_1_0. 在一个数据库事务中批量写入
+     *
+     * @param confCloneForm
+     *
+     * @return
+     */
+    @ResponseBody
+    @RequestMapping(value = "/clone", method = RequestMethod.POST)
+    public JsonObjectBase cloneVersion(@Valid ConfCloneForm confCloneForm) {
+
+        LOG.info(confCloneForm.toString());
+
+        // 业务校验
+        configValidator.validateClone(confCloneForm);
+
+        int count = configMgr.cloneVersion(confCloneForm);
+
+        return buildSuccess("创建成功, 共" + count + "个配置");
+    }
+
+    /**
+     * 批量新建 配置项/配置文件. 在一个数据库事务中批量写入
+     *
+     * @param confImportForm
+     *
+     * @return
+     */
+    @ResponseBody
+    @RequestMapping(value = "/import", method = RequestMethod.POST)
+    public JsonObjectBase importConfigs(@Valid ConfImportForm confImportForm) {
+
+        LOG.info(confImportForm.toString());
+
+        // 业务校验
+        configValidator.validateImport(confImportForm);
+
+        int count = configMgr.importConfigs(confImportForm);
+
+        return buildSuccess("创建成功, 共" + count + "个配置");
+    }
 }
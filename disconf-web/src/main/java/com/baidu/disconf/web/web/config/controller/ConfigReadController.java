@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.nio.charset.Charset;
 import java.util.List;
 
 import javax.validation.Valid;
@@ -47,6 +48,8 @@ public class ConfigReadController extends BaseController {
 
     protected static final Logger LOG = LoggerFactory.getLogger(ConfigReadController.class);
 
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
     @Autowired
     private ConfigMgr configMgr;
 
@@ -168,7 +171,7 @@ public class ConfigReadController extends BaseController {
         ConfListVo config = configMgr.getConfVo(configId);
 
         HttpHeaders header = new HttpHeaders();
-        byte[] res = config.getValue().getBytes();
+        byte[] res = config.getValue().getBytes(CHARSET);
         if (res == null) {
             throw new DocumentNotFoundException(config.getKey());
         }
@@ -1,5 +1,8 @@
 package com.baidu.disconf.web.web.config.controller;
 
+import java.util.ArrayList;
+
+import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 
 import org.slf4j.Logger;
@@ -13,6 +16,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.baidu.disconf.web.service.config.form.ConfChangesetForm;
 import com.baidu.disconf.web.service.config.service.ConfigMgr;
 import com.baidu.disconf.web.web.config.validator.ConfigValidator;
 import com.baidu.disconf.web.web.config.validator.FileUploadValidator;
@@ -158,6 +162,37 @@ public class ConfigUpdateController extends BaseController {
         return buildSuccess(emailNotification);
     }
 
+    /**
+     * 一次更新多个 配置项/配置文件
+     * <p/>
+     * 在一个数据库事务中更新, 在一个ZK事务中通知, 客户端看不到只更新了一部分的状态
+     *
+     * @param confChangesetForm
+     *
+     * @return
+     */
+    @RequestMapping(value = "/changeset", method = RequestMethod.PUT)
+    @ResponseBody
+    public JsonObjectBase updateChangeset(@Valid ConfChangesetForm confChangesetForm) {
+
+        // 业务校验
+        configValidator.validateUpdateChangeset(confChangesetForm);
+
+        LOG.info("start to update configs: " + confChangesetForm);
+
+        //
+        // 更新, 并写入数据库
+        //
+        String emailNotification = configMgr.updateItemValues(confChangesetForm.getValues());
+
+        //
+        // 通知ZK
+        //
+        configMgr.notifyZookeeper(new ArrayList<Long>(confChangesetForm.getValues().keySet()));
+
+        return buildSuccess(emailNotification);
+    }
+
     /**
      * delete
      *
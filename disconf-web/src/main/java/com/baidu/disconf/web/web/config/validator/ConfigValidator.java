@@ -1,5 +1,8 @@
 package com.baidu.disconf.web.web.config.validator;
 
+import java.util.List;
+import java.util.Map;
+
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -8,6 +11,9 @@ import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
 import com.baidu.disconf.web.service.app.bo.App;
 import com.baidu.disconf.web.service.app.service.AppMgr;
 import com.baidu.disconf.web.service.config.bo.Config;
+import com.baidu.disconf.web.service.config.form.ConfChangesetForm;
+import com.baidu.disconf.web.service.config.form.ConfCloneForm;
+import com.baidu.disconf.web.service.config.form.ConfImportForm;
 import com.baidu.disconf.web.service.config.form.ConfNewForm;
 import com.baidu.disconf.web.service.config.form.ConfNewItemForm;
 import com.baidu.disconf.web.service.config.service.ConfigFetchMgr;
@@ -64,6 +70,119 @@ public class ConfigValidator {
         return config;
     }
 
+    /**
+     * 校验一次更新多个配置: 配置必须属于同一个 app/env/version, 配置项的值不能为空
+     *
+     * @param confChangesetForm
+     */
+    public void validateUpdateChangeset(ConfChangesetForm confChangesetForm) {
+
+        Config first = null;
+
+        for (Map.Entry<Long, String> entry : confChangesetForm.getValues().entrySet()) {
+
+            Config config = valideConfigExist(entry.getKey());
+
+            // 配置文件可以为空, 配置项不可以
+            boolean isItem = config.getType().equals(DisConfigTypeEnum.ITEM.getType());
+            if (entry.getValue() == null || (isItem && StringUtils.isEmpty(entry.getValue()))) {
+                throw new FieldException(ConfChangesetForm.VALUES, "conf.item.value.null", null);
+            }
+
+            if (first == null) {
+                first = config;
+            } else if (!first.getAppId().equals(config.getAppId()) || !first.getEnvId().equals(config.getEnvId()) ||
+                           !first.getVersion().equals(config.getVersion())) {
+                throw new FieldException(ConfChangesetForm.VALUES, "conf.changeset.not.same.version", null);
+            }
+        }
+    }
+
+    /**
+     * 校验复制版本: 源版本有配置, 目标版本还没有配置, 覆盖的 key 在源版本中存在
+     *
+     * @param confCloneForm
+     */
+    public void validateClone(ConfCloneForm confCloneForm) {
+
+        validateAppEnv(confCloneForm.getAppId(), confCloneForm.getEnvId(), ConfNewForm.ENVID);
+        validateAppEnv(confCloneForm.getAppId(), confCloneForm.getNewEnvId(), ConfCloneForm.NEW_ENVID);
+
+        List<Config> configs =
+            configFetchMgr.getConfListByParameter(confCloneForm.getAppId(), confCloneForm.getEnvId(),
+                confCloneForm.getVersion(), false);
+        if (configs.isEmpty()) {
+            throw new FieldException(ConfNewForm.VERSION, "version.not.exist", null);
+        }
+
+        if (!configFetchMgr.getConfListByParameter(confCloneForm.getAppId(), confCloneForm.getNewEnvId(),
+            confCloneForm.getNewVersion(), false).isEmpty()) {
+            throw new FieldException(ConfCloneForm.NEW_VERSION, "conf.clone.version.exist", null);
+        }
+
+        // 覆盖的 key 是否在源版本中存在, 由复制时在同一个事务中检查
+        for (String value : confCloneForm.getOverrides().values()) {
+            if (value == null) {
+                throw new FieldException(ConfCloneForm.OVERRIDES, "conf.item.value.null", null);
+            }
+        }
+    }
+
+    /**
+     * 校验批量新建: 配置项的值不能为空, key 在目标版本中不存在
+     *
+     * @param confImportForm
+     */
+    public void validateImport(ConfImportForm confImportForm) {
+
+        validateAppEnv(confImportForm.getAppId(), confImportForm.getEnvId(), ConfNewForm.ENVID);
+
+        if (confImportForm.getItems().isEmpty() && confImportForm.getFiles().isEmpty()) {
+            throw new FieldException(ConfImportForm.ITEMS, "conf.import.empty", null);
+        }
+
+        for (String value : confImportForm.getItems().values()) {
+            if (StringUtils.isEmpty(value)) {
+                throw new FieldException(ConfImportForm.ITEMS, "conf.item.value.null", null);
+            }
+        }
+        for (String value : confImportForm.getFiles().values()) {
+            if (value == null) {
+                throw new FieldException(ConfImportForm.FILES, "conf.item.value.null", null);
+            }
+        }
+
+        List<Config> configs =
+            configFetchMgr.getConfListByParameter(confImportForm.getAppId(), confImportForm.getEnvId(),
+                confImportForm.getVersion(), false);
+        for (Config config : configs) {
+
+            Map<String, String> values = config.getType().equals(DisConfigTypeEnum.ITEM.getType()) ?
+                                             confImportForm.getItems() : confImportForm.getFiles();
+            if (values.containsKey(config.getName())) {
+                throw new FieldException(ConfNewItemForm.KEY, "key.exist", null);
+            }
+        }
+    }
+
+    /**
+     * app 存在并且有权限, env 存在
+     */
+    private void validateAppEnv(Long appId, Long envId, String envField) {
+
+        App app = appMgr.getById(appId);
+        if (app == null) {
+            throw new FieldException(ConfNewForm.APPID, "app.not.exist", null);
+        }
+
+        validateAppAuth(app.getId());
+
+        Env env = envMgr.getById(envId);
+        if (env == null) {
+            throw new FieldException(envField, "env.not.exist", null);
+        }
+    }
+
     /**
      * 校验更新 配置值
      *
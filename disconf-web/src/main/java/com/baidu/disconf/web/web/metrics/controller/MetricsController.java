@@ -0,0 +1,44 @@
+package com.baidu.disconf.web.web.metrics.controller;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import com.baidu.disconf.core.common.metrics.Timer;
+import com.baidu.disconf.web.service.metrics.service.WebMetricsMgr;
+import com.baidu.dsp.common.constant.WebConstants;
+import com.baidu.dsp.common.controller.BaseController;
+import com.baidu.dsp.common.vo.JsonObjectBase;
+
+/**
+ * 运行指标 API
+ */
+@Controller
+@RequestMapping(WebConstants.API_PREFIX + "/metrics")
+public class MetricsController extends BaseController {
+
+    @Autowired
+    private WebMetricsMgr webMetricsMgr;
+
+    /**
+     * 获取所有指标, 以及每个计时器的耗时分布, 只有管理员可以访问
+     *
+     * @return
+     */
+    @RequestMapping(value = "", method = RequestMethod.GET)
+    @ResponseBody
+    public JsonObjectBase getMetrics() {
+
+        Map<String, Object> data = new HashMap<String, Object>();
+        data.put("metrics", webMetricsMgr.getMetrics());
+        data.put("bucketBoundsMillis", Timer.BUCKET_BOUNDS_MILLIS);
+        data.put("histograms", webMetricsMgr.getHistograms());
+
+        return buildSuccess(data);
+    }
+}
@@ -18,6 +18,7 @@ public class Columns {
     public static final String DESC = "description";
 
     public static final String VALUE = "value";
+    public static final String VALUE_ENCODING = "value_encoding";
 
     public static final String APP_ID = "app_id";
     public static final String ENV_ID = "env_id";
@@ -40,4 +41,14 @@ public class Columns {
     public static final class RoleColumns {
         public final static String ROLE_NAME = "role_name";
     }
+
+    public static final class NotificationColumns {
+        public final static String TITLE = "title";
+        public final static String OLD_VALUE = "old_value";
+        public final static String NEW_VALUE = "new_value";
+        public final static String CONTENT = "content";
+        public final static String OPERATOR = "operator";
+        public final static String RETRY_COUNT = "retry_count";
+        public final static String NEXT_RETRY_TIME = "next_retry_time";
+    }
 }
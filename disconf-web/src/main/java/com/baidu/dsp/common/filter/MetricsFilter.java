@@ -0,0 +1,132 @@
+package com.baidu.dsp.common.filter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.baidu.disconf.core.common.metrics.Gauge;
+import com.baidu.disconf.core.common.metrics.MetricsRegistry;
+import com.baidu.disconf.core.common.metrics.Timer;
+
+/**
+ * 记录每个接口的请求耗时
+ * <p/>
+ * 接口按 Spring MVC 匹配到的 RequestMapping 模式区分, 例如 http.GET:/api/config/file, 不会因路径参数产生大量指标.
+ * 没有匹配到 Controller 的请求 (静态资源, 404) 统一记为 http.unmapped.
+ * 异步请求 (例如 /api/config/watch) 在异步处理结束时才记录, 挂起期间计入 http.inflight
+ */
+public class MetricsFilter implements Filter {
+
+    public static final String HTTP_PREFIX = "http.";
+    public static final String HTTP_UNMAPPED = HTTP_PREFIX + "unmapped";
+    public static final String HTTP_ERROR = HTTP_PREFIX + "error";
+    public static final String HTTP_INFLIGHT = HTTP_PREFIX + "inflight";
+
+    private final MetricsRegistry registry = MetricsRegistry.getInstance();
+
+    // 正在处理的请求数
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+
+        registry.gauge(HTTP_INFLIGHT, new Gauge() {
+            @Override
+            public long getValue() {
+                return inflight.get();
+            }
+        });
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        if (!(request instanceof HttpServletRequest)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        final HttpServletRequest httpRequest = (HttpServletRequest) request;
+
+        inflight.incrementAndGet();
+        final long start = Timer.start();
+        boolean async = false;
+        try {
+
+            chain.doFilter(request, response);
+
+            if (httpRequest.isAsyncStarted()) {
+                httpRequest.getAsyncContext().addListener(new AsyncListener() {
+
+                    @Override
+                    public void onComplete(AsyncEvent event) throws IOException {
+                        finish(httpRequest, start);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) throws IOException {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) throws IOException {
+                        registry.counter(HTTP_ERROR).inc();
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) throws IOException {
+                    }
+                });
+                async = true;
+            }
+
+        } catch (IOException e) {
+            registry.counter(HTTP_ERROR).inc();
+            throw e;
+        } catch (ServletException e) {
+            registry.counter(HTTP_ERROR).inc();
+            throw e;
+        } catch (RuntimeException e) {
+            registry.counter(HTTP_ERROR).inc();
+            throw e;
+        } finally {
+            if (!async) {
+                finish(httpRequest, start);
+            }
+        }
+    }
+
+    private void finish(HttpServletRequest request, long start) {
+
+        inflight.decrementAndGet();
+        registry.timer(getMetricsName(request)).stop(start);
+    }
+
+    /**
+     * 匹配模式在 DispatcherServlet 处理后才会设置到 request 中
+     */
+    private String getMetricsName(HttpServletRequest request) {
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return HTTP_UNMAPPED;
+        }
+        return HTTP_PREFIX + request.getMethod() + ":" + pattern;
+    }
+
+    @Override
+    public void destroy() {
+        registry.removeGauge(HTTP_INFLIGHT);
+    }
+}
@@ -0,0 +1,104 @@
+package com.baidu.dsp.common.interceptor.readmode;
+
+import java.util.List;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.baidu.dsp.common.interceptor.WebCommonInterceptor;
+import com.baidu.ub.common.dbmanage.datasource.MultiDataSourceKeyContext;
+import com.baidu.ub.common.dbmanage.datasource.ReadMode;
+import com.github.knightliao.apollo.utils.web.CookieUtils;
+
+/**
+ * 按请求路径设置读数据源: 客户端获取配置的请求读延迟不超过 maxFetchLagSeconds 的从库. 客户端收到ZK通知后马上下载,
+ * 从库可能还没有复制这次修改, 这时客户端带上ZK结点上的版本戳, 从库的值与之不同时改读主库, 见
+ * {@link com.baidu.disconf.web.service.config.service.ConfigFetchMgr}.
+ * <p/>
+ * 其它的 GET 请求读已经复制了本会话最后一次写入的从库(读到自己的写入), 没有时读主库.
+ * 非 GET 请求读写都使用主库, 在写响应之前把当前时间记到 Cookie 中, 作为最后一次写入的时间, 见
+ * {@link ReadModeResponseAdvice}. 保存在 Cookie 中而不是本机的 HttpSession 中, 下一个请求到了其它机器上也能读到自己的写入
+ * <p/>
+ * 读模式保存在 ThreadContext 中, 请求结束时由 SessionInterceptor 清除
+ */
+public class ReadModeInterceptor extends WebCommonInterceptor {
+
+    /**
+     * 保存最后一次写入时间的 Cookie
+     */
+    public static final String LAST_WRITE_TIME_COOKIE = "DISCONF_LAST_WRITE";
+
+    /**
+     * Cookie 的有效时间(秒), 超过后能用的从库都已经复制了这次写入
+     */
+    public static final int LAST_WRITE_TIME_COOKIE_AGE = 60;
+
+    // 客户端获取配置的请求路径
+    private List<String> fetchPathList;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+
+        String requestPath = request.getRequestURI();
+
+        if (fetchPathList != null) {
+            for (String path : fetchPathList) {
+                if (requestPath.contains(path)) {
+                    MultiDataSourceKeyContext.setReadMode(ReadMode.FETCH);
+                    return true;
+                }
+            }
+        }
+
+        if (isRead(request)) {
+
+            MultiDataSourceKeyContext.setLastWriteTime(getLastWriteTime(request));
+            MultiDataSourceKeyContext.setReadMode(ReadMode.SESSION);
+        }
+
+        return true;
+    }
+
+    /**
+     * 写请求的事务已经提交, 记录写入时间. 必须在响应提交之前调用, 否则 Cookie 不会发给浏览器
+     */
+    public static void markWrite(HttpServletRequest request, HttpServletResponse response) {
+
+        if (isRead(request) || response.isCommitted()) {
+            return;
+        }
+
+        Cookie cookie = new Cookie(LAST_WRITE_TIME_COOKIE, String.valueOf(System.currentTimeMillis()));
+        cookie.setPath("/");
+        cookie.setMaxAge(LAST_WRITE_TIME_COOKIE_AGE);
+        cookie.setHttpOnly(true);
+        response.addCookie(cookie);
+    }
+
+    /**
+     * Cookie 中最后一次写入的时间, 没有或格式不对时为0
+     */
+    public static long getLastWriteTime(HttpServletRequest request) {
+
+        String value = CookieUtils.getCookieValue(request, LAST_WRITE_TIME_COOKIE);
+        if (value == null) {
+            return 0;
+        }
+
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        return "GET".equalsIgnoreCase(request.getMethod());
+    }
+
+    public void setFetchPathList(List<String> fetchPathList) {
+        this.fetchPathList = fetchPathList;
+    }
+}
@@ -0,0 +1,38 @@
+package com.baidu.dsp.common.interceptor.readmode;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * 写请求在写响应之前记录写入时间: 这时 Controller 已经返回, 事务已经提交, 响应还没有提交.
+ * <p/>
+ * 写请求都是 @ResponseBody 的, 拦截器的 postHandle/afterCompletion 在写完响应之后才调用, 不能再设置 Cookie
+ */
+@ControllerAdvice
+public class ReadModeResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+
+        if (request instanceof ServletServerHttpRequest && response instanceof ServletServerHttpResponse) {
+            ReadModeInterceptor.markWrite(((ServletServerHttpRequest) request).getServletRequest(),
+                    ((ServletServerHttpResponse) response).getServletResponse());
+        }
+
+        return body;
+    }
+}
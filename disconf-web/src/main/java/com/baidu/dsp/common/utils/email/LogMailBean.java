@@ -110,6 +110,25 @@ public class LogMailBean {
      */
     public boolean sendHtmlEmail(String toEmail, String title, String content) {
 
+        String operator = null;
+        Visitor visitor = ThreadContext.getSessionVisitor();
+        if (visitor != null) {
+            LOG.info(visitor.toString());
+            operator = visitor.getLoginUserName();
+        }
+
+        return sendHtmlEmail(toEmail, operator, title, content);
+    }
+
+    /**
+     * 发送HTML邮箱, 在后台线程中发送时没有登录用户, 由调用方指定操作人
+     *
+     * @param operator 操作人, 可以为空
+     *
+     * @return
+     */
+    public boolean sendHtmlEmail(String toEmail, String operator, String title, String content) {
+
         LOG.info("send to " + toEmail);
         LOG.info("title: " + title);
         LOG.info("content" + content);
@@ -119,10 +138,8 @@ public class LogMailBean {
         }
 
         String localName = "";
-        Visitor visitor = ThreadContext.getSessionVisitor();
-        if (visitor != null) {
-            LOG.info(visitor.toString());
-            localName += visitor.getLoginUserName() + " ";
+        if (!StringUtils.isEmpty(operator)) {
+            localName += operator + " ";
         }
 
         try {
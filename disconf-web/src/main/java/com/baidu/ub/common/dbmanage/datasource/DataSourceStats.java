@@ -0,0 +1,111 @@
+package com.baidu.ub.common.dbmanage.datasource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 一个数据源的统计: 使用中的连接数, 延迟(指数加权平均), 从库的复制延迟
+ * <p/>
+ * 延迟是连接从取出到归还的时间, 对于不在事务中的查询即为执行时间
+ */
+public class DataSourceStats {
+
+    // 新样本的权重
+    private static final double ALPHA = 0.2;
+
+    private final String key;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    // 纳秒, 0 表示还没有样本
+    private volatile double latencyNanos = 0;
+
+    // 秒, -1 表示未知
+    private volatile long lagSeconds = -1;
+
+    private volatile long lagUpdateTime = 0;
+
+    public DataSourceStats(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * 取出连接
+     */
+    public void start() {
+        inflight.incrementAndGet();
+    }
+
+    /**
+     * 归还连接
+     */
+    public void finish(long nanos) {
+        inflight.decrementAndGet();
+        recordLatency(nanos);
+    }
+
+    public synchronized void recordLatency(long nanos) {
+        if (latencyNanos == 0) {
+            latencyNanos = nanos;
+        } else {
+            latencyNanos += ALPHA * (nanos - latencyNanos);
+        }
+    }
+
+    /**
+     * 越小越好: 平均延迟 * (使用中的连接数 + 1)
+     */
+    public double getScore() {
+        double latency = latencyNanos == 0 ? 1 : latencyNanos;
+        return latency * (inflight.get() + 1);
+    }
+
+    public double getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    /**
+     * @param lagSeconds 复制延迟, -1 表示未知
+     */
+    public void setLagSeconds(long lagSeconds) {
+        this.lagSeconds = lagSeconds;
+        this.lagUpdateTime = System.currentTimeMillis();
+    }
+
+    /**
+     * 复制延迟不超过 maxLagSeconds, 并且是 maxAgeMillis 内得到的
+     */
+    public boolean isFresh(long maxLagSeconds, long maxAgeMillis) {
+        return lagSeconds >= 0 && lagSeconds <= maxLagSeconds &&
+                   System.currentTimeMillis() - lagUpdateTime <= maxAgeMillis;
+    }
+
+    /**
+     * 是否已经复制了 writeTimeMillis 之前的写入.
+     * <p/>
+     * 探测时落后 lagSeconds 秒, 即探测时间 - lagSeconds 之前的写入都已复制. Seconds_Behind_Master 是取整的, 多减一秒
+     */
+    public boolean isCaughtUp(long writeTimeMillis, long maxAgeMillis) {
+        long lag = lagSeconds;
+        long updateTime = lagUpdateTime;
+        return lag >= 0 && System.currentTimeMillis() - updateTime <= maxAgeMillis &&
+                   updateTime - (lag + 1) * 1000 >= writeTimeMillis;
+    }
+
+    public long getLagSeconds() {
+        return lagSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return "DataSourceStats [key=" + key + ", inflight=" + inflight + ", latencyMillis=" +
+                   (long) (latencyNanos / 1000000) + ", lagSeconds=" + lagSeconds + "]";
+    }
+}
@@ -0,0 +1,31 @@
+package com.baidu.ub.common.dbmanage.datasource;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 所有数据源的统计, 按数据源的 bean 名字
+ */
+public class DataSourceStatsRegistry {
+
+    private static final DataSourceStatsRegistry INSTANCE = new DataSourceStatsRegistry();
+
+    private final ConcurrentMap<String, DataSourceStats> statsMap = new ConcurrentHashMap<String, DataSourceStats>();
+
+    public static DataSourceStatsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    public DataSourceStats get(String key) {
+
+        DataSourceStats stats = statsMap.get(key);
+        if (stats == null) {
+            DataSourceStats newStats = new DataSourceStats(key);
+            stats = statsMap.putIfAbsent(key, newStats);
+            if (stats == null) {
+                stats = newStats;
+            }
+        }
+        return stats;
+    }
+}
@@ -1,5 +1,12 @@
 package com.baidu.ub.common.dbmanage.datasource;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
 import org.apache.log4j.Logger;
 import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
 
@@ -13,10 +20,66 @@ public class MultiDataSource extends AbstractRoutingDataSource {
         ThreadContext.putContext("Bootstrap", Boolean.TRUE);
     }
 
+    // getConnection 时已经选好的key, 保证统计的数据源与实际使用的一致
+    private static final ThreadLocal<String> CHOSEN_KEY = new ThreadLocal<String>();
+
     private MultiDataSourceKeyContext multiDataSourceKeyContext;
 
+    /**
+     * 记录每个数据源的使用中连接数和连接从取出到归还的时间, 用于按延迟选择从库
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+
+        String key = (String) determineCurrentLookupKey();
+        DataSourceStats stats = DataSourceStatsRegistry.getInstance().get(key);
+
+        CHOSEN_KEY.set(key);
+        stats.start();
+        long start = System.nanoTime();
+        try {
+            return wrap(super.getConnection(), stats, start);
+        } catch (SQLException e) {
+            stats.finish(System.nanoTime() - start);
+            throw e;
+        } catch (RuntimeException e) {
+            stats.finish(System.nanoTime() - start);
+            throw e;
+        } finally {
+            CHOSEN_KEY.remove();
+        }
+    }
+
+    private static Connection wrap(final Connection connection, final DataSourceStats stats, final long start) {
+
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                new InvocationHandler() {
+
+                    private boolean closed = false;
+
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+                        if ("close".equals(method.getName()) && !closed) {
+                            closed = true;
+                            stats.finish(System.nanoTime() - start);
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    }
+                });
+    }
+
     @Override
     protected Object determineCurrentLookupKey() {
+        String chosenKey = CHOSEN_KEY.get();
+        if (chosenKey != null) {
+            return chosenKey;
+        }
+
         String key = "";
         try {
             key = multiDataSourceKeyContext.getKey();
@@ -9,6 +9,10 @@ public class MultiDataSourceKeyContext {
 
     private static final Logger log = Logger.getLogger(MultiDataSourceKeyContext.class);
 
+    private static final String READ_MODE_KEY = "dbReadMode";
+
+    private static final String LAST_WRITE_TIME_KEY = "dbLastWriteTime";
+
     private String dbName;
 
     private Router router;
@@ -31,7 +35,31 @@ public class MultiDataSourceKeyContext {
     }
 
     /**
-     * 获得当前数据源key,如果threadlocal中没有数据源，则返回对应用户的主库连接
+     * 设置当前线程的读请求使用的数据源, 对所有库生效, 请求结束时随 ThreadContext 清除
+     */
+    public static void setReadMode(ReadMode readMode) {
+        ThreadContext.putContext(READ_MODE_KEY, readMode);
+    }
+
+    public static ReadMode getReadMode() {
+        ReadMode readMode = ThreadContext.getContext(READ_MODE_KEY);
+        return readMode == null ? ReadMode.MASTER : readMode;
+    }
+
+    /**
+     * 设置当前会话最后一次写入的时间, ReadMode.SESSION 只读已经复制了这次写入的从库
+     */
+    public static void setLastWriteTime(long lastWriteTime) {
+        ThreadContext.putContext(LAST_WRITE_TIME_KEY, lastWriteTime);
+    }
+
+    public static long getLastWriteTime() {
+        Long lastWriteTime = ThreadContext.getContext(LAST_WRITE_TIME_KEY);
+        return lastWriteTime == null ? 0 : lastWriteTime;
+    }
+
+    /**
+     * 获得当前数据源key,如果threadlocal中没有数据源，则按读模式返回对应用户的库连接(默认为主库)
      */
     public String getKey() {
         String dbkey = ThreadContext.getContext(dbName);
@@ -42,7 +70,12 @@ public class MultiDataSourceKeyContext {
                 // throw new
                 // RuntimeException("No userid contexted,so you can't know how to routing!!");
             }
-            dbkey = router.getTargetDataSourceKey(userid, true);
+            ReadMode readMode = getReadMode();
+            if (readMode == ReadMode.MASTER) {
+                dbkey = router.getTargetDataSourceKey(userid, true);
+            } else {
+                dbkey = router.getTargetDataSourceKey(userid, readMode);
+            }
 
             StackTraceElement[] elements = Thread.currentThread().getStackTrace();
 
@@ -0,0 +1,27 @@
+package com.baidu.ub.common.dbmanage.datasource;
+
+/**
+ * 读请求使用的数据源
+ */
+public enum ReadMode {
+
+    /**
+     * 主库
+     */
+    MASTER,
+
+    /**
+     * 任意可用的从库
+     */
+    SLAVE,
+
+    /**
+     * 延迟不超过 maxFetchLagSeconds 的从库, 没有时使用主库
+     */
+    FETCH,
+
+    /**
+     * 同 FETCH, 并且已经复制到当前会话最后一次写入的从库, 没有时使用主库
+     */
+    SESSION
+}
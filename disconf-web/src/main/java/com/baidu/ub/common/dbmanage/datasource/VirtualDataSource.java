@@ -1,8 +1,10 @@
 package com.baidu.ub.common.dbmanage.datasource;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,10 +22,16 @@ public class VirtualDataSource implements Serializable, BeanNameAware, Initializ
 
     protected List<String> masterPools;
     protected List<String> slavePools;
-    protected int loadbalance = 1; // 1:random 2:polling 3:master-backup
+    protected int loadbalance = 1; // 1:random 2:polling 3:master-backup 4:adaptive
 
     protected Random randomprovider = new Random();
-    protected int current = 0;
+    protected AtomicInteger current = new AtomicInteger();
+
+    // FETCH/SESSION 读允许的最大复制延迟(秒)
+    protected long maxFetchLagSeconds = 5;
+
+    // 复制延迟超过这个时间没有更新时当作未知
+    protected long maxLagAgeMillis = 60000;
 
     protected String vdbid;
 
@@ -65,6 +73,14 @@ public class VirtualDataSource implements Serializable, BeanNameAware, Initializ
         this.loadbalance = loadbalance;
     }
 
+    public void setMaxFetchLagSeconds(long maxFetchLagSeconds) {
+        this.maxFetchLagSeconds = maxFetchLagSeconds;
+    }
+
+    public void setMaxLagAgeMillis(long maxLagAgeMillis) {
+        this.maxLagAgeMillis = maxLagAgeMillis;
+    }
+
     public String getDataSourceKey(boolean readMaster) {
         if (readMaster) {
             return getMasterDataSourceKey();
@@ -73,40 +89,112 @@ public class VirtualDataSource implements Serializable, BeanNameAware, Initializ
         }
     }
 
+    public String getDataSourceKey(ReadMode readMode) {
+        switch (readMode) {
+            case SLAVE:
+                return getSlaveDataSourceKey();
+            case FETCH:
+                return getFetchDataSourceKey();
+            case SESSION:
+                return getSessionDataSourceKey(MultiDataSourceKeyContext.getLastWriteTime());
+            default:
+                return getMasterDataSourceKey();
+        }
+    }
+
     public String getMasterDataSourceKey() {
-        if (masterPools == null) {
+        List<String> pools = masterPools;
+        if (pools == null || pools.size() == 0) {
             throw new IllegalStateException("master datasource is null,can't execute the write sql");
         }
-        int idx = chooseDSKeyIndex(masterPools.size());
-        return masterPools.get(idx);
+        return chooseDSKey(pools);
     }
 
     public String getSlaveDataSourceKey() {
-        if (slavePools == null || slavePools.size() == 0) {
+        List<String> pools = slavePools;
+        if (pools == null || pools.size() == 0) {
             log.warn("read null slave datasource!");
             return getMasterDataSourceKey();
         }
-        int idx = chooseDSKeyIndex(slavePools.size());
-        return slavePools.get(idx);
+        return chooseDSKey(pools);
+    }
+
+    /**
+     * 复制延迟不超过 maxFetchLagSeconds 的从库, 延迟未知的不使用, 没有时使用主库
+     */
+    public String getFetchDataSourceKey() {
+        List<String> pools = slavePools;
+        List<String> freshPools = new ArrayList<String>();
+        if (pools != null) {
+            for (String key : pools) {
+                if (DataSourceStatsRegistry.getInstance().get(key).isFresh(maxFetchLagSeconds, maxLagAgeMillis)) {
+                    freshPools.add(key);
+                }
+            }
+        }
+        if (freshPools.size() == 0) {
+            log.debug("no fresh slave datasource, use master.");
+            return getMasterDataSourceKey();
+        }
+        return chooseDSKey(freshPools);
+    }
+
+    /**
+     * 复制延迟不超过 maxFetchLagSeconds, 并且已经复制了 lastWriteTime 之前的写入的从库, 没有时使用主库
+     */
+    public String getSessionDataSourceKey(long lastWriteTime) {
+        List<String> pools = slavePools;
+        List<String> freshPools = new ArrayList<String>();
+        if (pools != null) {
+            for (String key : pools) {
+                DataSourceStats stats = DataSourceStatsRegistry.getInstance().get(key);
+                if (stats.isFresh(maxFetchLagSeconds, maxLagAgeMillis) &&
+                        stats.isCaughtUp(lastWriteTime, maxLagAgeMillis)) {
+                    freshPools.add(key);
+                }
+            }
+        }
+        if (freshPools.size() == 0) {
+            log.debug("no slave datasource caught up with " + lastWriteTime + ", use master.");
+            return getMasterDataSourceKey();
+        }
+        return chooseDSKey(freshPools);
     }
 
-    private int chooseDSKeyIndex(int N) {
+    private String chooseDSKey(List<String> keys) {
+        int N = keys.size();
         int idx = 0;
         if (loadbalance == 1) {
             idx = randomprovider.nextInt(N);
             log.debug("use random datasource.");
         } else if (loadbalance == 2) {
-            current++;
-            if (current >= N) {
-                current = 0;
-            }
-            idx = current;
+            idx = (current.getAndIncrement() & Integer.MAX_VALUE) % N;
             log.debug("user polling datasource.");
         } else if (loadbalance == 3) {
             idx = 0;
             log.debug("user master-backup datasource.");
+        } else if (loadbalance == 4) {
+            idx = chooseAdaptive(keys);
+            log.debug("use adaptive datasource.");
+        }
+        return keys.get(idx);
+    }
+
+    /**
+     * power of two choices: 随机选两个, 使用 延迟*连接数 较小的
+     */
+    private int chooseAdaptive(List<String> keys) {
+        int N = keys.size();
+        if (N == 1) {
+            return 0;
+        }
+        int i = randomprovider.nextInt(N);
+        int j = randomprovider.nextInt(N - 1);
+        if (j >= i) {
+            j++;
         }
-        return idx;
+        DataSourceStatsRegistry registry = DataSourceStatsRegistry.getInstance();
+        return registry.get(keys.get(i)).getScore() <= registry.get(keys.get(j)).getScore() ? i : j;
     }
 
     public void afterPropertiesSet() throws Exception {
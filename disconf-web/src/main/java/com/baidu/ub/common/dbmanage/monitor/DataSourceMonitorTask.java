@@ -2,7 +2,18 @@ package com.baidu.ub.common.dbmanage.monitor;
 
 import java.sql.Date;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Resource;
 import javax.sql.DataSource;
@@ -10,69 +21,156 @@ import javax.sql.DataSource;
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.context.support.ApplicationObjectSupport;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import com.baidu.ub.common.dbmanage.datasource.DataSourceStats;
+import com.baidu.ub.common.dbmanage.datasource.DataSourceStatsRegistry;
 import com.baidu.ub.common.dbmanage.datasource.VirtualDataSource;
 
 /**
+ * 检查所有数据源是否可用, 并记录探测的延迟和从库的复制延迟.
+ * <p/>
+ * 所有数据源同时探测, 每个最多等待 probeTimeoutMillis, 一个数据源卡住不会拖慢其它的
+ *
  * @author wangxj
  */
-public class DataSourceMonitorTask extends ApplicationObjectSupport {
+public class DataSourceMonitorTask extends ApplicationObjectSupport implements DisposableBean {
 
     protected static final Logger log = LoggerFactory.getLogger(DataSourceMonitorTask.class);
 
     @Resource
     private List<VirtualDataSource> dataSourceList;
 
-    private JdbcTemplate jdbcTemplate = new JdbcTemplate();
+    // 每个数据源探测的超时时间
+    private long probeTimeoutMillis = 3000;
+
+    private int probeThreads = 8;
+
+    private volatile ExecutorService executor;
 
     public void checkDataSource() {
+
+        // 同一个数据源可能属于多个虚拟数据源, 只探测一次
+        Set<String> masterKeySet = new LinkedHashSet<String>();
+        Set<String> slaveKeySet = new LinkedHashSet<String>();
         for (VirtualDataSource vdb : dataSourceList) {
-            List<String> mkeys = vdb.getMasterSet();
-            if (CollectionUtils.isNotEmpty(mkeys)) {
-                List<String> masterKeys = new ArrayList<String>();
-                for (String dbKey : mkeys) {
-                    log.info("check datasource:" + dbKey);
-                    DataSource ds = getApplicationContext().getBean(dbKey, DataSource.class);
-                    if (isConnect(ds)) {
-                        masterKeys.add(dbKey);
-                    }
-                }
-                if (needChange(vdb.getMasterPools(), masterKeys)) {
-                    log.warn("changed ds master pool:" + masterKeys);
-                    vdb.setMasterPools(masterKeys);
-                }
+            if (CollectionUtils.isNotEmpty(vdb.getMasterSet())) {
+                masterKeySet.addAll(vdb.getMasterSet());
+            }
+            if (CollectionUtils.isNotEmpty(vdb.getSlaveSet())) {
+                slaveKeySet.addAll(vdb.getSlaveSet());
             }
+        }
 
-            List<String> skeys = vdb.getSlaveSet();
-            if (CollectionUtils.isNotEmpty(skeys)) {
-                List<String> slaveKeys = new ArrayList<String>();
-                for (String dbKey : skeys) {
-                    log.info("check datasource:" + dbKey);
-                    DataSource ds = getApplicationContext().getBean(dbKey, DataSource.class);
-                    if (isConnect(ds)) {
-                        slaveKeys.add(dbKey);
-                    }
-                }
-                if (needChange(vdb.getSlavePools(), slaveKeys)) {
-                    log.warn("changed ds slave pool:" + slaveKeys);
-                    vdb.setSlavePools(slaveKeys);
+        Map<String, Future<Boolean>> futures = new HashMap<String, Future<Boolean>>();
+        for (String dbKey : masterKeySet) {
+            futures.put(dbKey, getExecutor().submit(new Probe(dbKey, false)));
+        }
+        for (String dbKey : slaveKeySet) {
+            if (!futures.containsKey(dbKey)) {
+                futures.put(dbKey, getExecutor().submit(new Probe(dbKey, true)));
+            }
+        }
+
+        // 所有探测同时进行, 总的等待时间不超过 probeTimeoutMillis
+        long deadline = System.currentTimeMillis() + probeTimeoutMillis;
+        Set<String> connected = new LinkedHashSet<String>();
+        for (Map.Entry<String, Future<Boolean>> entry : futures.entrySet()) {
+            try {
+                long wait = Math.max(0, deadline - System.currentTimeMillis());
+                if (Boolean.TRUE.equals(entry.getValue().get(wait, TimeUnit.MILLISECONDS))) {
+                    connected.add(entry.getKey());
                 }
+            } catch (Exception e) {
+                entry.getValue().cancel(true);
+                log.warn("check datasource fail: " + entry.getKey() + ", " + e.toString());
             }
+        }
 
+        for (VirtualDataSource vdb : dataSourceList) {
+
+            // 主库全部不可用时保留原来的, 从库全部不可用时读主库
+            List<String> masterKeys = filter(vdb.getMasterSet(), connected);
+            if (masterKeys != null && masterKeys.isEmpty()) {
+                log.error("all master datasource is out of connection!!!");
+            } else if (masterKeys != null && needChange(vdb.getMasterPools(), masterKeys)) {
+                log.warn("changed ds master pool:" + masterKeys);
+                vdb.setMasterPools(masterKeys);
+            }
+
+            List<String> slaveKeys = filter(vdb.getSlaveSet(), connected);
+            if (slaveKeys != null && needChange(vdb.getSlavePools(), slaveKeys)) {
+                log.warn("changed ds slave pool:" + slaveKeys);
+                vdb.setSlavePools(slaveKeys);
+            }
         }
-        log.info("check datasource done");
+        log.debug("check datasource done");
     }
 
-    private boolean isConnect(DataSource dataSource) {
-        jdbcTemplate.setDataSource(dataSource);
-        try {
-            jdbcTemplate.queryForObject("select now() as nowTime", Date.class);
-        } catch (Throwable t) {
-            return false;
+    /**
+     * 探测一个数据源, 从库同时查询复制延迟
+     */
+    private class Probe implements Callable<Boolean> {
+
+        private final String dbKey;
+        private final boolean slave;
+
+        public Probe(String dbKey, boolean slave) {
+            this.dbKey = dbKey;
+            this.slave = slave;
+        }
+
+        @Override
+        public Boolean call() {
+
+            log.debug("check datasource:" + dbKey);
+            DataSourceStats stats = DataSourceStatsRegistry.getInstance().get(dbKey);
+
+            DataSource ds = getApplicationContext().getBean(dbKey, DataSource.class);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(ds);
+            try {
+                long start = System.nanoTime();
+                jdbcTemplate.queryForObject("select now() as nowTime", Date.class);
+                stats.recordLatency(System.nanoTime() - start);
+
+                stats.setLagSeconds(slave ? queryLagSeconds(jdbcTemplate) : 0);
+            } catch (Throwable t) {
+                stats.setLagSeconds(-1);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Seconds_Behind_Master, 不是从库或复制停止时返回 -1
+     */
+    private long queryLagSeconds(JdbcTemplate jdbcTemplate) {
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("show slave status");
+        if (rows.isEmpty()) {
+            return -1;
+        }
+        Object lag = rows.get(0).get("Seconds_Behind_Master");
+        if (!(lag instanceof Number)) {
+            return -1;
+        }
+        return ((Number) lag).longValue();
+    }
+
+    private static List<String> filter(List<String> keys, Set<String> connected) {
+        if (CollectionUtils.isEmpty(keys)) {
+            return null;
+        }
+        List<String> result = new ArrayList<String>();
+        for (String key : keys) {
+            if (connected.contains(key)) {
+                result.add(key);
+            }
         }
-        return true;
+        return result;
     }
 
     private boolean needChange(List<String> usedList, List<String> newList) {
@@ -91,6 +189,34 @@ public class DataSourceMonitorTask extends ApplicationObjectSupport {
         return false;
     }
 
+    private ExecutorService getExecutor() {
+        if (executor == null) {
+            synchronized(this) {
+                if (executor == null) {
+                    executor = Executors.newFixedThreadPool(probeThreads, new ThreadFactory() {
+
+                        private final AtomicInteger count = new AtomicInteger();
+
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "datasource-monitor-" + count.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+                }
+            }
+        }
+        return executor;
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
     public List<VirtualDataSource> getDataSourceList() {
         return dataSourceList;
     }
@@ -99,4 +225,12 @@ public class DataSourceMonitorTask extends ApplicationObjectSupport {
         this.dataSourceList = dataSourceList;
     }
 
+    public void setProbeTimeoutMillis(long probeTimeoutMillis) {
+        this.probeTimeoutMillis = probeTimeoutMillis;
+    }
+
+    public void setProbeThreads(int probeThreads) {
+        this.probeThreads = probeThreads;
+    }
+
 }
@@ -3,6 +3,7 @@ package com.baidu.ub.common.dbmanage.router;
 import org.apache.log4j.Logger;
 import org.springframework.context.support.ApplicationObjectSupport;
 
+import com.baidu.ub.common.dbmanage.datasource.ReadMode;
 import com.baidu.ub.common.dbmanage.datasource.VirtualDataSource;
 import com.baidu.ub.common.dbmanage.rule.DBShardingRule;
 
@@ -30,8 +31,18 @@ public class IDRouter extends ApplicationObjectSupport implements Router {
      * @see Router#getTargetDataSource(long)
      */
     public String getTargetDataSourceKey(int userid, boolean readMaster) {
+        return getVirtualDataSource(userid).getDataSourceKey(readMaster);
+    }
+
+    /**
+     * @see Router#getTargetDataSourceKey(int, ReadMode)
+     */
+    public String getTargetDataSourceKey(int userid, ReadMode readMode) {
+        return getVirtualDataSource(userid).getDataSourceKey(readMode);
+    }
+
+    private VirtualDataSource getVirtualDataSource(int userid) {
         String vdbkey = prefix;
-        String dbkey = null;
         String dbCode = null;
         // userid=0的情况放到下一层处理,需要支持返回dbCode为null的情况,当sharding num为1的时候，需要返回null
         dbCode = dbShardingRule.calculateDatabaseNo(userid);
@@ -42,8 +53,7 @@ public class IDRouter extends ApplicationObjectSupport implements Router {
         VirtualDataSource vdb = (VirtualDataSource) getApplicationContext().getBean(vdbkey, VirtualDataSource.class);
 
         if (vdb != null) {
-            dbkey = vdb.getDataSourceKey(readMaster);
-            return dbkey;
+            return vdb;
         } else {
             String message = "Can't find dbkey mapping to user" + userid;
             RuntimeException t = new IllegalArgumentException(message);
@@ -1,5 +1,7 @@
 package com.baidu.ub.common.dbmanage.router;
 
+import com.baidu.ub.common.dbmanage.datasource.ReadMode;
+
 public interface Router {
 
     /**
@@ -12,4 +14,15 @@ public interface Router {
      */
     String getTargetDataSourceKey(int userid, boolean readMaster);
 
+
+    /**
+     * locate target virtualdatasource by routing rule
+     *
+     * @param userid
+     * @param readMode
+     *
+     * @return
+     */
+    String getTargetDataSourceKey(int userid, ReadMode readMode);
+
 }
@@ -0,0 +1,175 @@
+package com.baidu.disconf.web.test.dbmanage;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.ub.common.dbmanage.datasource.DataSourceStats;
+import com.baidu.ub.common.dbmanage.datasource.DataSourceStatsRegistry;
+import com.baidu.ub.common.dbmanage.datasource.VirtualDataSource;
+
+/**
+ * 从库的选择: power of two choices, 复制延迟过滤与读自己的写入
+ */
+public class VirtualDataSourceTestCase {
+
+    private static final int TIMES = 200;
+
+    private final String prefix = "vds" + System.nanoTime() + "-";
+
+    private final String master = prefix + "master";
+
+    @Test
+    public void adaptive() {
+
+        String fast = prefix + "fast";
+        String medium = prefix + "medium";
+        String slow = prefix + "slow";
+
+        VirtualDataSource dataSource = newDataSource(4, fast, medium, slow);
+
+        getStats(fast).recordLatency(1000000);
+        getStats(medium).recordLatency(2000000);
+        getStats(slow).recordLatency(50000000);
+
+        // 两个中选较好的, 最差的不会被选中, 最好的至少在一半的情况下被选中
+        Set<String> chosen = new HashSet<String>();
+        int fastCount = 0;
+        for (int i = 0; i < TIMES; i++) {
+            String key = dataSource.getSlaveDataSourceKey();
+            chosen.add(key);
+            if (key.equals(fast)) {
+                fastCount++;
+            }
+        }
+        Assert.assertFalse(chosen.contains(slow));
+        Assert.assertTrue(chosen.contains(medium));
+        Assert.assertTrue(fastCount >= TIMES / 2);
+
+        // 使用中的连接多了, 延迟低也不选
+        for (int i = 0; i < 100; i++) {
+            getStats(fast).start();
+        }
+        for (int i = 0; i < TIMES; i++) {
+            Assert.assertNotEquals(fast, dataSource.getSlaveDataSourceKey());
+        }
+    }
+
+    @Test
+    public void adaptiveOne() {
+
+        String slave = prefix + "slave";
+        VirtualDataSource dataSource = newDataSource(4, slave);
+
+        Assert.assertEquals(slave, dataSource.getSlaveDataSourceKey());
+    }
+
+    @Test
+    public void fetchLag() {
+
+        String fresh = prefix + "fresh";
+        String lagging = prefix + "lagging";
+        String unknown = prefix + "unknown";
+
+        VirtualDataSource dataSource = newDataSource(1, fresh, lagging, unknown);
+
+        // 复制延迟都未知时读主库
+        Assert.assertEquals(master, dataSource.getFetchDataSourceKey());
+
+        getStats(fresh).setLagSeconds(1);
+        getStats(lagging).setLagSeconds(10);
+        getStats(unknown).setLagSeconds(-1);
+
+        for (int i = 0; i < TIMES; i++) {
+            Assert.assertEquals(fresh, dataSource.getFetchDataSourceKey());
+        }
+
+        // 复制延迟太久没有更新
+        dataSource.setMaxLagAgeMillis(-1);
+        Assert.assertEquals(master, dataSource.getFetchDataSourceKey());
+
+        // 允许更大的延迟
+        dataSource.setMaxLagAgeMillis(60000);
+        dataSource.setMaxFetchLagSeconds(10);
+        Set<String> chosen = new HashSet<String>();
+        for (int i = 0; i < TIMES; i++) {
+            chosen.add(dataSource.getFetchDataSourceKey());
+        }
+        Assert.assertEquals(new HashSet<String>(Arrays.asList(fresh, lagging)), chosen);
+    }
+
+    @Test
+    public void caughtUp() {
+
+        DataSourceStats stats = getStats(prefix + "caughtUp");
+        long now = System.currentTimeMillis();
+
+        // 复制延迟未知
+        Assert.assertFalse(stats.isCaughtUp(0, 60000));
+
+        // 探测时落后1秒, 再多减一秒: 两秒之前的写入已经复制, 刚才的写入没有
+        stats.setLagSeconds(1);
+        Assert.assertTrue(stats.isCaughtUp(0, 60000));
+        Assert.assertTrue(stats.isCaughtUp(now - 5000, 60000));
+        Assert.assertFalse(stats.isCaughtUp(now, 60000));
+
+        // 复制延迟太久没有更新
+        Assert.assertFalse(stats.isCaughtUp(0, -1));
+    }
+
+    @Test
+    public void sessionLag() {
+
+        String fresh = prefix + "sessionFresh";
+        String lagging = prefix + "sessionLagging";
+
+        VirtualDataSource dataSource = newDataSource(1, fresh, lagging);
+        dataSource.setMaxFetchLagSeconds(10);
+
+        getStats(fresh).setLagSeconds(0);
+        getStats(lagging).setLagSeconds(8);
+
+        long now = System.currentTimeMillis();
+
+        // 没有写入时使用延迟不超过 maxFetchLagSeconds 的从库
+        Set<String> chosen = new HashSet<String>();
+        for (int i = 0; i < TIMES; i++) {
+            chosen.add(dataSource.getSessionDataSourceKey(0));
+        }
+        Assert.assertEquals(new HashSet<String>(Arrays.asList(fresh, lagging)), chosen);
+
+        // 5秒前的写入, 落后8秒的从库还没有复制
+        for (int i = 0; i < TIMES; i++) {
+            Assert.assertEquals(fresh, dataSource.getSessionDataSourceKey(now - 5000));
+        }
+
+        // 刚刚写入, 从库都还没有复制, 读主库
+        Assert.assertEquals(master, dataSource.getSessionDataSourceKey(now + 1000));
+    }
+
+    @Test
+    public void noSlave() {
+
+        VirtualDataSource dataSource = newDataSource(4);
+
+        Assert.assertEquals(master, dataSource.getSlaveDataSourceKey());
+        Assert.assertEquals(master, dataSource.getFetchDataSourceKey());
+        Assert.assertEquals(master, dataSource.getSessionDataSourceKey(0));
+    }
+
+    private VirtualDataSource newDataSource(int loadbalance, String... slaves) {
+
+        VirtualDataSource dataSource = new VirtualDataSource();
+        dataSource.setMasterSet(Arrays.asList(master));
+        dataSource.setSlaveSet(Arrays.asList(slaves));
+        dataSource.setLoadbalance(loadbalance);
+        return dataSource;
+    }
+
+    private static DataSourceStats getStats(String key) {
+        return DataSourceStatsRegistry.getInstance().get(key);
+    }
+}
@@ -0,0 +1,113 @@
+package com.baidu.disconf.web.test.interceptor;
+
+import java.util.Arrays;
+
+import javax.servlet.http.Cookie;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.baidu.dsp.common.interceptor.readmode.ReadModeInterceptor;
+import com.baidu.dsp.common.interceptor.readmode.ReadModeResponseAdvice;
+import com.baidu.ub.common.commons.ThreadContext;
+import com.baidu.ub.common.dbmanage.datasource.MultiDataSourceKeyContext;
+import com.baidu.ub.common.dbmanage.datasource.ReadMode;
+
+/**
+ * 按请求设置读数据源
+ */
+public class ReadModeInterceptorTestCase {
+
+    private ReadModeInterceptor interceptor;
+
+    @Before
+    public void setUp() {
+
+        ThreadContext.init();
+
+        interceptor = new ReadModeInterceptor();
+        interceptor.setFetchPathList(Arrays.asList("/api/config/item", "/api/config/file"));
+    }
+
+    @After
+    public void tearDown() {
+        ThreadContext.clean();
+    }
+
+    @Test
+    public void readMode() throws Exception {
+
+        // 客户端下载配置读延迟小的从库
+        Assert.assertEquals(ReadMode.FETCH, preHandle("GET", "/api/config/item"));
+        Assert.assertEquals(ReadMode.FETCH, preHandle("GET", "/api/config/file"));
+
+        // 其它的读请求读已经复制了本会话写入的从库
+        Assert.assertEquals(ReadMode.SESSION, preHandle("GET", "/api/web/config/list"));
+
+        // 写请求读写主库
+        Assert.assertEquals(ReadMode.MASTER, preHandle("POST", "/api/web/config/item"));
+    }
+
+    @Test
+    public void lastWriteTime() throws Exception {
+
+        // 写请求在响应中带上写入时间
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/web/config/item");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        long before = System.currentTimeMillis();
+        ReadModeInterceptor.markWrite(request, response);
+
+        Cookie cookie = response.getCookie(ReadModeInterceptor.LAST_WRITE_TIME_COOKIE);
+        Assert.assertNotNull(cookie);
+        Assert.assertEquals("/", cookie.getPath());
+        long writeTime = Long.parseLong(cookie.getValue());
+        Assert.assertTrue(writeTime >= before);
+
+        // 读请求不改变写入时间
+        response = new MockHttpServletResponse();
+        ReadModeInterceptor.markWrite(new MockHttpServletRequest("GET", "/api/web/config/list"), response);
+        Assert.assertNull(response.getCookie(ReadModeInterceptor.LAST_WRITE_TIME_COOKIE));
+
+        // 下一个读请求可能到其它机器上, 从 Cookie 中读写入时间
+        ThreadContext.init();
+        request = new MockHttpServletRequest("GET", "/api/web/config/list");
+        request.setCookies(cookie);
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        Assert.assertEquals(writeTime, MultiDataSourceKeyContext.getLastWriteTime());
+
+        // 格式不对时视为没有写入
+        ThreadContext.init();
+        request = new MockHttpServletRequest("GET", "/api/web/config/list");
+        request.setCookies(new Cookie(ReadModeInterceptor.LAST_WRITE_TIME_COOKIE, "abc"));
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        Assert.assertEquals(0, MultiDataSourceKeyContext.getLastWriteTime());
+    }
+
+    @Test
+    public void responseAdvice() throws Exception {
+
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/api/web/config/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        Object body = new Object();
+        Assert.assertSame(body, new ReadModeResponseAdvice().beforeBodyWrite(body, null, null, null,
+                new ServletServerHttpRequest(request), new ServletServerHttpResponse(response)));
+        Assert.assertNotNull(response.getCookie(ReadModeInterceptor.LAST_WRITE_TIME_COOKIE));
+    }
+
+    private ReadMode preHandle(String method, String uri) throws Exception {
+
+        ThreadContext.init();
+
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        Assert.assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), null));
+
+        return MultiDataSourceKeyContext.getReadMode();
+    }
+}
@@ -0,0 +1,106 @@
+package com.baidu.disconf.web.test.service.config.service;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.baidu.disconf.web.service.config.dao.ConfigHistoryDao;
+import com.baidu.disconf.web.service.config.form.ConfChangesetForm;
+import com.baidu.disconf.web.service.config.service.ConfigMgr;
+import com.baidu.disconf.web.service.user.dto.Visitor;
+import com.baidu.disconf.web.test.common.BaseTestCase;
+import com.baidu.disconf.web.web.config.validator.ConfigValidator;
+import com.baidu.dsp.common.exception.FieldException;
+import com.baidu.ub.common.commons.ThreadContext;
+
+/**
+ * 一次更新多个配置: 校验与写数据库
+ */
+public class ConfigChangesetTestCase extends BaseTestCase {
+
+    @Autowired
+    private ConfigValidator configValidator;
+
+    @Autowired
+    private ConfigMgr configMgr;
+
+    @Autowired
+    private ConfigHistoryDao configHistoryDao;
+
+    @Before
+    public void login() {
+
+        ThreadContext.init();
+
+        Visitor visitor = new Visitor();
+        visitor.setLoginUserId(1L);
+        visitor.setAppIds(new HashSet<Long>());
+        ThreadContext.putSessionVisitor(visitor);
+    }
+
+    @After
+    public void logout() {
+        ThreadContext.clean();
+    }
+
+    @Test
+    public void validate() {
+
+        // 同一个 app/env/version 的配置文件与配置项
+        configValidator.validateUpdateChangeset(newForm(1L, "varA=1", 2L, "9999"));
+
+        // 配置文件可以为空
+        configValidator.validateUpdateChangeset(newForm(1L, "", 2L, "9999"));
+
+        // 配置项不可以为空
+        assertInvalid(newForm(1L, "varA=1", 2L, ""));
+
+        // 配置不存在
+        assertInvalid(newForm(1L, "varA=1", 100L, "9999"));
+
+        // 不同版本
+        jdbcTemplate.update("INSERT INTO `config` VALUES (3, 1, 1, 'keyB', '1', 0, 1, '1_0_0_1', 1, " +
+                                "'99991231235959', '99991231235959')");
+        assertInvalid(newForm(2L, "9999", 3L, "2"));
+    }
+
+    @Test
+    public void updateItemValues() {
+
+        configMgr.updateItemValues(newForm(1L, "varA=1", 2L, "中文").getValues());
+
+        Assert.assertEquals("varA=1", configMgr.getValue(1L));
+        Assert.assertEquals("中文", configMgr.getValue(2L));
+
+        // 每个配置都写历史: 修改前的值为第一个版本
+        Assert.assertEquals(Integer.valueOf(2), configHistoryDao.getLatest(1L).getRevision());
+        Assert.assertEquals(Integer.valueOf(2), configHistoryDao.getLatest(2L).getRevision());
+    }
+
+    private void assertInvalid(ConfChangesetForm form) {
+
+        try {
+            configValidator.validateUpdateChangeset(form);
+            Assert.fail();
+        } catch (FieldException e) {
+            // ok
+        }
+    }
+
+    private static ConfChangesetForm newForm(Long id1, String value1, Long id2, String value2) {
+
+        Map<Long, String> values = new LinkedHashMap<Long, String>();
+        values.put(id1, value1);
+        values.put(id2, value2);
+
+        ConfChangesetForm form = new ConfChangesetForm();
+        form.setValues(values);
+        return form;
+    }
+}
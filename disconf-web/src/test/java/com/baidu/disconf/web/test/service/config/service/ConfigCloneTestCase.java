@@ -0,0 +1,190 @@
+package com.baidu.disconf.web.test.service.config.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
+import com.baidu.disconf.web.service.config.bo.Config;
+import com.baidu.disconf.web.service.config.form.ConfCloneForm;
+import com.baidu.disconf.web.service.config.form.ConfImportForm;
+import com.baidu.disconf.web.service.config.service.ConfigFetchMgr;
+import com.baidu.disconf.web.service.config.service.ConfigMgr;
+import com.baidu.disconf.web.service.user.dto.Visitor;
+import com.baidu.disconf.web.test.common.BaseTestCase;
+import com.baidu.disconf.web.web.config.validator.ConfigValidator;
+import com.baidu.dsp.common.exception.FieldException;
+import com.baidu.ub.common.commons.ThreadContext;
+
+/**
+ * 复制版本与批量新建配置
+ */
+public class ConfigCloneTestCase extends BaseTestCase {
+
+    private static final String VERSION = "1_0_0_0";
+
+    private static final String NEW_VERSION = "1_0_1_0";
+
+    @Autowired
+    private ConfigValidator configValidator;
+
+    @Autowired
+    private ConfigMgr configMgr;
+
+    @Autowired
+    private ConfigFetchMgr configFetchMgr;
+
+    @Before
+    public void login() {
+
+        ThreadContext.init();
+
+        Visitor visitor = new Visitor();
+        visitor.setLoginUserId(1L);
+        visitor.setAppIds(new HashSet<Long>());
+        ThreadContext.putSessionVisitor(visitor);
+    }
+
+    @After
+    public void logout() {
+        ThreadContext.clean();
+    }
+
+    @Test
+    public void validateClone() {
+
+        configValidator.validateClone(newCloneForm(VERSION, NEW_VERSION));
+
+        // 源版本没有配置
+        assertInvalid(newCloneForm("9_9_9_9", NEW_VERSION));
+
+        // 目标版本已经有配置
+        assertInvalid(newCloneForm(VERSION, VERSION));
+
+        // 覆盖的值不能为空
+        ConfCloneForm form = newCloneForm(VERSION, NEW_VERSION);
+        form.getOverrides().put("keyA", null);
+        assertInvalid(form);
+    }
+
+    @Test
+    public void cloneVersion() {
+
+        ConfCloneForm form = newCloneForm(VERSION, NEW_VERSION);
+        form.getOverrides().put("keyA", "9999");
+
+        Assert.assertEquals(2, configMgr.cloneVersion(form));
+
+        Map<String, String> values = getValues(NEW_VERSION);
+        Assert.assertEquals(2, values.size());
+        Assert.assertEquals("9999", values.get("keyA"));
+        Assert.assertEquals(configMgr.getValue(1L), values.get("confA.properties"));
+
+        // 源版本不变
+        Assert.assertEquals("8888", getValues(VERSION).get("keyA"));
+    }
+
+    @Test
+    public void cloneVersionMissingOverride() {
+
+        ConfCloneForm form = newCloneForm(VERSION, NEW_VERSION);
+        form.getOverrides().put("keyA", "9999");
+        form.getOverrides().put("keyB", "1");
+        form.getOverrides().put("b.properties", "");
+
+        try {
+            configMgr.cloneVersion(form);
+            Assert.fail();
+        } catch (FieldException e) {
+            // 列出所有不存在的 key
+            Assert.assertEquals("conf.clone.override.not.exist", e.getMessageErrorMap().get(ConfCloneForm.OVERRIDES));
+            Assert.assertEquals("b.properties,keyB", e.getMessageErrorArgs().get(ConfCloneForm.OVERRIDES)[0]);
+        }
+
+        Assert.assertTrue(getValues(NEW_VERSION).isEmpty());
+    }
+
+    @Test
+    public void importConfigs() {
+
+        ConfImportForm form = newImportForm();
+        form.getItems().put("keyB", "1");
+        form.getFiles().put("b.properties", "b=1");
+        configValidator.validateImport(form);
+
+        Assert.assertEquals(2, configMgr.importConfigs(form));
+
+        List<Config> configs = configFetchMgr.getConfListByParameter(1L, 1L, VERSION, true);
+        Assert.assertEquals(4, configs.size());
+        for (Config config : configs) {
+            if (config.getName().equals("keyB")) {
+                Assert.assertEquals(DisConfigTypeEnum.ITEM.getType(), config.getType().intValue());
+                Assert.assertEquals("1", config.getValue());
+            } else if (config.getName().equals("b.properties")) {
+                Assert.assertEquals(DisConfigTypeEnum.FILE.getType(), config.getType().intValue());
+                Assert.assertEquals("b=1", config.getValue());
+            }
+        }
+
+        // 已经存在的 key
+        assertInvalid(form);
+
+        // 没有要新建的配置
+        assertInvalid(newImportForm());
+    }
+
+    private Map<String, String> getValues(String version) {
+
+        Map<String, String> values = new HashMap<String, String>();
+        for (Config config : configFetchMgr.getConfListByParameter(1L, 1L, version, true)) {
+            values.put(config.getName(), config.getValue());
+        }
+        return values;
+    }
+
+    private void assertInvalid(ConfCloneForm form) {
+
+        try {
+            configValidator.validateClone(form);
+            Assert.fail();
+        } catch (FieldException e) {
+            // ok
+        }
+    }
+
+    private void assertInvalid(ConfImportForm form) {
+
+        try {
+            configValidator.validateImport(form);
+            Assert.fail();
+        } catch (FieldException e) {
+            // ok
+        }
+    }
+
+    private static ConfCloneForm newCloneForm(String version, String newVersion) {
+
+        ConfCloneForm form = new ConfCloneForm();
+        form.setAppId(1L);
+        form.setEnvId(1L);
+        form.setVersion(version);
+        form.setNewVersion(newVersion);
+        return form;
+    }
+
+    private static ConfImportForm newImportForm() {
+
+        ConfImportForm form = new ConfImportForm();
+        form.setAppId(1L);
+        form.setEnvId(1L);
+        form.setVersion(VERSION);
+        return form;
+    }
+}
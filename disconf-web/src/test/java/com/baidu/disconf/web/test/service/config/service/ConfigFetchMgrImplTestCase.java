@@ -0,0 +1,136 @@
+package com.baidu.disconf.web.test.service.config.service;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.baidu.disconf.core.common.constants.Constants;
+import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
+import com.baidu.disconf.core.common.json.ValueVo;
+import com.baidu.disconf.core.common.utils.ConfigStampUtils;
+import com.baidu.disconf.web.service.config.bo.Config;
+import com.baidu.disconf.web.service.config.dao.ConfigDao;
+import com.baidu.disconf.web.service.config.service.impl.ConfigFetchMgrImpl;
+import com.baidu.ub.common.commons.ThreadContext;
+import com.baidu.ub.common.dbmanage.datasource.MultiDataSourceKeyContext;
+import com.baidu.ub.common.dbmanage.datasource.ReadMode;
+
+/**
+ * 从库的值与客户端期望的版本戳不同时改读主库
+ */
+public class ConfigFetchMgrImplTestCase {
+
+    private static final String KEY = "keyA";
+
+    // 主库上已经修改, 从库还没有复制
+    private String masterValue = "2000";
+    private String slaveValue = "1000";
+
+    // 每次读取使用的读模式
+    private final List<ReadMode> reads = new ArrayList<ReadMode>();
+
+    private ConfigFetchMgrImpl configFetchMgr;
+
+    @Before
+    public void setUp() {
+
+        ThreadContext.init();
+
+        configFetchMgr = new ConfigFetchMgrImpl();
+        ReflectionTestUtils.setField(configFetchMgr, "configDao", Proxy.newProxyInstance(
+                ConfigDao.class.getClassLoader(), new Class<?>[] {ConfigDao.class}, new ConfigDaoHandler()));
+    }
+
+    @After
+    public void tearDown() {
+        ThreadContext.clean();
+    }
+
+    @Test
+    public void stampMatched() {
+
+        MultiDataSourceKeyContext.setReadMode(ReadMode.FETCH);
+
+        // 没有版本戳, 或从库已经是期望的值
+        Assert.assertEquals(slaveValue, getItem(null).getValue());
+        Assert.assertEquals(slaveValue, getItem(ConfigStampUtils.getStamp(slaveValue)).getValue());
+        Assert.assertEquals(ReadMode.FETCH, MultiDataSourceKeyContext.getReadMode());
+        Assert.assertEquals(2, reads.size());
+    }
+
+    @Test
+    public void stampNotMatched() {
+
+        MultiDataSourceKeyContext.setReadMode(ReadMode.FETCH);
+
+        ValueVo valueVo = getItem(ConfigStampUtils.getStamp(masterValue));
+        Assert.assertEquals(Constants.OK, valueVo.getStatus());
+        Assert.assertEquals(masterValue, valueVo.getValue());
+        Assert.assertEquals(ReadMode.MASTER, MultiDataSourceKeyContext.getReadMode());
+
+        // 先读从库, 再读主库
+        Assert.assertEquals(2, reads.size());
+        Assert.assertEquals(ReadMode.FETCH, reads.get(0));
+        Assert.assertEquals(ReadMode.MASTER, reads.get(1));
+
+        // 新建的配置从库上还没有
+        ThreadContext.init();
+        reads.clear();
+        slaveValue = null;
+        MultiDataSourceKeyContext.setReadMode(ReadMode.FETCH);
+        Config config = configFetchMgr.getConfByParameter(1L, 2L, "1_0_0_0", KEY, DisConfigTypeEnum.FILE,
+                ConfigStampUtils.getStamp(masterValue));
+        Assert.assertEquals(masterValue, config.getValue());
+        Assert.assertEquals(2, reads.size());
+    }
+
+    @Test
+    public void readFromMaster() {
+
+        // 已经读主库时不再检查
+        MultiDataSourceKeyContext.setReadMode(ReadMode.MASTER);
+        slaveValue = masterValue;
+        Assert.assertEquals(masterValue, getItem("abc").getValue());
+        Assert.assertEquals(1, reads.size());
+    }
+
+    private ValueVo getItem(String stamp) {
+        return configFetchMgr.getConfItemByParameter(1L, 2L, "1_0_0_0", KEY, stamp);
+    }
+
+    /**
+     * 按当前的读模式返回主库或从库上的配置
+     */
+    private class ConfigDaoHandler implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+            if (!"getByParameter".equals(method.getName())) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+
+            ReadMode readMode = MultiDataSourceKeyContext.getReadMode();
+            reads.add(readMode);
+
+            String value = readMode == ReadMode.MASTER ? masterValue : slaveValue;
+            if (value == null) {
+                return null;
+            }
+
+            Config config = new Config();
+            config.setName((String) args[3]);
+            config.setValue(value);
+            config.setValueEncoding(com.baidu.disconf.web.common.Constants.VALUE_ENCODING_UTF8);
+            return config;
+        }
+    }
+}
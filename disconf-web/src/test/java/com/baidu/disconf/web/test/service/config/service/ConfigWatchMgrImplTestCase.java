@@ -0,0 +1,278 @@
+package com.baidu.disconf.web.test.service.config.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import com.baidu.disconf.core.common.constants.Constants;
+import com.baidu.disconf.core.common.constants.DisConfigTypeEnum;
+import com.baidu.disconf.core.common.json.ValueVo;
+import com.baidu.disconf.web.config.ApplicationPropertyConfig;
+import com.baidu.disconf.web.service.config.bo.Config;
+import com.baidu.disconf.web.service.config.service.ConfigFetchMgr;
+import com.baidu.disconf.web.service.config.service.impl.ConfigWatchMgrImpl;
+
+/**
+ * ConfigWatchMgrImplTestCase
+ * <p/>
+ * 挂起的请求通过 mock 的异步请求处理, 请求结束时的回调与容器中一致
+ */
+public class ConfigWatchMgrImplTestCase {
+
+    private static final Long APP_ID = 1L;
+    private static final Long ENV_ID = 2L;
+    private static final String VERSION = "1_0_0_0";
+
+    // key -> 配置值
+    private final Map<String, String> values = new HashMap<String, String>();
+
+    private ConfigWatchMgrImpl configWatchMgr;
+
+    private ApplicationPropertyConfig applicationPropertyConfig;
+
+    @Before
+    public void setUp() {
+
+        applicationPropertyConfig = new ApplicationPropertyConfig();
+        applicationPropertyConfig.setWatchMaxWaiters(10);
+        applicationPropertyConfig.setWatchTimeoutMillis(30000);
+
+        configWatchMgr = new ConfigWatchMgrImpl();
+        ReflectionTestUtils.setField(configWatchMgr, "configFetchMgr", new ConfigFetchMgrStub());
+        ReflectionTestUtils.setField(configWatchMgr, "applicationPropertyConfig", applicationPropertyConfig);
+
+        values.put("keyA", "1000");
+    }
+
+    /**
+     * hash 不同或为空时立即返回当前 hash
+     */
+    @Test
+    public void changedBeforeWatch() {
+
+        String hash = configWatchMgr.getHash("1000");
+
+        ValueVo result = getResult(watch("keyA", "old"));
+        Assert.assertEquals(Constants.OK, result.getStatus());
+        Assert.assertEquals(hash, result.getValue());
+
+        Assert.assertEquals(hash, getResult(watch("keyA", null)).getValue());
+
+        // 配置不存在
+        Assert.assertEquals("", getResult(watch("keyB", hash)).getValue());
+
+        Assert.assertEquals(0, configWatchMgr.getWaiterCount());
+        Assert.assertEquals(0, configWatchMgr.getWatchKeyCount());
+    }
+
+    /**
+     * hash 相同时挂起, 配置更新时唤醒, 结束后释放分组
+     */
+    @Test
+    public void notifyWaiters() throws Exception {
+
+        String hash = configWatchMgr.getHash("1000");
+
+        DeferredResult<ValueVo> first = watch("keyA", hash);
+        DeferredResult<ValueVo> second = watch("keyA", hash);
+        DeferredResult<ValueVo> other = watch("keyC", "");
+
+        Assert.assertFalse(first.hasResult());
+        Assert.assertFalse(second.hasResult());
+        Assert.assertFalse(other.hasResult());
+        Assert.assertEquals(3, configWatchMgr.getWaiterCount());
+        Assert.assertEquals(2, configWatchMgr.getWatchKeyCount());
+
+        MockHttpServletRequest firstRequest = start(first);
+        MockHttpServletRequest secondRequest = start(second);
+
+        values.put("keyA", "2000");
+        configWatchMgr.notifyChanged(newConfig("keyA", "2000"));
+
+        Assert.assertEquals(configWatchMgr.getHash("2000"), getResult(first).getValue());
+        Assert.assertEquals(configWatchMgr.getHash("2000"), getResult(second).getValue());
+        Assert.assertFalse(other.hasResult());
+
+        complete(firstRequest);
+        Assert.assertEquals(2, configWatchMgr.getWatchKeyCount());
+        complete(secondRequest);
+
+        // keyA 的请求都已结束, 只剩 keyC
+        Assert.assertEquals(1, configWatchMgr.getWaiterCount());
+        Assert.assertEquals(1, configWatchMgr.getWatchKeyCount());
+
+        // 没有 watch 的配置更新不会留下分组
+        configWatchMgr.notifyChanged(newConfig("keyD", "1"));
+        Assert.assertEquals(1, configWatchMgr.getWatchKeyCount());
+
+        // 超时后也释放
+        MockHttpServletRequest otherRequest = start(other);
+        timeout(otherRequest);
+        Assert.assertEquals("", getResult(other).getValue());
+        complete(otherRequest);
+
+        Assert.assertEquals(0, configWatchMgr.getWaiterCount());
+        Assert.assertEquals(0, configWatchMgr.getWatchKeyCount());
+    }
+
+    /**
+     * 释放后再次 watch 同一个配置, 仍然可以被唤醒
+     */
+    @Test
+    public void watchAgain() throws Exception {
+
+        for (int i = 0; i < 3; i++) {
+
+            String value = String.valueOf(i);
+            values.put("keyA", value);
+
+            DeferredResult<ValueVo> deferredResult = watch("keyA", configWatchMgr.getHash(value));
+            MockHttpServletRequest request = start(deferredResult);
+            Assert.assertEquals(1, configWatchMgr.getWatchKeyCount());
+
+            values.put("keyA", value + "0");
+            configWatchMgr.notifyChanged(newConfig("keyA", value + "0"));
+            Assert.assertEquals(configWatchMgr.getHash(value + "0"), getResult(deferredResult).getValue());
+
+            complete(request);
+            Assert.assertEquals(0, configWatchMgr.getWatchKeyCount());
+        }
+    }
+
+    /**
+     * 挂起数超过上限时立即返回错误
+     */
+    @Test
+    public void tooManyWaiters() throws Exception {
+
+        applicationPropertyConfig.setWatchMaxWaiters(1);
+        String hash = configWatchMgr.getHash("1000");
+
+        DeferredResult<ValueVo> first = watch("keyA", hash);
+        Assert.assertFalse(first.hasResult());
+
+        ValueVo rejected = getResult(watch("keyA", hash));
+        Assert.assertEquals(Constants.NOTOK, rejected.getStatus());
+        Assert.assertEquals(1, configWatchMgr.getWaiterCount());
+        Assert.assertEquals(1, configWatchMgr.getWatchKeyCount());
+
+        MockHttpServletRequest request = start(first);
+        first.setResult(getResult(watch("keyA", "old")));
+        complete(request);
+
+        Assert.assertEquals(0, configWatchMgr.getWaiterCount());
+        Assert.assertEquals(0, configWatchMgr.getWatchKeyCount());
+    }
+
+    private DeferredResult<ValueVo> watch(String key, String hash) {
+        return configWatchMgr.watch(APP_ID, ENV_ID, VERSION, key, DisConfigTypeEnum.ITEM, hash);
+    }
+
+    private static ValueVo getResult(DeferredResult<ValueVo> deferredResult) {
+
+        Assert.assertTrue(deferredResult.hasResult());
+        return (ValueVo) deferredResult.getResult();
+    }
+
+    /**
+     * 与 Controller 返回 DeferredResult 后一样, 开始异步处理
+     */
+    private static MockHttpServletRequest start(DeferredResult<ValueVo> deferredResult) throws Exception {
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+
+        WebAsyncManager webAsyncManager = WebAsyncUtils.getAsyncManager(request);
+        webAsyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request,
+                new MockHttpServletResponse()));
+        webAsyncManager.startDeferredResultProcessing(deferredResult);
+
+        return request;
+    }
+
+    /**
+     * 容器结束异步请求
+     */
+    private static void complete(MockHttpServletRequest request) {
+        request.getAsyncContext().complete();
+    }
+
+    /**
+     * 容器的超时通知
+     */
+    private static void timeout(MockHttpServletRequest request) throws Exception {
+
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+    }
+
+    private static Config newConfig(String key, String value) {
+
+        Config config = new Config();
+        config.setAppId(APP_ID);
+        config.setEnvId(ENV_ID);
+        config.setVersion(VERSION);
+        config.setName(key);
+        config.setValue(value);
+        config.setType(DisConfigTypeEnum.ITEM.getType());
+        return config;
+    }
+
+    /**
+     * 从 values 中读取配置
+     */
+    private class ConfigFetchMgrStub implements ConfigFetchMgr {
+
+        @Override
+        public ValueVo getConfItemByParameter(Long appId, Long envId, String version, String key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ValueVo getConfItemByParameter(Long appId, Long envId, String version, String key, String stamp) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Config getConfByParameter(Long appId, Long envId, String version, String key,
+                                         DisConfigTypeEnum disConfigTypeEnum, String stamp) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Config getConfByParameter(Long appId, Long envId, String version, String key,
+                                         DisConfigTypeEnum disConfigTypeEnum) {
+
+            String value = values.get(key);
+            if (value == null) {
+                return null;
+            }
+
+            Config config = newConfig(key, value);
+            config.setValueEncoding(com.baidu.disconf.web.common.Constants.VALUE_ENCODING_UTF8);
+            return config;
+        }
+
+        @Override
+        public List<Config> getConfListByParameter(Long appId, Long envId, String env, Boolean hasValue) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
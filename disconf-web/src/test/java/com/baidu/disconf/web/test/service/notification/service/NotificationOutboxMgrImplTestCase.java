@@ -0,0 +1,170 @@
+package com.baidu.disconf.web.test.service.notification.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.baidu.disconf.web.config.ApplicationPropertyConfig;
+import com.baidu.disconf.web.service.app.service.AppMgr;
+import com.baidu.disconf.web.service.config.bo.Config;
+import com.baidu.disconf.web.service.config.dao.ConfigDao;
+import com.baidu.disconf.web.service.notification.bo.NotificationOutbox;
+import com.baidu.disconf.web.service.notification.dao.NotificationOutboxDao;
+import com.baidu.disconf.web.service.notification.service.impl.NotificationOutboxMgrImpl;
+import com.baidu.disconf.web.test.common.BaseTestCase;
+import com.baidu.dsp.common.constant.DataFormatConstants;
+import com.baidu.dsp.common.utils.email.LogMailBean;
+import com.github.knightliao.apollo.utils.time.DateUtils;
+
+/**
+ * 通知的抢占, 合并发送与失败重试
+ */
+public class NotificationOutboxMgrImplTestCase extends BaseTestCase {
+
+    private static final String FUTURE = "99991231235959";
+
+    @Autowired
+    private NotificationOutboxDao notificationOutboxDao;
+
+    @Autowired
+    private ConfigDao configDao;
+
+    @Autowired
+    private AppMgr appMgr;
+
+    private LogMailBeanStub logMailBean;
+
+    private NotificationOutboxMgrImpl notificationOutboxMgr;
+
+    @Before
+    public void setUp() {
+
+        logMailBean = new LogMailBeanStub();
+
+        ApplicationPropertyConfig applicationPropertyConfig = new ApplicationPropertyConfig();
+        applicationPropertyConfig.setNotifyMaxRetries(2);
+
+        notificationOutboxMgr = new NotificationOutboxMgrImpl();
+        ReflectionTestUtils.setField(notificationOutboxMgr, "notificationOutboxDao", notificationOutboxDao);
+        ReflectionTestUtils.setField(notificationOutboxMgr, "appMgr", appMgr);
+        ReflectionTestUtils.setField(notificationOutboxMgr, "logMailBean", logMailBean);
+        ReflectionTestUtils.setField(notificationOutboxMgr, "applicationPropertyConfig", applicationPropertyConfig);
+    }
+
+    @Test
+    public void claim() {
+
+        notificationOutboxMgr.addMessage(1L, "title", "content");
+        Long id = getDueList().get(0).getId();
+
+        // 只有一台机器能抢到
+        Assert.assertTrue(notificationOutboxDao.claim(id));
+        Assert.assertFalse(notificationOutboxDao.claim(id));
+        Assert.assertTrue(getDueList().isEmpty());
+
+        // 还没有超时的不重置
+        Assert.assertEquals(0, notificationOutboxDao.resetSending("20000101000000"));
+        Assert.assertEquals(NotificationOutbox.STATUS_SENDING, notificationOutboxDao.get(id).getStatus());
+
+        // 发送的机器退出后重置为待发送, 可以再次抢占
+        Assert.assertEquals(1, notificationOutboxDao.resetSending(FUTURE));
+        Assert.assertEquals(NotificationOutbox.STATUS_PENDING, notificationOutboxDao.get(id).getStatus());
+        Assert.assertTrue(notificationOutboxDao.claim(id));
+    }
+
+    @Test
+    public void dispatchDigest() {
+
+        Config config = configDao.get(2L);
+        notificationOutboxMgr.addConfigChange(config, "config update", "8888", "9999");
+        notificationOutboxMgr.addMessage(1L, "new config", "content");
+
+        Assert.assertEquals(2, notificationOutboxMgr.dispatch());
+
+        // 同一个APP合并为一封邮件
+        Assert.assertEquals(1, logMailBean.titles.size());
+        Assert.assertEquals("config update,new config (2)", logMailBean.titles.get(0));
+
+        for (NotificationOutbox notificationOutbox : getAll()) {
+            Assert.assertEquals(NotificationOutbox.STATUS_SENT, notificationOutbox.getStatus());
+        }
+
+        Assert.assertEquals(0, notificationOutboxMgr.dispatch());
+        Assert.assertEquals(1, logMailBean.titles.size());
+    }
+
+    @Test
+    public void dispatchRetry() {
+
+        notificationOutboxMgr.addMessage(1L, "title", "content");
+        Long id = getDueList().get(0).getId();
+
+        logMailBean.result = false;
+        String now = getCurTime();
+        Assert.assertEquals(0, notificationOutboxMgr.dispatch());
+
+        // 第一次失败后1分钟再发送
+        NotificationOutbox notificationOutbox = notificationOutboxDao.get(id);
+        Assert.assertEquals(NotificationOutbox.STATUS_PENDING, notificationOutbox.getStatus());
+        Assert.assertEquals(Integer.valueOf(1), notificationOutbox.getRetryCount());
+        Assert.assertTrue(notificationOutbox.getNextRetryTime().compareTo(now) > 0);
+
+        // 还没到时间不发送
+        Assert.assertEquals(0, notificationOutboxMgr.dispatch());
+        Assert.assertEquals(1, logMailBean.titles.size());
+
+        // 超过次数后放弃
+        jdbcTemplate.update("UPDATE notification_outbox SET next_retry_time = ? WHERE id = ?", now, id);
+        Assert.assertEquals(0, notificationOutboxMgr.dispatch());
+        Assert.assertEquals(2, logMailBean.titles.size());
+        Assert.assertEquals(NotificationOutbox.STATUS_FAILED, notificationOutboxDao.get(id).getStatus());
+    }
+
+    @Test
+    public void dispatchNoEmails() {
+
+        jdbcTemplate.update("INSERT INTO `app` VALUES (2, 'noemail', '', '99991231235959', '99991231235959', '')");
+
+        notificationOutboxMgr.addMessage(2L, "title", "content");
+        Long id = getDueList().get(0).getId();
+
+        // 没有收件人不重试
+        Assert.assertEquals(0, notificationOutboxMgr.dispatch());
+        Assert.assertTrue(logMailBean.titles.isEmpty());
+        Assert.assertEquals(NotificationOutbox.STATUS_FAILED, notificationOutboxDao.get(id).getStatus());
+    }
+
+    private List<NotificationOutbox> getDueList() {
+        return notificationOutboxDao.getDueList(FUTURE, 100);
+    }
+
+    private List<NotificationOutbox> getAll() {
+        return notificationOutboxDao.findAll();
+    }
+
+    private static String getCurTime() {
+        return DateUtils.format(new Date(), DataFormatConstants.COMMON_TIME_FORMAT);
+    }
+
+    /**
+     * 记录发送的邮件, 不连接邮件服务器
+     */
+    private static class LogMailBeanStub extends LogMailBean {
+
+        private final List<String> titles = new ArrayList<String>();
+
+        private boolean result = true;
+
+        @Override
+        public boolean sendHtmlEmail(String toEmail, String operator, String title, String content) {
+            titles.add(title);
+            return result;
+        }
+    }
+}
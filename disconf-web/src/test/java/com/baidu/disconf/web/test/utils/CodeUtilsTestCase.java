@@ -49,6 +49,18 @@ public class CodeUtilsTestCase {
         Assert.assertEquals(src, dest);
     }
 
+    @Test
+    public void unescapeUnicodeTest() {
+
+        // 只还原 \\uXXXX, 用户写的其它转义保持原样
+        Assert.assertEquals("a=\u4e2d\\n\\t\\u12", CodeUtils.unescapeUnicode("a=\\u4e2d\\n\\t\\u12"));
+        Assert.assertEquals("abc", CodeUtils.unescapeUnicode("abc"));
+
+        // 小于 0x1000 的字符也能还原
+        String src = "caf\u00e9 \u4e2d\u6587";
+        Assert.assertEquals(src, CodeUtils.unescapeUnicode(CodeUtils.utf8ToUnicode(src)));
+    }
+
     private String testTransfer(String src) {
 
         String code =
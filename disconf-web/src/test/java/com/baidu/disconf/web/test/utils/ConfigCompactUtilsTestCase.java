@@ -0,0 +1,72 @@
+package com.baidu.disconf.web.test.utils;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.disconf.core.common.compact.CompactCodec;
+import com.baidu.disconf.core.common.json.ConfListVo;
+import com.baidu.disconf.core.common.json.ConfVo;
+import com.baidu.disconf.web.service.config.bo.Config;
+import com.baidu.disconf.web.service.config.utils.ConfigCompactUtils;
+
+/**
+ * ConfigCompactUtilsTestCase
+ */
+public class ConfigCompactUtilsTestCase {
+
+    /**
+     * 服务端写出的列表由客户端的解析器还原
+     */
+    @Test
+    public void roundTrip() throws Exception {
+
+        Config item = new Config();
+        item.setId(11L);
+        item.setType(1);
+        item.setStatus(1);
+        item.setName("keyA");
+        item.setValue("值=1000");
+        item.setAppId(2L);
+        item.setVersion("1_0_0_0");
+        item.setEnvId(3L);
+        item.setCreateTime("20261019120000");
+        item.setUpdateTime("20261019130000");
+
+        // 不返回 value 的列表
+        Config file = new Config();
+        file.setId(12L);
+        file.setType(0);
+        file.setName("confA.properties");
+
+        byte[] bytes = ConfigCompactUtils.toBytes(Arrays.asList(item, file));
+        ConfListVo confListVo = CompactCodec.read(ConfListVo.class, new ByteArrayInputStream(bytes));
+
+        Assert.assertTrue(confListVo.isOk());
+        Assert.assertEquals(Integer.valueOf(2), confListVo.getPage().getTotalCount());
+
+        List<ConfVo> confVos = confListVo.getResult();
+        Assert.assertEquals(2, confVos.size());
+
+        ConfVo confVo = confVos.get(0);
+        Assert.assertEquals(Long.valueOf(11L), confVo.getId());
+        Assert.assertEquals(Integer.valueOf(1), confVo.getType());
+        Assert.assertEquals(Integer.valueOf(1), confVo.getStatus());
+        Assert.assertEquals("keyA", confVo.getName());
+        Assert.assertEquals("值=1000", confVo.getValue());
+        Assert.assertEquals(Long.valueOf(2L), confVo.getAppId());
+        Assert.assertEquals("1_0_0_0", confVo.getVersion());
+        Assert.assertEquals(Long.valueOf(3L), confVo.getEnvId());
+        Assert.assertEquals("20261019120000", confVo.getCreateTime());
+        Assert.assertEquals("20261019130000", confVo.getUpdateTime());
+
+        confVo = confVos.get(1);
+        Assert.assertEquals("confA.properties", confVo.getName());
+        Assert.assertNull(confVo.getValue());
+        Assert.assertNull(confVo.getStatus());
+        Assert.assertNull(confVo.getAppId());
+    }
+}
@@ -0,0 +1,82 @@
+package com.baidu.disconf.web.test.utils;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.disconf.web.service.config.utils.ConfigHistoryUtils;
+
+/**
+ * ConfigHistoryUtilsTestCase
+ */
+public class ConfigHistoryUtilsTestCase {
+
+    @Test
+    public void splitLines() {
+
+        Assert.assertEquals(Arrays.asList("a\r\n", "b\n", "\r", "c"), ConfigHistoryUtils.splitLines("a\r\nb\n\rc"));
+        Assert.assertTrue(ConfigHistoryUtils.splitLines("").isEmpty());
+    }
+
+    @Test
+    public void delta() {
+
+        String newValue = "a=1\r\nb=3\nc=3\n";
+        String oldValue = "a=1\nb=2:x\nc=3";
+
+        String delta = ConfigHistoryUtils.makeDelta(newValue, oldValue);
+        Assert.assertEquals(oldValue, ConfigHistoryUtils.applyDelta(newValue, delta));
+
+        Assert.assertEquals("", ConfigHistoryUtils.makeDelta(newValue, newValue));
+        Assert.assertEquals("", ConfigHistoryUtils.applyDelta(newValue, ConfigHistoryUtils.makeDelta(newValue, "")));
+        Assert.assertEquals(newValue, ConfigHistoryUtils.applyDelta("", ConfigHistoryUtils.makeDelta("", newValue)));
+    }
+
+    /**
+     * 随机修改的多个版本, 从最新版本依次应用反向差异可以还原每个版本
+     */
+    @Test
+    public void reverseChain() {
+
+        Random random = new Random(11);
+
+        String[] versions = new String[50];
+        versions[0] = "";
+        for (int i = 1; i < versions.length; i++) {
+
+            StringBuilder sb = new StringBuilder(versions[i - 1]);
+            for (int j = 0; j < 3; j++) {
+                int pos = sb.length() == 0 ? 0 : random.nextInt(sb.length());
+                if (random.nextBoolean() && sb.length() > 0) {
+                    sb.deleteCharAt(pos);
+                } else {
+                    sb.insert(pos, random.nextInt(3) == 0 ? "\n" : "k" + random.nextInt(10) + "=中\r\n");
+                }
+            }
+            versions[i] = sb.toString();
+        }
+
+        String[] deltas = new String[versions.length];
+        for (int i = 1; i < versions.length; i++) {
+            deltas[i] = ConfigHistoryUtils.compress(ConfigHistoryUtils.makeDelta(versions[i], versions[i - 1]));
+        }
+
+        String value = versions[versions.length - 1];
+        for (int i = versions.length - 1; i > 0; i--) {
+            value = ConfigHistoryUtils.applyDelta(value, ConfigHistoryUtils.decompress(deltas[i]));
+            Assert.assertEquals(versions[i - 1], value);
+        }
+    }
+
+    @Test
+    public void compress() {
+
+        String value = "key=中文\n";
+        String compressed = ConfigHistoryUtils.compress(value);
+
+        Assert.assertTrue(compressed.matches("[A-Za-z0-9+/=]+"));
+        Assert.assertEquals(value, ConfigHistoryUtils.decompress(compressed));
+    }
+}
@@ -0,0 +1,133 @@
+package com.baidu.disconf.web.test.utils;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.disconf.web.common.comparator.DiffFormatter;
+import com.baidu.disconf.web.common.comparator.LineDiff;
+import com.baidu.disconf.web.common.comparator.LineDiff.Edit;
+
+/**
+ * LineDiffTestCase
+ */
+public class LineDiffTestCase {
+
+    @Test
+    public void unified() throws IOException {
+
+        String original = "a=1\r\nb=2\nc=3\nd=4\ne=5";
+        String revised = "a=1\nb=3\nc=3\nd=4\ne=5\nf=6";
+
+        StringWriter out = new StringWriter();
+        DiffFormatter diffFormatter = new DiffFormatter(out, false);
+        diffFormatter.setContext(1);
+        diffFormatter.format(new LineDiff(original, revised));
+
+        Assert.assertEquals("@@ -1,3 +1,3 @@\n a=1\n-b=2\n+b=3\n c=3\n@@ -5,1 +5,2 @@\n e=5\n+f=6\n", out.toString());
+    }
+
+    @Test
+    public void same() {
+
+        Assert.assertTrue(new LineDiff("a\nb", "a\nb\n").getEdits().isEmpty());
+        Assert.assertTrue(new LineDiff(null, "").getEdits().isEmpty());
+    }
+
+    @Test
+    public void truncated() throws IOException {
+
+        StringBuilder revised = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            revised.append("line").append(i).append('\n');
+        }
+
+        StringWriter out = new StringWriter();
+        DiffFormatter diffFormatter = new DiffFormatter(out, false);
+        diffFormatter.setMaxChars(100);
+        diffFormatter.format(new LineDiff("", revised.toString()));
+
+        Assert.assertTrue(diffFormatter.isTruncated());
+        Assert.assertTrue(out.toString().length() < 200);
+    }
+
+    /**
+     * 随机数据, 结果与动态规划求出的最小编辑距离一致, 并且能还原出新文本
+     */
+    @Test
+    public void random() {
+
+        Random random = new Random(7);
+        for (int round = 0; round < 500; round++) {
+
+            List<String> a = randomLines(random);
+            List<String> b = randomLines(random);
+
+            LineDiff lineDiff = new LineDiff(join(a), join(b));
+
+            List<String> patched = new ArrayList<String>();
+            int cost = 0;
+            int i = 0;
+            for (Edit edit : lineDiff.getEdits()) {
+                patched.addAll(a.subList(i, edit.getBeginA()));
+                patched.addAll(b.subList(edit.getBeginB(), edit.getEndB()));
+                cost += edit.getEndA() - edit.getBeginA() + edit.getEndB() - edit.getBeginB();
+                i = edit.getEndA();
+            }
+            patched.addAll(a.subList(i, a.size()));
+
+            Assert.assertEquals(b, patched);
+            Assert.assertEquals(editDistance(a, b), cost);
+        }
+    }
+
+    /**
+     * 超过最大编辑距离时仍然给出正确(但不是最小)的结果
+     */
+    @Test
+    public void maxEditCost() {
+
+        LineDiff lineDiff = new LineDiff("a\nb\nc\nd\ne\nf", "x\nb\ny\nd\nz\nf", 1);
+
+        int changedA = 0;
+        for (Edit edit : lineDiff.getEdits()) {
+            changedA += edit.getEndA() - edit.getBeginA();
+        }
+        Assert.assertTrue(changedA >= 3);
+    }
+
+    private static List<String> randomLines(Random random) {
+
+        int size = random.nextInt(12);
+        List<String> lines = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) {
+            lines.add(String.valueOf((char) ('a' + random.nextInt(4))));
+        }
+        return lines;
+    }
+
+    private static String join(List<String> lines) {
+
+        StringBuilder sb = new StringBuilder();
+        for (String line : lines) {
+            sb.append(line).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static int editDistance(List<String> a, List<String> b) {
+
+        int[][] lcs = new int[a.size() + 1][b.size() + 1];
+        for (int i = a.size() - 1; i >= 0; i--) {
+            for (int j = b.size() - 1; j >= 0; j--) {
+                lcs[i][j] = a.get(i).equals(b.get(j)) ? lcs[i + 1][j + 1] + 1 : Math.max(lcs[i + 1][j], lcs[i][j + 1]);
+            }
+        }
+        return a.size() + b.size() - 2 * lcs[0][0];
+    }
+}
@@ -0,0 +1,91 @@
+package com.baidu.disconf.web.test.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.disconf.web.web.auth.login.SessionNearCache;
+
+/**
+ * SessionNearCacheTestCase
+ */
+public class SessionNearCacheTestCase {
+
+    private final Map<String, String> redis = new HashMap<String, String>();
+
+    private int loadCount = 0;
+
+    private final SessionNearCache.Loader<String> loader = new SessionNearCache.Loader<String>() {
+
+        @Override
+        public String load(String key) {
+            loadCount++;
+            return redis.get(key);
+        }
+    };
+
+    @Test
+    public void get() {
+
+        SessionNearCache<String> cache = new SessionNearCache<String>(loader, 10, 60000, 10000);
+
+        // 不存在的不缓存
+        Assert.assertNull(cache.get("a"));
+        redis.put("a", "visitor");
+        Assert.assertEquals("visitor", cache.get("a"));
+        Assert.assertEquals(2, loadCount);
+
+        // 之后读本地
+        redis.remove("a");
+        Assert.assertEquals("visitor", cache.get("a"));
+        Assert.assertEquals(2, loadCount);
+
+        cache.invalidate("a");
+        Assert.assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void refresh() {
+
+        SessionNearCache<String> cache = new SessionNearCache<String>(loader, 10, 60000, 0);
+
+        redis.put("a", "1");
+        redis.put("b", "1");
+        cache.get("a");
+        cache.get("b");
+
+        // 访问过的才刷新
+        cache.get("a");
+        redis.put("a", "2");
+        redis.put("b", "2");
+        cache.refresh();
+
+        Assert.assertEquals("2", cache.get("a"));
+        Assert.assertEquals("1", cache.get("b"));
+
+        // Redis 上已经没有的删除
+        redis.remove("a");
+        cache.refresh();
+
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void maxSize() {
+
+        SessionNearCache<String> cache = new SessionNearCache<String>(loader, 2, 60000, 10000);
+
+        cache.put("a", "1");
+        cache.put("b", "1");
+        cache.get("a");
+        cache.put("c", "1");
+
+        Assert.assertEquals(2, cache.size());
+
+        // b 最久没有使用
+        redis.put("b", "2");
+        Assert.assertEquals("2", cache.get("b"));
+    }
+}
@@ -9,6 +9,6 @@ INSERT INTO `app` VALUES (1, 'disconf_demo', 'disconf_demo', '20140415155127', '
 'knightliao@gmail.com');
 
 
-INSERT INTO `config` VALUES (2, 1, 1, 'keyA', '8888', 1, '1_0_0_0', 1, '99991231235959', '99991231235959');
-INSERT INTO `config` VALUES (1, 0, 1, 'confA.properties', 'varA=200000\\r\\nvarA2=300000', 1, '1_0_0_0', 1,
+INSERT INTO `config` VALUES (2, 1, 1, 'keyA', '8888', 0, 1, '1_0_0_0', 1, '99991231235959', '99991231235959');
+INSERT INTO `config` VALUES (1, 0, 1, 'confA.properties', 'varA=200000\\r\\nvarA2=300000', 0, 1, '1_0_0_0', 1,
 '20140415155127', '20140415155127');
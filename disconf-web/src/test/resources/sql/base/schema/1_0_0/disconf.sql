@@ -18,6 +18,7 @@ CREATE TABLE `config` (
   `status` tinyint(4) NOT NULL DEFAULT '1' COMMENT '状态：1是正常 0是删除',
   `name` varchar(255) NOT NULL DEFAULT '' COMMENT '配置文件名/配置项KeY名',
   `value` text NOT NULL COMMENT '0 配置文件：文件的内容，1 配置项：配置值',
+  `value_encoding` tinyint(4) NOT NULL DEFAULT '0' COMMENT 'value的编码：0是非ASCII字符转为\\uXXXX 1是直接保存',
   `app_id` bigint(20) NOT NULL COMMENT 'appid',
   `version` varchar(255) NOT NULL DEFAULT 'DEFAULT_VERSION' COMMENT '版本',
   `env_id` bigint(20) NOT NULL COMMENT 'envid',
@@ -27,6 +28,38 @@ CREATE TABLE `config` (
 );
 
 
+DROP TABLE  IF EXISTS "config_history";
+CREATE TABLE `config_history` (
+  `id` BIGINT NOT NULL AUTO_INCREMENT,
+  `config_id` BIGINT NOT NULL,
+  `revision` INT NULL DEFAULT NULL COMMENT '版本号, 每个配置从1开始, 旧数据为空',
+  `old_value` LONGTEXT NOT NULL,
+  `new_value` LONGTEXT NOT NULL,
+  `storage` TINYINT(4) NOT NULL DEFAULT '0' COMMENT 'data的保存方式：0是旧数据(old_value/new_value为完整值) 1是完整值 2是从下一个版本还原的差异',
+  `data` LONGTEXT NULL COMMENT 'gzip并base64后的完整值或差异',
+  `create_time` VARCHAR(14) NOT NULL DEFAULT '99991231235959',
+  `update_by` BIGINT(20) NULL DEFAULT NULL,
+  PRIMARY KEY (`id`)
+);
+
+DROP TABLE  IF EXISTS "notification_outbox";
+CREATE TABLE `notification_outbox` (
+  `id` BIGINT NOT NULL AUTO_INCREMENT,
+  `app_id` BIGINT NOT NULL COMMENT 'appid',
+  `config_id` BIGINT NULL DEFAULT NULL COMMENT '配置变更通知时为配置ID, 其它通知为空',
+  `title` VARCHAR(255) NOT NULL DEFAULT '' COMMENT '邮件标题',
+  `old_value` LONGTEXT NULL COMMENT '配置变更前的值',
+  `new_value` LONGTEXT NULL COMMENT '配置变更后的值',
+  `content` LONGTEXT NULL COMMENT '配置变更通知时为配置描述, 其它通知为邮件内容',
+  `operator` VARCHAR(255) NOT NULL DEFAULT '' COMMENT '操作人',
+  `status` TINYINT(4) NOT NULL DEFAULT '0' COMMENT '状态：0待发送 1已发送 2放弃发送 3发送中',
+  `retry_count` INT NOT NULL DEFAULT '0' COMMENT '已失败次数',
+  `next_retry_time` VARCHAR(14) NOT NULL DEFAULT '99991231235959' COMMENT '下次发送时间',
+  `create_time` VARCHAR(14) NOT NULL DEFAULT '99991231235959' COMMENT '生成时间',
+  `update_time` VARCHAR(14) NOT NULL DEFAULT '99991231235959' COMMENT '修改时间',
+  PRIMARY KEY (`id`)
+);
+
 DROP TABLE  IF EXISTS "env";
 CREATE TABLE `env` (
     `env_id` BIGINT(20) NOT NULL AUTO_INCREMENT COMMENT '环境ID（主键，自增长）',